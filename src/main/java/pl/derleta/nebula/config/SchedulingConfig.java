@@ -0,0 +1,13 @@
+package pl.derleta.nebula.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class enabling the execution of {@code @Scheduled} background jobs,
+ * such as the processing of the user provisioning outbox.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
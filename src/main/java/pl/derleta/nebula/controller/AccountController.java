@@ -10,13 +10,17 @@ import pl.derleta.nebula.controller.request.AuthEmailRequest;
 import pl.derleta.nebula.controller.request.PasswordUpdateRequest;
 import pl.derleta.nebula.controller.request.UserConfirmationRequest;
 import pl.derleta.nebula.controller.response.AccountResponse;
+import pl.derleta.nebula.controller.response.AvailabilityResponse;
 import pl.derleta.nebula.controller.response.JwtTokenResponse;
 import pl.derleta.nebula.controller.response.Response;
 import pl.derleta.nebula.domain.types.AccountResponseType;
 import pl.derleta.nebula.exceptions.HttpRequestException;
 import pl.derleta.nebula.exceptions.TokenExpiredException;
+import pl.derleta.nebula.service.AccountAvailabilityProvider;
 import pl.derleta.nebula.service.AccountUpdater;
+import pl.derleta.nebula.service.IdempotencyStore;
 import pl.derleta.nebula.service.TokenProvider;
+import pl.derleta.nebula.util.IdempotencyUtil;
 
 import java.util.Map;
 
@@ -28,6 +32,10 @@ import java.util.Map;
  * and enforces cross-origin resource sharing (CORS) settings for specified origins.
  * <p>
  * All endpoints return appropriate HTTP responses for successful operations or failure cases.
+ * <p>
+ * The POST endpoints accept an optional {@code Idempotency-Key} header. A retried request with the same key
+ * gets the original response without repeating the calls to the authorization server, a concurrent duplicate
+ * waits for the original request, and reusing a key for different request data results in 422 Unprocessable Entity.
  */
 @RestController
 @CrossOrigin(origins = {"https://milkyway.local:8555", "https://localhost:3000"}, maxAge = 3600)
@@ -39,22 +47,50 @@ public final class AccountController {
 
     private final AccountUpdater updater;
     private final TokenProvider tokenProvider;
+    private final IdempotencyStore idempotencyStore;
+    private final AccountAvailabilityProvider availabilityProvider;
 
     /**
      * Handles user registration by processing the request and returning the appropriate response.
      *
-     * @param request the account registration request containing user details such as login, email, password, etc.
+     * @param request        the account registration request containing user details such as login, email, password, etc.
+     * @param idempotencyKey the optional idempotency key of the request
      * @return a {@code ResponseEntity} containing an {@code AccountResponse} if registration is successful,
      * or a {@code ResponseEntity} containing an error {@code Response} in case of a server error.
      */
     @PostMapping(value = DEFAULT_PATH + "/register", produces = MediaTypes.HAL_JSON_VALUE)
-    public ResponseEntity<Response> register(@RequestBody AccountRegistrationRequest request) {
-        var response = updater.register(request);
-        if (response instanceof AccountResponse instance && instance.isSuccess()) {
-            return ResponseEntity.ok(instance);
-        } else {
-            return ResponseEntity.internalServerError().body(response);
-        }
+    public ResponseEntity<Response> register(@RequestBody AccountRegistrationRequest request,
+                                             @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        String fingerprint = IdempotencyUtil.fingerprint(request.getLogin(), request.getEmail(), request.getPassword(),
+                request.getBirthdate(), request.getNationality(), request.getGender());
+        return idempotencyStore.execute(idempotencyKey, DEFAULT_PATH + "/register", fingerprint, () -> {
+            var response = updater.register(request);
+            if (response instanceof AccountResponse instance && instance.isSuccess()) {
+                return ResponseEntity.ok(instance);
+            } else {
+                return ResponseEntity.internalServerError().body(response);
+            }
+        });
+    }
+
+    /**
+     * Checks whether the login and/or the email can still be used for a new account, so the signup form
+     * can report a taken value before the registration is sent. At least one of the parameters is required.
+     *
+     * @param login the optional login to check
+     * @param email the optional email to check
+     * @return a {@code ResponseEntity} containing an {@code AvailabilityResponse} with the availability
+     * of the given values, or HTTP status 400 (Bad Request) if neither value is given.
+     */
+    @GetMapping(value = DEFAULT_PATH + "/availability", produces = MediaTypes.HAL_JSON_VALUE)
+    public ResponseEntity<AvailabilityResponse> availability(@RequestParam(required = false) String login,
+                                                             @RequestParam(required = false) String email) {
+        boolean hasLogin = login != null && !login.isBlank();
+        boolean hasEmail = email != null && !email.isBlank();
+        if (!hasLogin && !hasEmail) return ResponseEntity.badRequest().build();
+        return ResponseEntity.ok(new AvailabilityResponse(
+                hasLogin ? login : null, hasLogin ? availabilityProvider.isLoginAvailable(login) : null,
+                hasEmail ? email : null, hasEmail ? availabilityProvider.isEmailAvailable(email) : null));
     }
 
     /**
@@ -123,20 +159,25 @@ public final class AccountController {
      * Generates a JWT token based on the provided authentication credentials.
      * This method is used to authenticate a user and return a token that can be used for subsequent requests.
      *
-     * @param authRequest The authentication request containing the user's credentials.
+     * @param authRequest    The authentication request containing the user's credentials.
+     * @param idempotencyKey The optional idempotency key of the request.
      * @return A ResponseEntity containing the JWT tokens response if authentication is successful,
      * or an internal server error status if the token could not be generated.
      */
     @PostMapping(value = "/" + DEFAULT_PATH + "/token", produces = MediaTypes.HAL_JSON_VALUE)
-    public ResponseEntity<JwtTokenResponse> getToken(@RequestBody AuthEmailRequest authRequest) {
-        var response = updater.generateToken(authRequest);
-        if (response instanceof JwtTokenResponse instance) {
-            Map<String, String> cookies = instance.getCookiesHeaders();
-            return ResponseEntity.ok()
-                    .header("Set-Cookie", cookies.get("accessToken"))
-                    .header("Set-Cookie", cookies.get("refreshToken"))
-                    .body(instance);
-        } else return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+    public ResponseEntity<JwtTokenResponse> getToken(@RequestBody AuthEmailRequest authRequest,
+                                                     @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        String fingerprint = IdempotencyUtil.fingerprint(authRequest.getEmail(), authRequest.getPassword());
+        return idempotencyStore.execute(idempotencyKey, DEFAULT_PATH + "/token", fingerprint, () -> {
+            var response = updater.generateToken(authRequest);
+            if (response instanceof JwtTokenResponse instance) {
+                Map<String, String> cookies = instance.getCookiesHeaders();
+                return ResponseEntity.ok()
+                        .header("Set-Cookie", cookies.get("accessToken"))
+                        .header("Set-Cookie", cookies.get("refreshToken"))
+                        .body(instance);
+            } else return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        });
     }
 
     /**
@@ -146,6 +187,7 @@ public final class AccountController {
      * @param accessToken           the JWT token extracted from the "accessToken" cookie. Used to authenticate the request.
      * @param passwordUpdateRequest the request body containing the password update details,
      *                              including the userId and the new password.
+     * @param idempotencyKey        the optional idempotency key of the request.
      * @return a ResponseEntity containing an AccountResponse object. If the operation is successful,
      * it returns a response with HTTP status 200 and success information. If the token is
      * invalid, it returns HTTP status 403. If there is an internal server error, it returns
@@ -153,12 +195,18 @@ public final class AccountController {
      */
     @PostMapping(value = "/" + DEFAULT_PATH + "/change-password", produces = MediaTypes.HAL_JSON_VALUE)
     public ResponseEntity<AccountResponse> changePassword(@CookieValue("accessToken") String accessToken,
-                                                          @RequestBody PasswordUpdateRequest passwordUpdateRequest) {
+                                                          @RequestBody PasswordUpdateRequest passwordUpdateRequest,
+                                                          @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         if (tokenProvider.isValid(accessToken, passwordUpdateRequest.getUserId())) {
-            var response = updater.updatePassword(accessToken, passwordUpdateRequest);
-            if (response instanceof AccountResponse instance && instance.isSuccess()) {
-                return ResponseEntity.ok(response);
-            } else return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            String fingerprint = IdempotencyUtil.fingerprint(passwordUpdateRequest.getEmail(),
+                    passwordUpdateRequest.getActualPassword(), passwordUpdateRequest.getNewPassword());
+            String scope = DEFAULT_PATH + "/change-password/" + passwordUpdateRequest.getUserId();
+            return idempotencyStore.execute(idempotencyKey, scope, fingerprint, () -> {
+                var response = updater.updatePassword(accessToken, passwordUpdateRequest);
+                if (response instanceof AccountResponse instance && instance.isSuccess()) {
+                    return ResponseEntity.ok(response);
+                } else return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            });
         }
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
     }
@@ -0,0 +1,101 @@
+package pl.derleta.nebula.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import pl.derleta.nebula.controller.mapper.GameApiMapper;
+import pl.derleta.nebula.controller.mapper.GenderApiMapper;
+import pl.derleta.nebula.controller.mapper.NationalityApiMapper;
+import pl.derleta.nebula.controller.mapper.NebulaUserApiMapper;
+import pl.derleta.nebula.controller.mapper.ThemeApiMapper;
+import pl.derleta.nebula.controller.response.BootstrapResponse;
+import pl.derleta.nebula.controller.response.BootstrapSectionResponse;
+import pl.derleta.nebula.domain.model.Bootstrap;
+import pl.derleta.nebula.service.BootstrapProvider;
+import pl.derleta.nebula.service.ReferenceDataCatalogue;
+import pl.derleta.nebula.service.TokenProvider;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * BootstrapController is a REST controller providing the data a client needs for its first render in one response:
+ * the user with its settings, the enabled games, the themes, the genders and the nationalities, which otherwise
+ * take five requests.
+ * <p>
+ * Every section carries its version. The client sends the versions it already has in the {@code versions} parameter,
+ * for example {@code versions=genders:1f2e,themes:9a0b}, and the sections with a matching version are returned
+ * with the version only.
+ * <p>
+ * Endpoints:
+ * - GET /api/v1/bootstrap: Retrieves the bootstrap data of the user of the JWT token.
+ */
+@RestController
+@CrossOrigin(origins = {"https://milkyway.local:8555", "https://localhost:3000"}, maxAge = 3600)
+@RequiredArgsConstructor
+@RequestMapping("/api/v1")
+public final class BootstrapController {
+
+    public static final String DEFAULT_PATH = "bootstrap";
+
+    private final BootstrapProvider provider;
+    private final TokenProvider tokenProvider;
+
+    /**
+     * Retrieves the bootstrap data of the user corresponding to the provided JWT token.
+     * Only the user is read from the database, and only if it is not cached; the reference data is served
+     * from memory. The response is private to the user and revalidated on every use.
+     *
+     * @param accessToken the JWT token used for authentication, passed as a cookie value
+     * @param versions    the optional comma separated list of {@code section:version} pairs known to the client
+     * @return a ResponseEntity containing the sections if the token is valid, a not found status if the user
+     * does not exist, or a forbidden status if the token is invalid
+     */
+    @GetMapping(value = "/" + DEFAULT_PATH, produces = MediaTypes.HAL_JSON_VALUE)
+    public ResponseEntity<BootstrapResponse> get(@CookieValue("accessToken") String accessToken,
+                                                 @RequestParam(required = false) String versions) {
+        if (!tokenProvider.isValid(accessToken)) return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        Bootstrap bootstrap = provider.get(tokenProvider.getUserId(accessToken));
+        if (bootstrap == null) return ResponseEntity.notFound().build();
+        Map<String, String> known = parseVersions(versions);
+        Map<String, String> current = bootstrap.versions();
+        var response = new BootstrapResponse(
+                section(BootstrapProvider.USER, current, known,
+                        () -> NebulaUserApiMapper.toResponse(bootstrap.user())),
+                section(ReferenceDataCatalogue.ENABLED_GAMES, current, known,
+                        () -> GameApiMapper.toResponseList(bootstrap.enabledGames())),
+                section(ReferenceDataCatalogue.THEMES, current, known,
+                        () -> bootstrap.themes().stream().map(ThemeApiMapper::toResponse).toList()),
+                section(ReferenceDataCatalogue.GENDERS, current, known,
+                        () -> bootstrap.genders().stream().map(GenderApiMapper::toResponse).toList()),
+                section(ReferenceDataCatalogue.NATIONALITIES, current, known,
+                        () -> bootstrap.nationalities().stream().map(NationalityApiMapper::toResponse).toList())
+        );
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+        return new ResponseEntity<>(response, headers, HttpStatus.OK);
+    }
+
+    private static <T> BootstrapSectionResponse<T> section(String name, Map<String, String> current,
+                                                           Map<String, String> known, Supplier<T> data) {
+        String version = current.get(name);
+        if (version != null && version.equals(known.get(name))) return new BootstrapSectionResponse<>(version, null);
+        return new BootstrapSectionResponse<>(version, data.get());
+    }
+
+    private static Map<String, String> parseVersions(String versions) {
+        Map<String, String> known = new HashMap<>();
+        if (versions == null || versions.isBlank()) return known;
+        for (String pair : versions.split(",")) {
+            int separator = pair.indexOf(':');
+            if (separator > 0) known.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+        }
+        return known;
+    }
+
+}
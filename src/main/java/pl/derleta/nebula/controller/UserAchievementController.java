@@ -12,8 +12,10 @@ import pl.derleta.nebula.controller.mapper.UserAchievementApiMapper;
 import pl.derleta.nebula.controller.request.UserAchievementFilterRequest;
 import pl.derleta.nebula.controller.response.UserAchievementResponse;
 import pl.derleta.nebula.exceptions.TokenExpiredException;
+import pl.derleta.nebula.service.AuthorizationService;
 import pl.derleta.nebula.service.TokenProvider;
 import pl.derleta.nebula.service.UserAchievementProvider;
+import pl.derleta.nebula.service.UserAchievementUpdater;
 
 import java.util.List;
 import java.util.Objects;
@@ -29,13 +31,15 @@ import java.util.Objects;
  * information, and ensures that the authenticated user is authorized to access
  * the requested data.
  * <p>
- * The controller provides three main endpoints:
+ * The controller provides four main endpoints:
  * 1. Retrieve an achievement for a specific user by user ID and achievement ID.
  * 2. Retrieve a list of achievements for the authenticated user.
  * 3. Retrieve a paginated list of achievements with filtering and sorting capabilities.
+ * 4. Update the value of an achievement for a specific user, restricted to administrators.
  * <p>
  * The controller uses:
  * - `UserAchievementProvider` for fetching user achievement data.
+ * - `UserAchievementUpdater` for recording the progress of user achievements.
  * - `TokenProvider` for validating and parsing JWT tokens.
  * - `UserAchievementModelAssembler` for mapping achievement data to response models.
  * <p>
@@ -52,7 +56,9 @@ public final class UserAchievementController {
     public static final String DEFAULT_PATH = "users/achievements";
 
     private final UserAchievementProvider provider;
+    private final UserAchievementUpdater updater;
     private final TokenProvider tokenProvider;
+    private final AuthorizationService authorizationService;
     private final UserAchievementModelAssembler modelAssembler;
 
     /**
@@ -62,7 +68,8 @@ public final class UserAchievementController {
      * @param userId        the ID of the user whose achievement is to be retrieved
      * @param achievementId the ID of the achievement to be retrieved for the user
      * @param accessToken   the JWT token extracted from the "accessToken" cookie used for authentication and validation
-     * @return a {@code ResponseEntity} containing the {@link UserAchievementResponse} if the request is valid and successful.
+     * @return a {@code ResponseEntity} containing the {@link UserAchievementResponse} if the request is valid and successful,
+     * a 404 Not Found status if the user or the achievement does not exist.
      * Returns a 401 Unauthorized status if the user ID does not match with the one from the token,
      * or a 403 Forbidden status if the provided JWT token is invalid
      */
@@ -71,8 +78,9 @@ public final class UserAchievementController {
                                                        @CookieValue("accessToken") String accessToken) {
         if (tokenProvider.isValid(accessToken)) {
             if (Objects.equals(userId, tokenProvider.getUserId(accessToken))) {
-                var response = modelAssembler.toModel(
-                        provider.get(userId, achievementId));
+                var userAchievement = provider.get(userId, achievementId);
+                if (userAchievement == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+                var response = modelAssembler.toModel(userAchievement);
                 return new ResponseEntity<>(response, new HttpHeaders(), HttpStatus.OK);
             }
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
@@ -139,4 +147,28 @@ public final class UserAchievementController {
         }
     }
 
+    /**
+     * Updates the value of an achievement for a specific user. The level and progress are derived from the value,
+     * and the user achievement row is created with the first progress write.
+     *
+     * @param userId        the ID of the user whose achievement is to be updated
+     * @param achievementId the ID of the achievement to be updated
+     * @param value         the new value of the achievement
+     * @param accessToken   the JWT token extracted from the "accessToken" cookie, must contain the admin role
+     * @return a {@code ResponseEntity} containing the updated {@link UserAchievementResponse},
+     * a 404 Not Found status if the user or the achievement does not exist,
+     * or a 403 Forbidden status if the token does not contain the admin role
+     */
+    @PutMapping(value = "/" + DEFAULT_PATH + "/{userId}/{achievementId}", produces = MediaTypes.HAL_JSON_VALUE)
+    public ResponseEntity<UserAchievementResponse> update(@PathVariable Long userId, @PathVariable Integer achievementId,
+                                                          @RequestParam int value,
+                                                          @CookieValue("accessToken") String accessToken) {
+        if (authorizationService.notContainsAdminRole(accessToken))
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        var userAchievement = updater.updateValue(userId, achievementId, value);
+        if (userAchievement == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        var response = modelAssembler.toModel(userAchievement);
+        return new ResponseEntity<>(response, new HttpHeaders(), HttpStatus.OK);
+    }
+
 }
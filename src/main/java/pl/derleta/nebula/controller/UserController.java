@@ -1,22 +1,56 @@
 package pl.derleta.nebula.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import pl.derleta.nebula.controller.assembler.UserModelAssembler;
+import pl.derleta.nebula.controller.mapper.GameApiMapper;
+import pl.derleta.nebula.controller.mapper.NebulaUserApiMapper;
 import pl.derleta.nebula.controller.mapper.UserSettingsApiMapper;
 import pl.derleta.nebula.controller.request.ProfileUpdateRequest;
+import pl.derleta.nebula.controller.request.UserBatchRequest;
+import pl.derleta.nebula.controller.request.UserSearchRequest;
+import pl.derleta.nebula.controller.request.UserSettingsPatchRequest;
 import pl.derleta.nebula.controller.request.UserSettingsRequest;
+import pl.derleta.nebula.controller.response.GameResponse;
 import pl.derleta.nebula.controller.response.NebulaUserResponse;
 import pl.derleta.nebula.controller.response.Response;
+import pl.derleta.nebula.controller.response.UserBatchResponse;
+import pl.derleta.nebula.controller.response.UserSearchResponse;
+import pl.derleta.nebula.controller.response.UserSettingsResponse;
+import pl.derleta.nebula.controller.response.VersionConflictResponse;
 import pl.derleta.nebula.domain.mapper.UserSettingsMapper;
+import pl.derleta.nebula.domain.model.Game;
+import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.domain.model.SettingsVersion;
+import pl.derleta.nebula.domain.model.UserBatch;
+import pl.derleta.nebula.domain.model.UserFieldSet;
+import pl.derleta.nebula.domain.model.UserSearchPage;
 import pl.derleta.nebula.domain.model.UserSettings;
+import pl.derleta.nebula.domain.model.VersionedProfile;
+import pl.derleta.nebula.domain.model.VersionedSettings;
+import pl.derleta.nebula.exceptions.ProfileVersionConflictException;
+import pl.derleta.nebula.exceptions.SettingsVersionConflictException;
+import pl.derleta.nebula.service.AuthorizationService;
 import pl.derleta.nebula.service.TokenProvider;
+import pl.derleta.nebula.service.UserBatchProvider;
 import pl.derleta.nebula.service.UserProvider;
+import pl.derleta.nebula.service.UserSearchProvider;
 import pl.derleta.nebula.service.UserUpdater;
+import pl.derleta.nebula.util.ETagUtil;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * The UserController class is a REST controller handling API endpoints related to user data,
@@ -25,8 +59,13 @@ import pl.derleta.nebula.service.UserUpdater;
  * <p>
  * This controller includes endpoints for:
  * - Retrieving user data based on a valid JWT token.
+ * - Retrieving the profile, settings and games subresources, each with its own ETag and cache policy.
+ * - Retrieving the profiles of many users at once, restricted to administrators.
+ * - Searching users by login or email prefix and profile filters, restricted to administrators.
  * - Updating user profiles if the JWT token is valid and authorized.
  * - Updating user settings if the JWT token is valid and associated with the correct user.
+ * - Syncing the changed groups of settings since a known settings version, and patching single settings.
+ * - Rejecting writes of settings or profiles changed concurrently with a conflict status and the current state.
  * <p>
  * Cross-origin requests are allowed from the specified origin with a defined max age.
  */
@@ -38,51 +77,254 @@ public final class UserController {
 
     public static final String DEFAULT_PATH = "users";
 
+    private static final CacheControl PROFILE_CACHE = CacheControl.noCache().cachePrivate();
+    private static final CacheControl SETTINGS_CACHE = CacheControl.noCache().cachePrivate();
+    private static final CacheControl GAMES_CACHE = CacheControl.maxAge(Duration.ofMinutes(5)).cachePrivate();
+
     private final UserProvider provider;
     private final UserUpdater updater;
     private final TokenProvider tokenProvider;
     private final UserModelAssembler modelAssembler;
+    private final UserBatchProvider batchProvider;
+    private final AuthorizationService authorizationService;
+    private final UserSearchProvider searchProvider;
 
     /**
      * Retrieves the user data corresponding to the provided JWT token.
      * If the token is valid, the user data is retrieved and returned as a response.
      * If the token is invalid, a forbidden status response is returned.
      *
+     * The optional {@code fields} parameter, for example {@code fields=login,settings.sound}, limits both the loaded
+     * and the returned data to the requested fields; {@code settings} selects the general and the sound settings.
+     *
+     * The response carries a strong ETag derived from the last update of the user. When the If-None-Match header
+     * matches the current ETag, a not modified status is returned without loading the user data.
+     *
      * @param accessToken the JWT token used for authentication, passed as a cookie value
+     * @param fields      the optional comma separated list of requested fields, all fields if not given
+     * @param ifNoneMatch the optional If-None-Match header with the ETags known to the client
      * @return a ResponseEntity containing the user data in a NebulaUserResponse object if the token is valid,
+     * a ResponseEntity with a not modified status if the data did not change,
      * or a ResponseEntity with a forbidden status if the token is invalid
      */
     @GetMapping(value = "/" + DEFAULT_PATH, produces = MediaTypes.HAL_JSON_VALUE)
-    public ResponseEntity<NebulaUserResponse> getUserData(@CookieValue("accessToken") String accessToken) {
+    public ResponseEntity<NebulaUserResponse> getUserData(@CookieValue("accessToken") String accessToken,
+                                                          @RequestParam(required = false) String fields,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         if (tokenProvider.isValid(accessToken)) {
             long userId = tokenProvider.getUserId(accessToken);
+            UserFieldSet fieldSet = UserFieldSet.parse(fields);
+            String etag = provider.getETag(userId, fieldSet).orElse(null);
+            HttpHeaders headers = new HttpHeaders();
+            if (etag != null) {
+                headers.setETag(etag);
+                headers.setCacheControl(CacheControl.noCache().cachePrivate());
+                if (ETagUtil.matches(ifNoneMatch, etag)) return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+            }
             var response = modelAssembler.toModel(
-                    provider.get(userId)
+                    provider.get(userId, fieldSet), fieldSet
             );
-            return new ResponseEntity<>(response, new HttpHeaders(), HttpStatus.OK);
+            return new ResponseEntity<>(response, headers, HttpStatus.OK);
         } else {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
         }
     }
 
+    /**
+     * Retrieves the profiles of many users at once, restricted to administrators, for example for admin tools
+     * or game backends resolving the members of a lobby. The users are returned in the order of the requested ids,
+     * the ids without a user are reported as missing without failing the batch.
+     *
+     * @param accessToken the JWT token extracted from the "accessToken" cookie, must contain the admin role
+     * @param request     the request containing the ids of the users
+     * @return a ResponseEntity containing the found profiles and the missing ids,
+     * or a 403 Forbidden status if the token does not contain the admin role
+     */
+    @PostMapping(value = "/" + DEFAULT_PATH + "/batch", produces = MediaTypes.HAL_JSON_VALUE)
+    public ResponseEntity<UserBatchResponse> getUsersBatch(@CookieValue("accessToken") String accessToken,
+                                                           @RequestBody UserBatchRequest request) {
+        if (authorizationService.notContainsAdminRole(accessToken))
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        UserBatch batch = batchProvider.getProfiles(request.ids());
+        var response = new UserBatchResponse(
+                batch.users().stream().map(user -> NebulaUserApiMapper.toResponse(user, UserFieldSet.PROFILE)).toList(),
+                batch.missing());
+        return new ResponseEntity<>(response, new HttpHeaders(), HttpStatus.OK);
+    }
+
+    /**
+     * Searches users, restricted to administrators. The login and email filters match the beginning of the value,
+     * the age and last update bounds are inclusive, the filters without a value are not applied.
+     * <p>
+     * The results are paged with a cursor instead of a page number: the response carries the cursor of the next page,
+     * which is passed back with the same filters, sort field and order to read it. A next page is as fast to read
+     * as the first one, no matter how deep it is. The next cursor is null on the last page.
+     *
+     * @param accessToken   the JWT token extracted from the "accessToken" cookie, must contain the admin role
+     * @param size          the number of users per page, limited to the configured maximum, defaults to 50
+     * @param sortBy        the sort field, one of 'id', 'login', 'email' or 'updatedAt', defaults to 'id'
+     * @param sortOrder     the sort order, either 'asc' or 'desc', defaults to 'asc'
+     * @param cursor        the cursor of the requested page, the first page if not given
+     * @param login         the prefix of the login, optional
+     * @param email         the prefix of the email, optional
+     * @param nationalityId the ID of the nationality, optional
+     * @param genderId      the ID of the gender, optional
+     * @param minAge        the minimum age, optional
+     * @param maxAge        the maximum age, optional
+     * @param updatedFrom   the earliest last update as an ISO-8601 instant, optional
+     * @param updatedTo     the latest last update as an ISO-8601 instant, optional
+     * @return a ResponseEntity containing the profiles of the page and the cursor of the next page,
+     * or a 403 Forbidden status if the token does not contain the admin role
+     */
+    @GetMapping(value = "/" + DEFAULT_PATH + "/search", produces = MediaTypes.HAL_JSON_VALUE)
+    public ResponseEntity<UserSearchResponse> searchUsers(@CookieValue("accessToken") String accessToken,
+                                                          @RequestParam(defaultValue = "50") int size,
+                                                          @RequestParam(defaultValue = "id") String sortBy,
+                                                          @RequestParam(defaultValue = "asc") String sortOrder,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) String login,
+                                                          @RequestParam(required = false) String email,
+                                                          @RequestParam(required = false) Integer nationalityId,
+                                                          @RequestParam(required = false) Integer genderId,
+                                                          @RequestParam(required = false) Integer minAge,
+                                                          @RequestParam(required = false) Integer maxAge,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedFrom,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedTo) {
+        if (authorizationService.notContainsAdminRole(accessToken))
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        var request = UserSearchRequest.builder()
+                .size(size).sortBy(sortBy).sortOrder(sortOrder).cursor(cursor)
+                .login(login).email(email).nationalityId(nationalityId).genderId(genderId)
+                .minAge(minAge).maxAge(maxAge).updatedFrom(updatedFrom).updatedTo(updatedTo)
+                .build();
+        UserSearchPage page = searchProvider.search(request);
+        var response = new UserSearchResponse(
+                page.users().stream().map(user -> NebulaUserApiMapper.toResponse(user, UserFieldSet.PROFILE)).toList(),
+                page.nextCursor());
+        return new ResponseEntity<>(response, new HttpHeaders(), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the profile of the user corresponding to the provided JWT token: the login, email, names, age,
+     * birthdate, gender and nationality, with the version of the profile. A cached user serves both without a database
+     * connection, otherwise only the profile columns are queried together with the version; either way the version
+     * describes the returned profile. When the version is not known, the profile is returned without it. The response carries an ETag derived from the profile content
+     * and is revalidated on every use.
+     *
+     * @param accessToken the JWT token used for authentication, passed as a cookie value
+     * @param ifNoneMatch the optional If-None-Match header with the ETags known to the client
+     * @return a ResponseEntity containing the profile if the token is valid, a not modified status if the profile
+     * did not change, a not found status if the user does not exist, or a forbidden status if the token is invalid
+     */
+    @GetMapping(value = "/" + DEFAULT_PATH + "/profile", produces = MediaTypes.HAL_JSON_VALUE)
+    public ResponseEntity<NebulaUserResponse> getUserProfile(@CookieValue("accessToken") String accessToken,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (!tokenProvider.isValid(accessToken)) return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        long userId = tokenProvider.getUserId(accessToken);
+        Optional<VersionedProfile> versioned = provider.getVersionedProfile(userId);
+        NebulaUser user = versioned.map(VersionedProfile::user).orElseGet(() -> provider.get(userId, UserFieldSet.PROFILE));
+        Long version = versioned.map(VersionedProfile::version).orElse(null);
+        if (user == null) return ResponseEntity.notFound().build();
+        List<Object> profile = Arrays.asList(user.login(), user.email(), user.firstName(), user.lastName(),
+                user.age(), user.birthDate(), user.gender(), user.nationality(), version);
+        return conditional(ETagUtil.contentETag(user.id(), "profile", profile), ifNoneMatch, PROFILE_CACHE,
+                () -> toProfileResponse(user, version));
+    }
+
+    /**
+     * Retrieves the general and sound settings of the user corresponding to the provided JWT token.
+     * Only the settings are queried. Settings change more often than the rest of the user, so the response
+     * carries its own ETag derived from the settings content and is revalidated on every use.
+     * <p>
+     * The response carries the version of the settings, which grows with every write. A client passing the version
+     * it knows as {@code sinceVersion} gets a not modified status if nothing was written since, otherwise only
+     * the groups of settings changed since that version, the unchanged groups are left out. The settings are read
+     * together with their version from the same row. The version is not given while a buffered write of the settings
+     * is pending, then the full settings are returned.
+     *
+     * @param accessToken  the JWT token used for authentication, passed as a cookie value
+     * @param sinceVersion the optional version of the settings known to the client
+     * @param ifNoneMatch  the optional If-None-Match header with the ETags known to the client
+     * @return a ResponseEntity containing the settings, or only their changed groups, if the token is valid,
+     * a not modified status if the settings did not change, a not found status if the user does not exist,
+     * or a forbidden status if the token is invalid
+     */
+    @GetMapping(value = "/" + DEFAULT_PATH + "/settings", produces = MediaTypes.HAL_JSON_VALUE)
+    public ResponseEntity<UserSettingsResponse> getUserSettings(@CookieValue("accessToken") String accessToken,
+                                                                @RequestParam(required = false) Long sinceVersion,
+                                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (!tokenProvider.isValid(accessToken)) return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        long userId = tokenProvider.getUserId(accessToken);
+        if (sinceVersion != null) {
+            Optional<SettingsVersion> known = provider.getSettingsVersion(userId);
+            if (known.isPresent() && !known.get().changedSince(sinceVersion)) {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setCacheControl(SETTINGS_CACHE);
+                return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+            }
+        }
+        VersionedSettings current = readSettings(userId);
+        if (current == null) return ResponseEntity.notFound().build();
+        UserSettings settings = current.settings();
+        SettingsVersion version = current.version();
+        if (sinceVersion != null && version != null) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setCacheControl(SETTINGS_CACHE);
+            return new ResponseEntity<>(UserSettingsApiMapper.toDeltaResponse(settings, version, sinceVersion),
+                    headers, HttpStatus.OK);
+        }
+        return conditional(ETagUtil.contentETag(userId, "settings", Arrays.asList(settings, version)),
+                ifNoneMatch, SETTINGS_CACHE, () -> UserSettingsApiMapper.toResponse(settings, version));
+    }
+
+    /**
+     * Retrieves the games of the user corresponding to the provided JWT token. Only the games are queried.
+     * The game list changes rarely, so the response may be reused by the client for a few minutes
+     * before it is revalidated with its ETag.
+     *
+     * @param accessToken the JWT token used for authentication, passed as a cookie value
+     * @param ifNoneMatch the optional If-None-Match header with the ETags known to the client
+     * @return a ResponseEntity containing the games if the token is valid, a not modified status if the games
+     * did not change, a not found status if the user does not exist, or a forbidden status if the token is invalid
+     */
+    @GetMapping(value = "/" + DEFAULT_PATH + "/games", produces = MediaTypes.HAL_JSON_VALUE)
+    public ResponseEntity<List<GameResponse>> getUserGames(@CookieValue("accessToken") String accessToken,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (!tokenProvider.isValid(accessToken)) return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        NebulaUser user = provider.get(tokenProvider.getUserId(accessToken), UserFieldSet.GAMES);
+        if (user == null) return ResponseEntity.notFound().build();
+        List<Game> games = user.games() == null ? List.of() : user.games();
+        return conditional(ETagUtil.contentETag(user.id(), "games", games), ifNoneMatch, GAMES_CACHE,
+                () -> GameApiMapper.toResponseList(games));
+    }
+
     /**
      * Updates the user profile with the specified data. Authentication is performed
      * using the provided JWT token, and the profile update is executed only if the
-     * token is valid for the specified user.
+     * token is valid for the specified user. Only the fields present in the request are changed,
+     * and the response contains the profile fields of the user with the new version of the profile.
+     * With an expected version the update is applied only if the profile still has that version,
+     * otherwise a conflict status is returned with the current profile.
      *
      * @param accessToken    the JWT token used for authentication, passed as a cookie value
      * @param profileData the profile data to be updated, containing the user's profile information
      * @return a ResponseEntity containing the updated profile data in the
-     * response object if the token is valid, or a ResponseEntity with a
-     * forbidden status if the token is invalid
+     * response object if the token is valid, a not found status if the user does not exist,
+     * a conflict status with the current profile if it has another version,
+     * or a ResponseEntity with a forbidden status if the token is invalid
      */
     @PatchMapping(value = "/" + DEFAULT_PATH + "/profile", produces = MediaTypes.HAL_JSON_VALUE)
     public ResponseEntity<Response> updateUserProfile(@CookieValue("accessToken") String accessToken,
                                                       @RequestBody ProfileUpdateRequest profileData) {
         if (tokenProvider.isValid(accessToken, profileData.getUserId())) {
-            var response = modelAssembler.toModel(
-                    updater.updateProfile(profileData)
-            );
+            VersionedProfile profile;
+            try {
+                profile = updater.updateProfile(profileData);
+            } catch (ProfileVersionConflictException e) {
+                return conflict(e.getMessage(), currentProfile(profileData.getUserId()));
+            }
+            if (profile == null) return ResponseEntity.notFound().build();
+            var response = toProfileResponse(profile.user(), profile.version());
             return new ResponseEntity<>(response, new HttpHeaders(), HttpStatus.OK);
         }
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
@@ -91,11 +333,15 @@ public final class UserController {
     /**
      * Updates the user settings with the specified data. Authentication is performed
      * using the provided JWT token, and the settings update is executed only if the
-     * token is valid for the specified user.
+     * token is valid for the specified user. With an expected version the settings are replaced only if they
+     * still have that version, otherwise a conflict status is returned with the current settings,
+     * so clients on several devices can write without serializing their requests.
      *
      * @param accessToken     the JWT token used for authentication, passed as a cookie value
      * @param request the new user settings to be updated, containing the user's settings information
      * @return a ResponseEntity containing the updated settings data in the response object if the token is valid,
+     * with the new version if an expected version was given, a not found status if the user has no settings,
+     * a conflict status with the current settings if they have another version,
      * or a ResponseEntity with a forbidden status if the token is invalid
      */
     @PutMapping(value = "/" + DEFAULT_PATH + "/settings", produces = MediaTypes.HAL_JSON_VALUE)
@@ -103,12 +349,106 @@ public final class UserController {
                                                        @RequestBody UserSettingsRequest request) {
         if (tokenProvider.isValid(accessToken, request.userId())) {
             UserSettings userSettings = UserSettingsMapper.requestToSettings(request);
-            var response = UserSettingsApiMapper.toResponse(
-                    updater.updateSettings(userSettings)
-            );
+            if (request.expectedVersion() == null) {
+                var response = UserSettingsApiMapper.toResponse(
+                        updater.updateSettings(userSettings)
+                );
+                return new ResponseEntity<>(response, new HttpHeaders(), HttpStatus.OK);
+            }
+            VersionedSettings result;
+            try {
+                result = updater.updateSettings(userSettings, request.expectedVersion());
+            } catch (SettingsVersionConflictException e) {
+                return conflict(e.getMessage(), currentSettings(request.userId()));
+            }
+            if (result == null) return ResponseEntity.notFound().build();
+            var response = UserSettingsApiMapper.toResponse(result.settings(), result.version());
             return new ResponseEntity<>(response, new HttpHeaders(), HttpStatus.OK);
         }
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
     }
 
+    /**
+     * Changes only the given settings of the user, for the frequent settings sync of the game clients.
+     * Authentication is performed using the provided JWT token, and the change is executed only if the
+     * token is valid for the specified user. With an expected version the change is applied only if the settings
+     * still have that version, otherwise a conflict status is returned with the current settings.
+     *
+     * @param accessToken the JWT token used for authentication, passed as a cookie value
+     * @param request     the changed settings and the optional expected version
+     * @return a ResponseEntity containing the settings and their new version if the token is valid,
+     * a not found status if the user has no settings, a conflict status with the current settings
+     * if they have another version, or a forbidden status if the token is invalid
+     */
+    @PatchMapping(value = "/" + DEFAULT_PATH + "/settings", produces = MediaTypes.HAL_JSON_VALUE)
+    public ResponseEntity<Response> patchUserSettings(@CookieValue("accessToken") String accessToken,
+                                                      @RequestBody UserSettingsPatchRequest request) {
+        if (!tokenProvider.isValid(accessToken, request.userId()))
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        VersionedSettings result;
+        try {
+            result = updater.patchSettings(UserSettingsMapper.requestToPatch(request));
+        } catch (SettingsVersionConflictException e) {
+            return conflict(e.getMessage(), currentSettings(request.userId()));
+        }
+        if (result == null) return ResponseEntity.notFound().build();
+        var response = UserSettingsApiMapper.toResponse(result.settings(), result.version());
+        return new ResponseEntity<>(response, new HttpHeaders(), HttpStatus.OK);
+    }
+
+    private NebulaUserResponse toProfileResponse(NebulaUser user, Long version) {
+        NebulaUserResponse response = modelAssembler.toModel(user, UserFieldSet.PROFILE);
+        response.setVersion(version);
+        return response;
+    }
+
+    /**
+     * Reads the current profile after a rejected write, together with its version, so a retry based on it
+     * cannot overwrite an unseen change. The rejected write invalidated the cached user, so the profile is read
+     * from the database. Without a known version the profile is returned without it.
+     */
+    private NebulaUserResponse currentProfile(long userId) {
+        Optional<VersionedProfile> versioned = provider.getVersionedProfile(userId);
+        if (versioned.isPresent()) return toProfileResponse(versioned.get().user(), versioned.get().version());
+        NebulaUser user = provider.get(userId, UserFieldSet.PROFILE);
+        return user != null ? toProfileResponse(user, null) : null;
+    }
+
+    /**
+     * Reads the current settings after a rejected write, together with their version like {@link #currentProfile(long)}.
+     */
+    private UserSettingsResponse currentSettings(long userId) {
+        VersionedSettings current = readSettings(userId);
+        return current != null ? UserSettingsApiMapper.toResponse(current.settings(), current.version()) : null;
+    }
+
+    /**
+     * Reads the settings with their version from the same row, or the settings without a version when it is not known,
+     * for example while a buffered write is pending, so cached settings are never paired with a newer version.
+     */
+    private VersionedSettings readSettings(long userId) {
+        Optional<VersionedSettings> versioned = provider.getVersionedSettings(userId);
+        if (versioned.isPresent()) return versioned.get();
+        NebulaUser user = provider.get(userId, UserFieldSet.SETTINGS);
+        return user != null && user.settings() != null ? new VersionedSettings(user.settings(), null) : null;
+    }
+
+    private static ResponseEntity<Response> conflict(String message, Response current) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new VersionConflictResponse(message, "VERSION_CONFLICT", LocalDateTime.now(), current));
+    }
+
+    /**
+     * Builds the response of a subresource, a not modified status without a body if the If-None-Match header
+     * matches the ETag of the current content.
+     */
+    private static <T> ResponseEntity<T> conditional(String etag, String ifNoneMatch, CacheControl cacheControl,
+                                                     Supplier<T> body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setCacheControl(cacheControl);
+        if (ETagUtil.matches(ifNoneMatch, etag)) return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        return new ResponseEntity<>(body.get(), headers, HttpStatus.OK);
+    }
+
 }
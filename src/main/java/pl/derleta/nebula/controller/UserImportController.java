@@ -0,0 +1,57 @@
+package pl.derleta.nebula.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.derleta.nebula.domain.types.ImportFormat;
+import pl.derleta.nebula.service.AuthorizationService;
+import pl.derleta.nebula.service.UserImportUpdater;
+
+/**
+ * The UserImportController provides an administrative endpoint for the bulk import of users,
+ * for example when onboarding users from partner platforms.
+ * <p>
+ * The request body is a NDJSON or CSV stream of registration records which is parsed incrementally,
+ * and the response is a NDJSON stream with the result of every record followed by a summary line.
+ */
+@RestController
+@CrossOrigin(origins = {"https://milkyway.local:8555", "https://localhost:3000"}, maxAge = 3600)
+@RequiredArgsConstructor
+@RequestMapping("/api/v1")
+public final class UserImportController {
+
+    public static final String DEFAULT_PATH = "account/import";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final UserImportUpdater updater;
+    private final AuthorizationService authorizationService;
+
+    /**
+     * Imports users from a NDJSON or CSV request body. The format is resolved from the Content-Type header.
+     *
+     * @param accessToken the JWT token extracted from the "accessToken" cookie, must contain the admin role
+     * @param contentType the Content-Type header of the request, "text/csv" for CSV, NDJSON otherwise
+     * @param request     the HTTP request providing the streamed body
+     * @return a {@code ResponseEntity} streaming the NDJSON results of the import,
+     * or a 403 Forbidden status if the token does not contain the admin role
+     */
+    @PostMapping(value = "/" + DEFAULT_PATH, consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importUsers(@CookieValue("accessToken") String accessToken,
+                                                             @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                             HttpServletRequest request) {
+        if (authorizationService.notContainsAdminRole(accessToken))
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        ImportFormat format = contentType.toLowerCase().startsWith(TEXT_CSV_VALUE) ? ImportFormat.CSV : ImportFormat.NDJSON;
+        StreamingResponseBody body = output -> updater.importUsers(request.getInputStream(), format, output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+}
@@ -8,6 +8,7 @@ import pl.derleta.nebula.controller.UserController;
 import pl.derleta.nebula.controller.mapper.NebulaUserApiMapper;
 import pl.derleta.nebula.controller.response.NebulaUserResponse;
 import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.domain.model.UserFieldSet;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 
@@ -25,6 +26,7 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
  * - Converts NebulaUser entities to NebulaUserResponse models.
  * - Attaches a self-referential link to the resulting NebulaUserResponse, allowing
  * clients to navigate to the specific resource endpoint representing the entity.
+ * - Attaches the links to the profile, settings and games subresources of the user.
  * <p>
  * Constructor:
  * The assembler initializes its configuration by linking the UserController
@@ -57,13 +59,35 @@ public final class UserModelAssembler extends RepresentationModelAssemblerSuppor
     @Override
     @Nonnull
     public NebulaUserResponse toModel(@Nonnull NebulaUser entity) {
-        NebulaUserResponse model = NebulaUserApiMapper.toResponse(entity);
+        return toModel(entity, UserFieldSet.ALL);
+    }
+
+    /**
+     * Converts a NebulaUser domain entity into a resource representation limited to the requested fields.
+     * The resulting resource is enhanced with a self-referential hyperlink for HATEOAS compliance,
+     * and with the links to the profile, settings and games subresources which can be refreshed independently.
+     *
+     * @param entity the NebulaUser domain object to be converted into a resource representation
+     * @param fields the requested fields
+     * @return a NebulaUserResponse object containing the requested data and associated hypermedia links
+     */
+    @Nonnull
+    public NebulaUserResponse toModel(@Nonnull NebulaUser entity, @Nonnull UserFieldSet fields) {
+        NebulaUserResponse model = NebulaUserApiMapper.toResponse(entity, fields);
         Link selfLink = linkTo(UserController.class)
                 .slash(UserController.DEFAULT_PATH)
                 .slash(model.getId())
                 .withSelfRel();
         model.add(selfLink);
+        model.add(subresourceLink("profile"), subresourceLink("settings"), subresourceLink("games"));
         return model;
     }
 
+    private static Link subresourceLink(String name) {
+        return linkTo(UserController.class)
+                .slash(UserController.DEFAULT_PATH)
+                .slash(name)
+                .withRel(name);
+    }
+
 }
@@ -0,0 +1,44 @@
+package pl.derleta.nebula.controller.handler;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import pl.derleta.nebula.service.DegradedReadGuard;
+
+/**
+ * Marks the responses containing values served stale by the {@link DegradedReadGuard}: the response gets
+ * the {@code Warning: 110} header, must not be stored by caches, and its ETag is dropped, since it describes
+ * the current version rather than the served one.
+ */
+@ControllerAdvice
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && Boolean.TRUE.equals(servletRequest.getServletRequest().getAttribute(DegradedReadGuard.STALE_ATTRIBUTE))) {
+            HttpHeaders headers = response.getHeaders();
+            headers.remove(HttpHeaders.ETAG);
+            headers.set(HttpHeaders.WARNING, STALE_WARNING);
+            headers.setCacheControl(CacheControl.noStore());
+        }
+        return body;
+    }
+
+}
@@ -3,8 +3,11 @@ package pl.derleta.nebula.controller.mapper;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import pl.derleta.nebula.controller.response.NebulaUserResponse;
+import pl.derleta.nebula.controller.response.SparseNebulaUserResponse;
 import pl.derleta.nebula.domain.mapper.NebulaUserAchievementMapper;
 import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.domain.model.UserFieldSet;
+import pl.derleta.nebula.domain.model.UserSettings;
 
 /**
  * A utility class for mapping a {@link NebulaUser} object to a {@link NebulaUserResponse} object.
@@ -40,4 +43,37 @@ public final class NebulaUserApiMapper {
                 .build();
     }
 
+    /**
+     * Converts a {@link NebulaUser} object to a response limited to the requested fields.
+     * If all fields are requested the full {@link NebulaUserResponse} is returned, otherwise
+     * a {@link SparseNebulaUserResponse} which leaves the unrequested fields out of the serialized response.
+     *
+     * @param item   the {@link NebulaUser} object to be converted
+     * @param fields the requested fields
+     * @return a response containing the requested data of the provided {@link NebulaUser}
+     */
+    public static NebulaUserResponse toResponse(final NebulaUser item, final UserFieldSet fields) {
+        if (fields.isAll()) return toResponse(item);
+        UserSettings settings = item.settings();
+        if (settings != null) {
+            settings = new UserSettings(settings.userId(),
+                    fields.includes("settings.general") ? settings.general() : null,
+                    fields.includes("settings.sound") ? settings.sound() : null);
+        }
+        return new SparseNebulaUserResponse(
+                item.id(),
+                fields.includes("login") ? item.login() : null,
+                fields.includes("email") ? item.email() : null,
+                fields.includes("firstName") ? item.firstName() : null,
+                fields.includes("lastName") ? item.lastName() : null,
+                fields.includes("age") ? item.age() : null,
+                fields.includes("birthDate") ? item.birthDate() : null,
+                fields.includes("gender") ? item.gender() : null,
+                fields.includes("nationality") ? item.nationality() : null,
+                fields.includes("settings") ? settings : null,
+                fields.includes("games") ? item.games() : null,
+                fields.includes("achievements") && item.achievements() != null
+                        ? NebulaUserAchievementMapper.toList(item.achievements()) : null);
+    }
+
 }
@@ -3,6 +3,7 @@ package pl.derleta.nebula.controller.mapper;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import pl.derleta.nebula.controller.response.UserSettingsResponse;
+import pl.derleta.nebula.domain.model.SettingsVersion;
 import pl.derleta.nebula.domain.model.UserSettings;
 
 /**
@@ -26,4 +27,39 @@ public final class UserSettingsApiMapper {
                 .build();
     }
 
+    /**
+     * Converts a UserSettings object with its versions into a UserSettingsResponse object.
+     *
+     * @param item    the UserSettings object to be converted
+     * @param version the versions of the settings, or null if not known
+     * @return a UserSettingsResponse object containing the settings and their version
+     */
+    public static UserSettingsResponse toResponse(final UserSettings item, final SettingsVersion version) {
+        return UserSettingsResponse.builder()
+                .userId(item.userId())
+                .general(item.general())
+                .sound(item.sound())
+                .version(version != null ? version.version() : null)
+                .build();
+    }
+
+    /**
+     * Converts a UserSettings object into a UserSettingsResponse object containing only the groups of settings
+     * changed after the version known to the client, and the current version.
+     *
+     * @param item         the UserSettings object to be converted
+     * @param version      the versions of the settings
+     * @param sinceVersion the version known to the client
+     * @return a UserSettingsResponse object with the changed groups, the unchanged groups are null
+     */
+    public static UserSettingsResponse toDeltaResponse(final UserSettings item, final SettingsVersion version,
+                                                       final long sinceVersion) {
+        return UserSettingsResponse.builder()
+                .userId(item.userId())
+                .general(version.generalChangedSince(sinceVersion) ? item.general() : null)
+                .sound(version.soundChangedSince(sinceVersion) ? item.sound() : null)
+                .version(version.version())
+                .build();
+    }
+
 }
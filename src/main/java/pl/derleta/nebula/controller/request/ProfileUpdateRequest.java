@@ -6,6 +6,10 @@ import lombok.ToString;
 
 import java.sql.Date;
 
+/**
+ * A partial update of the user profile, the fields which are null are left unchanged.
+ * With an expected version the update is applied only if the profile still has that version.
+ */
 @Getter
 @Builder
 @ToString
@@ -15,7 +19,8 @@ public final class ProfileUpdateRequest implements Request {
     String firstName;
     String lastName;
     Date birthdate;
-    int nationalityId;
-    int genderId;
+    Integer nationalityId;
+    Integer genderId;
+    Long expectedVersion;
 
 }
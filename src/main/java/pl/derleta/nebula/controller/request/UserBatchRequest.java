@@ -0,0 +1,9 @@
+package pl.derleta.nebula.controller.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record UserBatchRequest(
+        @JsonProperty("ids") List<Long> ids) {
+}
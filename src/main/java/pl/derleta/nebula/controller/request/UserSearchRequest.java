@@ -0,0 +1,28 @@
+package pl.derleta.nebula.controller.request;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+@Getter
+@Builder
+@ToString
+public final class UserSearchRequest implements Request {
+
+    private int size;
+    private String sortBy;
+    private String sortOrder;
+    private String cursor;
+
+    private String login;
+    private String email;
+    private Integer nationalityId;
+    private Integer genderId;
+    private Integer minAge;
+    private Integer maxAge;
+    private Instant updatedFrom;
+    private Instant updatedTo;
+
+}
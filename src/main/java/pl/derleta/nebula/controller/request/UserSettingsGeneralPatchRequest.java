@@ -0,0 +1,7 @@
+package pl.derleta.nebula.controller.request;
+
+import pl.derleta.nebula.domain.model.Theme;
+
+public record UserSettingsGeneralPatchRequest(
+        Theme theme) {
+}
@@ -0,0 +1,10 @@
+package pl.derleta.nebula.controller.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record UserSettingsPatchRequest(
+        @JsonProperty("userId") long userId,
+        @JsonProperty("expectedVersion") Long expectedVersion,
+        @JsonProperty("general") UserSettingsGeneralPatchRequest general,
+        @JsonProperty("sound") UserSettingsSoundPatchRequest sound) {
+}
@@ -2,8 +2,18 @@ package pl.derleta.nebula.controller.request;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+/**
+ * The new settings of the user, replacing all values. With an expected version the settings are replaced
+ * only if they still have that version.
+ */
 public record UserSettingsRequest(
         @JsonProperty("userId") long userId,
         @JsonProperty("general") UserSettingsGeneralRequest general,
-        @JsonProperty("sound") UserSettingsSoundRequest sound) {
+        @JsonProperty("sound") UserSettingsSoundRequest sound,
+        @JsonProperty("expectedVersion") Long expectedVersion) {
+
+    public UserSettingsRequest(long userId, UserSettingsGeneralRequest general, UserSettingsSoundRequest sound) {
+        this(userId, general, sound, null);
+    }
+
 }
@@ -0,0 +1,10 @@
+package pl.derleta.nebula.controller.request;
+
+public record UserSettingsSoundPatchRequest(
+        Boolean muted,
+        Boolean battleCry,
+        Integer volumeMaster,
+        Integer volumeMusic,
+        Integer volumeEffects,
+        Integer volumeVoices) {
+}
@@ -0,0 +1,10 @@
+package pl.derleta.nebula.controller.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AvailabilityResponse(String login,
+                                   Boolean loginAvailable,
+                                   String email,
+                                   Boolean emailAvailable
+) { }
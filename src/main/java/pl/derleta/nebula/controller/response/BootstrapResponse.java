@@ -0,0 +1,10 @@
+package pl.derleta.nebula.controller.response;
+
+import java.util.List;
+
+public record BootstrapResponse(BootstrapSectionResponse<NebulaUserResponse> user,
+                                BootstrapSectionResponse<List<GameResponse>> games,
+                                BootstrapSectionResponse<List<ThemeResponse>> themes,
+                                BootstrapSectionResponse<List<GenderResponse>> genders,
+                                BootstrapSectionResponse<List<NationalityResponse>> nationalities
+) { }
@@ -0,0 +1,8 @@
+package pl.derleta.nebula.controller.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BootstrapSectionResponse<T>(String version,
+                                          T data
+) { }
@@ -1,5 +1,6 @@
 package pl.derleta.nebula.controller.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 import org.springframework.hateoas.RepresentationModel;
 import pl.derleta.nebula.domain.model.*;
@@ -19,12 +20,15 @@ public class NebulaUserResponse extends RepresentationModel<NebulaUserResponse>
     private String email;
     private String firstName;
     private String lastName;
-    private int age;
+    private Integer age;
     private Date birthDate;
     private Gender gender;
     private Nationality nationality;
     private UserSettings settings;
     private List<Game> games;
     private List<NebulaUserAchievement> achievements;
+    @Setter
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long version;
 
 }
@@ -0,0 +1,22 @@
+package pl.derleta.nebula.controller.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import pl.derleta.nebula.domain.model.*;
+
+import java.sql.Date;
+import java.util.List;
+
+/**
+ * The user response limited to the fields requested with the {@code fields} parameter,
+ * the fields which were not requested are null and left out of the serialized response.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SparseNebulaUserResponse extends NebulaUserResponse {
+
+    public SparseNebulaUserResponse(long id, String login, String email, String firstName, String lastName,
+                                    Integer age, Date birthDate, Gender gender, Nationality nationality,
+                                    UserSettings settings, List<Game> games, List<NebulaUserAchievement> achievements) {
+        super(id, login, email, firstName, lastName, age, birthDate, gender, nationality, settings, games, achievements, null);
+    }
+
+}
@@ -0,0 +1,7 @@
+package pl.derleta.nebula.controller.response;
+
+import java.util.List;
+
+public record UserBatchResponse(List<NebulaUserResponse> users,
+                                List<Long> missing
+) { }
@@ -0,0 +1,12 @@
+package pl.derleta.nebula.controller.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import pl.derleta.nebula.domain.types.AccountResponseType;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserImportRecordResponse(long line,
+                                       String login,
+                                       boolean success,
+                                       AccountResponseType type,
+                                       String error
+) { }
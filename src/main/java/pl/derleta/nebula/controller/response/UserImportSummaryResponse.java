@@ -0,0 +1,7 @@
+package pl.derleta.nebula.controller.response;
+
+public record UserImportSummaryResponse(long processed,
+                                        long succeeded,
+                                        long failed,
+                                        boolean completed
+) { }
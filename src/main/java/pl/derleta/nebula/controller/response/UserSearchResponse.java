@@ -0,0 +1,7 @@
+package pl.derleta.nebula.controller.response;
+
+import java.util.List;
+
+public record UserSearchResponse(List<NebulaUserResponse> users,
+                                 String nextCursor
+) { }
@@ -1,5 +1,6 @@
 package pl.derleta.nebula.controller.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.ToString;
@@ -9,10 +10,12 @@ import pl.derleta.nebula.domain.model.UserSettingsSound;
 @Getter
 @Builder
 @ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class UserSettingsResponse implements Response {
 
     long userId;
     UserSettingsGeneral general;
     UserSettingsSound sound;
+    Long version;
 
 }
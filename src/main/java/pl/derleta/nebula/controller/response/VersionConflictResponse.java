@@ -0,0 +1,13 @@
+package pl.derleta.nebula.controller.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * The response of a write rejected because the resource was changed concurrently. It carries the current state,
+ * with its version, so the client can apply its change to it and retry without reading it again.
+ */
+public record VersionConflictResponse(String message,
+                                      String error,
+                                      LocalDateTime timestamp,
+                                      Response current
+) implements Response { }
@@ -33,4 +33,6 @@ public interface NebulaUserBuilder {
 
     NebulaUserBuilder achievements(List<UserAchievement> achievements);
 
+    NebulaUserBuilder version(Long version);
+
 }
@@ -20,11 +20,12 @@ public final class NebulaUserBuilderImpl implements NebulaUserBuilder {
     private UserSettings settings;
     private List<Game> games;
     private List<UserAchievement> achievements;
+    private Long version;
 
     @Override
     public NebulaUser build() {
         return new NebulaUser(id, login, email, firstName, lastName,
-                age, birthDate, gender, nationality, settings, games, achievements);
+                age, birthDate, gender, nationality, settings, games, achievements, version);
     }
 
     @Override
@@ -99,4 +100,10 @@ public final class NebulaUserBuilderImpl implements NebulaUserBuilder {
         return this;
     }
 
+    @Override
+    public NebulaUserBuilder version(Long version) {
+        this.version = version;
+        return this;
+    }
+
 }
@@ -3,6 +3,8 @@ package pl.derleta.nebula.domain.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.util.List;
 
@@ -40,6 +42,7 @@ public class AchievementEntity {
     private String iconUrl;
 
     @OneToMany(fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SUBSELECT)
     @JoinColumn(name = "achievement_id", insertable = false, updatable = false)
     List<AchievementLevelEntity> levels;
 
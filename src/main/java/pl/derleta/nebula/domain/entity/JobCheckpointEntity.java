@@ -0,0 +1,54 @@
+package pl.derleta.nebula.domain.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+import pl.derleta.nebula.domain.types.JobStatus;
+import pl.derleta.nebula.domain.types.JobType;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "job_checkpoints")
+public class JobCheckpointEntity {
+
+    @Id
+    @Size(max = 100)
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "job_type", nullable = false, length = 30)
+    private JobType jobType;
+
+    /**
+     * The id of the row the job is working for, for example the id of a backfilled game.
+     */
+    @Column(name = "target_id")
+    private Long targetId;
+
+    /**
+     * The highest key processed by the job, the next chunk starts after it.
+     */
+    @NotNull
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    @NotNull
+    @Column(name = "processed", nullable = false)
+    private long processed;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 10)
+    private JobStatus status;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+}
@@ -64,6 +64,14 @@ public class UserEntity {
     @Column(name = "updated_at")
     private Instant updatedAt;
 
+    /**
+     * The version of the profile, incremented by every write of the profile columns.
+     * Written only by the profile UPDATE of the repository.
+     */
+    @ColumnDefault("0")
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version;
+
     @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "id")
     private UserSettingsEntity settings;
@@ -0,0 +1,68 @@
+package pl.derleta.nebula.domain.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+import pl.derleta.nebula.domain.types.ProvisioningStatus;
+
+import java.sql.Date;
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "user_provisioning_outbox")
+public class UserProvisioningEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    /**
+     * Filled in by the provisioning worker once the account was resolved on the authorization server,
+     * used as the idempotency key of the local provisioning.
+     */
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Size(max = 45)
+    @NotNull
+    @Column(name = "login", nullable = false, unique = true)
+    private String login;
+
+    @Size(max = 255)
+    @NotNull
+    @Column(name = "email", nullable = false)
+    private String email;
+
+    @Column(name = "birth_date")
+    private Date birthDate;
+
+    @Column(name = "nationality_id")
+    private Integer nationalityId;
+
+    @Column(name = "gender_id")
+    private Integer genderId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 10)
+    private ProvisioningStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Size(max = 255)
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+}
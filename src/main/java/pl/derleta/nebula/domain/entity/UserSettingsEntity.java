@@ -3,6 +3,7 @@ package pl.derleta.nebula.domain.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Data
 @AllArgsConstructor
@@ -26,4 +27,26 @@ public class UserSettingsEntity {
     @JoinColumn(name = "sound_id", nullable = false)
     private UserSettingsSoundEntity sound;
 
+    /**
+     * The version of the settings, incremented by every write. Written only by the version UPDATE of the repository.
+     */
+    @ColumnDefault("0")
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version;
+
+    @ColumnDefault("0")
+    @Column(name = "general_version", insertable = false, updatable = false)
+    private Long generalVersion;
+
+    @ColumnDefault("0")
+    @Column(name = "sound_version", insertable = false, updatable = false)
+    private Long soundVersion;
+
+    /**
+     * The settings as a single JSON document, written in the document storage mode. A present document
+     * is the current state of the settings, the general and sound rows are current only if it is null.
+     */
+    @Column(name = "document")
+    private String document;
+
 }
@@ -5,6 +5,9 @@ import lombok.NoArgsConstructor;
 import pl.derleta.nebula.domain.builder.impl.NebulaUserBuilderImpl;
 import pl.derleta.nebula.domain.entity.UserEntity;
 import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.domain.model.UserAchievement;
+
+import java.util.List;
 
 /**
  * Utility class for mapping UserEntity objects to NebulaUser objects.
@@ -22,6 +25,17 @@ public final class NebulaUserMapper {
      * @return a NebulaUser object constructed from the provided UserEntity
      */
     public static NebulaUser toUser(final UserEntity entity) {
+        return toUser(entity, UserAchievementMapper.toUserAchievements(entity.getAchievements()));
+    }
+
+    /**
+     * Converts a UserEntity object to a NebulaUser object using an already resolved list of achievements.
+     *
+     * @param entity       the UserEntity object to be converted
+     * @param achievements the achievements of the user
+     * @return a NebulaUser object constructed from the provided UserEntity and achievements
+     */
+    public static NebulaUser toUser(final UserEntity entity, final List<UserAchievement> achievements) {
         return new NebulaUserBuilderImpl()
                 .id(entity.getId())
                 .login(entity.getLogin())
@@ -34,7 +48,7 @@ public final class NebulaUserMapper {
                 .nationality(NationalityMapper.toNationality(entity.getNationality()))
                 .settings(UserSettingsMapper.toSetting(entity.getSettings()))
                 .games(GameMapper.toGames(entity.getGames()))
-                .achievements(UserAchievementMapper.toUserAchievements(entity.getAchievements()))
+                .achievements(achievements)
                 .build();
     }
 
@@ -4,9 +4,10 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import pl.derleta.nebula.domain.builder.impl.UserAchievementBuilderImpl;
 import pl.derleta.nebula.domain.entity.UserAchievementEntity;
+import pl.derleta.nebula.domain.model.Achievement;
 import pl.derleta.nebula.domain.model.UserAchievement;
 
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -39,13 +40,69 @@ public final class UserAchievementMapper {
      * @return a UserAchievement object corresponding to the provided entity
      */
     public static UserAchievement toUserAchievement(final UserAchievementEntity entity) {
+        return toUserAchievement(entity, AchievementMapper.toAchievement(entity.getAchievement()));
+    }
+
+    /**
+     * Converts a UserAchievementEntity object to a UserAchievement object using an already mapped achievement,
+     * for example one taken from the achievement catalogue.
+     *
+     * @param entity      the UserAchievementEntity object to be converted
+     * @param achievement the achievement associated with the entity
+     * @return a UserAchievement object corresponding to the provided entity
+     */
+    public static UserAchievement toUserAchievement(final UserAchievementEntity entity, final Achievement achievement) {
         return new UserAchievementBuilderImpl()
                 .userId(entity.getId().getUserId())
                 .achievementId(entity.getId().getAchievementId())
                 .progress(entity.getProgress())
                 .level(entity.getLevel())
                 .value(entity.getValue())
-                .achievement(AchievementMapper.toAchievement(entity.getAchievement()))
+                .achievement(achievement)
+                .build();
+    }
+
+    /**
+     * Merges the stored user achievements with the achievement catalogue. Achievements without a stored row
+     * are returned as implicit entries with zero value, level and progress, so a user always gets the complete
+     * list of achievements even if only the achievements with progress are persisted.
+     * Stored rows reuse the already mapped catalogue achievement, only rows missing from the catalogue map their entity.
+     *
+     * @param userId       the ID of the user owning the achievements
+     * @param entities     the stored UserAchievementEntity objects of the user
+     * @param achievements all achievements from the catalogue
+     * @return a list of UserAchievement objects ordered by the achievement ID
+     */
+    public static List<UserAchievement> toUserAchievements(final long userId, final List<UserAchievementEntity> entities,
+                                                           final List<Achievement> achievements) {
+        Map<Integer, UserAchievement> merged = new TreeMap<>();
+        for (Achievement achievement : achievements) {
+            merged.put(achievement.id(), toImplicitUserAchievement(userId, achievement));
+        }
+        for (UserAchievementEntity entity : entities) {
+            UserAchievement implicit = merged.get(entity.getId().getAchievementId());
+            merged.put(entity.getId().getAchievementId(), implicit != null
+                    ? toUserAchievement(entity, implicit.achievement())
+                    : toUserAchievement(entity));
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Creates an implicit UserAchievement for an achievement which has no stored row for the user yet.
+     *
+     * @param userId      the ID of the user
+     * @param achievement the achievement from the catalogue
+     * @return a UserAchievement object with zero value, level and progress
+     */
+    public static UserAchievement toImplicitUserAchievement(final long userId, final Achievement achievement) {
+        return new UserAchievementBuilderImpl()
+                .userId(userId)
+                .achievementId(achievement.id())
+                .progress(0)
+                .level(0)
+                .value(0)
+                .achievement(achievement)
                 .build();
     }
 
@@ -0,0 +1,138 @@
+package pl.derleta.nebula.domain.mapper;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import pl.derleta.nebula.domain.builder.impl.NebulaUserBuilderImpl;
+import pl.derleta.nebula.domain.builder.impl.UserAchievementBuilderImpl;
+import pl.derleta.nebula.domain.model.*;
+import pl.derleta.nebula.domain.projection.GameView;
+import pl.derleta.nebula.domain.projection.UserAchievementValueView;
+import pl.derleta.nebula.domain.projection.UserProfileView;
+import pl.derleta.nebula.domain.projection.UserSearchView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Utility class for mapping the read-only projections of the user aggregate directly to the domain models,
+ * without creating managed entities on the way.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class UserProjectionMapper {
+
+    /**
+     * Converts the projections of a user into a NebulaUser object.
+     *
+     * @param view         the projection of the user row with its gender, nationality and settings
+     * @param games        the projections of the games of the user, or null if not requested
+     * @param achievements the achievements of the user, or null if not requested
+     * @return a NebulaUser object constructed from the provided projections
+     */
+    public static NebulaUser toUser(final UserProfileView view, final List<GameView> games,
+                                    final List<UserAchievement> achievements) {
+        return new NebulaUserBuilderImpl()
+                .id(view.id())
+                .login(view.login())
+                .email(view.email())
+                .firstName(view.firstName())
+                .lastName(view.lastName())
+                .age(view.age() != null ? view.age() : 0)
+                .birthDate(view.birthDate())
+                .gender(view.genderId() != null ? new Gender(view.genderId(), view.genderName()) : null)
+                .nationality(toNationality(view))
+                .settings(toSettings(view))
+                .games(games != null ? games.stream().map(UserProjectionMapper::toGame).toList() : null)
+                .achievements(achievements)
+                .version(view.version())
+                .build();
+    }
+
+    /**
+     * Converts the search projection of a user into a NebulaUser object with the profile fields only.
+     *
+     * @param view the search projection of the user row with its gender and nationality
+     * @return a NebulaUser object without settings, games and achievements
+     */
+    public static NebulaUser toUser(final UserSearchView view) {
+        Region region = view.regionId() != null ? new Region(view.regionId(), view.regionName()) : null;
+        return new NebulaUserBuilderImpl()
+                .id(view.id())
+                .login(view.login())
+                .email(view.email())
+                .firstName(view.firstName())
+                .lastName(view.lastName())
+                .age(view.age() != null ? view.age() : 0)
+                .birthDate(view.birthDate())
+                .gender(view.genderId() != null ? new Gender(view.genderId(), view.genderName()) : null)
+                .nationality(view.nationalityId() != null
+                        ? new Nationality(view.nationalityId(), view.nationalityName(), view.nationalityCode(), region)
+                        : null)
+                .build();
+    }
+
+    /**
+     * Converts a game projection into a Game object.
+     *
+     * @param view the projection of the game
+     * @return a Game object constructed from the provided projection
+     */
+    public static Game toGame(final GameView view) {
+        return new Game(view.id(), view.name(), view.enable() != null && view.enable(), view.iconUrl(), view.pageUrl());
+    }
+
+    /**
+     * Merges the stored achievement values of a user with the achievement catalogue. Achievements without
+     * a stored value are returned as implicit zero entries, stored values of achievements missing from the catalogue
+     * are skipped until the catalogue is refreshed.
+     *
+     * @param userId       the ID of the user owning the achievements
+     * @param values       the stored achievement values of the user
+     * @param achievements all achievements from the catalogue
+     * @return a list of UserAchievement objects ordered by the achievement ID
+     */
+    public static List<UserAchievement> toUserAchievements(final long userId, final List<UserAchievementValueView> values,
+                                                           final List<Achievement> achievements) {
+        Map<Integer, UserAchievement> merged = new TreeMap<>();
+        for (Achievement achievement : achievements) {
+            merged.put(achievement.id(), UserAchievementMapper.toImplicitUserAchievement(userId, achievement));
+        }
+        for (UserAchievementValueView value : values) {
+            UserAchievement implicit = merged.get(value.achievementId());
+            if (implicit == null) continue;
+            merged.put(value.achievementId(), new UserAchievementBuilderImpl()
+                    .userId(userId)
+                    .achievementId(value.achievementId())
+                    .value(value.value() != null ? value.value() : 0)
+                    .level(value.level() != null ? value.level() : 0)
+                    .progress(value.progress() != null ? value.progress() : 0)
+                    .achievement(implicit.achievement())
+                    .build());
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    private static Nationality toNationality(final UserProfileView view) {
+        if (view.nationalityId() == null) return null;
+        Region region = view.regionId() != null ? new Region(view.regionId(), view.regionName()) : null;
+        return new Nationality(view.nationalityId(), view.nationalityName(), view.nationalityCode(), region);
+    }
+
+    private static UserSettings toSettings(final UserProfileView view) {
+        if (view.settingsId() == null) return null;
+        if (view.settingsDocument() != null)
+            return UserSettingsDocumentMapper.toSettings(view.settingsId(), view.settingsDocument(),
+                    view.generalId() != null, view.soundId() != null);
+        UserSettingsGeneral general = view.generalId() != null
+                ? new UserSettingsGeneral(view.generalId(),
+                view.themeId() != null ? new Theme(view.themeId(), view.themeName()) : null)
+                : null;
+        UserSettingsSound sound = view.soundId() != null
+                ? UserSettingsSoundMapper.toSetting(view.soundId(), view.muted(), view.battleCry(), view.volumeMaster(),
+                view.volumeMusic(), view.volumeEffects(), view.volumeVoices())
+                : null;
+        return new UserSettings(view.settingsId(), general, sound);
+    }
+
+}
@@ -0,0 +1,96 @@
+package pl.derleta.nebula.domain.mapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import pl.derleta.nebula.domain.model.Theme;
+import pl.derleta.nebula.domain.model.UserSettings;
+import pl.derleta.nebula.domain.model.UserSettingsGeneral;
+import pl.derleta.nebula.domain.model.UserSettingsSound;
+
+
+/**
+ * Utility class for mapping between {@link UserSettings} and the settings document, the JSON object stored
+ * in the {@code document} column of the {@code user_settings} row in the document storage mode.
+ * <p>
+ * The document is a flat object with the keys {@code themeId}, {@code themeName}, {@code muted}, {@code battleCry},
+ * {@code volumeMaster}, {@code volumeMusic}, {@code volumeEffects} and {@code volumeVoices}, the same keys are written
+ * by the migration script {@code 08_user_settings_documents.sql}. The theme name is denormalized,
+ * so a document is read without joining the themes.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class UserSettingsDocumentMapper {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Converts the settings into the settings document.
+     *
+     * @param settings the settings of a user
+     * @return the JSON document of the settings
+     */
+    public static String toDocument(final UserSettings settings) {
+        ObjectNode node = MAPPER.createObjectNode();
+        Theme theme = settings.general() != null ? settings.general().theme() : null;
+        if (theme != null) {
+            node.put("themeId", theme.id());
+            node.put("themeName", theme.name());
+        }
+        UserSettingsSound sound = settings.sound();
+        if (sound != null) {
+            node.put("muted", sound.muted());
+            node.put("battleCry", sound.battleCry());
+            node.put("volumeMaster", sound.volumeMaster());
+            node.put("volumeMusic", sound.volumeMusic());
+            node.put("volumeEffects", sound.volumeEffects());
+            node.put("volumeVoices", sound.volumeVoices());
+        }
+        return node.toString();
+    }
+
+    /**
+     * Converts the settings document of a user into the settings, limited to the requested groups.
+     * Missing sound values are replaced with the defaults, flags stored as 0 and 1 are accepted.
+     *
+     * @param userId   the ID of the user
+     * @param document the JSON document of the settings
+     * @param general  whether the general settings are returned
+     * @param sound    whether the sound settings are returned
+     * @return a {@link UserSettings} object with the requested groups, the other group is null
+     * @throws IllegalStateException if the document is not a valid JSON object
+     */
+    public static UserSettings toSettings(final Long userId, final String document,
+                                          final boolean general, final boolean sound) {
+        JsonNode node;
+        try {
+            node = MAPPER.readTree(document);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid settings document of user " + userId);
+        }
+        if (node == null || !node.isObject())
+            throw new IllegalStateException("Invalid settings document of user " + userId);
+        UserSettingsGeneral generalSettings = general
+                ? new UserSettingsGeneral(userId, node.hasNonNull("themeId")
+                ? new Theme(node.get("themeId").asInt(), node.path("themeName").asText(null))
+                : null)
+                : null;
+        UserSettingsSound soundSettings = sound
+                ? UserSettingsSoundMapper.toSetting(userId, bool(node, "muted"), bool(node, "battleCry"),
+                integer(node, "volumeMaster"), integer(node, "volumeMusic"),
+                integer(node, "volumeEffects"), integer(node, "volumeVoices"))
+                : null;
+        return new UserSettings(userId, generalSettings, soundSettings);
+    }
+
+    private static Boolean bool(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asBoolean() : null;
+    }
+
+    private static Integer integer(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asInt() : null;
+    }
+
+}
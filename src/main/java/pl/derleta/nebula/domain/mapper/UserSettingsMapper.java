@@ -2,10 +2,16 @@ package pl.derleta.nebula.domain.mapper;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import pl.derleta.nebula.controller.request.UserSettingsPatchRequest;
 import pl.derleta.nebula.controller.request.UserSettingsRequest;
 import pl.derleta.nebula.domain.builder.impl.UserSettingsBuilderImpl;
 import pl.derleta.nebula.domain.entity.UserSettingsEntity;
+import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.domain.model.Theme;
 import pl.derleta.nebula.domain.model.UserSettings;
+import pl.derleta.nebula.domain.model.UserSettingsPatch;
+
+import java.util.Objects;
 
 
 /**
@@ -52,6 +58,29 @@ public final class UserSettingsMapper {
         );
     }
 
+    /**
+     * Converts a {@link UserSettingsPatchRequest} object into a {@link UserSettingsPatch} object.
+     * A missing group of settings keeps all its values.
+     *
+     * @param request the {@link UserSettingsPatchRequest} object containing the changed settings
+     * @return a {@link UserSettingsPatch} object with the changed values, the other values are null
+     */
+    public static UserSettingsPatch requestToPatch(final UserSettingsPatchRequest request) {
+        var general = request.general();
+        var sound = request.sound();
+        return new UserSettingsPatch(
+                request.userId(),
+                request.expectedVersion(),
+                general != null ? general.theme() : null,
+                sound != null ? sound.muted() : null,
+                sound != null ? sound.battleCry() : null,
+                sound != null ? sound.volumeMaster() : null,
+                sound != null ? sound.volumeMusic() : null,
+                sound != null ? sound.volumeEffects() : null,
+                sound != null ? sound.volumeVoices() : null
+        );
+    }
+
     /**
      * Converts a UserSettings record to a UserSettingsEntity object.
      * Maps the attributes of the UserSettings instance to a new UserSettingsEntity instance,
@@ -68,4 +97,34 @@ public final class UserSettingsMapper {
         return entity;
     }
 
+    /**
+     * Copies the user with the given settings, the other fields are kept.
+     *
+     * @param user     the user to copy
+     * @param settings the new settings of the user
+     * @return a {@link NebulaUser} object with the given settings
+     */
+    public static NebulaUser withSettings(final NebulaUser user, final UserSettings settings) {
+        return new NebulaUser(user.id(), user.login(), user.email(), user.firstName(), user.lastName(),
+                user.age(), user.birthDate(), user.gender(), user.nationality(),
+                settings, user.games(), user.achievements(), user.version());
+    }
+
+    /**
+     * Checks whether the settings have the same values. The themes are compared by their IDs,
+     * since the theme of requested settings may come without its name.
+     *
+     * @param stored    the stored settings
+     * @param requested the requested settings
+     * @return true if writing the requested settings would not change the stored ones
+     */
+    public static boolean hasSameValues(final UserSettings stored, final UserSettings requested) {
+        if (stored.userId() != requested.userId()) return false;
+        if (!Objects.equals(stored.sound(), requested.sound())) return false;
+        Theme storedTheme = stored.general() != null ? stored.general().theme() : null;
+        Theme requestedTheme = requested.general() != null ? requested.general().theme() : null;
+        if (storedTheme == null || requestedTheme == null) return storedTheme == requestedTheme;
+        return storedTheme.id() == requestedTheme.id();
+    }
+
 }
@@ -30,14 +30,34 @@ public final class UserSettingsSoundMapper {
      * @return a UserSettingsSound object constructed from the provided UserSettingsSoundEntity object
      */
     public static UserSettingsSound toSetting(final UserSettingsSoundEntity entity) {
+        return toSetting(entity.getId(), entity.getMuted(), entity.getBattleCry(), entity.getVolumeMaster(),
+                entity.getVolumeMusic(), entity.getVolumeEffects(), entity.getVolumeVoices());
+    }
+
+    /**
+     * Creates a UserSettingsSound object from the raw column values, for example of a read-only projection.
+     * Missing values are replaced with the defaults and volumes are clamped to the allowed range.
+     *
+     * @param userId        the ID of the user
+     * @param muted         the muted flag, false if null
+     * @param battleCry     the battle cry flag, true if null
+     * @param volumeMaster  the master volume
+     * @param volumeMusic   the music volume
+     * @param volumeEffects the effects volume
+     * @param volumeVoices  the voices volume
+     * @return a UserSettingsSound object constructed from the provided values
+     */
+    public static UserSettingsSound toSetting(final Long userId, final Boolean muted, final Boolean battleCry,
+                                              final Integer volumeMaster, final Integer volumeMusic,
+                                              final Integer volumeEffects, final Integer volumeVoices) {
         return new UserSettingsSoundBuilderImpl()
-                .userId(entity.getId())
-                .muted(entity.getMuted() != null ? entity.getMuted() : false)
-                .battleCry(entity.getBattleCry() != null ? entity.getBattleCry() : true)
-                .volumeMaster(getVolume(entity.getVolumeMaster()))
-                .volumeMusic(getVolume(entity.getVolumeMusic()))
-                .volumeVoices(getVolume(entity.getVolumeVoices()))
-                .volumeEffects(getVolume(entity.getVolumeEffects()))
+                .userId(userId)
+                .muted(muted != null ? muted : false)
+                .battleCry(battleCry != null ? battleCry : true)
+                .volumeMaster(getVolume(volumeMaster))
+                .volumeMusic(getVolume(volumeMusic))
+                .volumeVoices(getVolume(volumeVoices))
+                .volumeEffects(getVolume(volumeEffects))
                 .build();
     }
 
@@ -0,0 +1,16 @@
+package pl.derleta.nebula.domain.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The data a client needs for its first render: the user with its settings and the reference data,
+ * with the version of each section keyed by the section name.
+ */
+public record Bootstrap(NebulaUser user,
+                        List<Game> enabledGames,
+                        List<Theme> themes,
+                        List<Gender> genders,
+                        List<Nationality> nationalities,
+                        Map<String, String> versions) {
+}
@@ -5,5 +5,17 @@ import java.util.List;
 
 public record NebulaUser(long id, String login, String email, String firstName, String lastName,
                          int age, Date birthDate, Gender gender, Nationality nationality,
-                         UserSettings settings, List<Game> games, List<UserAchievement> achievements) {
+                         UserSettings settings, List<Game> games, List<UserAchievement> achievements,
+                         Long version) {
+
+    /**
+     * Creates the user without a known version of the profile.
+     */
+    public NebulaUser(long id, String login, String email, String firstName, String lastName,
+                      int age, Date birthDate, Gender gender, Nationality nationality,
+                      UserSettings settings, List<Game> games, List<UserAchievement> achievements) {
+        this(id, login, email, firstName, lastName, age, birthDate, gender, nationality,
+                settings, games, achievements, null);
+    }
+
 }
@@ -0,0 +1,39 @@
+package pl.derleta.nebula.domain.model;
+
+/**
+ * The versions of the settings of a user: the version incremented by every write of the settings,
+ * and for each group of settings the version of its last change.
+ */
+public record SettingsVersion(long version, long generalVersion, long soundVersion) {
+
+    /**
+     * Checks whether the settings changed after the given version.
+     *
+     * @param sinceVersion the version known to the client
+     * @return true if the settings were written after that version
+     */
+    public boolean changedSince(long sinceVersion) {
+        return version > sinceVersion;
+    }
+
+    /**
+     * Checks whether the general settings changed after the given version.
+     *
+     * @param sinceVersion the version known to the client
+     * @return true if the general settings were changed after that version
+     */
+    public boolean generalChangedSince(long sinceVersion) {
+        return generalVersion > sinceVersion;
+    }
+
+    /**
+     * Checks whether the sound settings changed after the given version.
+     *
+     * @param sinceVersion the version known to the client
+     * @return true if the sound settings were changed after that version
+     */
+    public boolean soundChangedSince(long sinceVersion) {
+        return soundVersion > sinceVersion;
+    }
+
+}
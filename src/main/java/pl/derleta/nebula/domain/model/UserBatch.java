@@ -0,0 +1,9 @@
+package pl.derleta.nebula.domain.model;
+
+import java.util.List;
+
+/**
+ * The result of a batch lookup of users, the found users in the requested order and the ids which were not found.
+ */
+public record UserBatch(List<NebulaUser> users, List<Long> missing) {
+}
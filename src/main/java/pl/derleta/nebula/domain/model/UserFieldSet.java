@@ -0,0 +1,69 @@
+package pl.derleta.nebula.domain.model;
+
+import pl.derleta.nebula.exceptions.InvalidFieldSelectionException;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The set of user fields requested with the {@code fields} parameter, for example {@code login,settings.sound}.
+ * The id is always included and {@code settings} selects both the general and the sound settings.
+ */
+public record UserFieldSet(Set<String> fields) {
+
+    public static final Set<String> SUPPORTED = Set.of("id", "login", "email", "firstName", "lastName", "age",
+            "birthDate", "gender", "nationality", "settings.general", "settings.sound", "games", "achievements");
+
+    public static final UserFieldSet ALL = new UserFieldSet(SUPPORTED);
+
+    public static final UserFieldSet PROFILE = parse("login,email,firstName,lastName,age,birthDate,gender,nationality");
+    public static final UserFieldSet SETTINGS = parse("settings");
+    public static final UserFieldSet GAMES = parse("games");
+
+    /**
+     * Parses a comma separated list of fields.
+     *
+     * @param value the requested fields, all fields are selected if null or blank
+     * @return the parsed field set
+     * @throws InvalidFieldSelectionException if a field is not supported
+     */
+    public static UserFieldSet parse(String value) {
+        if (value == null || value.isBlank()) return ALL;
+        Set<String> fields = new LinkedHashSet<>();
+        fields.add("id");
+        for (String part : value.split(",")) {
+            String field = part.trim();
+            if (field.isEmpty()) continue;
+            if (field.equals("settings")) {
+                fields.add("settings.general");
+                fields.add("settings.sound");
+            } else if (SUPPORTED.contains(field)) {
+                fields.add(field);
+            } else {
+                throw new InvalidFieldSelectionException("Unsupported field: " + field);
+            }
+        }
+        return new UserFieldSet(Set.copyOf(fields));
+    }
+
+    /**
+     * Checks whether the field is selected, {@code settings} is selected if any of its parts is.
+     *
+     * @param field the name of the field
+     * @return true if the field is selected
+     */
+    public boolean includes(String field) {
+        if (field.equals("settings")) return fields.contains("settings.general") || fields.contains("settings.sound");
+        return fields.contains(field);
+    }
+
+    /**
+     * Checks whether all supported fields are selected.
+     *
+     * @return true if the field set selects the complete user
+     */
+    public boolean isAll() {
+        return fields.containsAll(SUPPORTED);
+    }
+
+}
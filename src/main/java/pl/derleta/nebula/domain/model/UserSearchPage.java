@@ -0,0 +1,9 @@
+package pl.derleta.nebula.domain.model;
+
+import java.util.List;
+
+/**
+ * A page of the admin user search, the found users and the cursor of the next page, null on the last page.
+ */
+public record UserSearchPage(List<NebulaUser> users, String nextCursor) {
+}
@@ -0,0 +1,10 @@
+package pl.derleta.nebula.domain.model;
+
+/**
+ * A partial change of the settings of a user, a null value keeps the current one.
+ * The change is applied only if the settings still have the expected version, or unconditionally without it.
+ */
+public record UserSettingsPatch(long userId, Long expectedVersion, Theme theme,
+                                Boolean muted, Boolean battleCry,
+                                Integer volumeMaster, Integer volumeMusic, Integer volumeEffects, Integer volumeVoices) {
+}
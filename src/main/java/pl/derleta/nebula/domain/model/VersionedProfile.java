@@ -0,0 +1,7 @@
+package pl.derleta.nebula.domain.model;
+
+/**
+ * The profile of a user with its version, read together.
+ */
+public record VersionedProfile(NebulaUser user, long version) {
+}
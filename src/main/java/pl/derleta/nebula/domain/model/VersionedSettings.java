@@ -0,0 +1,7 @@
+package pl.derleta.nebula.domain.model;
+
+/**
+ * The settings of a user with their versions.
+ */
+public record VersionedSettings(UserSettings settings, SettingsVersion version) {
+}
@@ -0,0 +1,7 @@
+package pl.derleta.nebula.domain.projection;
+
+/**
+ * Read-only projection of a game assigned to a user, created by a JPQL constructor expression.
+ */
+public record GameView(Integer id, String name, Boolean enable, String iconUrl, String pageUrl) {
+}
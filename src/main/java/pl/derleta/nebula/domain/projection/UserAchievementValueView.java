@@ -0,0 +1,8 @@
+package pl.derleta.nebula.domain.projection;
+
+/**
+ * Read-only projection of the stored progress of a user achievement, without its achievement definition,
+ * which is taken from the achievement catalogue.
+ */
+public record UserAchievementValueView(Integer achievementId, Integer value, Integer level, Integer progress) {
+}
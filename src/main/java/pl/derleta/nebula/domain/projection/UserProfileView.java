@@ -0,0 +1,56 @@
+package pl.derleta.nebula.domain.projection;
+
+import java.sql.Date;
+
+/**
+ * Read-only projection of a user row joined with its gender, nationality, region and settings,
+ * created by a JPQL constructor expression without managed entities. Values of missing relations are null.
+ * A present settings document replaces the values of the general and sound settings rows.
+ * The version of the profile is read only with the full user, other projections leave it null.
+ */
+public record UserProfileView(Long id, String login, String email, String firstName, String lastName,
+                              Integer age, Date birthDate,
+                              Integer genderId, String genderName,
+                              Integer nationalityId, String nationalityName, String nationalityCode,
+                              Integer regionId, String regionName,
+                              Long settingsId, Long generalId, Integer themeId, String themeName,
+                              Long soundId, Boolean muted, Boolean battleCry,
+                              Integer volumeMaster, Integer volumeMusic, Integer volumeEffects, Integer volumeVoices,
+                              String settingsDocument, Long version) {
+
+    /**
+     * Creates the projection of a user without the version of the profile.
+     */
+    public UserProfileView(Long id, String login, String email, String firstName, String lastName,
+                           Integer age, Date birthDate,
+                           Integer genderId, String genderName,
+                           Integer nationalityId, String nationalityName, String nationalityCode,
+                           Integer regionId, String regionName,
+                           Long settingsId, Long generalId, Integer themeId, String themeName,
+                           Long soundId, Boolean muted, Boolean battleCry,
+                           Integer volumeMaster, Integer volumeMusic, Integer volumeEffects, Integer volumeVoices,
+                           String settingsDocument) {
+        this(id, login, email, firstName, lastName, age, birthDate, genderId, genderName,
+                nationalityId, nationalityName, nationalityCode, regionId, regionName,
+                settingsId, generalId, themeId, themeName, soundId, muted, battleCry,
+                volumeMaster, volumeMusic, volumeEffects, volumeVoices, settingsDocument, null);
+    }
+
+    /**
+     * Creates the projection of a user whose settings are stored in the general and sound settings rows.
+     */
+    public UserProfileView(Long id, String login, String email, String firstName, String lastName,
+                           Integer age, Date birthDate,
+                           Integer genderId, String genderName,
+                           Integer nationalityId, String nationalityName, String nationalityCode,
+                           Integer regionId, String regionName,
+                           Long settingsId, Long generalId, Integer themeId, String themeName,
+                           Long soundId, Boolean muted, Boolean battleCry,
+                           Integer volumeMaster, Integer volumeMusic, Integer volumeEffects, Integer volumeVoices) {
+        this(id, login, email, firstName, lastName, age, birthDate, genderId, genderName,
+                nationalityId, nationalityName, nationalityCode, regionId, regionName,
+                settingsId, generalId, themeId, themeName, soundId, muted, battleCry,
+                volumeMaster, volumeMusic, volumeEffects, volumeVoices, null);
+    }
+
+}
@@ -0,0 +1,16 @@
+package pl.derleta.nebula.domain.projection;
+
+import java.sql.Date;
+import java.time.Instant;
+
+/**
+ * Read-only projection of a user row found by the admin search, joined with its gender, nationality and region,
+ * created by a criteria constructor expression without managed entities. Values of missing relations are null.
+ */
+public record UserSearchView(Long id, String login, String email, String firstName, String lastName,
+                             Integer age, Date birthDate,
+                             Integer genderId, String genderName,
+                             Integer nationalityId, String nationalityName, String nationalityCode,
+                             Integer regionId, String regionName,
+                             Instant updatedAt) {
+}
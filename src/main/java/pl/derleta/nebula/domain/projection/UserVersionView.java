@@ -0,0 +1,9 @@
+package pl.derleta.nebula.domain.projection;
+
+import java.time.Instant;
+
+/**
+ * Read-only projection of the version of a user aggregate, created by a JPQL constructor expression.
+ */
+public record UserVersionView(Long id, Instant updatedAt) {
+}
@@ -50,6 +50,14 @@ public enum AccountResponseType {
             AccountProcessType.USER_REGISTRATION, "Invalid email address"),
     NEBULA_INVALID_ENCRYPTED_PASSWORD(159, AppCode.NEBULA_REST_API,
             AccountProcessType.USER_REGISTRATION, "Encrypted password has invalid format"),
+    NEBULA_INVALID_LOGIN(160, AppCode.NEBULA_REST_API,
+            AccountProcessType.USER_REGISTRATION, "Login must have 3 to 45 characters: letters, digits, '.', '_' or '-'"),
+    NEBULA_INVALID_BIRTHDATE(162, AppCode.NEBULA_REST_API,
+            AccountProcessType.USER_REGISTRATION, "Birthdate is missing or in the future"),
+    NEBULA_INVALID_NATIONALITY(163, AppCode.NEBULA_REST_API,
+            AccountProcessType.USER_REGISTRATION, "Nationality does not exist"),
+    NEBULA_INVALID_GENDER(164, AppCode.NEBULA_REST_API,
+            AccountProcessType.USER_REGISTRATION, "Gender does not exist"),
     // confirmation account codes
     TOKEN_NOT_FOUND(201, AppCode.ANDROMEDA_AUTH_SERVER,
             AccountProcessType.CONFIRMATION_TOKEN, "Token not found."),
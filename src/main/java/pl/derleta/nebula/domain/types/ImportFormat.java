@@ -0,0 +1,14 @@
+package pl.derleta.nebula.domain.types;
+
+/**
+ * ImportFormat describes the supported formats of the bulk user import.
+ * <p>
+ * - NDJSON: one JSON object per line with the fields of the registration request.
+ * - CSV: a header line followed by one comma separated registration record per line.
+ */
+public enum ImportFormat {
+
+    NDJSON,
+    CSV
+
+}
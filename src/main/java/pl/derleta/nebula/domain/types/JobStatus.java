@@ -0,0 +1,18 @@
+package pl.derleta.nebula.domain.types;
+
+/**
+ * JobStatus describes the lifecycle of a checkpointed background job.
+ * <p>
+ * - PENDING: the job was scheduled and has not processed any chunk yet.
+ * - RUNNING: the job processed at least one chunk, it is resumed from its checkpoint after a restart.
+ * - DONE: the job processed all rows.
+ * - FAILED: a chunk failed, the job is resumed from its checkpoint on the next resume run.
+ */
+public enum JobStatus {
+
+    PENDING,
+    RUNNING,
+    DONE,
+    FAILED
+
+}
@@ -0,0 +1,19 @@
+package pl.derleta.nebula.domain.types;
+
+/**
+ * JobType identifies the kind of a checkpointed background job.
+ * <p>
+ * - GAME_BACKFILL: inserts the missing users_games rows of a game for the existing users.
+ * - ACHIEVEMENT_BACKFILL: inserts the missing user_achievements rows of an achievement for the existing users.
+ * - GAME_WATERMARK, ACHIEVEMENT_WATERMARK: remember the highest game and achievement id already seen by the detection of new rows.
+ * - AGE_RECOMPUTE: recomputes the stored age of the users, the target id is the epoch day the ages are computed for.
+ */
+public enum JobType {
+
+    GAME_BACKFILL,
+    ACHIEVEMENT_BACKFILL,
+    GAME_WATERMARK,
+    ACHIEVEMENT_WATERMARK,
+    AGE_RECOMPUTE
+
+}
@@ -0,0 +1,16 @@
+package pl.derleta.nebula.domain.types;
+
+/**
+ * ProvisioningStatus describes the lifecycle of a user provisioning outbox record.
+ * <p>
+ * - PENDING: the account was accepted by the authorization server and waits for local provisioning.
+ * - DONE: the user rows were created in the Nebula database (or already existed).
+ * - FAILED: provisioning was retried the maximum number of times and requires manual attention.
+ */
+public enum ProvisioningStatus {
+
+    PENDING,
+    DONE,
+    FAILED
+
+}
@@ -0,0 +1,7 @@
+package pl.derleta.nebula.exceptions;
+
+public class BatchTooLargeException extends RuntimeException {
+    public BatchTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package pl.derleta.nebula.exceptions;
+
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
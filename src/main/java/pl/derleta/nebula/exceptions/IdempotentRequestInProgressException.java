@@ -0,0 +1,7 @@
+package pl.derleta.nebula.exceptions;
+
+public class IdempotentRequestInProgressException extends RuntimeException {
+    public IdempotentRequestInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package pl.derleta.nebula.exceptions;
+
+public class InvalidFieldSelectionException extends RuntimeException {
+    public InvalidFieldSelectionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package pl.derleta.nebula.exceptions;
+
+public class InvalidUserSearchException extends RuntimeException {
+    public InvalidUserSearchException(String message) {
+        super(message);
+    }
+}
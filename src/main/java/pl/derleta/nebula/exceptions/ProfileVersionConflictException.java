@@ -0,0 +1,7 @@
+package pl.derleta.nebula.exceptions;
+
+public class ProfileVersionConflictException extends RuntimeException {
+    public ProfileVersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package pl.derleta.nebula.exceptions;
+
+public class SettingsVersionConflictException extends RuntimeException {
+    public SettingsVersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,24 @@
+package pl.derleta.nebula.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import pl.derleta.nebula.domain.entity.JobCheckpointEntity;
+import pl.derleta.nebula.domain.types.JobStatus;
+import pl.derleta.nebula.domain.types.JobType;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpointEntity, String> {
+
+    /**
+     * Retrieves the checkpoints of the given job types which are in one of the given statuses.
+     *
+     * @param jobTypes the types of the jobs to retrieve
+     * @param statuses the statuses of the jobs to retrieve
+     * @return a list of matching JobCheckpointEntity objects
+     */
+    List<JobCheckpointEntity> findByJobTypeInAndStatusIn(Collection<JobType> jobTypes, Collection<JobStatus> statuses);
+
+}
@@ -5,9 +5,11 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pl.derleta.nebula.domain.entity.UserAchievementEntity;
 import pl.derleta.nebula.domain.entity.id.UserAchievementId;
+import pl.derleta.nebula.domain.projection.UserAchievementValueView;
 
 import java.util.List;
 
@@ -48,4 +50,19 @@ public interface UserAchievementRepository extends JpaRepository<UserAchievement
             """)
     UserAchievementEntity get(Long userId, Integer achievementId);
 
+    /**
+     * Retrieves the read-only projections of the stored achievement values of a user,
+     * without loading the achievement definitions.
+     *
+     * @param userId the ID of the user
+     * @return a list of UserAchievementValueView objects of the user
+     */
+    @Query("""
+            SELECT new pl.derleta.nebula.domain.projection.UserAchievementValueView(
+                ue.id.achievementId, ue.value, ue.level, ue.progress)
+            FROM UserAchievementEntity ue
+            WHERE ue.id.userId = :userId
+            """)
+    List<UserAchievementValueView> findValueViewsByUserId(@Param("userId") long userId);
+
 }
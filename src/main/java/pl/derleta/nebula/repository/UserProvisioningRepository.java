@@ -0,0 +1,185 @@
+package pl.derleta.nebula.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.derleta.nebula.domain.entity.UserProvisioningEntity;
+import pl.derleta.nebula.domain.types.ProvisioningStatus;
+
+import java.sql.Date;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface UserProvisioningRepository extends JpaRepository<UserProvisioningEntity, Long> {
+
+    /**
+     * Retrieves the oldest outbox records with the given status which are due for processing.
+     *
+     * @param status   the status of the records to retrieve, usually PENDING
+     * @param now      the current instant, records scheduled after it are skipped
+     * @param pageable the size of the batch to retrieve
+     * @return a list of due UserProvisioningEntity objects ordered by their id
+     */
+    @Query("""
+            SELECT p FROM UserProvisioningEntity p
+            WHERE p.status = :status AND p.nextAttemptAt <= :now
+            ORDER BY p.id
+            """)
+    List<UserProvisioningEntity> findDue(@Param("status") ProvisioningStatus status,
+                                         @Param("now") Instant now,
+                                         Pageable pageable);
+
+    /**
+     * Must be annotated with @Transactional, in ex. on @Service methods
+     * used to reserve a PENDING outbox record of an account before it is registered on the authorization server,
+     * in a single statement. The record becomes due only at the end of the reservation, so the provisioning job
+     * does not resolve it before the registration. A record with the same login is kept as it is.
+     *
+     * @param login         the login of the account
+     * @param email         the email of the account
+     * @param birthDate     the birthdate of the user, may be null
+     * @param nationalityId the ID of the nationality of the user, may be null
+     * @param genderId      the ID of the gender of the user, may be null
+     * @param reservedAt    the instant of the reservation, stored as the creation time of the record
+     * @param reservedUntil the instant the record becomes due
+     * @return 1 if the record was reserved, 0 if a record with the login already exists
+     */
+    @Modifying
+    @Query(value = """
+            INSERT IGNORE INTO user_provisioning_outbox
+                (login, email, birth_date, nationality_id, gender_id, status, attempts, next_attempt_at, created_at)
+            VALUES (:login, :email, :birthDate, :nationalityId, :genderId, 'PENDING', 0, :reservedUntil, :reservedAt)
+            """, nativeQuery = true)
+    int reservePendingIfAbsent(@Param("login") String login,
+                               @Param("email") String email,
+                               @Param("birthDate") Date birthDate,
+                               @Param("nationalityId") Integer nationalityId,
+                               @Param("genderId") Integer genderId,
+                               @Param("reservedAt") Instant reservedAt,
+                               @Param("reservedUntil") Instant reservedUntil);
+
+    /**
+     * Must be annotated with @Transactional, in ex. on @Service methods
+     * used to make a reserved outbox record due immediately after the account was accepted by the authorization server.
+     * Only the record of the given reservation is updated, a record already processed or reserved again is kept.
+     *
+     * @param login         the login of the account
+     * @param reservedAt    the instant of the reservation
+     * @param reservedUntil the end of the reservation
+     * @param now           the instant the record becomes due
+     * @return 1 if the record was activated, 0 if the reservation no longer exists
+     */
+    @Modifying
+    @Query("""
+            UPDATE UserProvisioningEntity p SET p.nextAttemptAt = :now
+            WHERE p.login = :login AND p.status = pl.derleta.nebula.domain.types.ProvisioningStatus.PENDING
+                AND p.attempts = 0 AND p.nextAttemptAt = :reservedUntil AND p.createdAt = :reservedAt
+            """)
+    int activateReservation(@Param("login") String login,
+                            @Param("reservedAt") Instant reservedAt,
+                            @Param("reservedUntil") Instant reservedUntil,
+                            @Param("now") Instant now);
+
+    /**
+     * Must be annotated with @Transactional, in ex. on @Service methods
+     * used to remove a reserved outbox record after the account was rejected by the authorization server.
+     * Only the record of the given reservation is removed.
+     *
+     * @param login         the login of the account
+     * @param reservedAt    the instant of the reservation
+     * @param reservedUntil the end of the reservation
+     * @return 1 if the record was removed, 0 if the reservation no longer exists
+     */
+    @Modifying
+    @Query("""
+            DELETE FROM UserProvisioningEntity p
+            WHERE p.login = :login AND p.status = pl.derleta.nebula.domain.types.ProvisioningStatus.PENDING
+                AND p.attempts = 0 AND p.nextAttemptAt = :reservedUntil AND p.createdAt = :reservedAt
+            """)
+    int deleteReservation(@Param("login") String login,
+                          @Param("reservedAt") Instant reservedAt,
+                          @Param("reservedUntil") Instant reservedUntil);
+
+    /**
+     * Must be annotated with @Transactional, in ex. on @Service methods
+     * used to claim a due outbox record for one worker: the next attempt of the record is moved to the end
+     * of the lease, so other instances polling the outbox skip it while it is processed. The record is claimed
+     * only if it is still due, a record claimed concurrently by another instance is not updated.
+     * A record whose worker stopped during the lease becomes due again once the lease expired.
+     *
+     * @param id         the ID of the outbox record
+     * @param status     the status the record must have, usually PENDING
+     * @param now        the instant the record was found to be due
+     * @param leaseUntil the end of the lease
+     * @return 1 if the record was claimed, 0 if it was claimed by another worker or is no longer due
+     */
+    @Modifying
+    @Query("""
+            UPDATE UserProvisioningEntity p SET p.nextAttemptAt = :leaseUntil
+            WHERE p.id = :id AND p.status = :status AND p.nextAttemptAt <= :now
+            """)
+    int claim(@Param("id") long id,
+              @Param("status") ProvisioningStatus status,
+              @Param("now") Instant now,
+              @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Must be annotated with @Transactional, in ex. on @Service methods
+     * used to store the outcome of a claimed outbox record. The record is updated only while the claim of the worker
+     * is still held: a record whose lease expired and which was claimed again by another worker has a different
+     * next attempt, so a slow worker does not overwrite the outcome of the worker holding the current claim.
+     *
+     * @param id            the ID of the outbox record
+     * @param claimedUntil  the end of the lease of the claim, the claim token of the worker
+     * @param status        the new status of the record
+     * @param userId        the resolved ID of the user, may be null
+     * @param attempts      the number of attempts of the record
+     * @param nextAttemptAt the instant of the next attempt
+     * @param lastError     the error of the last attempt, may be null
+     * @return 1 if the record was updated, 0 if the claim is no longer held
+     */
+    @Modifying
+    @Query("""
+            UPDATE UserProvisioningEntity p
+            SET p.status = :status, p.userId = :userId, p.attempts = :attempts,
+                p.nextAttemptAt = :nextAttemptAt, p.lastError = :lastError
+            WHERE p.id = :id AND p.status = pl.derleta.nebula.domain.types.ProvisioningStatus.PENDING
+                AND p.nextAttemptAt = :claimedUntil
+            """)
+    int updateClaimed(@Param("id") long id,
+                      @Param("claimedUntil") Instant claimedUntil,
+                      @Param("status") ProvisioningStatus status,
+                      @Param("userId") Long userId,
+                      @Param("attempts") int attempts,
+                      @Param("nextAttemptAt") Instant nextAttemptAt,
+                      @Param("lastError") String lastError);
+
+    /**
+     * Checks whether an outbox record, which has not failed, exists for the given login.
+     *
+     * @param login the login of the registered account
+     * @return true if a pending or provisioned outbox record with the login exists
+     */
+    @Query("""
+            SELECT COUNT(p) > 0 FROM UserProvisioningEntity p
+            WHERE p.login = :login AND p.status <> pl.derleta.nebula.domain.types.ProvisioningStatus.FAILED
+            """)
+    boolean existsByLogin(@Param("login") String login);
+
+    /**
+     * Checks whether an outbox record, which has not failed, exists for the given email.
+     *
+     * @param email the email of the registered account
+     * @return true if a pending or provisioned outbox record with the email exists
+     */
+    @Query("""
+            SELECT COUNT(p) > 0 FROM UserProvisioningEntity p
+            WHERE p.email = :email AND p.status <> pl.derleta.nebula.domain.types.ProvisioningStatus.FAILED
+            """)
+    boolean existsByEmail(@Param("email") String email);
+
+}
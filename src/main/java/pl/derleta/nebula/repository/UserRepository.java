@@ -6,11 +6,101 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pl.derleta.nebula.domain.entity.UserEntity;
+import pl.derleta.nebula.domain.projection.GameView;
+import pl.derleta.nebula.domain.projection.UserVersionView;
+import pl.derleta.nebula.domain.projection.UserProfileView;
 
-import java.sql.Date;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<UserEntity, Long> {
+public interface UserRepository extends JpaRepository<UserEntity, Long>, UserRepositoryCustom {
+
+    /**
+     * Checks whether a user with the given login exists.
+     *
+     * @param login the login to look up
+     * @return true if a user with the login exists
+     */
+    boolean existsByLogin(String login);
+
+    /**
+     * Checks whether a user with the given email exists.
+     *
+     * @param email the email to look up
+     * @return true if a user with the email exists
+     */
+    boolean existsByEmail(String email);
+
+    /**
+     * Retrieves the read-only projection of a user joined with its gender, nationality, region and settings
+     * in a single query, without creating managed entities. The projection carries the version of the profile
+     * read from the same row, so the cached user can serve it.
+     *
+     * @param userId the ID of the user
+     * @return an Optional containing the UserProfileView if found, or an empty Optional if not found
+     */
+    @Query("""
+            SELECT new pl.derleta.nebula.domain.projection.UserProfileView(
+                u.id, u.login, u.email, u.firstName, u.lastName, u.age, u.birthDate,
+                gd.id, gd.name,
+                n.id, n.name, n.code, r.id, r.name,
+                s.id, g.id, t.id, t.name,
+                so.id, so.muted, so.battleCry, so.volumeMaster, so.volumeMusic, so.volumeEffects, so.volumeVoices,
+                s.document, u.version)
+            FROM UserEntity u
+            LEFT JOIN u.gender gd
+            LEFT JOIN u.nationality n
+            LEFT JOIN n.region r
+            LEFT JOIN u.settings s
+            LEFT JOIN s.general g
+            LEFT JOIN g.theme t
+            LEFT JOIN s.sound so
+            WHERE u.id = :userId
+            """)
+    Optional<UserProfileView> findProfileViewById(@Param("userId") long userId);
+
+    /**
+     * Retrieves the read-only projections of the users with the given ids, each joined with its gender, nationality,
+     * region and settings in the same query. Ids without a user are skipped, the order is not defined.
+     *
+     * @param userIds the IDs of the users
+     * @return a list of UserProfileView objects of the found users
+     */
+    @Query("""
+            SELECT new pl.derleta.nebula.domain.projection.UserProfileView(
+                u.id, u.login, u.email, u.firstName, u.lastName, u.age, u.birthDate,
+                gd.id, gd.name,
+                n.id, n.name, n.code, r.id, r.name,
+                s.id, g.id, t.id, t.name,
+                so.id, so.muted, so.battleCry, so.volumeMaster, so.volumeMusic, so.volumeEffects, so.volumeVoices,
+                s.document)
+            FROM UserEntity u
+            LEFT JOIN u.gender gd
+            LEFT JOIN u.nationality n
+            LEFT JOIN n.region r
+            LEFT JOIN u.settings s
+            LEFT JOIN s.general g
+            LEFT JOIN g.theme t
+            LEFT JOIN s.sound so
+            WHERE u.id IN :userIds
+            """)
+    List<UserProfileView> findProfileViewsByIdIn(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Retrieves the read-only projections of the games of a user, ordered by the game ID.
+     *
+     * @param userId the ID of the user
+     * @return a list of GameView objects of the games assigned to the user
+     */
+    @Query("""
+            SELECT new pl.derleta.nebula.domain.projection.GameView(g.id, g.name, g.enable, g.iconUrl, g.pageUrl)
+            FROM UserEntity u JOIN u.games g
+            WHERE u.id = :userId
+            ORDER BY g.id
+            """)
+    List<GameView> findGameViewsByUserId(@Param("userId") long userId);
 
     /**
      * Must be annotated with @Transactional, in ex. on @Service methods
@@ -20,34 +110,45 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
      */
     @Modifying
     @Query(value = """
-            UPDATE users SET updated_at = CURRENT_TIMESTAMP
+            UPDATE users SET updated_at = CURRENT_TIMESTAMP(6)
             WHERE id = :userId
             """, nativeQuery = true)
     void updateUserUpdatedAt(@Param("userId") long userId);
 
     /**
-     * Updates the details of a user in the database, including first name, last name, gender, nationality, birthdate,
-     * and the updated timestamp.
+     * Retrieves only the last update timestamp of a user, the version of the user aggregate, by the primary key.
      *
-     * @param userId        the ID of the user whose details are being updated
-     * @param firstName     the new first name of the user
-     * @param lastName      the new last name of the user
-     * @param birthdate     the new birthdate of the user
-     * @param nationalityId the ID representing the new nationality of the user
-     * @param genderId      the ID representing the new gender of the user
+     * @param userId the ID of the user
+     * @return an Optional containing the version of the user, or an empty Optional if the user does not exist
+     */
+    @Query("""
+            SELECT new pl.derleta.nebula.domain.projection.UserVersionView(u.id, u.updatedAt)
+            FROM UserEntity u
+            WHERE u.id = :userId
+            """)
+    Optional<UserVersionView> findVersionViewById(@Param("userId") long userId);
+
+    /**
+     * Retrieves only the version of the profile of a user by the primary key, without loading the profile.
+     *
+     * @param userId the ID of the user
+     * @return an Optional containing the version of the profile, or an empty Optional if the user does not exist
+     */
+    @Query("SELECT u.version FROM UserEntity u WHERE u.id = :userId")
+    Optional<Long> findProfileVersionById(@Param("userId") long userId);
+
+    /**
+     * Must be annotated with @Transactional, in ex. on @Service methods
+     * used to mark the data of all users having the game as changed, when the game itself is updated or deleted
+     *
+     * @param gameId the ID of the changed game
      */
     @Modifying
     @Query(value = """
-            UPDATE users u SET u.first_name = :firstName, u.last_name = :lastName,
-                        u.gender_id = :genderId, u.nationality_id = :nationalityId,
-                        u.birth_date = :birthdate, u.updated_at = CURRENT_TIMESTAMP
-            WHERE id = :userId
+            UPDATE users u JOIN users_games ug ON ug.user_id = u.id
+            SET u.updated_at = CURRENT_TIMESTAMP(6)
+            WHERE ug.game_id = :gameId
             """, nativeQuery = true)
-    void updateUserDetails(@Param("userId") long userId,
-                           @Param("firstName") String firstName,
-                           @Param("lastName") String lastName,
-                           @Param("birthdate") Date birthdate,
-                           @Param("nationalityId") int nationalityId,
-                           @Param("genderId") int genderId);
+    void updateUpdatedAtByGameId(@Param("gameId") int gameId);
 
 }
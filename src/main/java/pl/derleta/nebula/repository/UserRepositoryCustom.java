@@ -0,0 +1,57 @@
+package pl.derleta.nebula.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import pl.derleta.nebula.domain.entity.UserEntity;
+import pl.derleta.nebula.domain.model.UserFieldSet;
+import pl.derleta.nebula.domain.projection.UserProfileView;
+import pl.derleta.nebula.domain.projection.UserSearchView;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Retrieves the read-only projection of a user limited to the requested fields. Only the selected columns
+     * are queried and only the relations needed by them are joined, the values of the other fields are null.
+     *
+     * @param userId the ID of the user
+     * @param fields the requested fields
+     * @return an Optional containing the UserProfileView if found, or an empty Optional if not found
+     */
+    Optional<UserProfileView> findProfileViewById(long userId, UserFieldSet fields);
+
+    /**
+     * Updates only the given profile columns of a user, its last update timestamp and the version of its profile,
+     * the columns whose value is null are left out of the UPDATE statement. A new birthdate also updates the stored age.
+     * With an expected version the row is updated only if its profile still has that version.
+     * The row is updated only if at least one given value differs from the stored one, so resubmitted values
+     * keep the timestamp and the version.
+     *
+     * @param userId          the ID of the user
+     * @param firstName       the new first name, or null to keep it
+     * @param lastName        the new last name, or null to keep it
+     * @param birthdate       the new birthdate, or null to keep it
+     * @param nationalityId   the ID of the new nationality, or null to keep it
+     * @param genderId        the ID of the new gender, or null to keep it
+     * @param expectedVersion the version the profile must have, or null to update unconditionally
+     * @return the number of updated rows, 0 if the user does not exist, has another version, no value is given
+     * or no value changes
+     */
+    int updateProfileFields(long userId, String firstName, String lastName, Date birthdate,
+                            Integer nationalityId, Integer genderId, Long expectedVersion);
+
+    /**
+     * Retrieves the read-only search projections of the users matching the filter, ordered by the sort field
+     * and then by the id in the same direction, without counting all matching rows.
+     *
+     * @param filter    the filter of the users, or null to match all users
+     * @param sortBy    the name of the sort field
+     * @param ascending whether the order is ascending
+     * @param limit     the maximum number of returned users
+     * @return a list of UserSearchView objects of the first matching users
+     */
+    List<UserSearchView> searchViews(Specification<UserEntity> filter, String sortBy, boolean ascending, int limit);
+
+}
@@ -0,0 +1,191 @@
+package pl.derleta.nebula.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import pl.derleta.nebula.domain.entity.UserEntity;
+import pl.derleta.nebula.domain.model.UserFieldSet;
+import pl.derleta.nebula.domain.projection.UserProfileView;
+import pl.derleta.nebula.domain.projection.UserSearchView;
+
+import java.sql.Date;
+import java.util.*;
+
+/**
+ * Implementation of the {@link UserRepositoryCustom} fragment building the JPQL tuple query of a user
+ * from the requested fields, so unrequested columns are not selected and unrequested relations are not joined,
+ * with the settings document read instead of the settings rows in the document storage mode,
+ * the UPDATE of a profile from the given values, so unchanged columns are not written,
+ * and the criteria query of the admin search from a specification, so only the requested page is read.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final List<String> SCALAR_FIELDS = List.of("login", "email", "firstName", "lastName", "age", "birthDate");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${nebula.settings.document-storage:false}")
+    private boolean documentStorage;
+
+    /**
+     * In the document storage mode the requested settings are read from the settings document of the user_settings
+     * row without joining the general and sound rows, which are joined only for a row without a document yet.
+     */
+    @Override
+    public Optional<UserProfileView> findProfileViewById(long userId, UserFieldSet fields) {
+        Optional<UserProfileView> view = findProfileViewById(userId, fields, documentStorage);
+        if (documentStorage && view.isPresent() && view.get().settingsId() != null
+                && view.get().settingsDocument() == null) return findProfileViewById(userId, fields, false);
+        return view;
+    }
+
+    private Optional<UserProfileView> findProfileViewById(long userId, UserFieldSet fields, boolean documentOnly) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        Set<String> joins = new LinkedHashSet<>();
+        columns.put("id", "u.id");
+        for (String field : SCALAR_FIELDS) {
+            if (fields.includes(field)) columns.put(field, "u." + field);
+        }
+        if (fields.includes("gender")) {
+            joins.add("LEFT JOIN u.gender gd");
+            columns.put("genderId", "gd.id");
+            columns.put("genderName", "gd.name");
+        }
+        if (fields.includes("nationality")) {
+            joins.add("LEFT JOIN u.nationality n");
+            joins.add("LEFT JOIN n.region r");
+            columns.put("nationalityId", "n.id");
+            columns.put("nationalityName", "n.name");
+            columns.put("nationalityCode", "n.code");
+            columns.put("regionId", "r.id");
+            columns.put("regionName", "r.name");
+        }
+        if (fields.includes("settings")) {
+            joins.add("LEFT JOIN u.settings s");
+            columns.put("settingsId", "s.id");
+            columns.put("settingsDocument", "s.document");
+        }
+        if (fields.includes("settings.general") && documentOnly) {
+            columns.put("generalId", "s.id");
+        } else if (fields.includes("settings.general")) {
+            joins.add("LEFT JOIN s.general g");
+            joins.add("LEFT JOIN g.theme t");
+            columns.put("generalId", "g.id");
+            columns.put("themeId", "t.id");
+            columns.put("themeName", "t.name");
+        }
+        if (fields.includes("settings.sound") && documentOnly) {
+            columns.put("soundId", "s.id");
+        } else if (fields.includes("settings.sound")) {
+            joins.add("LEFT JOIN s.sound so");
+            columns.put("soundId", "so.id");
+            columns.put("muted", "so.muted");
+            columns.put("battleCry", "so.battleCry");
+            columns.put("volumeMaster", "so.volumeMaster");
+            columns.put("volumeMusic", "so.volumeMusic");
+            columns.put("volumeEffects", "so.volumeEffects");
+            columns.put("volumeVoices", "so.volumeVoices");
+        }
+
+        StringJoiner select = new StringJoiner(", ", "SELECT ", " FROM UserEntity u");
+        columns.forEach((alias, path) -> select.add(path + " AS " + alias));
+        String jpql = select + (joins.isEmpty() ? "" : " " + String.join(" ", joins)) + " WHERE u.id = :userId";
+
+        List<Tuple> result = entityManager.createQuery(jpql, Tuple.class)
+                .setParameter("userId", userId)
+                .getResultList();
+        return result.stream().findFirst().map(tuple -> toView(tuple, columns.keySet()));
+    }
+
+    @Override
+    public int updateProfileFields(long userId, String firstName, String lastName, Date birthdate,
+                                   Integer nationalityId, Integer genderId, Long expectedVersion) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (firstName != null) values.put("first_name", firstName);
+        if (lastName != null) values.put("last_name", lastName);
+        if (birthdate != null) values.put("birth_date", birthdate);
+        if (nationalityId != null) values.put("nationality_id", nationalityId);
+        if (genderId != null) values.put("gender_id", genderId);
+        if (values.isEmpty()) return 0;
+
+        StringJoiner set = new StringJoiner(", ", "UPDATE users SET ",
+                ", updated_at = CURRENT_TIMESTAMP(6), version = version + 1");
+        values.keySet().forEach(column -> set.add(column + " = :" + column));
+        if (birthdate != null) set.add("age = TIMESTAMPDIFF(YEAR, :birth_date, CURRENT_DATE)");
+        StringJoiner changed = new StringJoiner(" OR ", " AND (", ")");
+        values.keySet().forEach(column -> changed.add("NOT " + column + " <=> :" + column));
+        String where = " WHERE id = :userId" + (expectedVersion != null ? " AND version = :expectedVersion" : "")
+                + changed;
+        Query query = entityManager.createNativeQuery(set + where)
+                .setParameter("userId", userId);
+        values.forEach(query::setParameter);
+        if (expectedVersion != null) query.setParameter("expectedVersion", expectedVersion);
+        return query.executeUpdate();
+    }
+
+    @Override
+    public List<UserSearchView> searchViews(Specification<UserEntity> filter, String sortBy, boolean ascending, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserSearchView> query = cb.createQuery(UserSearchView.class);
+        Root<UserEntity> u = query.from(UserEntity.class);
+        Join<Object, Object> gender = u.join("gender", JoinType.LEFT);
+        Join<Object, Object> nationality = u.join("nationality", JoinType.LEFT);
+        Join<Object, Object> region = nationality.join("region", JoinType.LEFT);
+        query.select(cb.construct(UserSearchView.class,
+                u.get("id"), u.get("login"), u.get("email"), u.get("firstName"), u.get("lastName"),
+                u.get("age"), u.get("birthDate"),
+                gender.get("id"), gender.get("name"),
+                nationality.get("id"), nationality.get("name"), nationality.get("code"),
+                region.get("id"), region.get("name"),
+                u.get("updatedAt")));
+        Predicate predicate = filter != null ? filter.toPredicate(u, query, cb) : null;
+        if (predicate != null) query.where(predicate);
+        List<Order> order = new ArrayList<>();
+        if (!"id".equals(sortBy)) order.add(ascending ? cb.asc(u.get(sortBy)) : cb.desc(u.get(sortBy)));
+        order.add(ascending ? cb.asc(u.get("id")) : cb.desc(u.get("id")));
+        query.orderBy(order);
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static UserProfileView toView(Tuple tuple, Set<String> aliases) {
+        return new UserProfileView(
+                value(tuple, aliases, "id", Long.class),
+                value(tuple, aliases, "login", String.class),
+                value(tuple, aliases, "email", String.class),
+                value(tuple, aliases, "firstName", String.class),
+                value(tuple, aliases, "lastName", String.class),
+                value(tuple, aliases, "age", Integer.class),
+                value(tuple, aliases, "birthDate", Date.class),
+                value(tuple, aliases, "genderId", Integer.class),
+                value(tuple, aliases, "genderName", String.class),
+                value(tuple, aliases, "nationalityId", Integer.class),
+                value(tuple, aliases, "nationalityName", String.class),
+                value(tuple, aliases, "nationalityCode", String.class),
+                value(tuple, aliases, "regionId", Integer.class),
+                value(tuple, aliases, "regionName", String.class),
+                value(tuple, aliases, "settingsId", Long.class),
+                value(tuple, aliases, "generalId", Long.class),
+                value(tuple, aliases, "themeId", Integer.class),
+                value(tuple, aliases, "themeName", String.class),
+                value(tuple, aliases, "soundId", Long.class),
+                value(tuple, aliases, "muted", Boolean.class),
+                value(tuple, aliases, "battleCry", Boolean.class),
+                value(tuple, aliases, "volumeMaster", Integer.class),
+                value(tuple, aliases, "volumeMusic", Integer.class),
+                value(tuple, aliases, "volumeEffects", Integer.class),
+                value(tuple, aliases, "volumeVoices", Integer.class),
+                value(tuple, aliases, "settingsDocument", String.class));
+    }
+
+    private static <T> T value(Tuple tuple, Set<String> aliases, String alias, Class<T> type) {
+        return aliases.contains(alias) ? tuple.get(alias, type) : null;
+    }
+
+}
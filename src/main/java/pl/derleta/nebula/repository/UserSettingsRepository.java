@@ -1,10 +1,28 @@
 package pl.derleta.nebula.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pl.derleta.nebula.domain.entity.UserSettingsEntity;
+import pl.derleta.nebula.domain.model.SettingsVersion;
+
+import java.util.Optional;
 
 @Repository
-public interface UserSettingsRepository extends JpaRepository<UserSettingsEntity, Long> {
+public interface UserSettingsRepository extends JpaRepository<UserSettingsEntity, Long>, UserSettingsRepositoryCustom {
+
+    /**
+     * Retrieves only the versions of the settings of a user by the primary key, without loading the settings.
+     *
+     * @param userId the ID of the user
+     * @return an Optional containing the versions, or an empty Optional if the user has no settings
+     */
+    @Query("""
+            SELECT new pl.derleta.nebula.domain.model.SettingsVersion(s.version, s.generalVersion, s.soundVersion)
+            FROM UserSettingsEntity s
+            WHERE s.id = :userId
+            """)
+    Optional<SettingsVersion> findVersionById(@Param("userId") long userId);
 
 }
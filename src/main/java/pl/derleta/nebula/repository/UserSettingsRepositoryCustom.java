@@ -0,0 +1,46 @@
+package pl.derleta.nebula.repository;
+
+import pl.derleta.nebula.domain.model.UserSettings;
+import pl.derleta.nebula.domain.model.VersionedSettings;
+
+import java.util.Optional;
+
+public interface UserSettingsRepositoryCustom {
+
+    /**
+     * Retrieves the settings of a user by the primary key. A present settings document is read from the
+     * user_settings row alone, otherwise the settings are read from the general and sound rows.
+     *
+     * @param userId the ID of the user
+     * @return an Optional containing the settings, or an empty Optional if the user has no settings
+     */
+    Optional<UserSettings> findSettingsById(long userId);
+
+    /**
+     * Retrieves the settings of a user with their versions from the same user_settings row, read by the primary key,
+     * so the versions always describe the returned settings.
+     *
+     * @param userId the ID of the user
+     * @return an Optional containing the settings with their versions, or an empty Optional if the user has no settings
+     */
+    Optional<VersionedSettings> findVersionedSettingsById(long userId);
+
+    /**
+     * Must be annotated with @Transactional, in ex. on @Service methods
+     * used to write the settings of a user and increment their version, recording it as the version of the last
+     * change of the changed groups. In the document storage mode the settings document and the version are written
+     * by a single UPDATE of the user_settings row, otherwise the general and sound rows are written and the document
+     * is cleared. With an expected version the row is updated only if it still has that version: the version UPDATE
+     * runs first, so a stale version is rejected before the rows are merged or the theme is looked up, and in the document
+     * storage mode the document is then written by a second UPDATE by the primary key.
+     *
+     * @param settings        the new settings of the user
+     * @param general         whether the general settings were changed
+     * @param sound           whether the sound settings were changed
+     * @param expectedVersion the version the settings must have, or null to write unconditionally
+     * @return the written settings with the stored theme, or null if the user has no settings or another version
+     * @throws pl.derleta.nebula.exceptions.ThemeNotFoundException if the theme does not exist
+     */
+    UserSettings writeSettings(UserSettings settings, boolean general, boolean sound, Long expectedVersion);
+
+}
@@ -0,0 +1,116 @@
+package pl.derleta.nebula.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Value;
+import pl.derleta.nebula.domain.entity.ThemeEntity;
+import pl.derleta.nebula.domain.entity.UserSettingsEntity;
+import pl.derleta.nebula.domain.mapper.ThemeMapper;
+import pl.derleta.nebula.domain.mapper.UserSettingsDocumentMapper;
+import pl.derleta.nebula.domain.mapper.UserSettingsMapper;
+import pl.derleta.nebula.domain.model.SettingsVersion;
+import pl.derleta.nebula.domain.model.Theme;
+import pl.derleta.nebula.domain.model.UserSettings;
+import pl.derleta.nebula.domain.model.UserSettingsGeneral;
+import pl.derleta.nebula.domain.model.VersionedSettings;
+import pl.derleta.nebula.exceptions.ThemeNotFoundException;
+
+import java.util.Optional;
+
+/**
+ * Implementation of the {@link UserSettingsRepositoryCustom} fragment choosing the storage of the settings.
+ * <p>
+ * In the document storage mode ({@code nebula.settings.document-storage}) the settings are a JSON document
+ * in the user_settings row, so a write is a single UPDATE by the primary key. Otherwise they are written
+ * to the user_settings_general and user_settings_sound rows as before. A present document is always the current
+ * state of the settings: a write of the rows clears it, so the mode can be switched in both directions
+ * and the rows written meanwhile are read correctly. The documents of the existing rows are built
+ * by the migration script {@code 08_user_settings_documents.sql}.
+ */
+public class UserSettingsRepositoryCustomImpl implements UserSettingsRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${nebula.settings.document-storage:false}")
+    private boolean documentStorage;
+
+    @Override
+    public Optional<UserSettings> findSettingsById(long userId) {
+        return Optional.ofNullable(entityManager.find(UserSettingsEntity.class, userId)).map(UserSettingsRepositoryCustomImpl::toSettings);
+    }
+
+    @Override
+    public Optional<VersionedSettings> findVersionedSettingsById(long userId) {
+        return Optional.ofNullable(entityManager.find(UserSettingsEntity.class, userId))
+                .map(entity -> new VersionedSettings(toSettings(entity), new SettingsVersion(valueOrZero(entity.getVersion()),
+                        valueOrZero(entity.getGeneralVersion()), valueOrZero(entity.getSoundVersion()))));
+    }
+
+    @Override
+    public UserSettings writeSettings(UserSettings settings, boolean general, boolean sound, Long expectedVersion) {
+        long userId = settings.userId();
+        if (!documentStorage) {
+            if (updateRow(userId, general, sound, expectedVersion, "NULL", null) == 0) return null;
+            return UserSettingsMapper.toSetting(entityManager.merge(UserSettingsMapper.toEntity(settings)));
+        }
+        if (expectedVersion == null) {
+            UserSettings written = withStoredTheme(settings);
+            return updateRow(userId, general, sound, null, ":document", written) > 0 ? written : null;
+        }
+        if (updateRow(userId, general, sound, expectedVersion, "document", null) == 0) return null;
+        UserSettings written = withStoredTheme(settings);
+        entityManager.createNativeQuery("UPDATE user_settings SET document = :document WHERE user_id = :userId")
+                .setParameter("document", UserSettingsDocumentMapper.toDocument(written))
+                .setParameter("userId", userId)
+                .executeUpdate();
+        return written;
+    }
+
+    /**
+     * Increments the versions of the user_settings row and sets its document, conditional on the expected version.
+     *
+     * @param document the SQL expression of the new document: NULL, the current document or the :document parameter
+     * @param written  the settings bound to the :document parameter, or null if the expression has no parameter
+     * @return the number of updated rows
+     */
+    private int updateRow(long userId, boolean general, boolean sound, Long expectedVersion,
+                          String document, UserSettings written) {
+        String sql = "UPDATE user_settings SET document = " + document + ", "
+                + "general_version = " + (general ? "version + 1" : "general_version") + ", "
+                + "sound_version = " + (sound ? "version + 1" : "sound_version") + ", "
+                + "version = version + 1 "
+                + "WHERE user_id = :userId" + (expectedVersion != null ? " AND version = :expectedVersion" : "");
+        Query query = entityManager.createNativeQuery(sql).setParameter("userId", userId);
+        if (written != null) query.setParameter("document", UserSettingsDocumentMapper.toDocument(written));
+        if (expectedVersion != null) query.setParameter("expectedVersion", expectedVersion);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Reads the settings from the settings document if present, otherwise from the general and sound rows.
+     */
+    private static UserSettings toSettings(UserSettingsEntity entity) {
+        if (entity.getDocument() != null)
+            return UserSettingsDocumentMapper.toSettings(entity.getId(), entity.getDocument(), true, true);
+        return UserSettingsMapper.toSetting(entity);
+    }
+
+    private static long valueOrZero(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * Replaces the theme of the settings with the stored one, whose name is denormalized into the document.
+     */
+    private UserSettings withStoredTheme(UserSettings settings) {
+        Theme theme = settings.general() != null ? settings.general().theme() : null;
+        if (theme == null) return settings;
+        ThemeEntity stored = entityManager.find(ThemeEntity.class, theme.id());
+        if (stored == null) throw new ThemeNotFoundException("Theme with id: " + theme.id() + " not found");
+        return new UserSettings(settings.userId(),
+                new UserSettingsGeneral(settings.general().userId(), ThemeMapper.toTheme(stored)), settings.sound());
+    }
+
+}
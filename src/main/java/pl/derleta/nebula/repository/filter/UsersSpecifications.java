@@ -0,0 +1,160 @@
+package pl.derleta.nebula.repository.filter;
+
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import lombok.EqualsAndHashCode;
+import org.springframework.data.jpa.domain.Specification;
+import pl.derleta.nebula.domain.entity.UserEntity;
+
+import java.time.Instant;
+
+/**
+ * A utility class providing specifications for the admin search of {@link UserEntity} objects.
+ * <p>
+ * The specifications in this class allow filtering by:
+ * - Login and email prefix (using "LIKE 'prefix%'", so the index of the column can be used).
+ * - Nationality and gender (exact match).
+ * - Age range and last update range (inclusive bounds).
+ * - The position after the last row of the previous page, for keyset pagination on (sort key, id).
+ * <p>
+ * A filter without a value is not applied. All methods in this class are static and immutable.
+ */
+@EqualsAndHashCode
+public final class UsersSpecifications {
+
+    /**
+     * Creates a specification combining all filters of the user search, the filters without a value are not applied.
+     *
+     * @param login         the prefix of the login, or null
+     * @param email         the prefix of the email, or null
+     * @param nationalityId the ID of the nationality, or null
+     * @param genderId      the ID of the gender, or null
+     * @param minAge        the minimum age, or null
+     * @param maxAge        the maximum age, or null
+     * @param updatedFrom   the earliest last update, or null
+     * @param updatedTo     the latest last update, or null
+     * @return a {@link Specification} matching the users passing all given filters
+     */
+    public static Specification<UserEntity> hasAllFilters(final String login, final String email,
+                                                          final Integer nationalityId, final Integer genderId,
+                                                          final Integer minAge, final Integer maxAge,
+                                                          final Instant updatedFrom, final Instant updatedTo) {
+        return Specification.where(hasLoginPrefix(login))
+                .and(hasEmailPrefix(email))
+                .and(hasNationality(nationalityId))
+                .and(hasGender(genderId))
+                .and(hasAgeBetween(minAge, maxAge))
+                .and(isUpdatedBetween(updatedFrom, updatedTo));
+    }
+
+    /**
+     * Creates a specification to filter {@link UserEntity} objects by the beginning of their "login" field.
+     * The LIKE wildcards in the prefix are matched literally.
+     *
+     * @param prefix the prefix of the login, if null or empty the filter is not applied
+     * @return a {@link Specification} applying a "LIKE 'prefix%'" predicate to the "login" field
+     */
+    public static Specification<UserEntity> hasLoginPrefix(final String prefix) {
+        return hasPrefix("login", prefix);
+    }
+
+    /**
+     * Creates a specification to filter {@link UserEntity} objects by the beginning of their "email" field.
+     * The LIKE wildcards in the prefix are matched literally.
+     *
+     * @param prefix the prefix of the email, if null or empty the filter is not applied
+     * @return a {@link Specification} applying a "LIKE 'prefix%'" predicate to the "email" field
+     */
+    public static Specification<UserEntity> hasEmailPrefix(final String prefix) {
+        return hasPrefix("email", prefix);
+    }
+
+    /**
+     * Creates a specification to filter {@link UserEntity} objects by their nationality.
+     *
+     * @param nationalityId the ID of the nationality, if null the filter is not applied
+     * @return a {@link Specification} matching the users with the given nationality
+     */
+    public static Specification<UserEntity> hasNationality(final Integer nationalityId) {
+        return (root, query, cb) -> nationalityId == null ? null
+                : cb.equal(root.get("nationality").get("id"), nationalityId);
+    }
+
+    /**
+     * Creates a specification to filter {@link UserEntity} objects by their gender.
+     *
+     * @param genderId the ID of the gender, if null the filter is not applied
+     * @return a {@link Specification} matching the users with the given gender
+     */
+    public static Specification<UserEntity> hasGender(final Integer genderId) {
+        return (root, query, cb) -> genderId == null ? null
+                : cb.equal(root.get("gender").get("id"), genderId);
+    }
+
+    /**
+     * Creates a specification to filter {@link UserEntity} objects by their stored age, both bounds are inclusive.
+     *
+     * @param minAge the minimum age, or null for no lower bound
+     * @param maxAge the maximum age, or null for no upper bound
+     * @return a {@link Specification} matching the users with an age within the bounds
+     */
+    public static Specification<UserEntity> hasAgeBetween(final Integer minAge, final Integer maxAge) {
+        return (root, query, cb) -> {
+            if (minAge != null && maxAge != null) return cb.between(root.get("age"), minAge, maxAge);
+            if (minAge != null) return cb.greaterThanOrEqualTo(root.get("age"), minAge);
+            if (maxAge != null) return cb.lessThanOrEqualTo(root.get("age"), maxAge);
+            return null;
+        };
+    }
+
+    /**
+     * Creates a specification to filter {@link UserEntity} objects by their last update, both bounds are inclusive.
+     *
+     * @param from the earliest last update, or null for no lower bound
+     * @param to   the latest last update, or null for no upper bound
+     * @return a {@link Specification} matching the users updated within the bounds
+     */
+    public static Specification<UserEntity> isUpdatedBetween(final Instant from, final Instant to) {
+        return (root, query, cb) -> {
+            if (from != null && to != null) return cb.between(root.get("updatedAt"), from, to);
+            if (from != null) return cb.greaterThanOrEqualTo(root.get("updatedAt"), from);
+            if (to != null) return cb.lessThanOrEqualTo(root.get("updatedAt"), to);
+            return null;
+        };
+    }
+
+    /**
+     * Creates a specification matching the {@link UserEntity} objects placed after the given row
+     * in the order of the sort key and the id, the seek condition of keyset pagination.
+     * Combined with an index ending with the id, the next page is read from the index position of the last row
+     * instead of skipping the rows of all previous pages.
+     *
+     * @param sortBy    the name of the sort field, "id" when sorting by the id only
+     * @param ascending whether the order is ascending
+     * @param value     the value of the sort field in the last row of the previous page, ignored when sorting by the id
+     * @param id        the id of the last row of the previous page
+     * @return a {@link Specification} matching the rows after the given one
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<UserEntity> isAfter(final String sortBy, final boolean ascending,
+                                                    final Comparable<?> value, final long id) {
+        return (root, query, cb) -> {
+            Expression<Long> idPath = root.get("id");
+            Predicate idAfter = ascending ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id);
+            if ("id".equals(sortBy)) return idAfter;
+            Expression<Comparable> key = root.get(sortBy);
+            Comparable bound = value;
+            Predicate keyAfter = ascending ? cb.greaterThan(key, bound) : cb.lessThan(key, bound);
+            return cb.or(keyAfter, cb.and(cb.equal(key, bound), idAfter));
+        };
+    }
+
+    private static Specification<UserEntity> hasPrefix(final String field, final String prefix) {
+        return (root, query, cb) -> {
+            if (prefix == null || prefix.isEmpty()) return null;
+            String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+            return cb.like(root.get(field), pattern, '\\');
+        };
+    }
+
+}
@@ -0,0 +1,13 @@
+package pl.derleta.nebula.service;
+
+public interface AccountAvailabilityProvider {
+
+    boolean isLoginAvailable(String login);
+
+    boolean isEmailAvailable(String email);
+
+    void register(String login, String email);
+
+    void rebuild();
+
+}
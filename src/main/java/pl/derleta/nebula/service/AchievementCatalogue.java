@@ -0,0 +1,18 @@
+package pl.derleta.nebula.service;
+
+import pl.derleta.nebula.domain.model.Achievement;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface AchievementCatalogue {
+
+    List<Achievement> getAll();
+
+    Optional<Achievement> get(int achievementId);
+
+    int version();
+
+    void refresh();
+
+}
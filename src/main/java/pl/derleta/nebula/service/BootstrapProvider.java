@@ -0,0 +1,11 @@
+package pl.derleta.nebula.service;
+
+import pl.derleta.nebula.domain.model.Bootstrap;
+
+public interface BootstrapProvider {
+
+    String USER = "user";
+
+    Bootstrap get(long userId);
+
+}
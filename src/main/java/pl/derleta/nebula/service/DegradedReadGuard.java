@@ -0,0 +1,14 @@
+package pl.derleta.nebula.service;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+public interface DegradedReadGuard {
+
+    String STALE_ATTRIBUTE = "nebula.degraded.stale";
+
+    <T> T read(String key, Supplier<T> loader, Supplier<Optional<T>> stale);
+
+    boolean isDegraded();
+
+}
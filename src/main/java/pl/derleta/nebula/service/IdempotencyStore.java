@@ -0,0 +1,13 @@
+package pl.derleta.nebula.service;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyStore {
+
+    String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    <T> ResponseEntity<T> execute(String idempotencyKey, String scope, String fingerprint, Supplier<ResponseEntity<T>> action);
+
+}
@@ -0,0 +1,38 @@
+package pl.derleta.nebula.service;
+
+import pl.derleta.nebula.domain.model.Game;
+import pl.derleta.nebula.domain.model.Gender;
+import pl.derleta.nebula.domain.model.Nationality;
+import pl.derleta.nebula.domain.model.Theme;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ReferenceDataCatalogue {
+
+    String GENDERS = "genders";
+    String NATIONALITIES = "nationalities";
+    String THEMES = "themes";
+    String ENABLED_GAMES = "games";
+
+    List<Gender> getGenders();
+
+    List<Nationality> getNationalities();
+
+    List<Theme> getThemes();
+
+    List<Game> getEnabledGames();
+
+    Map<String, String> getVersions();
+
+    boolean containsGender(int genderId);
+
+    boolean containsNationality(int nationalityId);
+
+    boolean isLoaded();
+
+    void refresh();
+
+    void refreshAfterCommit();
+
+}
@@ -0,0 +1,12 @@
+package pl.derleta.nebula.service;
+
+import pl.derleta.nebula.controller.request.AccountRegistrationRequest;
+import pl.derleta.nebula.domain.types.AccountResponseType;
+
+import java.util.Optional;
+
+public interface RegistrationValidator {
+
+    Optional<AccountResponseType> validate(AccountRegistrationRequest request);
+
+}
@@ -0,0 +1,24 @@
+package pl.derleta.nebula.service;
+
+import pl.derleta.nebula.domain.model.UserSettings;
+
+import java.util.Optional;
+
+public interface SettingsWriteBuffer {
+
+    boolean isEnabled();
+
+    UserSettings submit(UserSettings settings);
+
+    Optional<UserSettings> getPending(long userId);
+
+    boolean flush(long userId);
+
+    int flushAll();
+
+    Stats stats();
+
+    record Stats(long submitted, long coalesced, long flushed, long failed, long dropped, int pending) {
+    }
+
+}
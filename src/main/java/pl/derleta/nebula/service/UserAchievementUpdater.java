@@ -0,0 +1,9 @@
+package pl.derleta.nebula.service;
+
+import pl.derleta.nebula.domain.model.UserAchievement;
+
+public interface UserAchievementUpdater {
+
+    UserAchievement updateValue(long userId, int achievementId, int value);
+
+}
@@ -0,0 +1,17 @@
+package pl.derleta.nebula.service;
+
+import java.time.Instant;
+
+public interface UserAgeUpdater {
+
+    boolean scheduleRecompute();
+
+    int recompute();
+
+    Stats stats();
+
+    record Stats(boolean running, long checkedUsers, long updatedUsers, long lastId,
+                 Instant startedAt, Instant finishedAt) {
+    }
+
+}
@@ -0,0 +1,13 @@
+package pl.derleta.nebula.service;
+
+public interface UserBackfillUpdater {
+
+    boolean scheduleGameBackfill(int gameId);
+
+    boolean scheduleAchievementBackfill(int achievementId);
+
+    int detectNewGamesAndAchievements();
+
+    int resumeUnfinished();
+
+}
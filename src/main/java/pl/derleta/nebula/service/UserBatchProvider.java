@@ -0,0 +1,11 @@
+package pl.derleta.nebula.service;
+
+import pl.derleta.nebula.domain.model.UserBatch;
+
+import java.util.List;
+
+public interface UserBatchProvider {
+
+    UserBatch getProfiles(List<Long> userIds);
+
+}
@@ -0,0 +1,30 @@
+package pl.derleta.nebula.service;
+
+import pl.derleta.nebula.domain.model.NebulaUser;
+
+import java.util.Optional;
+import java.util.function.LongFunction;
+import java.util.function.UnaryOperator;
+
+public interface UserCache {
+
+    NebulaUser get(long userId, LongFunction<NebulaUser> loader);
+
+    Optional<NebulaUser> getIfPresent(long userId);
+
+    Optional<NebulaUser> getStale(long userId);
+
+    NebulaUser refresh(long userId, LongFunction<NebulaUser> loader);
+
+    void update(long userId, UnaryOperator<NebulaUser> change);
+
+    void invalidate(long userId);
+
+    void invalidateAll();
+
+    Stats stats();
+
+    record Stats(long hits, long misses, long evictions, int size, long weight) {
+    }
+
+}
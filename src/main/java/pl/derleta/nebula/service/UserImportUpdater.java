@@ -0,0 +1,14 @@
+package pl.derleta.nebula.service;
+
+import pl.derleta.nebula.controller.response.UserImportSummaryResponse;
+import pl.derleta.nebula.domain.types.ImportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface UserImportUpdater {
+
+    UserImportSummaryResponse importUsers(InputStream input, ImportFormat format, OutputStream output) throws IOException;
+
+}
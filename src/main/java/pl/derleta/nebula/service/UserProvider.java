@@ -1,9 +1,25 @@
 package pl.derleta.nebula.service;
 
 import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.domain.model.SettingsVersion;
+import pl.derleta.nebula.domain.model.UserFieldSet;
+import pl.derleta.nebula.domain.model.VersionedProfile;
+import pl.derleta.nebula.domain.model.VersionedSettings;
+
+import java.util.Optional;
 
 public interface UserProvider {
 
     NebulaUser get(Long userId);
 
+    NebulaUser get(Long userId, UserFieldSet fields);
+
+    Optional<String> getETag(Long userId, UserFieldSet fields);
+
+    Optional<SettingsVersion> getSettingsVersion(Long userId);
+
+    Optional<VersionedSettings> getVersionedSettings(Long userId);
+
+    Optional<VersionedProfile> getVersionedProfile(Long userId);
+
 }
@@ -0,0 +1,21 @@
+package pl.derleta.nebula.service;
+
+import pl.derleta.nebula.controller.request.AccountRegistrationRequest;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface UserProvisioningUpdater {
+
+    Optional<Reservation> reserve(AccountRegistrationRequest request);
+
+    void activate(Reservation reservation);
+
+    void cancel(Reservation reservation);
+
+    int processPending();
+
+    record Reservation(String login, Instant reservedAt, Instant reservedUntil) {
+    }
+
+}
@@ -0,0 +1,10 @@
+package pl.derleta.nebula.service;
+
+import pl.derleta.nebula.controller.request.UserSearchRequest;
+import pl.derleta.nebula.domain.model.UserSearchPage;
+
+public interface UserSearchProvider {
+
+    UserSearchPage search(UserSearchRequest request);
+
+}
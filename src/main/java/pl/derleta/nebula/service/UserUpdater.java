@@ -1,13 +1,19 @@
 package pl.derleta.nebula.service;
 
 import pl.derleta.nebula.controller.request.Request;
-import pl.derleta.nebula.domain.model.NebulaUser;
 import pl.derleta.nebula.domain.model.UserSettings;
+import pl.derleta.nebula.domain.model.UserSettingsPatch;
+import pl.derleta.nebula.domain.model.VersionedProfile;
+import pl.derleta.nebula.domain.model.VersionedSettings;
 
 public interface UserUpdater {
 
-    NebulaUser updateProfile(Request request);
+    VersionedProfile updateProfile(Request request);
 
     UserSettings updateSettings(UserSettings userSettings);
 
+    VersionedSettings updateSettings(UserSettings userSettings, long expectedVersion);
+
+    VersionedSettings patchSettings(UserSettingsPatch patch);
+
 }
@@ -0,0 +1,196 @@
+package pl.derleta.nebula.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pl.derleta.nebula.repository.UserProvisioningRepository;
+import pl.derleta.nebula.repository.UserRepository;
+import pl.derleta.nebula.service.AccountAvailabilityProvider;
+import pl.derleta.nebula.util.BloomFilter;
+
+import java.sql.PreparedStatement;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation of the AccountAvailabilityProvider interface answering whether a login or an email is still free.
+ * The logins and emails of the users, and of the accounts waiting in the provisioning outbox, are kept in two
+ * in-memory Bloom filters: a value missing from a filter is certainly free and is answered without database access,
+ * only a possible match is confirmed with an indexed lookup. The filters are built from a streaming scan on a dedicated
+ * background thread when the application is ready, rebuilt periodically, and every registration of this instance
+ * is added to them. Until the first build completes all lookups go to the database.
+ * <p>
+ * With several instances the registrations of the other instances are learned only with the next rebuild, so a value
+ * missing from a filter is an advisory answer which may be stale for up to the rebuild interval. The authorization
+ * server and the unique keys stay the source of truth for uniqueness, a registration can still be rejected there.
+ */
+@Service
+public class AccountAvailabilityProviderImpl implements AccountAvailabilityProvider {
+
+    private static final String ACCOUNTS_SCAN = """
+            SELECT login, email FROM users
+            UNION ALL
+            SELECT login, email FROM user_provisioning_outbox WHERE status <> 'FAILED'
+            """;
+    private static final int SCAN_FETCH_SIZE = 1000;
+
+    final UserRepository userRepository;
+    final UserProvisioningRepository provisioningRepository;
+    final JdbcTemplate jdbcTemplate;
+
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    private volatile Filters current;
+    private Filters building;
+
+    /**
+     * Constructor for AccountAvailabilityProviderImpl.
+     *
+     * @param userRepository         The repository confirming possible matches in the users table.
+     * @param provisioningRepository The repository confirming possible matches in the provisioning outbox.
+     * @param jdbcTemplate           The JDBC template used for the streaming scan of the accounts.
+     * @param expectedInsertions     The minimal number of accounts the filters are sized for.
+     * @param falsePositiveRate      The false positive probability the filters are sized for.
+     */
+    @Autowired
+    public AccountAvailabilityProviderImpl(UserRepository userRepository,
+                                           UserProvisioningRepository provisioningRepository,
+                                           JdbcTemplate jdbcTemplate,
+                                           @Value("${nebula.availability.expected-insertions:100000}") long expectedInsertions,
+                                           @Value("${nebula.availability.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.provisioningRepository = provisioningRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Checks whether the login is not used by any existing or queued account.
+     *
+     * @param login the login to check
+     * @return true if the login is free
+     */
+    @Override
+    public boolean isLoginAvailable(String login) {
+        Filters filters = current;
+        if (filters != null && !filters.logins().mightContain(normalize(login))) return true;
+        String value = login.trim();
+        return !userRepository.existsByLogin(value) && !provisioningRepository.existsByLogin(value);
+    }
+
+    /**
+     * Checks whether the email is not used by any existing or queued account.
+     *
+     * @param email the email to check
+     * @return true if the email is free
+     */
+    @Override
+    public boolean isEmailAvailable(String email) {
+        Filters filters = current;
+        if (filters != null && !filters.emails().mightContain(normalize(email))) return true;
+        String value = email.trim();
+        return !userRepository.existsByEmail(value) && !provisioningRepository.existsByEmail(value);
+    }
+
+    /**
+     * Adds a newly registered account to the filters, including the filters of a build in progress.
+     *
+     * @param login the login of the registered account
+     * @param email the email of the registered account
+     */
+    @Override
+    public synchronized void register(String login, String email) {
+        if (current != null) put(current, login, email);
+        if (building != null) put(building, login, email);
+    }
+
+    /**
+     * Rebuilds the filters from a streaming scan of the users and the provisioning outbox. Registrations made during
+     * the scan are added to both the old and the new filters, the new filters replace the old ones once complete.
+     */
+    @Override
+    public void rebuild() {
+        long accounts = userRepository.count() + provisioningRepository.count();
+        Filters next = new Filters(new BloomFilter(Math.max(expectedInsertions, accounts * 2), falsePositiveRate),
+                new BloomFilter(Math.max(expectedInsertions, accounts * 2), falsePositiveRate));
+        synchronized (this) {
+            building = next;
+        }
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(ACCOUNTS_SCAN);
+                statement.setFetchSize(SCAN_FETCH_SIZE);
+                return statement;
+            }, resultSet -> {
+                put(next, resultSet.getString("login"), resultSet.getString("email"));
+            });
+            synchronized (this) {
+                current = next;
+            }
+        } finally {
+            synchronized (this) {
+                building = null;
+            }
+        }
+    }
+
+    /**
+     * Builds the filters in the background once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild();
+    }
+
+    /**
+     * Submits a rebuild of the filters to the background thread, unless a rebuild is already waiting or running.
+     * Invoked periodically, so the registrations of other instances are learned. A failed rebuild keeps
+     * the previous filters in use until the next one.
+     */
+    @Scheduled(fixedDelayString = "${nebula.availability.rebuild-ms:600000}",
+            initialDelayString = "${nebula.availability.rebuild-ms:600000}")
+    public void scheduleRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) return;
+        rebuilder.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException ignored) {
+                // the previous filters stay in use
+            } finally {
+                rebuildScheduled.set(false);
+            }
+        });
+    }
+
+    /**
+     * Stops the background thread when the application context is closed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private static void put(Filters filters, String login, String email) {
+        if (login != null) filters.logins().put(normalize(login));
+        if (email != null) filters.emails().put(normalize(email));
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Filters(BloomFilter logins, BloomFilter emails) {
+    }
+
+}
@@ -0,0 +1,108 @@
+package pl.derleta.nebula.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.derleta.nebula.domain.entity.AchievementEntity;
+import pl.derleta.nebula.domain.mapper.AchievementMapper;
+import pl.derleta.nebula.domain.model.Achievement;
+import pl.derleta.nebula.repository.AchievementRepository;
+import pl.derleta.nebula.service.AchievementCatalogue;
+import pl.derleta.nebula.service.UserCache;
+
+import java.util.*;
+
+/**
+ * Implementation of the AchievementCatalogue interface keeping an in-memory snapshot of all achievements
+ * with their levels. The snapshot is loaded on first use and refreshed periodically, so the achievement
+ * definitions do not have to be loaded from the database together with every user achievement row.
+ */
+@Service
+public class AchievementCatalogueImpl implements AchievementCatalogue {
+
+    private final AchievementRepository repository;
+    private final UserCache userCache;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Constructor for AchievementCatalogueImpl.
+     *
+     * @param repository The repository for managing achievements.
+     * @param userCache  The cache of the users, invalidated when the achievement definitions change.
+     */
+    @Autowired
+    public AchievementCatalogueImpl(AchievementRepository repository, UserCache userCache) {
+        this.repository = repository;
+        this.userCache = userCache;
+    }
+
+    /**
+     * Retrieves all achievements ordered by their id.
+     *
+     * @return an unmodifiable list of all achievements from the catalogue
+     */
+    @Override
+    public List<Achievement> getAll() {
+        return List.copyOf(getSnapshot().achievements().values());
+    }
+
+    /**
+     * Retrieves an achievement by its id.
+     *
+     * @param achievementId the id of the achievement
+     * @return an Optional containing the achievement, or an empty Optional if it does not exist in the catalogue
+     */
+    @Override
+    public Optional<Achievement> get(int achievementId) {
+        return Optional.ofNullable(getSnapshot().achievements().get(achievementId));
+    }
+
+    /**
+     * Retrieves the version of the catalogue content, the same content always has the same version,
+     * so the version can be part of the ETags of responses containing achievements.
+     *
+     * @return the hash of all achievements in the catalogue
+     */
+    @Override
+    public int version() {
+        return getSnapshot().version();
+    }
+
+    /**
+     * Reloads the catalogue from the database. Invoked periodically and whenever the snapshot is needed for the first time.
+     * The cached users are invalidated when the content of the catalogue changed.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    @Scheduled(fixedDelayString = "${nebula.achievements.catalogue-refresh-ms:300000}",
+            initialDelayString = "${nebula.achievements.catalogue-refresh-ms:300000}")
+    public void refresh() {
+        Map<Integer, Achievement> achievements = new TreeMap<>();
+        for (AchievementEntity entity : repository.findAll()) {
+            achievements.put(entity.getId(), AchievementMapper.toAchievement(entity));
+        }
+        Snapshot previous = snapshot;
+        snapshot = new Snapshot(Collections.unmodifiableMap(achievements), achievements.hashCode());
+        if (previous != null && previous.version() != snapshot.version()) userCache.invalidateAll();
+    }
+
+    /**
+     * Returns the current snapshot, loading it if the catalogue was not loaded yet.
+     *
+     * @return the map of achievements by their id with the version of the content
+     */
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private record Snapshot(Map<Integer, Achievement> achievements, int version) {
+    }
+
+}
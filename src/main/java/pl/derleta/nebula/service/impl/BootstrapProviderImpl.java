@@ -0,0 +1,44 @@
+package pl.derleta.nebula.service.impl;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import pl.derleta.nebula.domain.model.Bootstrap;
+import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.service.BootstrapProvider;
+import pl.derleta.nebula.service.ReferenceDataCatalogue;
+import pl.derleta.nebula.service.UserProvider;
+import pl.derleta.nebula.util.ETagUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Implementation of the BootstrapProvider interface combining the user with the reference data.
+ * Only the user is read through the {@link UserProvider}, which serves it from the user cache when possible,
+ * the enabled games, themes, genders and nationalities come from the in-memory {@link ReferenceDataCatalogue}.
+ * The user section is versioned by its content like the catalogue sections.
+ */
+@AllArgsConstructor
+@Service
+public class BootstrapProviderImpl implements BootstrapProvider {
+
+    private final UserProvider userProvider;
+    private final ReferenceDataCatalogue referenceData;
+
+    /**
+     * Retrieves the bootstrap data of the user.
+     *
+     * @param userId the ID of the user
+     * @return the user with the reference data and the versions of all sections, or null if the user does not exist
+     */
+    @Override
+    public Bootstrap get(long userId) {
+        NebulaUser user = userProvider.get(userId);
+        if (user == null) return null;
+        Map<String, String> versions = new HashMap<>(referenceData.getVersions());
+        versions.put(USER, ETagUtil.contentVersion(user));
+        return new Bootstrap(user, referenceData.getEnabledGames(), referenceData.getThemes(),
+                referenceData.getGenders(), referenceData.getNationalities(), Map.copyOf(versions));
+    }
+
+}
@@ -0,0 +1,168 @@
+package pl.derleta.nebula.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import pl.derleta.nebula.service.DegradedReadGuard;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of the DegradedReadGuard interface serving the last known value of a read when the database
+ * is degraded, which is the stale-while-revalidate strategy applied to the database instead of an HTTP cache.
+ * <p>
+ * A read with a stale value available waits for the database at most the latency budget. When the budget is
+ * exceeded, or a connection can not be acquired, the database is considered degraded for the cooldown: the stale
+ * value is served immediately and a single background load per key refreshes it, the first successful load ends
+ * the degraded mode. A read without a stale value always waits for the database, so it is never answered
+ * with made-up data. Served stale values are marked in the request attributes, the response gets a warning header.
+ * <p>
+ * The mode is opt-in, when disabled every read calls the loader on the calling thread.
+ */
+@Service
+public class DegradedReadGuardImpl implements DegradedReadGuard {
+
+    private final ConcurrentHashMap<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final boolean enabled;
+    private final Duration latencyBudget;
+    private final Duration cooldown;
+
+    private volatile Instant degradedUntil = Instant.MIN;
+
+    /**
+     * Constructor for DegradedReadGuardImpl.
+     *
+     * @param enabled         Whether stale values are served when the database is degraded.
+     * @param latencyBudgetMs The time in milliseconds a read with a stale value waits for the database.
+     * @param cooldownMs      The time in milliseconds stale values are served after the database was found degraded.
+     */
+    @Autowired
+    public DegradedReadGuardImpl(@Value("${nebula.degraded.enabled:false}") boolean enabled,
+                                 @Value("${nebula.degraded.latency-budget-ms:300}") long latencyBudgetMs,
+                                 @Value("${nebula.degraded.cooldown-ms:5000}") long cooldownMs) {
+        this.enabled = enabled;
+        this.latencyBudget = Duration.ofMillis(Math.max(1, latencyBudgetMs));
+        this.cooldown = Duration.ofMillis(Math.max(0, cooldownMs));
+    }
+
+    /**
+     * Reads the value with the loader, or serves the stale value when the database is degraded.
+     *
+     * @param key    the key of the read, concurrent background loads of the same key are shared
+     * @param loader the function reading the value from the database
+     * @param stale  the function returning the last known value without using the database
+     * @param <T>    the type of the value
+     * @return the loaded value, or the stale value if the database is degraded or did not answer within the budget
+     */
+    @Override
+    public <T> T read(String key, Supplier<T> loader, Supplier<Optional<T>> stale) {
+        if (!enabled) return loader.get();
+        Optional<T> staleValue = stale.get();
+        if (staleValue.isPresent() && isDegraded()) {
+            load(key, loader);
+            return served(staleValue.get());
+        }
+        CompletableFuture<T> load = load(key, loader);
+        if (staleValue.isEmpty()) return join(load);
+        try {
+            return load.get(latencyBudget.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            markDegraded();
+            return served(staleValue.get());
+        } catch (ExecutionException e) {
+            if (!isDatabaseFailure(e.getCause())) throw rethrow(e.getCause());
+            return served(staleValue.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return served(staleValue.get());
+        }
+    }
+
+    /**
+     * Checks whether the database was found degraded within the cooldown.
+     *
+     * @return true if stale values are currently served
+     */
+    @Override
+    public boolean isDegraded() {
+        return enabled && Instant.now().isBefore(degradedUntil);
+    }
+
+    /**
+     * Stops the background loads when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts the load of the key on a virtual thread, or joins the load already in flight.
+     * A successful load ends the degraded mode, a database failure starts it.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> load(String key, Supplier<T> loader) {
+        CompletableFuture<T> load = new CompletableFuture<>();
+        CompletableFuture<?> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) return (CompletableFuture<T>) existing;
+        executor.execute(() -> {
+            try {
+                T value = loader.get();
+                degradedUntil = Instant.MIN;
+                load.complete(value);
+            } catch (Throwable e) {
+                if (isDatabaseFailure(e)) markDegraded();
+                load.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key, load);
+            }
+        });
+        return load;
+    }
+
+    private void markDegraded() {
+        degradedUntil = Instant.now().plus(cooldown);
+    }
+
+    private static <T> T join(CompletableFuture<T> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private static <T> T served(T value) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) attributes.setAttribute(STALE_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        return value;
+    }
+
+    private static boolean isDatabaseFailure(Throwable e) {
+        return e instanceof DataAccessException || e instanceof TransactionException;
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException runtime) return runtime;
+        if (e instanceof Error error) throw error;
+        return new IllegalStateException(e);
+    }
+
+}
@@ -3,13 +3,18 @@ package pl.derleta.nebula.service.impl;
 import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import pl.derleta.nebula.domain.entity.GameEntity;
 import pl.derleta.nebula.domain.mapper.GameMapper;
 import pl.derleta.nebula.domain.model.Game;
 import pl.derleta.nebula.exceptions.GameAlreadyExistsException;
 import pl.derleta.nebula.exceptions.GameNotFoundException;
 import pl.derleta.nebula.repository.GameRepository;
+import pl.derleta.nebula.repository.UserRepository;
 import pl.derleta.nebula.service.GameUpdater;
+import pl.derleta.nebula.service.ReferenceDataCatalogue;
+import pl.derleta.nebula.service.UserBackfillUpdater;
+import pl.derleta.nebula.service.UserCache;
 
 import java.util.Optional;
 
@@ -17,17 +22,23 @@ import java.util.Optional;
  * Service implementation of the GameUpdater interface, responsible for managing
  * the creation, updating, and deletion of game entities in the repository.
  * Maps domain-level Game objects to entity-level GameEntity objects and vice versa.
+ * The enabled games of the reference data catalogue are reloaded after every change.
  */
 @AllArgsConstructor
 @Service
 public class GameUpdaterImpl implements GameUpdater {
 
     private final GameRepository repository;
+    private final UserBackfillUpdater backfillUpdater;
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final ReferenceDataCatalogue referenceData;
 
     /**
      * Creates a new game record in the repository. If a game with the same id already exists,
      * an exception is thrown. The method converts the provided Game object to a GameEntity,
      * saves it to the repository, and converts the result back to a Game object.
+     * The users_games rows of the existing users are added afterward by a background backfill job.
      *
      * @param game the game object containing data to be stored in the repository
      * @return the created Game object after being saved to the repository
@@ -43,6 +54,8 @@ public class GameUpdaterImpl implements GameUpdater {
         }
         GameEntity entity = GameMapper.toEntity(game);
         var result = repository.save(entity);
+        backfillUpdater.scheduleGameBackfill(result.getId());
+        referenceData.refreshAfterCommit();
         return GameMapper.toGame(result);
     }
 
@@ -50,7 +63,9 @@ public class GameUpdaterImpl implements GameUpdater {
      * Updates an existing game record in the repository. If the game with the specified id does not exist,
      * or if a game with the provided name already exists, an exception is thrown. The method converts the
      * provided Game object to a GameEntity, updates the corresponding entity in the repository, and
-     * converts the result back to a Game object.
+     * converts the result back to a Game object. The users having the game are marked as updated.
+     * A game equal to the stored one is returned without a write, so the users, their cached entries
+     * and the reference data are left as they are.
      *
      * @param game the game object containing updated data to be applied to the existing record
      * @return the updated Game object after being saved to the repository
@@ -58,14 +73,20 @@ public class GameUpdaterImpl implements GameUpdater {
      * @throws GameNotFoundException      if a game with the given id does not exist in the repository
      */
     @Override
+    @Transactional
     public Game update(Game game) {
         Optional<GameEntity> entityOptional = repository.findById(game.id());
         if (entityOptional.isPresent()) {
+            Game current = GameMapper.toGame(entityOptional.get());
+            if (current.equals(game)) return current;
             if (repository.findByNameOtherThanSelfId(game.id(), game.name()).isPresent()) {
                 throw new GameAlreadyExistsException("Game with name: " + game.name() + " already exists. Please choose a different name.");
             }
             GameEntity entity = GameMapper.toEntity(game);
             var result = repository.save(entity);
+            userRepository.updateUpdatedAtByGameId(game.id());
+            userCache.invalidateAll();
+            referenceData.refreshAfterCommit();
             return GameMapper.toGame(result);
         } else {
             throw new GameNotFoundException("Game with id: " + game.id() + " not found");
@@ -73,18 +94,23 @@ public class GameUpdaterImpl implements GameUpdater {
     }
 
     /**
-     * Deletes a game entity with the specified id from the repository.
+     * Deletes a game entity with the specified id from the repository, the users having the game
+     * are marked as updated beforehand.
      *
      * @param id the unique identifier of the game entity to be deleted
      * @return a ResponseEntity containing a success message if the entity was
      * successfully deleted, or a not found status if the entity does not exist
      */
     @Override
+    @Transactional
     public ResponseEntity<String> delete(int id) {
         Optional<GameEntity> entityOptional = repository.findById(id);
         if (entityOptional.isPresent()) {
             GameEntity entity = entityOptional.get();
+            userRepository.updateUpdatedAtByGameId(id);
+            userCache.invalidateAll();
             repository.delete(entity);
+            referenceData.refreshAfterCommit();
             return ResponseEntity.ok("Game with id " + id + " deleted.");
         } else {
             return ResponseEntity.notFound().build();
@@ -6,9 +6,12 @@ import pl.derleta.nebula.domain.mapper.GenderMapper;
 import pl.derleta.nebula.domain.model.Gender;
 import pl.derleta.nebula.exceptions.GenderNotFoundException;
 import pl.derleta.nebula.repository.GenderRepository;
+import pl.derleta.nebula.service.DegradedReadGuard;
 import pl.derleta.nebula.service.GenderProvider;
+import pl.derleta.nebula.service.ReferenceDataCatalogue;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Implementation of the GenderProvider interface that provides methods
@@ -21,6 +24,8 @@ import java.util.List;
 public class GenderProviderImpl implements GenderProvider {
 
     private final GenderRepository repository;
+    private final ReferenceDataCatalogue referenceData;
+    private final DegradedReadGuard guard;
 
     /**
      * Retrieves a Gender object corresponding to the given ID.
@@ -47,13 +52,14 @@ public class GenderProviderImpl implements GenderProvider {
 
     /**
      * Retrieves all gender entities from the repository and maps them to a list of Gender objects.
+     * When the database is degraded the genders of the {@link ReferenceDataCatalogue} are served instead.
      *
      * @return a list of Gender objects representing all gender entries in the repository
      */
     @Override
     public List<Gender> getAll() {
-        var entities = repository.findAll();
-        return GenderMapper.toGenders(entities);
+        return guard.read("genders", () -> GenderMapper.toGenders(repository.findAll()),
+                () -> referenceData.isLoaded() ? Optional.of(referenceData.getGenders()) : Optional.empty());
     }
 
 }
@@ -0,0 +1,148 @@
+package pl.derleta.nebula.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pl.derleta.nebula.exceptions.IdempotencyKeyReusedException;
+import pl.derleta.nebula.exceptions.IdempotentRequestInProgressException;
+import pl.derleta.nebula.service.IdempotencyStore;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of the IdempotencyStore interface keeping the in-flight and completed responses in memory.
+ * The first request with an idempotency key executes the action, duplicates with the same key and request
+ * fingerprint get the same response without repeating the work, and concurrent duplicates wait for the first one.
+ * <p>
+ * Responses with a 5xx status and failed actions are not kept, so the client can retry them.
+ * Completed entries expire after the TTL, and the store is bounded by a maximum number of entries,
+ * the oldest completed entries are evicted first.
+ */
+@Service
+public class IdempotencyStoreImpl implements IdempotencyStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Duration waitTimeout;
+
+    /**
+     * Constructor for IdempotencyStoreImpl.
+     *
+     * @param ttlMs         The time in milliseconds a completed response is kept.
+     * @param maxEntries    The maximum number of kept entries.
+     * @param waitTimeoutMs The maximum time in milliseconds a duplicate waits for the in-flight request.
+     */
+    @Autowired
+    public IdempotencyStoreImpl(@Value("${nebula.idempotency.ttl-ms:600000}") long ttlMs,
+                                @Value("${nebula.idempotency.max-entries:10000}") int maxEntries,
+                                @Value("${nebula.idempotency.wait-timeout-ms:30000}") long waitTimeoutMs) {
+        this.ttl = Duration.ofMillis(Math.max(0, ttlMs));
+        this.maxEntries = Math.max(1, maxEntries);
+        this.waitTimeout = Duration.ofMillis(Math.max(0, waitTimeoutMs));
+    }
+
+    /**
+     * Executes the action at most once for the idempotency key within the scope.
+     * Without an idempotency key the action is executed directly.
+     *
+     * @param idempotencyKey the value of the Idempotency-Key header, may be null
+     * @param scope          the scope of the key, for example the endpoint
+     * @param fingerprint    the fingerprint of the request parameters
+     * @param action         the action producing the response
+     * @param <T>            the type of the response body
+     * @return the response of the first request with the key
+     * @throws IdempotencyKeyReusedException        if the key was used for a request with different parameters
+     * @throws IdempotentRequestInProgressException if the first request did not finish within the wait timeout
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String idempotencyKey, String scope, String fingerprint,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) return action.get();
+        String key = scope + ":" + idempotencyKey;
+        Instant now = Instant.now();
+        Entry created = new Entry(fingerprint, new CompletableFuture<>(), now);
+        Entry entry = entries.compute(key, (k, existing) -> existing == null || existing.isExpired(now, ttl) ? created : existing);
+        if (entry != created) {
+            if (!entry.fingerprint().equals(fingerprint))
+                throw new IdempotencyKeyReusedException("Idempotency key was already used for a different request");
+            return (ResponseEntity<T>) await(entry);
+        }
+        evictIfFull();
+        try {
+            ResponseEntity<T> response = action.get();
+            if (response == null || response.getStatusCode().is5xxServerError()) entries.remove(key, created);
+            created.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            entries.remove(key, created);
+            created.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the expired entries, invoked periodically.
+     */
+    @Scheduled(fixedDelayString = "${nebula.idempotency.cleanup-delay-ms:60000}")
+    public void removeExpired() {
+        Instant now = Instant.now();
+        entries.entrySet().removeIf(entry -> entry.getValue().isExpired(now, ttl));
+    }
+
+    /**
+     * Returns the number of kept entries.
+     *
+     * @return the number of in-flight and completed entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private ResponseEntity<?> await(Entry entry) {
+        try {
+            return entry.response().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotentRequestInProgressException("Interrupted while waiting for the original request");
+        } catch (TimeoutException e) {
+            throw new IdempotentRequestInProgressException("The original request is still in progress");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Keeps the store within its maximum size, removing the expired entries first and then the oldest completed ones.
+     */
+    private void evictIfFull() {
+        if (entries.size() <= maxEntries) return;
+        removeExpired();
+        int excess = entries.size() - maxEntries;
+        if (excess <= 0) return;
+        entries.entrySet().stream()
+                .filter(entry -> entry.getValue().response().isDone())
+                .sorted(Comparator.comparing(entry -> entry.getValue().createdAt()))
+                .limit(excess)
+                .toList()
+                .forEach(entry -> entries.remove(entry.getKey(), entry.getValue()));
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<ResponseEntity<?>> response, Instant createdAt) {
+
+        boolean isExpired(Instant now, Duration ttl) {
+            return response.isDone() && createdAt.plus(ttl).isBefore(now);
+        }
+
+    }
+
+}
@@ -6,9 +6,12 @@ import pl.derleta.nebula.domain.mapper.NationalityMapper;
 import pl.derleta.nebula.domain.model.Nationality;
 import pl.derleta.nebula.exceptions.NationalityNotFoundException;
 import pl.derleta.nebula.repository.NationalityRepository;
+import pl.derleta.nebula.service.DegradedReadGuard;
 import pl.derleta.nebula.service.NationalityProvider;
+import pl.derleta.nebula.service.ReferenceDataCatalogue;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Implementation of the NationalityProvider interface that provides methods
@@ -20,6 +23,8 @@ import java.util.List;
 public class NationalityProviderImpl implements NationalityProvider {
 
     private final NationalityRepository repository;
+    private final ReferenceDataCatalogue referenceData;
+    private final DegradedReadGuard guard;
 
     /**
      * Retrieves a Nationality object by its unique identifier.
@@ -44,13 +49,14 @@ public class NationalityProviderImpl implements NationalityProvider {
 
     /**
      * Retrieves all nationalities from the underlying repository and maps them to a list of domain models.
+     * When the database is degraded the nationalities of the {@link ReferenceDataCatalogue} are served instead.
      *
      * @return a list of all nationalities as domain model objects
      */
     @Override
     public List<Nationality> getAll() {
-        var entities = repository.findAll();
-        return NationalityMapper.toNationalities(entities);
+        return guard.read("nationalities", () -> NationalityMapper.toNationalities(repository.findAll()),
+                () -> referenceData.isLoaded() ? Optional.of(referenceData.getNationalities()) : Optional.empty());
     }
 
 }
@@ -0,0 +1,199 @@
+package pl.derleta.nebula.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.derleta.nebula.domain.mapper.GameMapper;
+import pl.derleta.nebula.domain.mapper.GenderMapper;
+import pl.derleta.nebula.domain.mapper.NationalityMapper;
+import pl.derleta.nebula.domain.mapper.ThemeMapper;
+import pl.derleta.nebula.domain.model.Game;
+import pl.derleta.nebula.domain.model.Gender;
+import pl.derleta.nebula.domain.model.Nationality;
+import pl.derleta.nebula.domain.model.Theme;
+import pl.derleta.nebula.repository.GameRepository;
+import pl.derleta.nebula.repository.GenderRepository;
+import pl.derleta.nebula.repository.NationalityRepository;
+import pl.derleta.nebula.repository.ThemeRepository;
+import pl.derleta.nebula.service.ReferenceDataCatalogue;
+import pl.derleta.nebula.util.ETagUtil;
+import pl.derleta.nebula.util.TransactionUtil;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the ReferenceDataCatalogue interface keeping an in-memory snapshot of the genders,
+ * nationalities, themes and enabled games. The snapshot is loaded when the application is ready and refreshed
+ * periodically and after the games change, so reference ids can be validated and the reference data served
+ * without any database access. Each section carries a version derived from its content, which is the same
+ * on every node, so clients can skip the sections they already have.
+ */
+@Service
+public class ReferenceDataCatalogueImpl implements ReferenceDataCatalogue {
+
+    private final GenderRepository genderRepository;
+    private final NationalityRepository nationalityRepository;
+    private final ThemeRepository themeRepository;
+    private final GameRepository gameRepository;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Constructor for ReferenceDataCatalogueImpl.
+     *
+     * @param genderRepository      The repository for managing genders.
+     * @param nationalityRepository The repository for managing nationalities.
+     * @param themeRepository       The repository for managing themes.
+     * @param gameRepository        The repository for managing games.
+     */
+    @Autowired
+    public ReferenceDataCatalogueImpl(GenderRepository genderRepository, NationalityRepository nationalityRepository,
+                                      ThemeRepository themeRepository, GameRepository gameRepository) {
+        this.genderRepository = genderRepository;
+        this.nationalityRepository = nationalityRepository;
+        this.themeRepository = themeRepository;
+        this.gameRepository = gameRepository;
+    }
+
+    /**
+     * Retrieves all genders from the catalogue.
+     *
+     * @return an unmodifiable list of all genders
+     */
+    @Override
+    public List<Gender> getGenders() {
+        return getSnapshot().genders();
+    }
+
+    /**
+     * Retrieves all nationalities from the catalogue.
+     *
+     * @return an unmodifiable list of all nationalities
+     */
+    @Override
+    public List<Nationality> getNationalities() {
+        return getSnapshot().nationalities();
+    }
+
+    /**
+     * Retrieves all themes from the catalogue.
+     *
+     * @return an unmodifiable list of all themes
+     */
+    @Override
+    public List<Theme> getThemes() {
+        return getSnapshot().themes();
+    }
+
+    /**
+     * Retrieves the enabled games from the catalogue.
+     *
+     * @return an unmodifiable list of the enabled games
+     */
+    @Override
+    public List<Game> getEnabledGames() {
+        return getSnapshot().enabledGames();
+    }
+
+    /**
+     * Retrieves the versions of the catalogue sections, keyed by the section names defined in
+     * {@link ReferenceDataCatalogue}. A version changes only when the content of its section changes.
+     *
+     * @return an unmodifiable map of the section names to their versions
+     */
+    @Override
+    public Map<String, String> getVersions() {
+        return getSnapshot().versions();
+    }
+
+    /**
+     * Checks whether a gender with the given id exists.
+     *
+     * @param genderId the id of the gender
+     * @return true if the gender exists in the catalogue
+     */
+    @Override
+    public boolean containsGender(int genderId) {
+        return getSnapshot().genderIds().contains(genderId);
+    }
+
+    /**
+     * Checks whether a nationality with the given id exists.
+     *
+     * @param nationalityId the id of the nationality
+     * @return true if the nationality exists in the catalogue
+     */
+    @Override
+    public boolean containsNationality(int nationalityId) {
+        return getSnapshot().nationalityIds().contains(nationalityId);
+    }
+
+    /**
+     * Checks whether the catalogue was loaded, so it can be read without any database access.
+     *
+     * @return true if the catalogue has been loaded
+     */
+    @Override
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * Reloads the catalogue from the database. Invoked when the application is ready and periodically afterward.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    @Scheduled(fixedDelayString = "${nebula.reference-data.refresh-ms:300000}",
+            initialDelayString = "${nebula.reference-data.refresh-ms:300000}")
+    public void refresh() {
+        List<Gender> genders = List.copyOf(GenderMapper.toGenders(genderRepository.findAll()));
+        List<Nationality> nationalities = List.copyOf(NationalityMapper.toNationalities(nationalityRepository.findAll()));
+        List<Theme> themes = List.copyOf(ThemeMapper.toThemes(themeRepository.findAll()));
+        List<Game> enabledGames = List.copyOf(GameMapper.toGames(gameRepository.getEnabled()));
+        snapshot = new Snapshot(genders, nationalities, themes, enabledGames,
+                genders.stream().map(Gender::id).collect(Collectors.toUnmodifiableSet()),
+                nationalities.stream().map(Nationality::id).collect(Collectors.toUnmodifiableSet()),
+                Map.of(GENDERS, ETagUtil.contentVersion(genders),
+                        NATIONALITIES, ETagUtil.contentVersion(nationalities),
+                        THEMES, ETagUtil.contentVersion(themes),
+                        ENABLED_GAMES, ETagUtil.contentVersion(enabledGames)));
+    }
+
+    /**
+     * Reloads the catalogue once the current transaction is committed, or immediately without a transaction,
+     * so the snapshot never contains changes which are rolled back.
+     */
+    @Override
+    public void refreshAfterCommit() {
+        TransactionUtil.afterCommit(this::refresh);
+    }
+
+    /**
+     * Loads the catalogue once the application has started, so the first request does not wait for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private record Snapshot(List<Gender> genders, List<Nationality> nationalities,
+                            List<Theme> themes, List<Game> enabledGames,
+                            Set<Integer> genderIds, Set<Integer> nationalityIds, Map<String, String> versions) {
+    }
+
+}
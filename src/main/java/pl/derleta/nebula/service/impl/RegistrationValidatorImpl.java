@@ -0,0 +1,63 @@
+package pl.derleta.nebula.service.impl;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import pl.derleta.nebula.controller.request.AccountRegistrationRequest;
+import pl.derleta.nebula.domain.types.AccountResponseType;
+import pl.derleta.nebula.service.ReferenceDataCatalogue;
+import pl.derleta.nebula.service.RegistrationValidator;
+import pl.derleta.nebula.util.ValidationUtil;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Implementation of the RegistrationValidator interface, validating registration requests locally
+ * before the account is created on the authorization server. The reference ids are checked against
+ * the in-memory {@link ReferenceDataCatalogue}, so an invalid request is rejected without any network or database access
+ * and does not leave an orphaned account on the authorization server. The password policy belongs to the authorization
+ * server, the password is not checked here.
+ */
+@AllArgsConstructor
+@Service
+public class RegistrationValidatorImpl implements RegistrationValidator {
+
+    private static final int MAX_EMAIL_LENGTH = 255;
+
+    private final ReferenceDataCatalogue catalogue;
+
+    /**
+     * Validates a registration request.
+     *
+     * @param request the registration request to validate
+     * @return an Optional containing the type of the first violation, or an empty Optional if the request is valid
+     */
+    @Override
+    public Optional<AccountResponseType> validate(AccountRegistrationRequest request) {
+        if (!ValidationUtil.isValidLogin(request.getLogin()))
+            return Optional.of(AccountResponseType.NEBULA_INVALID_LOGIN);
+        if (request.getEmail() == null || request.getEmail().length() > MAX_EMAIL_LENGTH
+                || !ValidationUtil.isValidEmail(request.getEmail()))
+            return Optional.of(AccountResponseType.NEBULA_INVALID_EMAIL);
+        if (!isValidBirthdate(request))
+            return Optional.of(AccountResponseType.NEBULA_INVALID_BIRTHDATE);
+        if (request.getNationality() == null || !catalogue.containsNationality(request.getNationality()))
+            return Optional.of(AccountResponseType.NEBULA_INVALID_NATIONALITY);
+        if (request.getGender() == null || !catalogue.containsGender(request.getGender()))
+            return Optional.of(AccountResponseType.NEBULA_INVALID_GENDER);
+        return Optional.empty();
+    }
+
+    /**
+     * Checks that the birthdate is present and not in the future.
+     *
+     * @param request the registration request
+     * @return true if the birthdate is valid
+     */
+    private boolean isValidBirthdate(AccountRegistrationRequest request) {
+        if (request.getBirthdate() == null) return false;
+        LocalDate birthdate = request.getBirthdate().toLocalDate();
+        return !birthdate.isAfter(LocalDate.now());
+    }
+
+}
@@ -0,0 +1,309 @@
+package pl.derleta.nebula.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.derleta.nebula.domain.mapper.UserSettingsMapper;
+import pl.derleta.nebula.domain.model.UserSettings;
+import pl.derleta.nebula.repository.UserRepository;
+import pl.derleta.nebula.repository.UserSettingsRepository;
+import pl.derleta.nebula.service.SettingsWriteBuffer;
+import pl.derleta.nebula.service.UserCache;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of the SettingsWriteBuffer interface coalescing rapid settings updates of a user,
+ * for example the moves of a volume slider, into a single write.
+ * <p>
+ * A submitted update replaces the pending settings of the user and is acknowledged immediately. A background sweeper
+ * writes the pending settings once the user stopped changing them for the quiet period, or at the latest
+ * after the maximum delay since the first pending change, so a continuous stream of changes is still persisted.
+ * The write is the same as the one of a direct update: the settings with their version
+ * and the last update timestamp of the user, in one transaction, skipped if the pending settings returned
+ * to the stored values, for example a slider moved back. The write always runs in its own transaction,
+ * also when a flush is requested inside the transaction of a caller, so acknowledged settings are not lost
+ * by a rollback of the caller. The pending settings stay visible to readers until the write is committed,
+ * and all pending settings are written when the application context is closed.
+ * <p>
+ * A write failed for a transient reason, for example a lost connection or a lock timeout, keeps the pending settings
+ * and is retried by the sweeper with an exponential backoff, a newer submit does not reset the backoff.
+ * The pending settings are dropped only after the maximum number of attempts or on a failure which a retry
+ * does not fix, then the cached user is invalidated, so readers see the stored settings again.
+ * <p>
+ * The writes of a user are serialized by a lock of the user, so a slow write blocks neither the writes
+ * of other users nor their flushes on shutdown.
+ */
+@Service
+public class SettingsWriteBufferImpl implements SettingsWriteBuffer {
+
+    private static final long MAX_RETRY_DELAY_MULTIPLIER = 64;
+
+    private final UserSettingsRepository settingsRepository;
+    private final UserRepository userRepository;
+    private final UserCache cache;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService sweeper;
+    private final boolean enabled;
+    private final long quietNanos;
+    private final long maxDelayNanos;
+    private final int maxAttempts;
+    private final long retryDelayNanos;
+    private final ConcurrentMap<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Object> locks = new ConcurrentHashMap<>();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Constructor for SettingsWriteBufferImpl.
+     *
+     * @param settingsRepository The repository for writing the user settings.
+     * @param userRepository     The repository for updating the last update timestamp of the user.
+     * @param cache              The cache of the users, updated with the pending and the written settings.
+     * @param transactionManager The transaction manager used for the own transaction of a write.
+     * @param enabled            Whether the settings updates are buffered, otherwise they are written directly.
+     * @param quietMs            The time in milliseconds without a change after which the pending settings are written.
+     * @param maxDelayMs         The maximum time in milliseconds the first pending change waits for its write.
+     * @param maxAttempts        The number of failed writes after which the pending settings are dropped.
+     * @param retryDelayMs       The base delay in milliseconds of the exponential backoff of a failed write.
+     */
+    @Autowired
+    public SettingsWriteBufferImpl(UserSettingsRepository settingsRepository, UserRepository userRepository,
+                                   UserCache cache, PlatformTransactionManager transactionManager,
+                                   @Value("${nebula.settings.write-buffer.enabled:false}") boolean enabled,
+                                   @Value("${nebula.settings.write-buffer.quiet-ms:500}") long quietMs,
+                                   @Value("${nebula.settings.write-buffer.max-delay-ms:3000}") long maxDelayMs,
+                                   @Value("${nebula.settings.write-buffer.max-attempts:5}") int maxAttempts,
+                                   @Value("${nebula.settings.write-buffer.retry-delay-ms:1000}") long retryDelayMs) {
+        this.settingsRepository = settingsRepository;
+        this.userRepository = userRepository;
+        this.cache = cache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.quietNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, quietMs));
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(quietMs, maxDelayMs));
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, retryDelayMs));
+        this.sweeper = Executors.newSingleThreadScheduledExecutor();
+        if (enabled) {
+            long period = Math.max(10, quietMs / 4);
+            sweeper.scheduleWithFixedDelay(this::flushDue, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Checks whether the settings updates are buffered.
+     *
+     * @return true if the updates should be submitted to this buffer, false if they are written directly
+     */
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replaces the pending settings of the user, the cached user gets them once the current transaction is committed.
+     *
+     * @param settings the new settings of the user
+     * @return the accepted settings
+     */
+    @Override
+    public UserSettings submit(UserSettings settings) {
+        long now = System.nanoTime();
+        submitted.increment();
+        pending.compute(settings.userId(), (id, previous) -> {
+            if (previous == null) return new Pending(settings, now, now, 0, now);
+            coalesced.increment();
+            return new Pending(settings, previous.firstAt(), now, previous.attempts(), previous.retryAt());
+        });
+        cache.update(settings.userId(), user -> UserSettingsMapper.withSettings(user, settings));
+        return settings;
+    }
+
+    /**
+     * Retrieves the settings of the user which are accepted but not written yet.
+     *
+     * @param userId the ID of the user
+     * @return an Optional containing the pending settings, or an empty Optional if nothing is pending
+     */
+    @Override
+    public Optional<UserSettings> getPending(long userId) {
+        return Optional.ofNullable(pending.get(userId)).map(Pending::settings);
+    }
+
+    /**
+     * Writes the pending settings of the user now, in a new transaction committed before the method returns,
+     * a transaction of the caller is suspended meanwhile. The settings stay pending until the write is committed,
+     * a newer submit during the write stays pending for the next one. A flush waits only for a running write
+     * of the same user.
+     *
+     * @param userId the ID of the user
+     * @return true if pending settings were written, false if nothing was pending
+     * @throws RuntimeException the failure of the write, the settings stay pending for a retry
+     *                          unless the failure is not transient or the attempts are exhausted
+     */
+    @Override
+    public boolean flush(long userId) {
+        while (true) {
+            Object lock = locks.computeIfAbsent(userId, id -> new Object());
+            synchronized (lock) {
+                if (locks.get(userId) != lock) continue;
+                try {
+                    return write(userId);
+                } finally {
+                    if (!pending.containsKey(userId)) locks.remove(userId, lock);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the pending settings of all users now.
+     *
+     * @return the number of written users
+     */
+    @Override
+    public int flushAll() {
+        int count = 0;
+        for (Long userId : pending.keySet()) {
+            try {
+                if (flush(userId)) count++;
+            } catch (RuntimeException e) {
+                // counted as failed, the settings stay pending for a retry or were dropped
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the statistics of the buffer.
+     *
+     * @return the number of submitted, coalesced, written updates, failed writes, dropped updates
+     * and the number of pending users
+     */
+    @Override
+    public Stats stats() {
+        return new Stats(submitted.sum(), coalesced.sum(), flushed.sum(), failed.sum(), dropped.sum(), pending.size());
+    }
+
+    /**
+     * Stops the sweeper when the application context is closed, waiting for a running write,
+     * and writes all pending settings.
+     */
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdown();
+        try {
+            sweeper.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushAll();
+    }
+
+    /**
+     * Writes the pending settings which were not changed for the quiet period or waited for the maximum delay,
+     * and retries the failed writes whose backoff has passed.
+     */
+    private void flushDue() {
+        long now = System.nanoTime();
+        pending.forEach((userId, entry) -> {
+            if (entry.isDue(now, quietNanos, maxDelayNanos)) {
+                try {
+                    flush(userId);
+                } catch (RuntimeException e) {
+                    // counted as failed, the settings stay pending for a retry or were dropped
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes the pending settings of the user, the caller holds the lock of the user.
+     *
+     * @param userId the ID of the user
+     * @return true if pending settings were written, false if nothing was pending
+     */
+    private boolean write(long userId) {
+        Pending entry = pending.get(userId);
+        if (entry == null) return false;
+        UserSettings saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                Optional<UserSettings> stored = settingsRepository.findSettingsById(userId);
+                if (stored.isPresent() && UserSettingsMapper.hasSameValues(stored.get(), entry.settings()))
+                    return stored.get();
+                UserSettings result = settingsRepository.writeSettings(entry.settings(), true, true, null);
+                userRepository.updateUserUpdatedAt(userId);
+                return result;
+            });
+        } catch (RuntimeException e) {
+            failed(userId, entry, e);
+            throw e;
+        }
+        flushed.increment();
+        if (pending.remove(userId, entry) && saved != null)
+            cache.update(userId, user -> UserSettingsMapper.withSettings(user, saved));
+        return true;
+    }
+
+    /**
+     * Schedules the retry of a failed write with an exponential backoff, or drops the pending settings
+     * if the failure is not transient or the attempts are exhausted. Settings submitted during the write
+     * inherit the attempts, so a stream of changes does not retry a failing database without a pause.
+     *
+     * @param userId the ID of the user
+     * @param entry  the pending settings whose write failed
+     * @param cause  the failure of the write
+     */
+    private void failed(long userId, Pending entry, RuntimeException cause) {
+        failed.increment();
+        int attempts = entry.attempts() + 1;
+        if (isTransient(cause) && attempts < maxAttempts) {
+            long multiplier = Math.min(MAX_RETRY_DELAY_MULTIPLIER, 1L << Math.min(attempts - 1, 30));
+            long retryAt = System.nanoTime() + retryDelayNanos * multiplier;
+            pending.computeIfPresent(userId, (id, current) ->
+                    new Pending(current.settings(), current.firstAt(), current.lastAt(), attempts, retryAt));
+        } else if (pending.remove(userId, entry)) {
+            dropped.increment();
+            cache.invalidate(userId);
+        }
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof TransactionException;
+    }
+
+    /**
+     * The pending settings of a user with the time of the first and the last change since the last write,
+     * the number of failed writes and the time of the next retry.
+     */
+    private record Pending(UserSettings settings, long firstAt, long lastAt, int attempts, long retryAt) {
+
+        boolean isDue(long now, long quietNanos, long maxDelayNanos) {
+            if (attempts > 0) return now - retryAt >= 0;
+            return now - lastAt >= quietNanos || now - firstAt >= maxDelayNanos;
+        }
+
+    }
+
+}
@@ -14,7 +14,9 @@ import pl.derleta.nebula.domain.entity.UserAchievementEntity;
 import pl.derleta.nebula.domain.mapper.UserAchievementMapper;
 import pl.derleta.nebula.domain.model.UserAchievement;
 import pl.derleta.nebula.repository.UserAchievementRepository;
+import pl.derleta.nebula.repository.UserRepository;
 import pl.derleta.nebula.repository.filter.UserAchievementsSpecifications;
+import pl.derleta.nebula.service.AchievementCatalogue;
 import pl.derleta.nebula.service.UserAchievementProvider;
 
 import java.util.List;
@@ -24,25 +26,35 @@ import java.util.stream.Collectors;
 /**
  * Implementation of the UserAchievementProvider interface, responsible for providing user achievement
  * data and related operations such as retrieval by user ID, achievement ID, and pagination.
+ * <p>
+ * Only achievements with progress are required to be stored, the stored rows are merged with
+ * the {@link AchievementCatalogue} and missing achievements are returned as implicit zero entries.
+ * The catalogue is merged only for existing users, a user without stored rows is looked up by the primary key.
  */
 @AllArgsConstructor
 @Service
 public class UserAchievementProviderImpl implements UserAchievementProvider {
 
     private final UserAchievementRepository repository;
+    private final AchievementCatalogue catalogue;
+    private final UserRepository userRepository;
 
     /**
      * Retrieves a UserAchievement for the specified user ID and achievement ID.
      *
      * @param userId the ID of the user
      * @param achievementId the ID of the achievement
-     * @return a UserAchievement object if found, or null if no achievement exists for the given IDs
+     * @return a UserAchievement object if found, an implicit zero entry if the user has no progress yet,
+     * or null if the user or the achievement does not exist
      */
     @Override
     public UserAchievement get(Long userId, Integer achievementId) {
         UserAchievementEntity entity = repository.get(userId, achievementId);
         if (entity == null) {
-            return null;
+            return catalogue.get(achievementId)
+                    .filter(achievement -> userRepository.existsById(userId))
+                    .map(achievement -> UserAchievementMapper.toImplicitUserAchievement(userId, achievement))
+                    .orElse(null);
         }
         return UserAchievementMapper.toUserAchievement(entity);
     }
@@ -51,17 +63,21 @@ public class UserAchievementProviderImpl implements UserAchievementProvider {
      * Retrieves a list of user achievements for the specified user ID.
      *
      * @param userId the ID of the user whose achievements are to be retrieved
-     * @return a list of UserAchievement objects representing the user's achievements
+     * @return a list of UserAchievement objects representing all achievements, including implicit zero entries,
+     * or an empty list if the user does not exist
      */
     @Transactional
     @Override
     public List<UserAchievement> getList(final Long userId) {
         List<UserAchievementEntity> list = repository.getList(userId);
-        return list.stream().map(UserAchievementMapper::toUserAchievement).collect(Collectors.toList());
+        if (list.isEmpty() && !userRepository.existsById(userId)) return List.of();
+        return UserAchievementMapper.toUserAchievements(userId, list, catalogue.getAll());
     }
 
     /**
      * Retrieves a paginated list of UserAchievements based on the provided filter request.
+     * Only the stored rows are filtered, the catalogue is not merged, so the implicit zero entries
+     * of the sparse achievements mode are not part of the page.
      *
      * @param request the UserAchievementFilterRequest containing pagination, sorting, and filtering criteria
      * @return a Page object containing UserAchievement objects that match the specified criteria
@@ -0,0 +1,101 @@
+package pl.derleta.nebula.service.impl;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.derleta.nebula.domain.entity.UserAchievementEntity;
+import pl.derleta.nebula.domain.mapper.UserAchievementMapper;
+import pl.derleta.nebula.domain.model.Achievement;
+import pl.derleta.nebula.domain.model.AchievementLevel;
+import pl.derleta.nebula.domain.model.UserAchievement;
+import pl.derleta.nebula.repository.AchievementRepository;
+import pl.derleta.nebula.repository.UserAchievementRepository;
+import pl.derleta.nebula.repository.UserRepository;
+import pl.derleta.nebula.service.AchievementCatalogue;
+import pl.derleta.nebula.service.UserAchievementUpdater;
+import pl.derleta.nebula.service.UserCache;
+import pl.derleta.nebula.util.IdUtil;
+
+import java.util.Optional;
+
+/**
+ * Implementation of the UserAchievementUpdater interface, responsible for recording the progress of user achievements.
+ * A user achievement row is created lazily with the first progress write, achievements without progress
+ * are not stored and are served as implicit zero entries by the UserAchievementProvider.
+ */
+@AllArgsConstructor
+@Service
+public class UserAchievementUpdaterImpl implements UserAchievementUpdater {
+
+    private static final int MAX_PROGRESS = 10000;
+
+    private final UserAchievementRepository repository;
+    private final UserRepository userRepository;
+    private final AchievementRepository achievementRepository;
+    private final AchievementCatalogue catalogue;
+    private final UserCache cache;
+
+    /**
+     * Sets the value of an achievement for the specified user, the level and progress are derived from the value
+     * and the achievement definition. The row is inserted if the user has no stored progress of the achievement yet,
+     * a zero value of an achievement without a stored row is not persisted.
+     *
+     * @param userId        the ID of the user
+     * @param achievementId the ID of the achievement
+     * @param value         the new value of the achievement
+     * @return the updated UserAchievement, or null if the user or the achievement does not exist
+     */
+    @Override
+    @Transactional
+    public UserAchievement updateValue(long userId, int achievementId, int value) {
+        Optional<Achievement> optional = catalogue.get(achievementId);
+        if (optional.isEmpty() || !userRepository.existsById(userId)) return null;
+        Achievement achievement = optional.get();
+        UserAchievementEntity entity = repository.get(userId, achievementId);
+        if (entity == null) {
+            if (value == 0) return UserAchievementMapper.toImplicitUserAchievement(userId, achievement);
+            entity = new UserAchievementEntity();
+            entity.setId(IdUtil.getUserAchievementId(userId, achievementId));
+            entity.setUser(userRepository.getReferenceById(userId));
+            entity.setAchievement(achievementRepository.getReferenceById(achievementId));
+        }
+        entity.setValue(value);
+        entity.setLevel(getLevel(achievement, value));
+        entity.setProgress(getProgress(achievement, value));
+        repository.save(entity);
+        userRepository.updateUserUpdatedAt(userId);
+        cache.invalidate(userId);
+        return UserAchievementMapper.toUserAchievement(entity, achievement);
+    }
+
+    /**
+     * Calculates the highest level of the achievement reached by the value.
+     *
+     * @param achievement the achievement definition
+     * @param value       the value of the achievement
+     * @return the reached level, or 0 if no level is reached
+     */
+    private int getLevel(Achievement achievement, int value) {
+        int level = 0;
+        if (achievement.levels() == null) return level;
+        for (AchievementLevel achievementLevel : achievement.levels()) {
+            if (value >= achievementLevel.value()) level = Math.max(level, achievementLevel.level());
+        }
+        return level;
+    }
+
+    /**
+     * Calculates the progress of the achievement in hundredths of a percent, from 0 to 10000.
+     *
+     * @param achievement the achievement definition
+     * @param value       the value of the achievement
+     * @return the progress of the achievement
+     */
+    private int getProgress(Achievement achievement, int value) {
+        long range = (long) achievement.maxValue() - achievement.minValue();
+        if (range <= 0) return value >= achievement.maxValue() ? MAX_PROGRESS : 0;
+        long progress = ((long) value - achievement.minValue()) * MAX_PROGRESS / range;
+        return (int) Math.max(0, Math.min(MAX_PROGRESS, progress));
+    }
+
+}
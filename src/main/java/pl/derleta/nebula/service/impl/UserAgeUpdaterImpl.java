@@ -0,0 +1,248 @@
+package pl.derleta.nebula.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.derleta.nebula.domain.entity.JobCheckpointEntity;
+import pl.derleta.nebula.domain.types.JobStatus;
+import pl.derleta.nebula.domain.types.JobType;
+import pl.derleta.nebula.repository.JobCheckpointRepository;
+import pl.derleta.nebula.service.UserAgeUpdater;
+import pl.derleta.nebula.service.UserCache;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation of the UserAgeUpdater interface.
+ * Recomputes the age stored with the users, which is otherwise only computed at registration and drifts.
+ * The users are processed set-based in keyset-ordered chunks of user ids, and only the rows whose stored age
+ * differs from the age on the run date are written: the users whose birthday passed since their age was last
+ * stored, including the birthdays of missed runs. Every chunk runs in its own short transaction together with
+ * the update of the job checkpoint, so an interrupted run continues from the checkpoint on the same day.
+ * <p>
+ * The job runs on a single background thread with a pause between chunks, which is longer during the peak hours,
+ * so it never holds more than one pooled connection or competes with the requests for the pool.
+ */
+@Service
+public class UserAgeUpdaterImpl implements UserAgeUpdater {
+
+    private static final String JOB_NAME = "age-recompute";
+
+    private static final String NEXT_USER_IDS = """
+            SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?
+            """;
+    private static final String OUTDATED_USER_IDS = """
+            SELECT id FROM users WHERE id > ? AND id <= ? AND birth_date IS NOT NULL
+            AND (age IS NULL OR age <> TIMESTAMPDIFF(YEAR, birth_date, ?))
+            """;
+    private static final String UPDATE_AGES = """
+            UPDATE users SET age = TIMESTAMPDIFF(YEAR, birth_date, ?), updated_at = CURRENT_TIMESTAMP(6)
+            WHERE id > ? AND id <= ? AND birth_date IS NOT NULL
+            AND (age IS NULL OR age <> TIMESTAMPDIFF(YEAR, birth_date, ?))
+            """;
+
+    final JobCheckpointRepository checkpointRepository;
+    final JdbcTemplate jdbcTemplate;
+
+    private final UserCache userCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService worker;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final int chunkSize;
+    private final Duration pause;
+    private final Duration peakPause;
+    private final int peakStartHour;
+    private final int peakEndHour;
+
+    private volatile long checkedUsers;
+    private volatile long updatedUsers;
+    private volatile long lastId;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    /**
+     * Constructor for UserAgeUpdaterImpl.
+     *
+     * @param checkpointRepository The repository for managing the job checkpoints.
+     * @param jdbcTemplate         The JDBC template used for the set-based updates.
+     * @param userCache            The cache of the users, invalidated for the users whose age changed.
+     * @param transactionManager   The transaction manager used for the per-chunk transactions.
+     * @param chunkSize            The number of users checked by a single chunk.
+     * @param pauseMs              The pause in milliseconds between two chunks outside the peak hours.
+     * @param peakPauseMs          The pause in milliseconds between two chunks during the peak hours.
+     * @param peakStartHour        The hour of the day the peak hours start, inclusive.
+     * @param peakEndHour          The hour of the day the peak hours end, exclusive; equal to the start for no peak hours.
+     */
+    @Autowired
+    public UserAgeUpdaterImpl(JobCheckpointRepository checkpointRepository, JdbcTemplate jdbcTemplate,
+                              UserCache userCache, PlatformTransactionManager transactionManager,
+                              @Value("${nebula.age-recompute.chunk-size:500}") int chunkSize,
+                              @Value("${nebula.age-recompute.pause-ms:100}") long pauseMs,
+                              @Value("${nebula.age-recompute.peak-pause-ms:2000}") long peakPauseMs,
+                              @Value("${nebula.age-recompute.peak-start-hour:7}") int peakStartHour,
+                              @Value("${nebula.age-recompute.peak-end-hour:23}") int peakEndHour) {
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.userCache = userCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.worker = Executors.newSingleThreadExecutor();
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pause = Duration.ofMillis(Math.max(0, pauseMs));
+        this.peakPause = Duration.ofMillis(Math.max(0, peakPauseMs));
+        this.peakStartHour = peakStartHour;
+        this.peakEndHour = peakEndHour;
+    }
+
+    /**
+     * Submits the recompute to the background worker, invoked daily. Nothing is submitted while a run is in progress.
+     *
+     * @return true if the recompute was submitted
+     */
+    @Override
+    @Scheduled(cron = "${nebula.age-recompute.cron:0 30 3 * * *}")
+    public boolean scheduleRecompute() {
+        if (running.get()) return false;
+        worker.submit(this::recompute);
+        return true;
+    }
+
+    /**
+     * Recomputes the ages for the current date on the calling thread. A run which already finished today
+     * is not repeated, an unfinished run of today continues from its checkpoint, otherwise all users are checked.
+     * A failed chunk marks the job as FAILED and stops the run, the next run continues from the last committed chunk.
+     *
+     * @return the number of users whose age was updated by this run
+     */
+    @Override
+    public int recompute() {
+        if (!running.compareAndSet(false, true)) return 0;
+        LocalDate asOf = LocalDate.now();
+        int updated = 0;
+        try {
+            if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> start(asOf)))) return 0;
+            Integer chunk;
+            while ((chunk = transactionTemplate.execute(status -> processChunk(asOf))) != null) {
+                updated += chunk;
+                Duration wait = currentPause();
+                if (!wait.isZero()) Thread.sleep(wait.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> checkpointRepository.findById(JOB_NAME).ifPresent(checkpoint -> {
+                checkpoint.setStatus(JobStatus.FAILED);
+                checkpoint.setUpdatedAt(Instant.now());
+                checkpointRepository.save(checkpoint);
+            }));
+        } finally {
+            finishedAt = Instant.now();
+            running.set(false);
+        }
+        return updated;
+    }
+
+    /**
+     * Returns the progress of the current run, or the result of the last run of this node.
+     *
+     * @return the number of checked and updated users, the checkpoint and the start and finish time of the run
+     */
+    @Override
+    public Stats stats() {
+        return new Stats(running.get(), checkedUsers, updatedUsers, lastId, startedAt, finishedAt);
+    }
+
+    /**
+     * Stops the background worker when the application context is closed,
+     * a running recompute continues from its checkpoint on the next run of the same day.
+     */
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Prepares the checkpoint of the run: a run of another day starts from the first user.
+     *
+     * @param asOf the date the ages are computed for
+     * @return true if the run has chunks to process, false if it already finished today
+     */
+    private boolean start(LocalDate asOf) {
+        long day = asOf.toEpochDay();
+        JobCheckpointEntity checkpoint = checkpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> new JobCheckpointEntity(JOB_NAME, JobType.AGE_RECOMPUTE, day, 0L, 0L,
+                        JobStatus.PENDING, Instant.now()));
+        if (checkpoint.getTargetId() == null || checkpoint.getTargetId() != day) {
+            checkpoint.setTargetId(day);
+            checkpoint.setLastId(0L);
+            checkpoint.setProcessed(0L);
+        } else if (checkpoint.getStatus() == JobStatus.DONE) {
+            return false;
+        }
+        checkpoint.setStatus(JobStatus.RUNNING);
+        checkpoint.setUpdatedAt(Instant.now());
+        checkpointRepository.save(checkpoint);
+        startedAt = Instant.now();
+        finishedAt = null;
+        checkedUsers = 0;
+        updatedUsers = 0;
+        lastId = checkpoint.getLastId();
+        return true;
+    }
+
+    /**
+     * Updates the outdated ages of the next chunk of users after the checkpoint, and moves the checkpoint
+     * to the last user of the chunk in the same transaction.
+     *
+     * @param asOf the date the ages are computed for
+     * @return the number of updated users, or null if all users are processed
+     */
+    private Integer processChunk(LocalDate asOf) {
+        JobCheckpointEntity checkpoint = checkpointRepository.findById(JOB_NAME).orElse(null);
+        if (checkpoint == null || checkpoint.getStatus() != JobStatus.RUNNING) return null;
+        List<Long> userIds = jdbcTemplate.queryForList(NEXT_USER_IDS, Long.class, checkpoint.getLastId(), chunkSize);
+        if (userIds.isEmpty()) {
+            checkpoint.setStatus(JobStatus.DONE);
+            checkpoint.setUpdatedAt(Instant.now());
+            checkpointRepository.save(checkpoint);
+            return null;
+        }
+        long upperId = userIds.getLast();
+        Date date = Date.valueOf(asOf);
+        List<Long> outdated = jdbcTemplate.queryForList(OUTDATED_USER_IDS, Long.class,
+                checkpoint.getLastId(), upperId, date);
+        if (!outdated.isEmpty()) {
+            jdbcTemplate.update(UPDATE_AGES, date, checkpoint.getLastId(), upperId, date);
+            outdated.forEach(userCache::invalidate);
+        }
+        checkpoint.setLastId(upperId);
+        checkpoint.setProcessed(checkpoint.getProcessed() + outdated.size());
+        checkpoint.setUpdatedAt(Instant.now());
+        checkpointRepository.save(checkpoint);
+        checkedUsers += userIds.size();
+        updatedUsers += outdated.size();
+        lastId = upperId;
+        return outdated.size();
+    }
+
+    private Duration currentPause() {
+        int hour = LocalTime.now().getHour();
+        boolean peak = peakStartHour <= peakEndHour
+                ? hour >= peakStartHour && hour < peakEndHour
+                : hour >= peakStartHour || hour < peakEndHour;
+        return peak ? peakPause : pause;
+    }
+
+}
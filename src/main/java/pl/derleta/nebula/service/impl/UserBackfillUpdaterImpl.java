@@ -0,0 +1,294 @@
+package pl.derleta.nebula.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.derleta.nebula.domain.entity.JobCheckpointEntity;
+import pl.derleta.nebula.domain.types.JobStatus;
+import pl.derleta.nebula.domain.types.JobType;
+import pl.derleta.nebula.repository.JobCheckpointRepository;
+import pl.derleta.nebula.service.UserBackfillUpdater;
+import pl.derleta.nebula.service.UserCache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Implementation of the UserBackfillUpdater interface.
+ * Gives the existing users the users_games and user_achievements rows of a newly created game or achievement,
+ * which new users get at provisioning. The missing rows are inserted set-based in keyset-ordered chunks
+ * of user ids, every chunk runs in its own short transaction together with the update of the job checkpoint,
+ * and the jobs run one after another on a single background thread with a pause between chunks,
+ * so a backfill never holds long locks or more than one pooled connection.
+ * <p>
+ * Unfinished jobs are resumed from their checkpoint when the application is ready. Games and achievements
+ * inserted directly into the database are detected periodically by comparing their ids with a stored watermark.
+ * In the sparse achievements mode achievements are not backfilled, missing rows are served as implicit zero entries.
+ */
+@Service
+public class UserBackfillUpdaterImpl implements UserBackfillUpdater {
+
+    private static final String GAME_JOB_PREFIX = "backfill-game-";
+    private static final String ACHIEVEMENT_JOB_PREFIX = "backfill-achievement-";
+    private static final String GAME_WATERMARK = "watermark-games";
+    private static final String ACHIEVEMENT_WATERMARK = "watermark-achievements";
+
+    private static final String NEXT_USER_IDS = """
+            SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?
+            """;
+    private static final String INSERT_USERS_GAMES = """
+            INSERT IGNORE INTO users_games (user_id, game_id)
+            SELECT u.id, ? FROM users u WHERE u.id > ? AND u.id <= ?
+            """;
+    private static final String INSERT_USER_ACHIEVEMENTS = """
+            INSERT IGNORE INTO user_achievements (user_id, achievement_id, progress, level, value)
+            SELECT u.id, ?, 0, 0, 0 FROM users u WHERE u.id > ? AND u.id <= ?
+            """;
+    private static final String TOUCH_USERS = """
+            UPDATE users SET updated_at = CURRENT_TIMESTAMP(6) WHERE id > ? AND id <= ?
+            """;
+
+    final JobCheckpointRepository checkpointRepository;
+    final JdbcTemplate jdbcTemplate;
+
+    private final UserCache userCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService worker;
+    private final Set<String> queuedJobs = ConcurrentHashMap.newKeySet();
+    private final int chunkSize;
+    private final Duration pause;
+    private final boolean sparseAchievements;
+
+    /**
+     * Constructor for UserBackfillUpdaterImpl.
+     *
+     * @param checkpointRepository The repository for managing the job checkpoints.
+     * @param jdbcTemplate         The JDBC template used for the set-based inserts.
+     * @param userCache            The cache of the users, invalidated for the users of each chunk.
+     * @param transactionManager   The transaction manager used for the per-chunk transactions.
+     * @param chunkSize            The number of users processed by a single chunk.
+     * @param pauseMs              The pause in milliseconds between two chunks.
+     * @param sparseAchievements   Whether only achievements with progress are stored for the users.
+     */
+    @Autowired
+    public UserBackfillUpdaterImpl(JobCheckpointRepository checkpointRepository, JdbcTemplate jdbcTemplate,
+                                   UserCache userCache, PlatformTransactionManager transactionManager,
+                                   @Value("${nebula.backfill.chunk-size:500}") int chunkSize,
+                                   @Value("${nebula.backfill.pause-ms:200}") long pauseMs,
+                                   @Value("${nebula.achievements.sparse:true}") boolean sparseAchievements) {
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.userCache = userCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.worker = Executors.newSingleThreadExecutor();
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pause = Duration.ofMillis(Math.max(0, pauseMs));
+        this.sparseAchievements = sparseAchievements;
+    }
+
+    /**
+     * Schedules the backfill of the users_games rows of a game. A game which was already backfilled is skipped.
+     *
+     * @param gameId the id of the game
+     * @return true if the backfill was scheduled, false if it was already done or queued
+     */
+    @Override
+    public boolean scheduleGameBackfill(int gameId) {
+        return schedule(GAME_JOB_PREFIX + gameId, JobType.GAME_BACKFILL, gameId);
+    }
+
+    /**
+     * Schedules the backfill of the user_achievements rows of an achievement. An achievement which was already
+     * backfilled is skipped, and nothing is scheduled in the sparse achievements mode.
+     *
+     * @param achievementId the id of the achievement
+     * @return true if the backfill was scheduled, false if it was already done, queued or not required
+     */
+    @Override
+    public boolean scheduleAchievementBackfill(int achievementId) {
+        if (sparseAchievements) return false;
+        return schedule(ACHIEVEMENT_JOB_PREFIX + achievementId, JobType.ACHIEVEMENT_BACKFILL, achievementId);
+    }
+
+    /**
+     * Detects games and achievements with an id above their watermark and schedules their backfill.
+     * On the first run the watermarks are initialized with the current highest ids without any backfill.
+     *
+     * @return the number of scheduled backfills
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${nebula.backfill.detect-delay-ms:60000}",
+            initialDelayString = "${nebula.backfill.detect-delay-ms:60000}")
+    public int detectNewGamesAndAchievements() {
+        int scheduled = 0;
+        for (long gameId : detectNewIds(GAME_WATERMARK, JobType.GAME_WATERMARK, "games")) {
+            if (scheduleGameBackfill((int) gameId)) scheduled++;
+        }
+        if (!sparseAchievements) {
+            for (long achievementId : detectNewIds(ACHIEVEMENT_WATERMARK, JobType.ACHIEVEMENT_WATERMARK, "achievements")) {
+                if (scheduleAchievementBackfill((int) achievementId)) scheduled++;
+            }
+        }
+        return scheduled + resumeUnfinished();
+    }
+
+    /**
+     * Resubmits all unfinished backfill jobs, they continue from their checkpoint.
+     * Invoked when the application is ready and after every detection run.
+     *
+     * @return the number of resubmitted jobs
+     */
+    @Override
+    public int resumeUnfinished() {
+        List<JobCheckpointEntity> unfinished = checkpointRepository.findByJobTypeInAndStatusIn(
+                List.of(JobType.GAME_BACKFILL, JobType.ACHIEVEMENT_BACKFILL),
+                List.of(JobStatus.PENDING, JobStatus.RUNNING, JobStatus.FAILED));
+        int resumed = 0;
+        for (JobCheckpointEntity checkpoint : unfinished) {
+            if (checkpoint.getJobType() == JobType.ACHIEVEMENT_BACKFILL && sparseAchievements) continue;
+            if (submit(checkpoint.getJobName())) resumed++;
+        }
+        return resumed;
+    }
+
+    /**
+     * Resumes the unfinished jobs once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        resumeUnfinished();
+    }
+
+    /**
+     * Stops the background worker when the application context is closed,
+     * a running job continues from its checkpoint after the restart.
+     */
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Creates the checkpoint of a job unless it already exists, and submits the job.
+     *
+     * @param jobName  the unique name of the job
+     * @param jobType  the type of the job
+     * @param targetId the id of the backfilled game or achievement
+     * @return true if the job was submitted
+     */
+    private boolean schedule(String jobName, JobType jobType, long targetId) {
+        Optional<JobCheckpointEntity> existing = checkpointRepository.findById(jobName);
+        if (existing.isPresent() && existing.get().getStatus() == JobStatus.DONE) return false;
+        if (existing.isEmpty()) {
+            checkpointRepository.save(new JobCheckpointEntity(jobName, jobType, targetId, 0L, 0L,
+                    JobStatus.PENDING, Instant.now()));
+        }
+        return submit(jobName);
+    }
+
+    /**
+     * Submits a job to the background worker unless it is already queued.
+     *
+     * @param jobName the unique name of the job
+     * @return true if the job was submitted
+     */
+    private boolean submit(String jobName) {
+        if (!queuedJobs.add(jobName)) return false;
+        worker.submit(() -> run(jobName));
+        return true;
+    }
+
+    /**
+     * Processes the chunks of a job until all users are processed. A failed chunk marks the job as FAILED,
+     * it is resumed from the last committed checkpoint by the next resume run.
+     *
+     * @param jobName the unique name of the job
+     */
+    void run(String jobName) {
+        try {
+            while (Boolean.TRUE.equals(transactionTemplate.execute(status -> processChunk(jobName)))) {
+                if (!pause.isZero()) Thread.sleep(pause.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> checkpointRepository.findById(jobName).ifPresent(checkpoint -> {
+                checkpoint.setStatus(JobStatus.FAILED);
+                checkpoint.setUpdatedAt(Instant.now());
+                checkpointRepository.save(checkpoint);
+            }));
+        } finally {
+            queuedJobs.remove(jobName);
+        }
+    }
+
+    /**
+     * Inserts the missing rows for the next chunk of users after the checkpoint, marks the users of the chunk
+     * as updated, and moves the checkpoint to the last user of the chunk in the same transaction.
+     *
+     * @param jobName the unique name of the job
+     * @return true if a chunk was processed and another one may follow, false if the job is finished
+     */
+    private boolean processChunk(String jobName) {
+        JobCheckpointEntity checkpoint = checkpointRepository.findById(jobName).orElse(null);
+        if (checkpoint == null || checkpoint.getStatus() == JobStatus.DONE) return false;
+        List<Long> userIds = jdbcTemplate.queryForList(NEXT_USER_IDS, Long.class, checkpoint.getLastId(), chunkSize);
+        if (userIds.isEmpty()) {
+            checkpoint.setStatus(JobStatus.DONE);
+        } else {
+            long upperId = userIds.getLast();
+            String insert = checkpoint.getJobType() == JobType.GAME_BACKFILL ? INSERT_USERS_GAMES : INSERT_USER_ACHIEVEMENTS;
+            jdbcTemplate.update(insert, checkpoint.getTargetId(), checkpoint.getLastId(), upperId);
+            jdbcTemplate.update(TOUCH_USERS, checkpoint.getLastId(), upperId);
+            userIds.forEach(userCache::invalidate);
+            checkpoint.setLastId(upperId);
+            checkpoint.setProcessed(checkpoint.getProcessed() + userIds.size());
+            checkpoint.setStatus(JobStatus.RUNNING);
+        }
+        checkpoint.setUpdatedAt(Instant.now());
+        checkpointRepository.save(checkpoint);
+        return checkpoint.getStatus() == JobStatus.RUNNING;
+    }
+
+    /**
+     * Reads the ids above the watermark of a table and moves the watermark to the highest id.
+     *
+     * @param watermarkName the name of the watermark checkpoint
+     * @param jobType       the type of the watermark checkpoint
+     * @param table         the table to check, games or achievements
+     * @return the ids above the previous watermark, empty when the watermark is initialized
+     */
+    private List<Long> detectNewIds(String watermarkName, JobType jobType, String table) {
+        Optional<JobCheckpointEntity> existing = checkpointRepository.findById(watermarkName);
+        if (existing.isEmpty()) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            checkpointRepository.save(new JobCheckpointEntity(watermarkName, jobType, null,
+                    maxId == null ? 0L : maxId, 0L, JobStatus.DONE, Instant.now()));
+            return List.of();
+        }
+        JobCheckpointEntity watermark = existing.get();
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM " + table + " WHERE id > ? ORDER BY id",
+                Long.class, watermark.getLastId());
+        if (!ids.isEmpty()) {
+            watermark.setLastId(ids.getLast());
+            watermark.setProcessed(watermark.getProcessed() + ids.size());
+            watermark.setUpdatedAt(Instant.now());
+            checkpointRepository.save(watermark);
+        }
+        return ids;
+    }
+
+}
@@ -0,0 +1,90 @@
+package pl.derleta.nebula.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.derleta.nebula.domain.mapper.UserProjectionMapper;
+import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.domain.model.UserBatch;
+import pl.derleta.nebula.domain.projection.UserProfileView;
+import pl.derleta.nebula.exceptions.BatchTooLargeException;
+import pl.derleta.nebula.repository.UserRepository;
+import pl.derleta.nebula.service.UserBatchProvider;
+import pl.derleta.nebula.service.UserCache;
+
+import java.util.*;
+
+/**
+ * Implementation of the UserBatchProvider interface resolving the profiles of many users at once,
+ * for example the members of a lobby.
+ * <p>
+ * Users present in the {@link UserCache} are served from memory, the others are read with chunked {@code IN}
+ * queries of the profile projection, which joins the gender, nationality and region of every user in the
+ * same query. The loaded profiles are not cached, as they do not contain the games and achievements.
+ */
+@Service
+public class UserBatchProviderImpl implements UserBatchProvider {
+
+    private final UserRepository repository;
+    private final UserCache cache;
+    private final int maxIds;
+    private final int chunkSize;
+
+    /**
+     * Constructor for UserBatchProviderImpl.
+     *
+     * @param repository The repository for reading the user projections.
+     * @param cache      The cache of the full user aggregates.
+     * @param maxIds     The maximum number of distinct ids of a batch.
+     * @param chunkSize  The maximum number of ids of a single {@code IN} query.
+     */
+    @Autowired
+    public UserBatchProviderImpl(UserRepository repository, UserCache cache,
+                                 @Value("${nebula.users.batch.max-ids:500}") int maxIds,
+                                 @Value("${nebula.users.batch.chunk-size:100}") int chunkSize) {
+        this.repository = repository;
+        this.cache = cache;
+        this.maxIds = Math.max(1, maxIds);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Retrieves the profiles of the users with the given ids. Duplicate and null ids are ignored.
+     *
+     * @param userIds the ids of the users
+     * @return the found users in the order of the first occurrence of their id, and the ids which were not found
+     * @throws BatchTooLargeException if more distinct ids than allowed are requested
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public UserBatch getProfiles(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) return new UserBatch(List.of(), List.of());
+        Set<Long> ids = new LinkedHashSet<>(userIds);
+        ids.remove(null);
+        if (ids.size() > maxIds)
+            throw new BatchTooLargeException("At most " + maxIds + " user ids can be requested at once");
+
+        Map<Long, NebulaUser> found = new HashMap<>();
+        List<Long> toLoad = new ArrayList<>();
+        for (Long id : ids) {
+            cache.getIfPresent(id).ifPresentOrElse(user -> found.put(id, user), () -> toLoad.add(id));
+        }
+        for (int from = 0; from < toLoad.size(); from += chunkSize) {
+            List<Long> chunk = toLoad.subList(from, Math.min(from + chunkSize, toLoad.size()));
+            for (UserProfileView view : repository.findProfileViewsByIdIn(chunk)) {
+                found.put(view.id(), UserProjectionMapper.toUser(view, null, null));
+            }
+        }
+
+        List<NebulaUser> users = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            NebulaUser user = found.get(id);
+            if (user != null) users.add(user);
+            else missing.add(id);
+        }
+        return new UserBatch(users, missing);
+    }
+
+}
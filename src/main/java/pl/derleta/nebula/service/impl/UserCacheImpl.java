@@ -0,0 +1,234 @@
+package pl.derleta.nebula.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.service.UserCache;
+import pl.derleta.nebula.util.TransactionUtil;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Implementation of the UserCache interface keeping the full user aggregates of the recently read users in memory.
+ * The cache is bounded by the number of entries and by the approximate size of the entries in bytes,
+ * the least recently used entries are evicted first, and entries expire after the TTL, which limits how long
+ * a change written by another node may go unnoticed.
+ * <p>
+ * Writes on this node update or invalidate the entry when their transaction completes, so a read after a write
+ * sees the write. A value loaded while an invalidation happened is returned but not cached, so a load which
+ * read the data before the write can not overwrite the invalidation. Expired entries are not served as hits but are
+ * kept until evicted, as the last known value of the user when the database is degraded.
+ */
+@Service
+public class UserCacheImpl implements UserCache {
+
+    private static final long USER_BYTES = 1024;
+    private static final long GAME_BYTES = 256;
+    private static final long ACHIEVEMENT_BYTES = 128;
+
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Duration ttl;
+
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Constructor for UserCacheImpl.
+     *
+     * @param maxEntries The maximum number of cached users, 0 disables the cache.
+     * @param maxBytes   The maximum approximate size in bytes of all cached users.
+     * @param ttlMs      The time in milliseconds a cached user is served.
+     */
+    @Autowired
+    public UserCacheImpl(@Value("${nebula.user-cache.max-entries:10000}") int maxEntries,
+                         @Value("${nebula.user-cache.max-bytes:67108864}") long maxBytes,
+                         @Value("${nebula.user-cache.ttl-ms:30000}") long ttlMs) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.maxBytes = Math.max(0, maxBytes);
+        this.ttl = Duration.ofMillis(Math.max(0, ttlMs));
+    }
+
+    /**
+     * Retrieves the cached user, or loads it with the loader and caches it.
+     * The loader runs outside the cache lock, null values are not cached.
+     *
+     * @param userId the ID of the user
+     * @param loader the function loading the user from the database
+     * @return the cached or loaded user, or null if the loader returned null
+     */
+    @Override
+    public NebulaUser get(long userId, LongFunction<NebulaUser> loader) {
+        synchronized (this) {
+            NebulaUser cached = lookup(userId);
+            if (cached != null) return cached;
+        }
+        return refresh(userId, loader);
+    }
+
+    /**
+     * Retrieves the cached user without loading it.
+     *
+     * @param userId the ID of the user
+     * @return an Optional containing the cached user, or an empty Optional if the user is not cached
+     */
+    @Override
+    public synchronized Optional<NebulaUser> getIfPresent(long userId) {
+        return Optional.ofNullable(lookup(userId));
+    }
+
+    /**
+     * Retrieves the cached user even if it expired, without loading it and without counting a hit or a miss.
+     * Expired users are kept until they are evicted or invalidated, so they can be served while the database
+     * is degraded; a user invalidated by a write on this node is never returned.
+     *
+     * @param userId the ID of the user
+     * @return an Optional containing the cached user, or an empty Optional if the user is not cached
+     */
+    @Override
+    public synchronized Optional<NebulaUser> getStale(long userId) {
+        Entry entry = entries.get(userId);
+        return entry == null ? Optional.empty() : Optional.of(entry.user());
+    }
+
+    /**
+     * Loads the user with the loader and caches it, replacing the cached user. The loader runs outside
+     * the cache lock; a user which no longer exists is removed from the cache.
+     *
+     * @param userId the ID of the user
+     * @param loader the function loading the user from the database
+     * @return the loaded user, or null if the loader returned null
+     */
+    @Override
+    public NebulaUser refresh(long userId, LongFunction<NebulaUser> loader) {
+        long stamp;
+        synchronized (this) {
+            stamp = invalidations;
+        }
+        NebulaUser user = loader.apply(userId);
+        synchronized (this) {
+            if (stamp != invalidations) return user;
+            if (user == null) discard(userId);
+            else put(userId, user);
+        }
+        return user;
+    }
+
+    /**
+     * Applies the change to the cached user once the current transaction is committed, or immediately
+     * without a transaction. Nothing is changed if the transaction is rolled back or the user is not cached.
+     *
+     * @param userId the ID of the user
+     * @param change the function producing the changed user from the cached one
+     */
+    @Override
+    public void update(long userId, UnaryOperator<NebulaUser> change) {
+        TransactionUtil.afterCommit(() -> apply(userId, change));
+    }
+
+    /**
+     * Removes the user from the cache immediately and again when the current transaction completes,
+     * so the user is not cached with the data read before the transaction was committed.
+     *
+     * @param userId the ID of the user
+     */
+    @Override
+    public void invalidate(long userId) {
+        remove(userId);
+        TransactionUtil.afterCompletion(() -> remove(userId));
+    }
+
+    /**
+     * Removes all users from the cache immediately and again when the current transaction completes.
+     */
+    @Override
+    public void invalidateAll() {
+        clear();
+        TransactionUtil.afterCompletion(this::clear);
+    }
+
+    /**
+     * Returns the statistics of the cache.
+     *
+     * @return the hit, miss and eviction counters with the current number and approximate size of the entries
+     */
+    @Override
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), weight);
+    }
+
+    private NebulaUser lookup(long userId) {
+        Entry entry = entries.get(userId);
+        if (entry != null && entry.expiresAt().isAfter(Instant.now())) {
+            hits++;
+            return entry.user();
+        }
+        misses++;
+        return null;
+    }
+
+    private void put(long userId, NebulaUser user) {
+        discard(userId);
+        long size = weigh(user);
+        if (maxEntries == 0 || size > maxBytes) return;
+        entries.put(userId, new Entry(user, size, Instant.now().plus(ttl)));
+        weight += size;
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || weight > maxBytes) && eldest.hasNext()) {
+            weight -= eldest.next().getValue().weight();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private synchronized void apply(long userId, UnaryOperator<NebulaUser> change) {
+        invalidations++;
+        Entry entry = entries.get(userId);
+        if (entry == null) return;
+        NebulaUser user = change.apply(entry.user());
+        if (user == null) discard(userId);
+        else put(userId, user);
+    }
+
+    private synchronized void remove(long userId) {
+        invalidations++;
+        discard(userId);
+    }
+
+    private synchronized void clear() {
+        invalidations++;
+        entries.clear();
+        weight = 0;
+    }
+
+    private void discard(long userId) {
+        Entry entry = entries.remove(userId);
+        if (entry != null) weight -= entry.weight();
+    }
+
+    /**
+     * Approximates the memory used by the user, the achievement definitions are shared with the catalogue
+     * and are not counted.
+     */
+    private static long weigh(NebulaUser user) {
+        return USER_BYTES
+                + (user.games() == null ? 0 : user.games().size() * GAME_BYTES)
+                + (user.achievements() == null ? 0 : user.achievements().size() * ACHIEVEMENT_BYTES);
+    }
+
+    private record Entry(NebulaUser user, long weight, Instant expiresAt) {
+    }
+
+}
@@ -0,0 +1,413 @@
+package pl.derleta.nebula.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import pl.derleta.nebula.controller.mapper.AuthServRegistrationRequestMapper;
+import pl.derleta.nebula.controller.request.AccountRegistrationRequest;
+import pl.derleta.nebula.controller.response.AccountResponse;
+import pl.derleta.nebula.controller.response.UserImportRecordResponse;
+import pl.derleta.nebula.controller.response.UserImportSummaryResponse;
+import pl.derleta.nebula.domain.types.AccountResponseType;
+import pl.derleta.nebula.domain.types.ImportFormat;
+import pl.derleta.nebula.domain.types.ProvisioningStatus;
+import pl.derleta.nebula.service.AccountAvailabilityProvider;
+import pl.derleta.nebula.service.RegistrationValidator;
+import pl.derleta.nebula.service.UserImportUpdater;
+import pl.derleta.nebula.util.HttpAuthClient;
+import pl.derleta.nebula.util.RegistrationRecordParser;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+/**
+ * Implementation of the UserImportUpdater interface.
+ * Imports users from NDJSON or CSV streams: the input is read line by line and processed in chunks.
+ * The valid records of a chunk are first reserved in the provisioning outbox with a single JDBC batch,
+ * as PENDING records which become due only after the reservation time, and only the reserved records are registered
+ * on the authorization server on a bounded worker pool. A registered account is therefore never left without
+ * its outbox record: the accepted records are made due immediately, the records rejected by the authorization server
+ * are removed, and the records with an unknown outcome are kept and resolved by the provisioning job.
+ * The result of every record is written to the output as a NDJSON line after its chunk is finished, followed
+ * by a summary line. Lines longer than the maximum line length are rejected without being buffered,
+ * so the memory usage depends only on the chunk size and the line length and not on the size of the import.
+ */
+@Service
+public class UserImportUpdaterImpl implements UserImportUpdater {
+
+    private static final String OUTBOX_RESERVE = """
+            INSERT IGNORE INTO user_provisioning_outbox
+                (login, email, birth_date, nationality_id, gender_id, status, attempts, next_attempt_at, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, 0, ?, ?)
+            """;
+
+    private static final String OUTBOX_ACTIVATE = """
+            UPDATE user_provisioning_outbox SET next_attempt_at = ?
+            WHERE login = ? AND status = 'PENDING' AND attempts = 0 AND next_attempt_at = ? AND created_at = ?
+            """;
+
+    private static final String OUTBOX_DELETE = """
+            DELETE FROM user_provisioning_outbox
+            WHERE login = ? AND status = 'PENDING' AND attempts = 0 AND next_attempt_at = ? AND created_at = ?
+            """;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    final HttpAuthClient httpAuthServClient;
+    final JdbcTemplate jdbcTemplate;
+    final RegistrationValidator registrationValidator;
+    final AccountAvailabilityProvider availabilityProvider;
+
+    private final ExecutorService workers;
+    private final int chunkSize;
+    private final int maxLineLength;
+    private final Duration reservation;
+
+    /**
+     * Constructor for UserImportUpdaterImpl.
+     *
+     * @param httpAuthServClient    The HTTP authentication service client used to register the imported accounts.
+     * @param jdbcTemplate          The JDBC template used for the batch writes to the provisioning outbox.
+     * @param registrationValidator The validator rejecting invalid records before any remote call.
+     * @param availabilityProvider  The availability check which accepted logins and emails are added to.
+     * @param concurrency           The maximum number of concurrent registrations on the authorization server.
+     * @param chunkSize             The number of records processed and written to the outbox in one batch.
+     * @param maxLineLength         The maximum number of characters of a record, longer records are rejected.
+     * @param reservationMs         The time in milliseconds a reserved outbox record is hidden from the provisioning job.
+     */
+    @Autowired
+    public UserImportUpdaterImpl(HttpAuthClient httpAuthServClient, JdbcTemplate jdbcTemplate,
+                                 RegistrationValidator registrationValidator,
+                                 AccountAvailabilityProvider availabilityProvider,
+                                 @Value("${nebula.import.concurrency:4}") int concurrency,
+                                 @Value("${nebula.import.chunk-size:100}") int chunkSize,
+                                 @Value("${nebula.import.max-line-length:4096}") int maxLineLength,
+                                 @Value("${nebula.provisioning.lease-ms:60000}") long reservationMs) {
+        this.httpAuthServClient = httpAuthServClient;
+        this.jdbcTemplate = jdbcTemplate;
+        this.registrationValidator = registrationValidator;
+        this.availabilityProvider = availabilityProvider;
+        this.workers = Executors.newFixedThreadPool(Math.max(1, concurrency));
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxLineLength = Math.max(1, maxLineLength);
+        this.reservation = Duration.ofMillis(Math.max(0, reservationMs));
+    }
+
+    /**
+     * Imports the users from the input stream and streams the result of every record to the output stream.
+     * Blank lines are skipped, in the CSV format the first non-blank line is the header.
+     *
+     * @param input  the stream with the import records
+     * @param format the format of the import records
+     * @param output the stream receiving a NDJSON line per record and a final summary line
+     * @return the summary of the import
+     * @throws IOException if reading the input or writing the output fails
+     */
+    @Override
+    public UserImportSummaryResponse importUsers(InputStream input, ImportFormat format, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        List<ImportRecord> chunk = new ArrayList<>(chunkSize);
+        int[] csvPositions = null;
+        long lineNumber = 0;
+        long succeeded = 0;
+        long failed = 0;
+        InputLine line;
+        while ((line = readLine(reader)) != null) {
+            lineNumber++;
+            if (!line.tooLong() && line.content().isBlank()) continue;
+            if (format == ImportFormat.CSV && csvPositions == null) {
+                try {
+                    if (line.tooLong()) throw new IllegalArgumentException(tooLongMessage());
+                    csvPositions = RegistrationRecordParser.csvHeader(line.content());
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    write(writer, new UserImportRecordResponse(lineNumber, null, false, null, e.getMessage()));
+                    return writeSummary(writer, new UserImportSummaryResponse(0, 0, 0, false));
+                }
+            }
+            chunk.add(new ImportRecord(lineNumber, line.tooLong() ? null : line.content(), csvPositions));
+            if (chunk.size() >= chunkSize) {
+                long chunkSucceeded = processChunk(chunk, format, writer);
+                succeeded += chunkSucceeded;
+                failed += chunk.size() - chunkSucceeded;
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            long chunkSucceeded = processChunk(chunk, format, writer);
+            succeeded += chunkSucceeded;
+            failed += chunk.size() - chunkSucceeded;
+        }
+        return writeSummary(writer, new UserImportSummaryResponse(succeeded + failed, succeeded, failed, true));
+    }
+
+    /**
+     * Stops the worker pool when the application context is closed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    /**
+     * Reads the next line of the input like {@link BufferedReader#readLine()}, but keeps at most the maximum line length
+     * of characters. The rest of a longer line is skipped without being buffered.
+     *
+     * @param reader the reader of the input
+     * @return the next line, or null at the end of the input
+     * @throws IOException if reading the input fails
+     */
+    private InputLine readLine(BufferedReader reader) throws IOException {
+        StringBuilder line = new StringBuilder();
+        boolean tooLong = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c == '\n') return new InputLine(line.toString(), tooLong);
+            if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') reader.reset();
+                return new InputLine(line.toString(), tooLong);
+            }
+            if (line.length() < maxLineLength) line.append((char) c);
+            else tooLong = true;
+        }
+        return line.isEmpty() && !tooLong ? null : new InputLine(line.toString(), tooLong);
+    }
+
+    /**
+     * Validates the records of a chunk on the worker pool, reserves the valid ones in the provisioning outbox
+     * with a single batch, registers the reserved records on the worker pool, releases their reservations
+     * and writes the results of the records in their input order.
+     *
+     * @param chunk  the records of the chunk
+     * @param format the format of the records
+     * @param writer the writer receiving the results
+     * @return the number of successfully imported records
+     * @throws IOException if writing the results fails
+     */
+    private long processChunk(List<ImportRecord> chunk, ImportFormat format, Writer writer) throws IOException {
+        List<RegisteredRecord> results = new ArrayList<>(invokeAll(chunk.stream()
+                .map(record -> (Callable<RegisteredRecord>) () -> validate(record, format))
+                .toList()));
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Instant reservedUntil = now.plus(reservation);
+        List<Integer> reserved = reserve(results, now, reservedUntil);
+        List<RegisteredRecord> registered = invokeAll(reserved.stream()
+                .map(index -> (Callable<RegisteredRecord>) () -> register(results.get(index)))
+                .toList());
+        for (int i = 0; i < reserved.size(); i++) {
+            results.set(reserved.get(i), registered.get(i));
+        }
+        release(registered, now, reservedUntil);
+        long succeeded = 0;
+        for (RegisteredRecord result : results) {
+            if (result.response().success()) succeeded++;
+            write(writer, result.response());
+        }
+        writer.flush();
+        return succeeded;
+    }
+
+    /**
+     * Parses a record and validates it locally.
+     *
+     * @param record the record to validate
+     * @param format the format of the record
+     * @return the pending result of the record with the parsed request, or the failure of an invalid record
+     */
+    private RegisteredRecord validate(ImportRecord record, ImportFormat format) {
+        if (record.content() == null) return failure(record, null, null, tooLongMessage());
+        String login = null;
+        try {
+            AccountRegistrationRequest request = format == ImportFormat.CSV
+                    ? RegistrationRecordParser.fromCsv(record.content(), record.csvPositions())
+                    : RegistrationRecordParser.fromJson(record.content());
+            login = request.getLogin();
+            Optional<AccountResponseType> violation = registrationValidator.validate(request);
+            if (violation.isPresent()) return failure(record, login, violation.get(), null);
+            return new RegisteredRecord(record, new UserImportRecordResponse(record.line(), login, false, null, null), request);
+        } catch (RuntimeException e) {
+            return failure(record, login, null, e.getMessage());
+        }
+    }
+
+    /**
+     * Registers a reserved record on the authorization server. The request is kept in the result of an accepted record
+     * and of a record with an unknown outcome, whose outbox record must not be removed.
+     *
+     * @param validated the validated and reserved record
+     * @return the result of the record, without the request if the authorization server rejected the account
+     */
+    private RegisteredRecord register(RegisteredRecord validated) {
+        ImportRecord record = validated.record();
+        AccountRegistrationRequest request = validated.request();
+        String login = request.getLogin();
+        try {
+            AccountResponse response = httpAuthServClient.registerUser(
+                    AuthServRegistrationRequestMapper.getAccountAuthRegistration(request));
+            if (response == null)
+                return new RegisteredRecord(record, new UserImportRecordResponse(record.line(), login, false,
+                        AccountResponseType.NEBULA_BAD_REGISTRATION_RESPONSE_INSTANCE, null), request);
+            if (!response.isSuccess()) return failure(record, login, response.getType(), null);
+            availabilityProvider.register(login, request.getEmail());
+            return new RegisteredRecord(record, new UserImportRecordResponse(record.line(), login, true, response.getType(), null), request);
+        } catch (RuntimeException e) {
+            return new RegisteredRecord(record, new UserImportRecordResponse(record.line(), login, false, null, e.getMessage()), request);
+        }
+    }
+
+    /**
+     * Reserves the valid records of a chunk in the provisioning outbox with a single JDBC batch. The records are stored
+     * as PENDING records which become due only after the reservation, so the provisioning job does not resolve them
+     * before their registration. A login already present in the outbox is not reserved and fails as not unique.
+     * If the batch fails, all valid records fail without any remote call.
+     *
+     * @param results       the results of the chunk, the failed records are replaced
+     * @param now           the instant of the reservation
+     * @param reservedUntil the instant the reserved records become due
+     * @return the indexes of the reserved records
+     */
+    private List<Integer> reserve(List<RegisteredRecord> results, Instant now, Instant reservedUntil) {
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).request() != null) valid.add(i);
+        }
+        if (valid.isEmpty()) return valid;
+        int[][] counts;
+        try {
+            counts = jdbcTemplate.batchUpdate(OUTBOX_RESERVE, valid, valid.size(), (statement, index) -> {
+                AccountRegistrationRequest request = results.get(index).request();
+                statement.setString(1, request.getLogin());
+                statement.setString(2, request.getEmail());
+                statement.setDate(3, request.getBirthdate());
+                statement.setObject(4, request.getNationality(), Types.INTEGER);
+                statement.setObject(5, request.getGender(), Types.INTEGER);
+                statement.setString(6, ProvisioningStatus.PENDING.name());
+                statement.setTimestamp(7, Timestamp.from(reservedUntil));
+                statement.setTimestamp(8, Timestamp.from(now));
+            });
+        } catch (DataAccessException e) {
+            valid.forEach(index -> results.set(index, failure(results.get(index).record(), results.get(index).request().getLogin(),
+                    AccountResponseType.USER_NOT_CREATED_IN_NEBULA_DB, "Provisioning outbox write failed")));
+            return List.of();
+        }
+        List<Integer> reserved = new ArrayList<>(valid.size());
+        for (int i = 0; i < valid.size(); i++) {
+            int index = valid.get(i);
+            if (isInserted(counts, i)) reserved.add(index);
+            else results.set(index, failure(results.get(index).record(), results.get(index).request().getLogin(),
+                    AccountResponseType.LOGIN_IS_NOT_UNIQUE, null));
+        }
+        return reserved;
+    }
+
+    /**
+     * Releases the reservations of the registered records: the accepted records become due immediately
+     * and the records rejected by the authorization server are removed. Only the records of this reservation
+     * are released. A failed release is ignored, the accepted records become due after the reservation
+     * and the rejected ones are resolved and failed by the provisioning job.
+     *
+     * @param registered    the results of the reserved records
+     * @param now           the instant of the reservation
+     * @param reservedUntil the instant the reserved records become due
+     */
+    private void release(List<RegisteredRecord> registered, Instant now, Instant reservedUntil) {
+        List<RegisteredRecord> accepted = registered.stream().filter(result -> result.response().success()).toList();
+        List<RegisteredRecord> rejected = registered.stream().filter(result -> result.request() == null).toList();
+        try {
+            if (!accepted.isEmpty())
+                jdbcTemplate.batchUpdate(OUTBOX_ACTIVATE, accepted, accepted.size(), (statement, result) -> {
+                    statement.setTimestamp(1, Timestamp.from(now));
+                    statement.setString(2, result.response().login());
+                    statement.setTimestamp(3, Timestamp.from(reservedUntil));
+                    statement.setTimestamp(4, Timestamp.from(now));
+                });
+            if (!rejected.isEmpty())
+                jdbcTemplate.batchUpdate(OUTBOX_DELETE, rejected, rejected.size(), (statement, result) -> {
+                    statement.setString(1, result.response().login());
+                    statement.setTimestamp(2, Timestamp.from(reservedUntil));
+                    statement.setTimestamp(3, Timestamp.from(now));
+                });
+        } catch (DataAccessException ignored) {
+            // the reservations expire on their own
+        }
+    }
+
+    /**
+     * Checks whether a row of a single JDBC batch was inserted. A driver not reporting the row counts
+     * is treated as inserting all rows.
+     *
+     * @param counts the row counts of the batch
+     * @param index  the index of the row in the batch
+     * @return false if the row was ignored as a duplicate
+     */
+    private static boolean isInserted(int[][] counts, int index) {
+        if (counts == null || counts.length == 0 || index >= counts[0].length) return true;
+        return counts[0][index] != 0;
+    }
+
+    /**
+     * Runs the tasks on the worker pool and returns their results in the order of the tasks.
+     *
+     * @param tasks the tasks to run
+     * @return the results of the tasks
+     * @throws IOException if the import is interrupted or a task fails
+     */
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : workers.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("User import interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("User import failed", e.getCause());
+        }
+        return results;
+    }
+
+    private String tooLongMessage() {
+        return "Record exceeds the maximum line length of " + maxLineLength + " characters";
+    }
+
+    private RegisteredRecord failure(ImportRecord record, String login, AccountResponseType type, String error) {
+        return new RegisteredRecord(record, new UserImportRecordResponse(record.line(), login, false, type, error), null);
+    }
+
+    private UserImportSummaryResponse writeSummary(Writer writer, UserImportSummaryResponse summary) throws IOException {
+        write(writer, summary);
+        writer.flush();
+        return summary;
+    }
+
+    private void write(Writer writer, Object line) throws IOException {
+        writer.write(MAPPER.writeValueAsString(line));
+        writer.write('\n');
+    }
+
+    private record InputLine(String content, boolean tooLong) {
+    }
+
+    private record ImportRecord(long line, String content, int[] csvPositions) {
+    }
+
+    private record RegisteredRecord(ImportRecord record, UserImportRecordResponse response, AccountRegistrationRequest request) {
+    }
+
+}
@@ -1,44 +1,260 @@
 package pl.derleta.nebula.service.impl;
 
-import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import pl.derleta.nebula.domain.entity.UserEntity;
-import pl.derleta.nebula.domain.mapper.NebulaUserMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.derleta.nebula.domain.mapper.UserProjectionMapper;
+import pl.derleta.nebula.domain.mapper.UserSettingsMapper;
 import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.domain.model.SettingsVersion;
+import pl.derleta.nebula.domain.model.UserAchievement;
+import pl.derleta.nebula.domain.model.UserFieldSet;
+import pl.derleta.nebula.domain.model.VersionedProfile;
+import pl.derleta.nebula.domain.model.VersionedSettings;
+import pl.derleta.nebula.domain.projection.GameView;
+import pl.derleta.nebula.domain.projection.UserAchievementValueView;
+import pl.derleta.nebula.domain.projection.UserProfileView;
+import pl.derleta.nebula.repository.UserAchievementRepository;
 import pl.derleta.nebula.repository.UserRepository;
+import pl.derleta.nebula.repository.UserSettingsRepository;
+import pl.derleta.nebula.service.AchievementCatalogue;
+import pl.derleta.nebula.service.DegradedReadGuard;
+import pl.derleta.nebula.service.SettingsWriteBuffer;
+import pl.derleta.nebula.service.UserCache;
 import pl.derleta.nebula.service.UserProvider;
+import pl.derleta.nebula.util.ETagUtil;
+import pl.derleta.nebula.util.ParallelUtil;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Implementation of the {@link UserProvider} interface that provides functionality
  * for retrieving user data from the database.
  * <p>
- * This class uses a {@link UserRepository} to access persisted user entities
- * and maps them to {@link NebulaUser} objects using the {@link NebulaUserMapper}.
+ * The user is read through read-only projections created by JPQL constructor expressions: one query for the user
+ * with its gender, nationality and settings, one for its games and one for its stored achievement values.
+ * No managed entities are created, so there is no persistence context snapshot or dirty checking, the number
+ * of queries does not depend on the number of games and achievements, and the projections are mapped
+ * straight to the {@link NebulaUser} by the {@link UserProjectionMapper}.
  * <p>
- * It is marked as a Spring {@code @Service} component and handles transactions
- * for its database operations.
+ * Full users are kept in the {@link UserCache}, which the updaters keep consistent with their writes.
+ * Optionally the independent parts of a full user are loaded concurrently on virtual threads, which needs
+ * a connection pool with a few connections per concurrently loaded user. Cache misses go through
+ * the {@link DegradedReadGuard}, which serves the expired cached user when the database is degraded.
+ * Settings accepted by the {@link SettingsWriteBuffer} but not written yet replace the loaded settings.
+ * <p>
+ * It is marked as a Spring {@code @Service} component and reads in a read-only transaction.
  */
-@AllArgsConstructor
 @Service
 public class UserProviderImpl implements UserProvider {
 
     private final UserRepository repository;
+    private final UserAchievementRepository achievementRepository;
+    private final UserSettingsRepository settingsRepository;
+    private final AchievementCatalogue catalogue;
+    private final UserCache cache;
+    private final DegradedReadGuard guard;
+    private final SettingsWriteBuffer writeBuffer;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean parallelLoad;
+    private final Duration parallelDeadline;
+
+    /**
+     * Constructor for UserProviderImpl.
+     *
+     * @param repository            The repository for reading the user projections.
+     * @param achievementRepository The repository for reading the stored achievement values.
+     * @param settingsRepository    The repository for reading the settings with their versions.
+     * @param catalogue             The in-memory catalogue of the achievement definitions.
+     * @param cache                 The cache of the full user aggregates.
+     * @param guard                 The guard serving the expired cached users when the database is degraded.
+     * @param writeBuffer           The buffer of the settings updates which are not written yet.
+     * @param transactionManager    The transaction manager used for the read-only transactions of a cache miss.
+     * @param parallelLoad          Whether the parts of a full user are loaded concurrently, each with its own connection.
+     * @param parallelDeadlineMs    The maximum time in milliseconds of a concurrent load.
+     */
+    @Autowired
+    public UserProviderImpl(UserRepository repository, UserAchievementRepository achievementRepository,
+                            UserSettingsRepository settingsRepository,
+                            AchievementCatalogue catalogue, UserCache cache, DegradedReadGuard guard,
+                            SettingsWriteBuffer writeBuffer, PlatformTransactionManager transactionManager,
+                            @Value("${nebula.users.parallel-load.enabled:false}") boolean parallelLoad,
+                            @Value("${nebula.users.parallel-load.deadline-ms:2000}") long parallelDeadlineMs) {
+        this.repository = repository;
+        this.achievementRepository = achievementRepository;
+        this.settingsRepository = settingsRepository;
+        this.catalogue = catalogue;
+        this.cache = cache;
+        this.guard = guard;
+        this.writeBuffer = writeBuffer;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.parallelLoad = parallelLoad;
+        this.parallelDeadline = Duration.ofMillis(Math.max(1, parallelDeadlineMs));
+    }
 
     /**
      * Retrieves a NebulaUser object by its unique user ID.
      *
      * @param userId the ID of the user to retrieve
      * @return the NebulaUser object corresponding to the given user ID,
-     * or null if no user with the specified ID exists
+     * or null if no user with the specified ID exists. Achievements without progress
+     * are completed with implicit zero entries from the achievement catalogue.
      */
     @Override
-    @Transactional
     public NebulaUser get(Long userId) {
-        Optional<UserEntity> optional = repository.findById(userId);
-        return optional.map(NebulaUserMapper::toUser).orElse(null);
+        return get(userId, UserFieldSet.ALL);
+    }
+
+    /**
+     * Retrieves a NebulaUser object limited to the requested fields. The full user is served from the {@link UserCache},
+     * a cache miss loads it in a read-only transaction, a database connection is not used for a cache hit.
+     * A sparse request is served by the cached full user if present, which contains more than the requested fields,
+     * otherwise only the requested columns and relations are queried and the sparse result is not cached.
+     * When the database is degraded an expired cached user may be served instead, see {@link DegradedReadGuard}.
+     * Loaded settings are replaced by the pending settings of the {@link SettingsWriteBuffer}.
+     *
+     * @param userId the ID of the user to retrieve
+     * @param fields the requested fields
+     * @return the NebulaUser object corresponding to the given user ID, or null if no user with the specified ID exists
+     */
+    @Override
+    public NebulaUser get(Long userId, UserFieldSet fields) {
+        NebulaUser user = read(userId, fields);
+        if (user == null || user.settings() == null) return user;
+        return writeBuffer.getPending(userId)
+                .map(settings -> UserSettingsMapper.withSettings(user, settings))
+                .orElse(user);
+    }
+
+    /**
+     * Builds the ETag of the user representation from a single primary key lookup of the last update timestamp,
+     * without loading the user aggregate. The catalogue version is resolved before the lookup, so a first load
+     * of the catalogue does not run in its transaction. Settings of the user pending in the {@link SettingsWriteBuffer}
+     * are not reflected by the stored timestamp yet, their content version is added to the tag instead.
+     * No ETag is built while the database is degraded, so the request is answered from the cache without waiting
+     * for the lookup.
+     *
+     * @param userId the ID of the user
+     * @param fields the requested fields
+     * @return an Optional containing the ETag, or an empty Optional if the user does not exist
+     */
+    @Override
+    public Optional<String> getETag(Long userId, UserFieldSet fields) {
+        if (guard.isDegraded()) return Optional.empty();
+        int catalogueVersion = catalogue.version();
+        String pendingVersion = writeBuffer.getPending(userId).map(ETagUtil::contentVersion).orElse(null);
+        return readOnlyTransaction.execute(status -> repository.findVersionViewById(userId))
+                .map(view -> ETagUtil.userETag(view.id(), view.updatedAt(), catalogueVersion, fields, pendingVersion));
+    }
+
+    /**
+     * Retrieves the versions of the settings of the user from a single primary key lookup, without loading the settings.
+     * The versions are not known while settings of the user are pending in the {@link SettingsWriteBuffer},
+     * as they are assigned by the write, nor while the database is degraded.
+     *
+     * @param userId the ID of the user
+     * @return an Optional containing the versions, or an empty Optional if they are not known
+     */
+    @Override
+    public Optional<SettingsVersion> getSettingsVersion(Long userId) {
+        if (guard.isDegraded() || writeBuffer.getPending(userId).isPresent()) return Optional.empty();
+        return readOnlyTransaction.execute(status -> settingsRepository.findVersionById(userId));
+    }
+
+    /**
+     * Retrieves the settings of the user together with their versions from the database, bypassing the {@link UserCache},
+     * so a cached user lagging behind the database cannot pair old settings with a new version.
+     * The versions are not known while settings of the user are pending in the {@link SettingsWriteBuffer},
+     * nor while the database is degraded.
+     *
+     * @param userId the ID of the user
+     * @return an Optional containing the settings with their versions, or an empty Optional if they are not known
+     */
+    @Override
+    public Optional<VersionedSettings> getVersionedSettings(Long userId) {
+        if (guard.isDegraded() || writeBuffer.getPending(userId).isPresent()) return Optional.empty();
+        return readOnlyTransaction.execute(status -> settingsRepository.findVersionedSettingsById(userId));
+    }
+
+    /**
+     * Retrieves the profile of the user together with its version. A user cached by the {@link UserCache} carries
+     * the version read from the same row as its profile and is served without a database connection. Otherwise both
+     * are read from the database in one read-only transaction, whose consistent snapshot makes the version describe
+     * the profile, and the result is not cached. The version of an uncached profile is not known while the database
+     * is degraded.
+     *
+     * @param userId the ID of the user
+     * @return an Optional containing the profile with its version, or an empty Optional if it is not known
+     */
+    @Override
+    public Optional<VersionedProfile> getVersionedProfile(Long userId) {
+        Optional<VersionedProfile> cached = cache.getIfPresent(userId)
+                .filter(user -> user.version() != null)
+                .map(user -> new VersionedProfile(user, user.version()));
+        if (cached.isPresent() || guard.isDegraded()) return cached;
+        return readOnlyTransaction.execute(status -> repository.findProfileVersionById(userId)
+                .flatMap(version -> repository.findProfileViewById(userId, UserFieldSet.PROFILE)
+                        .map(view -> new VersionedProfile(UserProjectionMapper.toUser(view, null, null), version))));
+    }
+
+    private NebulaUser read(long userId, UserFieldSet fields) {
+        Optional<NebulaUser> cached = cache.getIfPresent(userId);
+        if (cached.isPresent()) return cached.get();
+        if (fields.isAll()) return guard.read("user:" + userId,
+                () -> cache.refresh(userId, id -> load(id, fields)), () -> cache.getStale(userId));
+        return guard.read("user:" + userId + ":" + String.join(",", new TreeSet<>(fields.fields())),
+                () -> load(userId, fields), () -> cache.getStale(userId));
+    }
+
+    private NebulaUser load(long userId, UserFieldSet fields) {
+        if (parallelLoad && fields.isAll()) return loadConcurrently(userId);
+        return readOnlyTransaction.execute(status -> {
+            Optional<UserProfileView> profile = fields.isAll()
+                    ? repository.findProfileViewById(userId)
+                    : repository.findProfileViewById(userId, fields);
+            if (profile.isEmpty()) return null;
+            List<GameView> games = fields.includes("games") ? repository.findGameViewsByUserId(userId) : null;
+            return UserProjectionMapper.toUser(profile.get(), games,
+                    fields.includes("achievements") ? getAchievements(userId) : null);
+        });
+    }
+
+    /**
+     * Loads the profile with the settings, the games and the achievements of the user concurrently on virtual threads,
+     * each part in its own read-only transaction and therefore on its own connection. The parts are one unit of work:
+     * the first failure, or the deadline, cancels the others and fails the load.
+     */
+    private NebulaUser loadConcurrently(long userId) {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            CompletableFuture<Optional<UserProfileView>> profile = CompletableFuture.supplyAsync(
+                    () -> readOnlyTransaction.execute(status -> repository.findProfileViewById(userId)), executor);
+            CompletableFuture<List<GameView>> games = CompletableFuture.supplyAsync(
+                    () -> readOnlyTransaction.execute(status -> repository.findGameViewsByUserId(userId)), executor);
+            CompletableFuture<List<UserAchievement>> achievements = CompletableFuture.supplyAsync(
+                    () -> readOnlyTransaction.execute(status -> getAchievements(userId)), executor);
+            ParallelUtil.awaitAll(executor, parallelDeadline, profile, games, achievements);
+            return profile.join()
+                    .map(view -> UserProjectionMapper.toUser(view, games.join(), achievements.join()))
+                    .orElse(null);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<UserAchievement> getAchievements(long userId) {
+        List<UserAchievementValueView> values = achievementRepository.findValueViewsByUserId(userId);
+        if (values.stream().anyMatch(value -> catalogue.get(value.achievementId()).isEmpty())) catalogue.refresh();
+        return UserProjectionMapper.toUserAchievements(userId, values, catalogue.getAll());
     }
 
 }
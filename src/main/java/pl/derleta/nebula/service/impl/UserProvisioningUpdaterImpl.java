@@ -0,0 +1,464 @@
+package pl.derleta.nebula.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.derleta.nebula.controller.request.AccountRegistrationRequest;
+import pl.derleta.nebula.domain.entity.*;
+import pl.derleta.nebula.domain.mapper.UserSettingsDocumentMapper;
+import pl.derleta.nebula.domain.mapper.UserSettingsMapper;
+import pl.derleta.nebula.domain.rest.UserRoles;
+import pl.derleta.nebula.domain.types.ProvisioningStatus;
+import pl.derleta.nebula.repository.*;
+import pl.derleta.nebula.service.UserProvisioningUpdater;
+import pl.derleta.nebula.util.HttpAuthClient;
+import pl.derleta.nebula.util.IdUtil;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the UserProvisioningUpdater interface.
+ * Provisions users accepted by the authorization server in the Nebula database using a transactional outbox:
+ * the registration reserves an outbox record before the remote call and activates it once the account is accepted,
+ * while a scheduled job picks up due records in batches and processes them on a small worker pool. Each record
+ * is resolved on the authorization server outside of any transaction, and the local multi-table insert runs in its own
+ * short transaction, so no database connection is held during network calls. Failed records are retried with an exponential backoff,
+ * and the provisioning is idempotent on the user id. A due record is claimed with a lease before it is processed,
+ * so several instances may poll the same outbox without provisioning a record twice at the same time.
+ * <p>
+ * In the sparse achievements mode no zero-valued user achievement rows are created, a row is stored
+ * only with the first progress write of an achievement.
+ */
+@Service
+public class UserProvisioningUpdaterImpl implements UserProvisioningUpdater {
+
+    private static final int MAX_ERROR_LENGTH = 255;
+    private static final long MAX_RETRY_DELAY_MULTIPLIER = 64;
+
+    final HttpAuthClient httpAuthServClient;
+
+    final UserProvisioningRepository provisioningRepository;
+    final UserRepository userRepository;
+    final NationalityRepository nationalityRepository;
+    final GenderRepository genderRepository;
+    final GameRepository gameRepository;
+    final AchievementRepository achievementRepository;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Duration lease;
+    private final boolean sparseAchievements;
+    private final boolean documentSettings;
+
+    /**
+     * Constructor for UserProvisioningUpdaterImpl.
+     *
+     * @param httpAuthServClient     The HTTP authentication service client used to resolve registered accounts.
+     * @param provisioningRepository The repository for managing the provisioning outbox.
+     * @param userRepository         The repository for managing user data.
+     * @param nationalityRepository  The repository for managing nationalities.
+     * @param genderRepository       The repository for managing genders.
+     * @param gameRepository         The repository for managing game information.
+     * @param achievementRepository  The repository for managing achievements.
+     * @param transactionManager     The transaction manager used for the short local transactions.
+     * @param workers                The number of worker threads processing a batch of outbox records.
+     * @param batchSize              The maximum number of outbox records picked up by a single run.
+     * @param maxAttempts            The number of attempts after which a record is marked as FAILED.
+     * @param retryDelayMs           The base delay in milliseconds of the exponential retry backoff.
+     * @param leaseMs                The time in milliseconds a claimed record is hidden from other instances.
+     * @param sparseAchievements     Whether only achievements with progress are stored for the users.
+     * @param documentSettings       Whether the settings of the users are also stored as a settings document.
+     */
+    @Autowired
+    public UserProvisioningUpdaterImpl(HttpAuthClient httpAuthServClient, UserProvisioningRepository provisioningRepository,
+                                       UserRepository userRepository, NationalityRepository nationalityRepository,
+                                       GenderRepository genderRepository, GameRepository gameRepository,
+                                       AchievementRepository achievementRepository, PlatformTransactionManager transactionManager,
+                                       @Value("${nebula.provisioning.workers:1}") int workers,
+                                       @Value("${nebula.provisioning.batch-size:50}") int batchSize,
+                                       @Value("${nebula.provisioning.max-attempts:10}") int maxAttempts,
+                                       @Value("${nebula.provisioning.retry-delay-ms:5000}") long retryDelayMs,
+                                       @Value("${nebula.provisioning.lease-ms:60000}") long leaseMs,
+                                       @Value("${nebula.achievements.sparse:true}") boolean sparseAchievements,
+                                       @Value("${nebula.settings.document-storage:false}") boolean documentSettings) {
+        this.httpAuthServClient = httpAuthServClient;
+        this.provisioningRepository = provisioningRepository;
+        this.userRepository = userRepository;
+        this.nationalityRepository = nationalityRepository;
+        this.genderRepository = genderRepository;
+        this.gameRepository = gameRepository;
+        this.achievementRepository = achievementRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workers));
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelay = Duration.ofMillis(Math.max(0, retryDelayMs));
+        this.lease = Duration.ofMillis(Math.max(0, leaseMs));
+        this.sparseAchievements = sparseAchievements;
+        this.documentSettings = documentSettings;
+    }
+
+    /**
+     * Reserves an outbox record for an account before it is registered on the authorization server, so a registered
+     * account is never left without its outbox record. The record is stored by a single insert ignoring an existing
+     * record of the login and becomes due only at the end of the reservation, which has the length of the lease,
+     * so an account whose registration outcome is unknown is still resolved by the provisioning job.
+     *
+     * @param request the registration request containing the data required to provision the user locally
+     * @return the reservation, or an empty Optional if the request is missing required data
+     * or an outbox record of the login already exists
+     */
+    @Override
+    @Transactional
+    public Optional<Reservation> reserve(AccountRegistrationRequest request) {
+        if (request.getLogin() == null || request.getEmail() == null) return Optional.empty();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Reservation reservation = new Reservation(request.getLogin(), now, now.plus(lease));
+        int reserved = provisioningRepository.reservePendingIfAbsent(request.getLogin(), request.getEmail(),
+                request.getBirthdate(), request.getNationality(), request.getGender(),
+                reservation.reservedAt(), reservation.reservedUntil());
+        return reserved == 0 ? Optional.empty() : Optional.of(reservation);
+    }
+
+    /**
+     * Makes the reserved record of an account accepted by the authorization server due immediately.
+     * A failed activation is ignored, the record becomes due at the end of the reservation.
+     *
+     * @param reservation the reservation of the accepted account
+     */
+    @Override
+    public void activate(Reservation reservation) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> provisioningRepository.activateReservation(
+                    reservation.login(), reservation.reservedAt(), reservation.reservedUntil(), Instant.now()));
+        } catch (DataAccessException ignored) {
+            // the reservation expires on its own
+        }
+    }
+
+    /**
+     * Removes the reserved record of an account rejected by the authorization server.
+     * A failed removal is ignored, the record is resolved and failed by the provisioning job.
+     *
+     * @param reservation the reservation of the rejected account
+     */
+    @Override
+    public void cancel(Reservation reservation) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> provisioningRepository.deleteReservation(
+                    reservation.login(), reservation.reservedAt(), reservation.reservedUntil()));
+        } catch (DataAccessException ignored) {
+            // the provisioning job fails the record
+        }
+    }
+
+    /**
+     * Picks up a batch of due outbox records and provisions them on the worker pool.
+     * The method is invoked periodically, a next run starts only after the previous one has finished.
+     * Every record is claimed by a conditional update before it is processed, so with several instances
+     * polling the outbox a record is provisioned by only one of them; records claimed by another instance
+     * are skipped. The end of the lease is the claim token of the worker: the outcome of a record is stored only
+     * while the claim is held, so a worker whose lease expired during a slow call does not overwrite the outcome
+     * of the worker which claimed the record again.
+     *
+     * @return the number of records processed in this run
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${nebula.provisioning.poll-delay-ms:2000}")
+    public int processPending() {
+        Instant now = Instant.now();
+        List<UserProvisioningEntity> batch = provisioningRepository.findDue(
+                ProvisioningStatus.PENDING, now, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) return 0;
+        Instant leaseUntil = now.plus(lease).truncatedTo(ChronoUnit.MICROS);
+        List<Callable<Void>> tasks = batch.stream()
+                .filter(record -> claim(record, now, leaseUntil))
+                .map(record -> (Callable<Void>) () -> {
+                    process(record);
+                    return null;
+                })
+                .collect(Collectors.toList());
+        try {
+            workers.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return tasks.size();
+    }
+
+    /**
+     * Stops the worker pool when the application context is closed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    /**
+     * Claims the record in its own short transaction, see {@link UserProvisioningRepository#claim}.
+     *
+     * @param record     the due outbox record
+     * @param now        the instant the record was found to be due
+     * @param leaseUntil the end of the lease of the claim
+     * @return true if the record was claimed by this worker
+     */
+    private boolean claim(UserProvisioningEntity record, Instant now, Instant leaseUntil) {
+        Integer claimed = transactionTemplate.execute(status ->
+                provisioningRepository.claim(record.getId(), ProvisioningStatus.PENDING, now, leaseUntil));
+        if (claimed == null || claimed == 0) return false;
+        record.setNextAttemptAt(leaseUntil);
+        return true;
+    }
+
+    /**
+     * Provisions a single outbox record. The account is resolved on the authorization server outside
+     * of any transaction, afterward the local rows are created in a short transaction.
+     * Any failure reschedules the record, a lost claim rolls the local rows back and leaves the record
+     * to the worker holding the claim.
+     *
+     * @param record the claimed outbox record to process
+     */
+    private void process(UserProvisioningEntity record) {
+        Instant claimedUntil = record.getNextAttemptAt();
+        try {
+            UserRoles userRoles = httpAuthServClient.getAccount(toRegistrationRequest(record));
+            if (userRoles == null || userRoles.getUser() == null)
+                throw new IllegalStateException("Account not found on authorization server for login: " + record.getLogin());
+            transactionTemplate.executeWithoutResult(status -> provision(record, userRoles, claimedUntil));
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> reschedule(record, e, claimedUntil));
+        }
+    }
+
+    /**
+     * Creates the user rows unless a user with the resolved id already exists, and marks the record as DONE.
+     *
+     * @param record       the outbox record to provision
+     * @param userRoles    the account details resolved on the authorization server
+     * @param claimedUntil the end of the lease of the claim
+     * @throws IllegalStateException if the claim is no longer held, the transaction is rolled back
+     */
+    private void provision(UserProvisioningEntity record, UserRoles userRoles, Instant claimedUntil) {
+        long userId = userRoles.getUser().getUserId();
+        record.setUserId(userId);
+        if (!userRepository.existsById(userId)) {
+            createUser(userRoles, record);
+        }
+        record.setStatus(ProvisioningStatus.DONE);
+        record.setLastError(null);
+        if (!updateClaimed(record, claimedUntil))
+            throw new IllegalStateException("Claim of the outbox record lost for login: " + record.getLogin());
+    }
+
+    /**
+     * Increments the attempts of a failed record and schedules its next attempt using an exponential backoff.
+     * After the maximum number of attempts the record is marked as FAILED. Nothing is stored if the claim
+     * is no longer held.
+     *
+     * @param record       the outbox record which failed
+     * @param cause        the exception thrown while processing the record
+     * @param claimedUntil the end of the lease of the claim
+     */
+    private void reschedule(UserProvisioningEntity record, RuntimeException cause, Instant claimedUntil) {
+        int attempts = record.getAttempts() + 1;
+        record.setAttempts(attempts);
+        record.setLastError(truncate(cause.getMessage()));
+        if (attempts >= maxAttempts) {
+            record.setStatus(ProvisioningStatus.FAILED);
+        } else {
+            record.setStatus(ProvisioningStatus.PENDING);
+            long multiplier = Math.min(MAX_RETRY_DELAY_MULTIPLIER, 1L << Math.min(attempts - 1, 30));
+            record.setNextAttemptAt(Instant.now().plus(retryDelay.multipliedBy(multiplier)));
+        }
+        updateClaimed(record, claimedUntil);
+    }
+
+    /**
+     * Stores the outcome of a claimed record, see {@link UserProvisioningRepository#updateClaimed}.
+     *
+     * @param record       the outbox record with its outcome
+     * @param claimedUntil the end of the lease of the claim
+     * @return true if the claim was still held and the outcome is stored
+     */
+    private boolean updateClaimed(UserProvisioningEntity record, Instant claimedUntil) {
+        return provisioningRepository.updateClaimed(record.getId(), claimedUntil, record.getStatus(), record.getUserId(),
+                record.getAttempts(), record.getNextAttemptAt(), record.getLastError()) > 0;
+    }
+
+    /**
+     * Creates a user entity based on the provided user roles and outbox record,
+     * and saves the entity to the repository.
+     *
+     * @param userRoles The roles and associated user details required for creating the user.
+     * @param record    The outbox record including birthdate, nationality, and gender.
+     */
+    private void createUser(UserRoles userRoles, UserProvisioningEntity record) {
+        UserEntity userEntity = new UserEntity();
+        userEntity.setId(userRoles.getUser().getUserId());
+        userEntity.setEmail(userRoles.getUser().getEmail());
+        userEntity.setLogin(userRoles.getUser().getUsername());
+        userEntity.setBirthDate(record.getBirthDate());
+        userEntity.updateAge();
+        userEntity.setNationality(
+                nationalityRepository.findById(record.getNationalityId())
+                        .orElseThrow(() -> new IllegalArgumentException(
+                                "No Nationality found for ID: " + record.getNationalityId()))
+        );
+        userEntity.setGender(
+                genderRepository.findById(record.getGenderId())
+                        .orElseThrow(() -> new IllegalArgumentException(
+                                "No Gender found for ID: " + record.getGenderId()))
+        );
+        userEntity.setSettings(
+                createUserSettingsEntity(userRoles.getUser().getUserId())
+        );
+        userEntity.setGames(
+                getGames()
+        );
+        userEntity.setAchievements(
+                getAchievements(userEntity.getId(), userEntity)
+        );
+        userRepository.save(userEntity);
+    }
+
+    /**
+     * Converts an outbox record to the registration request used to resolve the account on the authorization server.
+     *
+     * @param record the outbox record to convert
+     * @return an AccountRegistrationRequest containing the login and email of the registered account
+     */
+    private AccountRegistrationRequest toRegistrationRequest(UserProvisioningEntity record) {
+        return AccountRegistrationRequest.builder()
+                .login(record.getLogin())
+                .email(record.getEmail())
+                .birthdate(record.getBirthDate())
+                .nationality(record.getNationalityId())
+                .gender(record.getGenderId())
+                .build();
+    }
+
+    /**
+     * Retrieves a list of all games from the repository.
+     *
+     * @return a list of GameEntity objects representing all the games in the repository
+     */
+    private List<GameEntity> getGames() {
+        return gameRepository.findAll();
+    }
+
+    /**
+     * Retrieves a list of user achievement entities for the specified user.
+     * In the sparse achievements mode the list is empty, the rows are created with the first progress write.
+     *
+     * @param userId     the unique identifier of the user
+     * @param userEntity the user entity associated with the user
+     * @return a list of UserAchievementEntity objects representing the user's achievements
+     */
+    private List<UserAchievementEntity> getAchievements(final long userId, final UserEntity userEntity) {
+        if (sparseAchievements) return new ArrayList<>();
+        List<AchievementEntity> achievements = achievementRepository.findAll();
+        return achievements.stream()
+                .map(achievement -> createUserAchievementEntity(userId, userEntity, achievement))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates a new UserAchievementEntity with the provided user ID, user entity, and achievement entity.
+     * Initializes the achievement values to default values.
+     *
+     * @param userId      The ID of the user associated with the achievement.
+     * @param userEntity  The user entity to be linked with the achievement.
+     * @param achievement The achievement entity to be associated with the user.
+     * @return A new instance of UserAchievementEntity with the specified parameters and default values.
+     */
+    private UserAchievementEntity createUserAchievementEntity(final long userId, final UserEntity userEntity,
+                                                              final AchievementEntity achievement) {
+        final int DEFAULT_ACHIEVEMENT_VALUES = 0;
+        return new UserAchievementEntity(
+                IdUtil.getUserAchievementId(userId, achievement.getId()),
+                userEntity,
+                achievement,
+                DEFAULT_ACHIEVEMENT_VALUES,
+                DEFAULT_ACHIEVEMENT_VALUES,
+                DEFAULT_ACHIEVEMENT_VALUES
+        );
+    }
+
+    /**
+     * Creates a UserSettingsEntity for a specified user ID. In the document storage mode the default settings
+     * are also stored as the settings document, the general and sound rows are created in both modes.
+     *
+     * @param userId the ID of the user for whom the UserSettingsEntity is being created
+     * @return a UserSettingsEntity containing general and sound settings for the specified user
+     */
+    private UserSettingsEntity createUserSettingsEntity(long userId) {
+        UserSettingsGeneralEntity userSettingsGeneralEntity = createUserSettingsGeneralEntity(userId);
+        UserSettingsSoundEntity userSettingsSoundEntity = createUserSettingsSoundEntity(userId);
+        UserSettingsEntity entity = new UserSettingsEntity(userId, userSettingsGeneralEntity, userSettingsSoundEntity,
+                0L, 0L, 0L, null);
+        if (documentSettings) entity.setDocument(UserSettingsDocumentMapper.toDocument(UserSettingsMapper.toSetting(entity)));
+        return entity;
+    }
+
+    /**
+     * Creates and returns a new UserSettingsGeneralEntity object with a default theme entity
+     * and the specified user ID.
+     *
+     * @param userId the unique identifier of the user for whom the settings entity is created
+     * @return a UserSettingsGeneralEntity containing the user ID and a default theme entity
+     */
+    private UserSettingsGeneralEntity createUserSettingsGeneralEntity(long userId) {
+        ThemeEntity themeEntity = createDefaultThemeEntity();
+        return new UserSettingsGeneralEntity(userId, themeEntity);
+    }
+
+    /**
+     * Creates and returns a default ThemeEntity instance with pre-defined values.
+     *
+     * @return a ThemeEntity object initialized with default values.
+     */
+    private ThemeEntity createDefaultThemeEntity() {
+        return new ThemeEntity(17, "Default");
+    }
+
+    /**
+     * Creates and initializes a new UserSettingsSoundEntity object with default sound settings.
+     *
+     * @param userId the unique identifier of the user for whom the sound settings entity is being created
+     * @return a newly created UserSettingsSoundEntity initialized with default settings
+     */
+    private UserSettingsSoundEntity createUserSettingsSoundEntity(long userId) {
+        return new UserSettingsSoundEntity(userId, false, true, 100, 100, 100, 100);
+    }
+
+    /**
+     * Truncates an error message to the length of the last_error column.
+     *
+     * @param message the message to truncate, may be null
+     * @return the truncated message or null
+     */
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) return message;
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+}
@@ -0,0 +1,123 @@
+package pl.derleta.nebula.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.derleta.nebula.controller.request.UserSearchRequest;
+import pl.derleta.nebula.domain.entity.UserEntity;
+import pl.derleta.nebula.domain.mapper.UserProjectionMapper;
+import pl.derleta.nebula.domain.model.UserSearchPage;
+import pl.derleta.nebula.domain.projection.UserSearchView;
+import pl.derleta.nebula.exceptions.InvalidUserSearchException;
+import pl.derleta.nebula.repository.UserRepository;
+import pl.derleta.nebula.repository.filter.UsersSpecifications;
+import pl.derleta.nebula.service.UserSearchProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Implementation of the UserSearchProvider interface serving the admin search of users.
+ * <p>
+ * The pages are read with keyset pagination on (sort key, id): instead of an offset, the request carries
+ * an opaque cursor with the sort key and id of the last row of the previous page, and the next page is read
+ * from that position of the index, so a deep page costs the same as the first one.
+ * One row more than the page size is read to know whether a next page exists, the matching rows are never counted.
+ */
+@Service
+public class UserSearchProviderImpl implements UserSearchProvider {
+
+    /**
+     * The fields the search can be sorted by, each backed by an index ending with the id.
+     */
+    static final List<String> SORT_FIELDS = List.of("id", "login", "email", "updatedAt");
+
+    private final UserRepository repository;
+    private final int maxSize;
+
+    /**
+     * Constructor for UserSearchProviderImpl.
+     *
+     * @param repository The repository for reading the user projections.
+     * @param maxSize    The maximum number of users of a page.
+     */
+    @Autowired
+    public UserSearchProviderImpl(UserRepository repository,
+                                  @Value("${nebula.users.search.max-size:100}") int maxSize) {
+        this.repository = repository;
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * Retrieves a page of the users matching the filters of the request, after the position of its cursor.
+     * The page size is limited to the configured maximum, the order is ascending unless "desc" is requested.
+     *
+     * @param request the filters, the sort field and order, the page size and the optional cursor
+     * @return the found users and the cursor of the next page, null if there is no next page
+     * @throws InvalidUserSearchException if the sort field is not supported or the cursor is malformed
+     *                                    or was issued for another sort field or order
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public UserSearchPage search(UserSearchRequest request) {
+        String sortBy = request.getSortBy() == null || request.getSortBy().isBlank() ? "id" : request.getSortBy();
+        if (!SORT_FIELDS.contains(sortBy))
+            throw new InvalidUserSearchException("Users can be sorted only by " + String.join(", ", SORT_FIELDS));
+        boolean ascending = !"desc".equalsIgnoreCase(request.getSortOrder());
+        int size = Math.min(Math.max(1, request.getSize()), maxSize);
+
+        Specification<UserEntity> spec = UsersSpecifications.hasAllFilters(request.getLogin(), request.getEmail(),
+                request.getNationalityId(), request.getGenderId(), request.getMinAge(), request.getMaxAge(),
+                request.getUpdatedFrom(), request.getUpdatedTo());
+        if (request.getCursor() != null && !request.getCursor().isBlank())
+            spec = spec.and(decodeCursor(request.getCursor(), sortBy, ascending));
+
+        List<UserSearchView> views = repository.searchViews(spec, sortBy, ascending, size + 1);
+        boolean hasNext = views.size() > size;
+        List<UserSearchView> page = hasNext ? views.subList(0, size) : views;
+        String nextCursor = hasNext ? encodeCursor(sortBy, ascending, page.get(page.size() - 1)) : null;
+        return new UserSearchPage(page.stream().map(UserProjectionMapper::toUser).toList(), nextCursor);
+    }
+
+    /**
+     * Encodes the position of the row as "sortBy:order:id:value" in URL-safe Base64.
+     * The value is the last part, so it may contain the separator itself.
+     */
+    private static String encodeCursor(String sortBy, boolean ascending, UserSearchView last) {
+        Object value = switch (sortBy) {
+            case "login" -> last.login();
+            case "email" -> last.email();
+            case "updatedAt" -> last.updatedAt();
+            default -> "";
+        };
+        String cursor = sortBy + ":" + (ascending ? "asc" : "desc") + ":" + last.id() + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes the cursor into the seek condition of the next page, the cursor must have been issued
+     * for the same sort field and order.
+     */
+    private static Specification<UserEntity> decodeCursor(String cursor, String sortBy, boolean ascending) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 4);
+            if (parts.length != 4 || !parts[0].equals(sortBy) || !parts[1].equals(ascending ? "asc" : "desc"))
+                throw new InvalidUserSearchException("The cursor does not match the sort field and order");
+            long id = Long.parseLong(parts[2]);
+            Comparable<?> value = switch (sortBy) {
+                case "updatedAt" -> Instant.parse(parts[3]);
+                case "id" -> null;
+                default -> parts[3];
+            };
+            return UsersSpecifications.isAfter(sortBy, ascending, value, id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidUserSearchException("The cursor is malformed");
+        }
+    }
+
+}
@@ -5,15 +5,29 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pl.derleta.nebula.controller.request.ProfileUpdateRequest;
 import pl.derleta.nebula.controller.request.Request;
-import pl.derleta.nebula.domain.entity.UserSettingsEntity;
-import pl.derleta.nebula.domain.mapper.NebulaUserMapper;
+import pl.derleta.nebula.domain.mapper.ThemeMapper;
+import pl.derleta.nebula.domain.mapper.UserProjectionMapper;
 import pl.derleta.nebula.domain.mapper.UserSettingsMapper;
-import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.domain.model.UserFieldSet;
+import pl.derleta.nebula.domain.model.SettingsVersion;
 import pl.derleta.nebula.domain.model.UserSettings;
+import pl.derleta.nebula.domain.model.UserSettingsGeneral;
+import pl.derleta.nebula.domain.model.UserSettingsPatch;
+import pl.derleta.nebula.domain.model.UserSettingsSound;
+import pl.derleta.nebula.domain.model.VersionedProfile;
+import pl.derleta.nebula.domain.model.VersionedSettings;
+import pl.derleta.nebula.exceptions.ProfileVersionConflictException;
+import pl.derleta.nebula.exceptions.SettingsVersionConflictException;
+import pl.derleta.nebula.exceptions.ThemeNotFoundException;
+import pl.derleta.nebula.repository.ThemeRepository;
 import pl.derleta.nebula.repository.UserRepository;
 import pl.derleta.nebula.repository.UserSettingsRepository;
+import pl.derleta.nebula.service.SettingsWriteBuffer;
+import pl.derleta.nebula.service.UserCache;
 import pl.derleta.nebula.service.UserUpdater;
 
+import java.util.Optional;
+
 /**
  * Implementation of the UserUpdater interface that provides functionality to update user profiles
  * and user settings. This service relies on UserRepository and UserSettingsRepository for data operations.
@@ -24,45 +38,175 @@ public class UserUpdaterImpl implements UserUpdater {
 
     private final UserRepository repository;
     private final UserSettingsRepository userSettingsRepository;
+    private final UserCache cache;
+    private final SettingsWriteBuffer writeBuffer;
+    private final ThemeRepository themeRepository;
 
     /**
      * Updates the profile information of a user by processing the provided request.
-     * If the request is an instance of ProfileUpdateRequest, the user's details
-     * are updated in the repository and the updated user's information is returned.
+     * If the request is an instance of ProfileUpdateRequest, only the fields given in the request
+     * are written by a single UPDATE statement, and the cached user is invalidated.
+     * With an expected version the UPDATE is conditional on the version of the profile,
+     * so a concurrent write between the check and the write is detected as a conflict.
+     * Values equal to the stored ones are not written: a request changing nothing keeps the last update timestamp,
+     * the version and the cached user, so the ETags of the user stay valid.
+     * The updated profile is read back by a projection of the profile columns, without loading
+     * the settings, games and achievements of the user, and returned with its version. With an expected version
+     * the new version is known from the write, otherwise it is read in the same transaction.
+     * A conflict invalidates the cached user, whose version may be the stale one the client has seen.
      *
      * @param request the request object containing the user profile information to be updated
-     * @return the updated NebulaUser object if the request is valid, otherwise null
+     * @return the updated profile of the user with its version if the request is valid and the user exists,
+     * otherwise null
+     * @throws ProfileVersionConflictException if the profile does not have the expected version
      */
     @Transactional
     @Override
-    public NebulaUser updateProfile(Request request) {
+    public VersionedProfile updateProfile(Request request) {
         if (request instanceof ProfileUpdateRequest instance) {
-            repository.updateUserDetails(
-                    instance.getUserId(), instance.getFirstName(), instance.getLastName(),
-                    instance.getBirthdate(), instance.getNationalityId(), instance.getGenderId());
-            var result = repository.getReferenceById(instance.getUserId());
-            return NebulaUserMapper.toUser(result);
+            long userId = instance.getUserId();
+            Long expectedVersion = instance.getExpectedVersion();
+            if (expectedVersion != null) {
+                Optional<Long> current = repository.findProfileVersionById(userId);
+                if (current.isEmpty()) return null;
+                if (!current.get().equals(expectedVersion))
+                    throw conflict(userId, "The profile has version " + current.get() + ", expected " + expectedVersion);
+            }
+            int updated = repository.updateProfileFields(userId, instance.getFirstName(), instance.getLastName(),
+                    instance.getBirthdate(), instance.getNationalityId(), instance.getGenderId(), expectedVersion);
+            if (updated == 0 && expectedVersion != null && hasProfileValues(instance)
+                    && !repository.findProfileVersionById(userId).orElse(expectedVersion).equals(expectedVersion))
+                throw conflict(userId, "The profile was changed concurrently");
+            if (updated > 0) cache.invalidate(userId);
+            Optional<Long> version = expectedVersion != null
+                    ? Optional.of(updated > 0 ? expectedVersion + 1 : expectedVersion)
+                    : repository.findProfileVersionById(userId);
+            if (version.isEmpty()) return null;
+            return repository.findProfileViewById(userId, UserFieldSet.PROFILE)
+                    .map(view -> new VersionedProfile(UserProjectionMapper.toUser(view, null, null), version.get()))
+                    .orElse(null);
         }
         return null;
     }
 
     /**
      * Updates the user settings in the system. Validates user IDs in the settings
-     * object before persisting the changes in the repository. Additionally, updates
-     * the user's last modified timestamp.
+     * object before persisting the changes in the repository. Additionally, increments
+     * the settings version and updates the user's last modified timestamp. The cached user gets the new settings once the transaction is committed.
+     * Settings equal to the stored ones are not written, the stored settings are returned with the version,
+     * the timestamp and the cached user unchanged.
+     * When the {@link SettingsWriteBuffer} is enabled, the settings are handed over to it instead and written
+     * together with the following rapid updates of the same user.
      *
      * @param userSettings the user settings object containing updated configuration details
-     * @return the updated user settings object after persisting changes in the repository
+     * @return the updated user settings object after persisting changes in the repository,
+     * or the stored settings if nothing changed
      * @throws IllegalArgumentException if the user IDs in the user settings do not match
      */
     @Transactional
     @Override
     public UserSettings updateSettings(UserSettings userSettings) {
         validateUserIdsInSettings(userSettings);
-        UserSettingsEntity entity = UserSettingsMapper.toEntity(userSettings);
-        var result = userSettingsRepository.save(entity);
+        if (writeBuffer.isEnabled()) return writeBuffer.submit(userSettings);
+        Optional<UserSettings> current = userSettingsRepository.findSettingsById(userSettings.userId());
+        if (current.isPresent() && UserSettingsMapper.hasSameValues(current.get(), userSettings)) return current.get();
+        UserSettings updated = userSettingsRepository.writeSettings(userSettings, true, true, null);
         repository.updateUserUpdatedAt(userSettings.userId());
-        return UserSettingsMapper.toSetting(result);
+        if (updated != null) cache.update(userSettings.userId(), user -> UserSettingsMapper.withSettings(user, updated));
+        return updated;
+    }
+
+    /**
+     * Replaces the user settings if they still have the expected version, for clients writing concurrently
+     * from several devices. The settings are written together with the incremented version by a write conditional
+     * on the expected version, so a concurrent write is detected as a conflict instead of being overwritten.
+     * Pending settings of the {@link SettingsWriteBuffer} are written first in their own committed transaction,
+     * so a conflict does not roll them back, and a failure of that write fails the update, so the pending settings
+     * retried later can not overwrite it; the conditional write is not buffered.
+     * Settings equal to the stored ones are not written and keep their version.
+     *
+     * @param userSettings    the new settings of the user
+     * @param expectedVersion the version the settings must have
+     * @return the settings with their versions after the write, or null if the user has no settings
+     * @throws IllegalArgumentException         if the user IDs in the user settings do not match
+     * @throws SettingsVersionConflictException if the settings do not have the expected version
+     */
+    @Transactional
+    @Override
+    public VersionedSettings updateSettings(UserSettings userSettings, long expectedVersion) {
+        validateUserIdsInSettings(userSettings);
+        long userId = userSettings.userId();
+        if (writeBuffer.isEnabled()) writeBuffer.flush(userId);
+        Optional<SettingsVersion> stored = userSettingsRepository.findVersionById(userId);
+        if (stored.isEmpty()) return null;
+        if (stored.get().version() != expectedVersion)
+            throw new SettingsVersionConflictException("The settings have version " + stored.get().version()
+                    + ", expected " + expectedVersion);
+        Optional<UserSettings> current = userSettingsRepository.findSettingsById(userId);
+        if (current.isPresent() && UserSettingsMapper.hasSameValues(current.get(), userSettings))
+            return new VersionedSettings(current.get(), stored.get());
+        UserSettings updated = userSettingsRepository.writeSettings(userSettings, true, true, expectedVersion);
+        if (updated == null) throw new SettingsVersionConflictException("The settings were changed concurrently");
+        repository.updateUserUpdatedAt(userId);
+        cache.update(userId, user -> UserSettingsMapper.withSettings(user, updated));
+        long next = expectedVersion + 1;
+        return new VersionedSettings(updated, new SettingsVersion(next, next, next));
+    }
+
+    /**
+     * Applies a partial change to the settings of a user. Only the given values are compared with the stored ones,
+     * and the changed settings are written together with the settings version, incremented and recorded
+     * for the changed groups by a write conditional on the version read, so a concurrent write between the read
+     * and the write is detected as a conflict. Nothing is written if no value changes. Pending settings
+     * of the {@link SettingsWriteBuffer} are written first in their own committed transaction, so the change
+     * applies to them and a conflict does not roll them back. A failure of that write fails the change.
+     *
+     * @param patch the changed values and the optional expected version of the settings
+     * @return the settings with their versions after the change, or null if the user has no settings
+     * @throws SettingsVersionConflictException if the settings do not have the expected version
+     * @throws ThemeNotFoundException            if the requested theme does not exist
+     */
+    @Transactional
+    @Override
+    public VersionedSettings patchSettings(UserSettingsPatch patch) {
+        long userId = patch.userId();
+        if (writeBuffer.isEnabled()) writeBuffer.flush(userId);
+        Optional<SettingsVersion> stored = userSettingsRepository.findVersionById(userId);
+        Optional<UserSettings> loaded = userSettingsRepository.findSettingsById(userId);
+        if (stored.isEmpty() || loaded.isEmpty()) return null;
+        SettingsVersion current = stored.get();
+        if (patch.expectedVersion() != null && patch.expectedVersion() != current.version())
+            throw new SettingsVersionConflictException("The settings have version " + current.version()
+                    + ", expected " + patch.expectedVersion());
+
+        UserSettings settings = loaded.get();
+        UserSettingsGeneral general = settings.general();
+        boolean generalChanged = patch.theme() != null && (general.theme() == null
+                || general.theme().id() != patch.theme().id());
+        if (generalChanged) {
+            general = new UserSettingsGeneral(userId, themeRepository.findById(patch.theme().id())
+                    .map(ThemeMapper::toTheme)
+                    .orElseThrow(() -> new ThemeNotFoundException("Theme with id: " + patch.theme().id() + " not found")));
+        }
+        UserSettingsSound sound = settings.sound();
+        UserSettingsSound patchedSound = new UserSettingsSound(sound.userId(),
+                valueOrCurrent(patch.muted(), sound.muted()),
+                valueOrCurrent(patch.battleCry(), sound.battleCry()),
+                valueOrCurrent(patch.volumeMaster(), sound.volumeMaster()),
+                valueOrCurrent(patch.volumeMusic(), sound.volumeMusic()),
+                valueOrCurrent(patch.volumeEffects(), sound.volumeEffects()),
+                valueOrCurrent(patch.volumeVoices(), sound.volumeVoices()));
+        boolean soundChanged = !patchedSound.equals(sound);
+        if (!generalChanged && !soundChanged) return new VersionedSettings(settings, current);
+
+        UserSettings updated = userSettingsRepository.writeSettings(new UserSettings(userId, general, patchedSound),
+                generalChanged, soundChanged, current.version());
+        if (updated == null) throw new SettingsVersionConflictException("The settings were changed concurrently");
+        repository.updateUserUpdatedAt(userId);
+        long next = current.version() + 1;
+        cache.update(userId, user -> UserSettingsMapper.withSettings(user, updated));
+        return new VersionedSettings(updated, new SettingsVersion(next,
+                generalChanged ? next : current.generalVersion(), soundChanged ? next : current.soundVersion()));
     }
 
     /**
@@ -83,4 +227,18 @@ public class UserUpdaterImpl implements UserUpdater {
         }
     }
 
+    private ProfileVersionConflictException conflict(long userId, String message) {
+        cache.invalidate(userId);
+        return new ProfileVersionConflictException(message);
+    }
+
+    private static boolean hasProfileValues(ProfileUpdateRequest request) {
+        return request.getFirstName() != null || request.getLastName() != null || request.getBirthdate() != null
+                || request.getNationalityId() != null || request.getGenderId() != null;
+    }
+
+    private static <T> T valueOrCurrent(T value, T current) {
+        return value != null ? value : current;
+    }
+
 }
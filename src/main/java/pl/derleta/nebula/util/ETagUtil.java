@@ -0,0 +1,105 @@
+package pl.derleta.nebula.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import pl.derleta.nebula.domain.model.UserFieldSet;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.TreeSet;
+
+/**
+ * Utility class for building and comparing entity tags of the user responses.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ETagUtil {
+
+    /**
+     * Builds the strong ETag of a user representation. The tag changes with the last update of the user,
+     * with the content of the achievement catalogue and with the selection of fields.
+     *
+     * @param userId             the ID of the user
+     * @param updatedAt          the last update timestamp of the user, may be null for users never updated
+     * @param catalogueVersion   the version of the achievement catalogue
+     * @param fields             the requested fields
+     * @return the quoted ETag
+     */
+    public static String userETag(long userId, Instant updatedAt, int catalogueVersion, UserFieldSet fields) {
+        return userETag(userId, updatedAt, catalogueVersion, fields, null);
+    }
+
+    /**
+     * Builds the strong ETag of a user representation which also changes with the content of settings
+     * not yet written to the database.
+     *
+     * @param userId           the ID of the user
+     * @param updatedAt        the last update timestamp of the user, may be null for users never updated
+     * @param catalogueVersion the version of the achievement catalogue
+     * @param fields           the requested fields
+     * @param pendingVersion   the content version of the pending settings, null if there are none
+     * @return the quoted ETag
+     */
+    public static String userETag(long userId, Instant updatedAt, int catalogueVersion, UserFieldSet fields,
+                                  String pendingVersion) {
+        long version = updatedAt == null ? 0 : updatedAt.getEpochSecond() * 1_000_000 + updatedAt.getNano() / 1_000;
+        StringBuilder tag = new StringBuilder("\"")
+                .append(userId).append('-')
+                .append(Long.toHexString(version)).append('-')
+                .append(Integer.toHexString(catalogueVersion));
+        if (!fields.isAll()) tag.append('-').append(Integer.toHexString(new TreeSet<>(fields.fields()).hashCode()));
+        if (pendingVersion != null) tag.append("-p").append(pendingVersion);
+        return tag.append('"').toString();
+    }
+
+    /**
+     * Builds the strong ETag of a user subresource from its content, so the tag of one subresource
+     * does not change when another part of the user changes.
+     *
+     * @param userId   the ID of the user
+     * @param resource the name of the subresource
+     * @param content  the domain content of the subresource, its string representation covers all its values
+     * @return the quoted ETag
+     */
+    public static String contentETag(long userId, String resource, Object content) {
+        return "\"" + userId + "-" + resource + "-" + contentVersion(content) + "\"";
+    }
+
+    /**
+     * Builds the version of the content as the hexadecimal 64-bit FNV-1a hash of its string representation,
+     * which is the same on every node for the same content.
+     *
+     * @param content the content, its {@code toString} must cover everything the version should change with
+     * @return the version of the content
+     */
+    public static String contentVersion(Object content) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : String.valueOf(content).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return Long.toHexString(hash);
+    }
+
+    /**
+     * Checks whether the If-None-Match header matches the current ETag, using the weak comparison
+     * required for If-None-Match.
+     *
+     * @param ifNoneMatch the value of the If-None-Match header, may be null
+     * @param etag        the current quoted ETag
+     * @return true if the header is {@code *} or contains the current ETag
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        String current = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || stripWeak(value).equals(current)) return true;
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+}
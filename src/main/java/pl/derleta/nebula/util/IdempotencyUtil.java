@@ -0,0 +1,38 @@
+package pl.derleta.nebula.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Utility class for building the fingerprints of idempotent requests.
+ * A fingerprint is a SHA-256 hash of the request parameters, so a reused idempotency key
+ * can be detected without keeping sensitive request data, like passwords, in memory.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class IdempotencyUtil {
+
+    /**
+     * Builds the fingerprint of a request from its parameters.
+     *
+     * @param parts the request parameters, null values are allowed
+     * @return the hex encoded SHA-256 hash of the parameters
+     */
+    public static String fingerprint(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+}
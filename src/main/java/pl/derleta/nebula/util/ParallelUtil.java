@@ -0,0 +1,58 @@
+package pl.derleta.nebula.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import pl.derleta.nebula.exceptions.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+
+/**
+ * Utility class for running independent parts of a request concurrently as one unit of work:
+ * the request waits for all parts within a deadline, and the first failing part, or the deadline,
+ * cancels all the others.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ParallelUtil {
+
+    /**
+     * Waits for all the tasks to complete within the deadline. If any task fails or the deadline passes,
+     * the remaining tasks are cancelled and their threads interrupted through the executor.
+     *
+     * @param executor the executor running the tasks, shut down immediately on failure
+     * @param deadline the maximum time to wait for all the tasks
+     * @param tasks    the tasks to wait for
+     * @throws DeadlineExceededException if the tasks did not complete within the deadline
+     * @throws RuntimeException          the failure of the first failing task
+     */
+    public static void awaitAll(ExecutorService executor, Duration deadline, CompletableFuture<?>... tasks) {
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        for (CompletableFuture<?> task : tasks) {
+            task.whenComplete((result, failure) -> {
+                if (failure != null) firstFailure.completeExceptionally(failure);
+            });
+        }
+        try {
+            CompletableFuture.anyOf(CompletableFuture.allOf(tasks), firstFailure)
+                    .get(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            cancel(executor, tasks);
+            Thread.currentThread().interrupt();
+            throw new DeadlineExceededException("Interrupted while waiting for the parallel tasks");
+        } catch (TimeoutException e) {
+            cancel(executor, tasks);
+            throw new DeadlineExceededException("The parallel tasks did not complete within " + deadline.toMillis() + " ms");
+        } catch (ExecutionException e) {
+            cancel(executor, tasks);
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static void cancel(ExecutorService executor, CompletableFuture<?>... tasks) {
+        for (CompletableFuture<?> task : tasks) task.cancel(true);
+        executor.shutdownNow();
+    }
+
+}
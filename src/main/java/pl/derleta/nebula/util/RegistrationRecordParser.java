@@ -0,0 +1,117 @@
+package pl.derleta.nebula.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import pl.derleta.nebula.controller.request.AccountRegistrationRequest;
+
+import java.sql.Date;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Utility class parsing single lines of the bulk user import into registration requests.
+ * Lines are parsed one at a time, so an import of any size can be processed without loading it into memory.
+ * <p>
+ * The CSV format is a simple comma separated format without quoting, the columns are resolved
+ * by the header line: login, email, password, birthdate (yyyy-MM-dd), nationality and gender.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class RegistrationRecordParser {
+
+    public static final List<String> CSV_COLUMNS = List.of("login", "email", "password", "birthdate", "nationality", "gender");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Parses a single NDJSON line into a registration request.
+     *
+     * @param line the JSON object with the fields of the registration request
+     * @return the parsed AccountRegistrationRequest
+     * @throws IllegalArgumentException if the line is not a valid JSON object or a field has an invalid value
+     */
+    public static AccountRegistrationRequest fromJson(String line) {
+        JsonNode node;
+        try {
+            node = MAPPER.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON record");
+        }
+        if (node == null || !node.isObject()) throw new IllegalArgumentException("Record is not a JSON object");
+        return AccountRegistrationRequest.builder()
+                .login(text(node, "login"))
+                .email(text(node, "email"))
+                .password(text(node, "password"))
+                .birthdate(toDate(text(node, "birthdate")))
+                .nationality(toInteger(text(node, "nationality")))
+                .gender(toInteger(text(node, "gender")))
+                .build();
+    }
+
+    /**
+     * Resolves the positions of the supported columns in the CSV header line.
+     *
+     * @param header the CSV header line
+     * @return an array with the position of each column from {@link #CSV_COLUMNS}, -1 for a missing column
+     * @throws IllegalArgumentException if the header does not contain the login or email column
+     */
+    public static int[] csvHeader(String header) {
+        List<String> names = Arrays.stream(header.split(",", -1)).map(name -> name.trim().toLowerCase()).toList();
+        int[] positions = CSV_COLUMNS.stream().mapToInt(names::indexOf).toArray();
+        if (positions[0] < 0 || positions[1] < 0)
+            throw new IllegalArgumentException("CSV header must contain the login and email columns");
+        return positions;
+    }
+
+    /**
+     * Parses a single CSV line into a registration request.
+     *
+     * @param line      the comma separated registration record
+     * @param positions the column positions resolved by {@link #csvHeader(String)}
+     * @return the parsed AccountRegistrationRequest
+     * @throws IllegalArgumentException if a field has an invalid value
+     */
+    public static AccountRegistrationRequest fromCsv(String line, int[] positions) {
+        String[] values = line.split(",", -1);
+        return AccountRegistrationRequest.builder()
+                .login(column(values, positions[0]))
+                .email(column(values, positions[1]))
+                .password(column(values, positions[2]))
+                .birthdate(toDate(column(values, positions[3])))
+                .nationality(toInteger(column(values, positions[4])))
+                .gender(toInteger(column(values, positions[5])))
+                .build();
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static String column(String[] values, int position) {
+        if (position < 0 || position >= values.length) return null;
+        String value = values[position].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Date toDate(String value) {
+        if (value == null) return null;
+        try {
+            return Date.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid birthdate: " + value);
+        }
+    }
+
+    private static Integer toInteger(String value) {
+        if (value == null) return null;
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + value);
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package pl.derleta.nebula.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utility class for keeping in-memory state consistent with the database by deferring its changes
+ * until the current transaction is committed or completed.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TransactionUtil {
+
+    /**
+     * Runs the action once the current transaction is committed, or immediately without a transaction.
+     * The action is not run if the transaction is rolled back.
+     *
+     * @param action the action to run
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Runs the action once the current transaction is committed or rolled back.
+     * Nothing is run without a transaction.
+     *
+     * @param action the action to run
+     */
+    public static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+}
@@ -37,4 +37,18 @@ public class ValidationUtil {
         return encryptedPassword.matches(bcryptRegex);
     }
 
+    /**
+     * Validates whether a given login has 3 to 45 characters and contains only letters, digits, dots, underscores and hyphens.
+     *
+     * @param login the login to validate; may be null or empty.
+     * @return true if the login matches the required format, false otherwise.
+     */
+    public static boolean isValidLogin(String login) {
+        if (login == null || login.isBlank()) {
+            return false;
+        }
+        String loginRegex = "^[A-Za-z0-9_.-]{3,45}$";
+        return login.matches(loginRegex);
+    }
+
 }
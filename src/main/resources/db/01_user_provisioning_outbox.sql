@@ -0,0 +1,18 @@
+-- Outbox of accounts accepted by the authorization server and waiting for the provisioning in the Nebula database.
+CREATE TABLE IF NOT EXISTS user_provisioning_outbox
+(
+    id              BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id         BIGINT       NULL,
+    login           VARCHAR(45)  NOT NULL,
+    email           VARCHAR(255) NOT NULL,
+    birth_date      DATE         NULL,
+    nationality_id  INT          NULL,
+    gender_id       INT          NULL,
+    status          VARCHAR(10)  NOT NULL DEFAULT 'PENDING',
+    attempts        INT          NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    last_error      VARCHAR(255) NULL,
+    created_at      TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    CONSTRAINT uk_user_provisioning_outbox_login UNIQUE (login),
+    INDEX idx_user_provisioning_outbox_due (status, next_attempt_at, id)
+);
@@ -0,0 +1,12 @@
+-- Checkpoints of the chunked background jobs, a job is resumed after a restart from its last processed key.
+CREATE TABLE IF NOT EXISTS job_checkpoints
+(
+    job_name   VARCHAR(100) PRIMARY KEY,
+    job_type   VARCHAR(30)  NOT NULL,
+    target_id  BIGINT       NULL,
+    last_id    BIGINT       NOT NULL DEFAULT 0,
+    processed  BIGINT       NOT NULL DEFAULT 0,
+    status     VARCHAR(10)  NOT NULL DEFAULT 'PENDING',
+    updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    INDEX idx_job_checkpoints_type_status (job_type, status)
+);
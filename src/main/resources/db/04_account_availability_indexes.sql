@@ -0,0 +1,4 @@
+-- Indexes confirming the possible matches of the login and email availability check,
+-- users.login and user_provisioning_outbox.login are already covered by their unique keys.
+CREATE INDEX IF NOT EXISTS idx_users_email ON users (email);
+CREATE INDEX IF NOT EXISTS idx_user_provisioning_outbox_email ON user_provisioning_outbox (email);
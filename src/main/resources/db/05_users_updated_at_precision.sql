@@ -0,0 +1,3 @@
+-- users.updated_at is the version of the user aggregate used by the ETag of GET /users,
+-- microsecond precision keeps two updates within the same second distinguishable.
+ALTER TABLE users MODIFY updated_at TIMESTAMP(6) NULL DEFAULT CURRENT_TIMESTAMP(6);
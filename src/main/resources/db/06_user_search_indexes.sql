@@ -0,0 +1,7 @@
+-- Indexes of the admin user search, each ends with the primary key, so the keyset pagination on (sort key, id)
+-- seeks directly to the first row of the next page. users.login is covered by its unique key,
+-- users.email by idx_users_email, InnoDB appends the primary key to every secondary index.
+CREATE INDEX IF NOT EXISTS idx_users_updated_at_id ON users (updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_users_age_id ON users (age, id);
+CREATE INDEX IF NOT EXISTS idx_users_nationality_id_id ON users (nationality_id, id);
+CREATE INDEX IF NOT EXISTS idx_users_gender_id_id ON users (gender_id, id);
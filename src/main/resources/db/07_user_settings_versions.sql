@@ -0,0 +1,6 @@
+-- Versions of the user settings for the delta sync of the game clients: version grows with every write
+-- of the settings, general_version and sound_version keep the version of the last change of their group.
+ALTER TABLE user_settings
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS general_version BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS sound_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,23 @@
+-- Settings document of the document storage mode (nebula.settings.document-storage=true): the settings of a user
+-- as a single JSON object in the user_settings row, read and written by the primary key without the general
+-- and sound rows. A present document is the current state of the settings, a write in the tables mode clears it.
+ALTER TABLE user_settings
+    ADD COLUMN IF NOT EXISTS document JSON NULL;
+
+-- Builds the documents of the settings stored in the general and sound rows. Run before enabling the document
+-- storage mode, rows written in the tables mode meanwhile are picked up by running it again.
+-- The keys must match UserSettingsDocumentMapper.
+UPDATE user_settings s
+    JOIN user_settings_general g ON g.user_id = s.general_id
+    JOIN user_settings_sound so ON so.user_id = s.sound_id
+    LEFT JOIN themes t ON t.id = g.theme_id
+SET s.document = JSON_OBJECT(
+        'themeId', g.theme_id,
+        'themeName', t.name,
+        'muted', so.muted,
+        'battleCry', so.battle_cry,
+        'volumeMaster', so.volume_master,
+        'volumeMusic', so.volume_music,
+        'volumeEffects', so.volume_effects,
+        'volumeVoices', so.volume_voices)
+WHERE s.document IS NULL;
@@ -0,0 +1,4 @@
+-- Version of the user profile for the optimistic concurrency of PATCH /users/profile: incremented by every write
+-- of the profile columns, a write with an expected version is applied only if the row still has that version.
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
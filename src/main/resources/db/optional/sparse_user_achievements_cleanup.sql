@@ -0,0 +1,7 @@
+-- Optional cleanup of the sparse user achievements mode (nebula.achievements.sparse=true), not part of the default
+-- migrations. Removes the zero-valued rows created for every achievement at registration, the lists and single
+-- achievements of a user serve them as implicit zero entries from the achievement catalogue.
+-- The paged achievements filter reads the stored rows only, after the cleanup it no longer returns level 0 entries
+-- of the cleaned up users. Do not run it while the sparse mode is disabled.
+DELETE FROM user_achievements
+WHERE value = 0 AND level = 0 AND progress = 0;
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,13 +14,18 @@ import pl.derleta.nebula.controller.request.AuthEmailRequest;
 import pl.derleta.nebula.controller.request.PasswordUpdateRequest;
 import pl.derleta.nebula.controller.request.UserConfirmationRequest;
 import pl.derleta.nebula.controller.response.AccountResponse;
+import pl.derleta.nebula.controller.response.AvailabilityResponse;
 import pl.derleta.nebula.controller.response.JwtTokenResponse;
 import pl.derleta.nebula.controller.response.Response;
 import pl.derleta.nebula.domain.types.AccountResponseType;
 import pl.derleta.nebula.exceptions.HttpRequestException;
+import pl.derleta.nebula.exceptions.IdempotencyKeyReusedException;
 import pl.derleta.nebula.exceptions.TokenExpiredException;
+import pl.derleta.nebula.service.AccountAvailabilityProvider;
 import pl.derleta.nebula.service.AccountUpdater;
+import pl.derleta.nebula.service.IdempotencyStore;
 import pl.derleta.nebula.service.TokenProvider;
+import pl.derleta.nebula.service.impl.IdempotencyStoreImpl;
 
 import java.io.IOException;
 import java.sql.Date;
@@ -37,6 +43,12 @@ class AccountControllerTest {
     @Mock
     private TokenProvider tokenProvider;
 
+    @Mock
+    private AccountAvailabilityProvider availabilityProvider;
+
+    @Spy
+    private IdempotencyStore idempotencyStore = new IdempotencyStoreImpl(600000, 100, 1000);
+
     @InjectMocks
     private AccountController accountController;
 
@@ -73,13 +85,50 @@ class AccountControllerTest {
         jwtTokenResponse = new JwtTokenResponse(cookies, "testuser", "test@example.com");
     }
 
+    @Test
+    void availability_loginAndEmail_returnsBothAnswers() {
+        // Arrange
+        when(availabilityProvider.isLoginAvailable("testuser")).thenReturn(true);
+        when(availabilityProvider.isEmailAvailable("test@example.com")).thenReturn(false);
+
+        // Act
+        ResponseEntity<AvailabilityResponse> response = accountController.availability("testuser", "test@example.com");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new AvailabilityResponse("testuser", true, "test@example.com", false), response.getBody());
+    }
+
+    @Test
+    void availability_onlyLogin_doesNotCheckEmail() {
+        // Arrange
+        when(availabilityProvider.isLoginAvailable("testuser")).thenReturn(false);
+
+        // Act
+        ResponseEntity<AvailabilityResponse> response = accountController.availability("testuser", null);
+
+        // Assert
+        assertEquals(new AvailabilityResponse("testuser", false, null, null), response.getBody());
+        verify(availabilityProvider, never()).isEmailAvailable(any());
+    }
+
+    @Test
+    void availability_noParameters_returnsBadRequest() {
+        // Act
+        ResponseEntity<AvailabilityResponse> response = accountController.availability(null, " ");
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(availabilityProvider);
+    }
+
     @Test
     void register_success_returnsOkResponse() {
         // Arrange
         when(accountUpdater.register(registrationRequest)).thenReturn(successResponse);
 
         // Act
-        ResponseEntity<Response> response = accountController.register(registrationRequest);
+        ResponseEntity<Response> response = accountController.register(registrationRequest, null);
 
         // Assert
         assertNotNull(response);
@@ -88,13 +137,43 @@ class AccountControllerTest {
         verify(accountUpdater, times(1)).register(registrationRequest);
     }
 
+    @Test
+    void register_retriedWithSameIdempotencyKey_registersOnce() {
+        // Arrange
+        when(accountUpdater.register(registrationRequest)).thenReturn(successResponse);
+
+        // Act
+        ResponseEntity<Response> first = accountController.register(registrationRequest, "key-1");
+        ResponseEntity<Response> retry = accountController.register(registrationRequest, "key-1");
+
+        // Assert
+        assertSame(first, retry);
+        verify(accountUpdater, times(1)).register(registrationRequest);
+    }
+
+    @Test
+    void register_idempotencyKeyReusedForDifferentRequest_throwsIdempotencyKeyReusedException() {
+        // Arrange
+        when(accountUpdater.register(registrationRequest)).thenReturn(successResponse);
+        accountController.register(registrationRequest, "key-1");
+        AccountRegistrationRequest otherRequest = AccountRegistrationRequest.builder()
+                .login("otheruser")
+                .email("other@example.com")
+                .password("password123")
+                .build();
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyReusedException.class, () -> accountController.register(otherRequest, "key-1"));
+        verify(accountUpdater, never()).register(otherRequest);
+    }
+
     @Test
     void register_failure_returnsInternalServerErrorResponse() {
         // Arrange
         when(accountUpdater.register(registrationRequest)).thenReturn(failureResponse);
 
         // Act
-        ResponseEntity<Response> response = accountController.register(registrationRequest);
+        ResponseEntity<Response> response = accountController.register(registrationRequest, null);
 
         // Assert
         assertNotNull(response);
@@ -254,7 +333,7 @@ class AccountControllerTest {
         when(accountUpdater.generateToken(authEmailRequest)).thenReturn(jwtTokenResponse);
 
         // Act
-        ResponseEntity<JwtTokenResponse> response = accountController.getToken(authEmailRequest);
+        ResponseEntity<JwtTokenResponse> response = accountController.getToken(authEmailRequest, null);
 
         // Assert
         assertNotNull(response);
@@ -270,7 +349,7 @@ class AccountControllerTest {
         when(accountUpdater.generateToken(authEmailRequest)).thenReturn(null);
 
         // Act
-        ResponseEntity<JwtTokenResponse> response = accountController.getToken(authEmailRequest);
+        ResponseEntity<JwtTokenResponse> response = accountController.getToken(authEmailRequest, null);
 
         // Assert
         assertNotNull(response);
@@ -287,7 +366,7 @@ class AccountControllerTest {
         when(accountUpdater.updatePassword(accessToken, passwordUpdateRequest)).thenReturn(successResponse);
 
         // Act
-        ResponseEntity<AccountResponse> response = accountController.changePassword(accessToken, passwordUpdateRequest);
+        ResponseEntity<AccountResponse> response = accountController.changePassword(accessToken, passwordUpdateRequest, null);
 
         // Assert
         assertNotNull(response);
@@ -305,7 +384,7 @@ class AccountControllerTest {
         when(accountUpdater.updatePassword(accessToken, passwordUpdateRequest)).thenReturn(failureResponse);
 
         // Act
-        ResponseEntity<AccountResponse> response = accountController.changePassword(accessToken, passwordUpdateRequest);
+        ResponseEntity<AccountResponse> response = accountController.changePassword(accessToken, passwordUpdateRequest, null);
 
         // Assert
         assertNotNull(response);
@@ -322,7 +401,7 @@ class AccountControllerTest {
         when(tokenProvider.isValid(accessToken, passwordUpdateRequest.getUserId())).thenReturn(false);
 
         // Act
-        ResponseEntity<AccountResponse> response = accountController.changePassword(accessToken, passwordUpdateRequest);
+        ResponseEntity<AccountResponse> response = accountController.changePassword(accessToken, passwordUpdateRequest, null);
 
         // Assert
         assertNotNull(response);
@@ -339,7 +418,7 @@ class AccountControllerTest {
         when(tokenProvider.isValid(accessToken, passwordUpdateRequest.getUserId())).thenThrow(new TokenExpiredException("Token expired"));
 
         // Act
-        ResponseEntity<AccountResponse> response = accountController.changePassword(accessToken, passwordUpdateRequest);
+        ResponseEntity<AccountResponse> response = accountController.changePassword(accessToken, passwordUpdateRequest, null);
 
         // Assert
         assertNotNull(response);
@@ -359,7 +438,7 @@ class AccountControllerTest {
 
         // Act & Assert
         assertThrows(TokenExpiredException.class,
-                () -> accountController.changePassword(expiredToken, passwordUpdateRequest));
+                () -> accountController.changePassword(expiredToken, passwordUpdateRequest, null));
 
         // Verify interactions
         verify(tokenProvider).isValid(eq(expiredToken), anyLong());
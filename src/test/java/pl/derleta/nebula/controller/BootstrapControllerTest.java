@@ -0,0 +1,125 @@
+package pl.derleta.nebula.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import pl.derleta.nebula.controller.response.BootstrapResponse;
+import pl.derleta.nebula.domain.model.Bootstrap;
+import pl.derleta.nebula.domain.model.Game;
+import pl.derleta.nebula.domain.model.Gender;
+import pl.derleta.nebula.domain.model.Nationality;
+import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.domain.model.Theme;
+import pl.derleta.nebula.service.BootstrapProvider;
+import pl.derleta.nebula.service.ReferenceDataCatalogue;
+import pl.derleta.nebula.service.TokenProvider;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BootstrapControllerTest {
+
+    @Mock
+    private BootstrapProvider provider;
+
+    @Mock
+    private TokenProvider tokenProvider;
+
+    @InjectMocks
+    private BootstrapController bootstrapController;
+
+    private final String accessToken = "token";
+    private Bootstrap bootstrap;
+
+    @BeforeEach
+    void setUp() {
+        NebulaUser user = new NebulaUser(1L, "login", "email@example.com", "John", "Doe", 30, null, null, null,
+                null, Collections.emptyList(), Collections.emptyList());
+        bootstrap = new Bootstrap(user, List.of(new Game(1, "Game", true, null, null)), List.of(new Theme(1, "Dark")),
+                List.of(new Gender(1, "Male")), List.<Nationality>of(),
+                Map.of(BootstrapProvider.USER, "u1", ReferenceDataCatalogue.ENABLED_GAMES, "g1",
+                        ReferenceDataCatalogue.THEMES, "t1", ReferenceDataCatalogue.GENDERS, "s1",
+                        ReferenceDataCatalogue.NATIONALITIES, "n1"));
+    }
+
+    @Test
+    void get_validToken_shouldReturnAllSections() {
+        // Arrange
+        when(tokenProvider.isValid(accessToken)).thenReturn(true);
+        when(tokenProvider.getUserId(accessToken)).thenReturn(1L);
+        when(provider.get(1L)).thenReturn(bootstrap);
+
+        // Act
+        ResponseEntity<BootstrapResponse> response = bootstrapController.get(accessToken, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        BootstrapResponse body = response.getBody();
+        assertNotNull(body);
+        assertEquals("u1", body.user().version());
+        assertEquals("login", body.user().data().getLogin());
+        assertEquals(1, body.games().data().size());
+        assertEquals("Dark", body.themes().data().get(0).getName());
+        assertEquals(1, body.genders().data().size());
+        assertTrue(body.nationalities().data().isEmpty());
+        assertEquals("no-cache, private", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void get_knownVersions_shouldSkipUnchangedSections() {
+        // Arrange
+        when(tokenProvider.isValid(accessToken)).thenReturn(true);
+        when(tokenProvider.getUserId(accessToken)).thenReturn(1L);
+        when(provider.get(1L)).thenReturn(bootstrap);
+
+        // Act
+        ResponseEntity<BootstrapResponse> response = bootstrapController.get(accessToken, "themes:t1, genders:old,user:u1");
+
+        // Assert
+        BootstrapResponse body = response.getBody();
+        assertNotNull(body);
+        assertEquals("t1", body.themes().version());
+        assertNull(body.themes().data());
+        assertNull(body.user().data());
+        assertNotNull(body.genders().data());
+        assertNotNull(body.games().data());
+    }
+
+    @Test
+    void get_missingUser_shouldReturnNotFound() {
+        // Arrange
+        when(tokenProvider.isValid(accessToken)).thenReturn(true);
+        when(tokenProvider.getUserId(accessToken)).thenReturn(1L);
+        when(provider.get(1L)).thenReturn(null);
+
+        // Act
+        ResponseEntity<BootstrapResponse> response = bootstrapController.get(accessToken, null);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void get_invalidToken_shouldReturnForbidden() {
+        // Arrange
+        when(tokenProvider.isValid(accessToken)).thenReturn(false);
+
+        // Act
+        ResponseEntity<BootstrapResponse> response = bootstrapController.get(accessToken, null);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(provider);
+    }
+
+}
@@ -19,8 +19,10 @@ import pl.derleta.nebula.domain.model.Achievement;
 import pl.derleta.nebula.domain.model.AchievementLevel;
 import pl.derleta.nebula.domain.model.UserAchievement;
 import pl.derleta.nebula.exceptions.TokenExpiredException;
+import pl.derleta.nebula.service.AuthorizationService;
 import pl.derleta.nebula.service.TokenProvider;
 import pl.derleta.nebula.service.UserAchievementProvider;
+import pl.derleta.nebula.service.UserAchievementUpdater;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -37,9 +39,15 @@ class UserAchievementControllerTest {
     @Mock
     private UserAchievementProvider userAchievementProvider;
 
+    @Mock
+    private UserAchievementUpdater userAchievementUpdater;
+
     @Mock
     private TokenProvider tokenProvider;
 
+    @Mock
+    private AuthorizationService authorizationService;
+
     @Mock
     private UserAchievementModelAssembler userAchievementModelAssembler;
 
@@ -148,6 +156,22 @@ class UserAchievementControllerTest {
         verify(userAchievementModelAssembler, times(1)).toModel(userAchievement);
     }
 
+    @Test
+    void get_unknownUserOrAchievement_returnsNotFound() {
+        // Arrange
+        when(tokenProvider.isValid(validToken)).thenReturn(true);
+        when(tokenProvider.getUserId(validToken)).thenReturn(userId);
+        when(userAchievementProvider.get(userId, achievementId)).thenReturn(null);
+
+        // Act
+        ResponseEntity<UserAchievementResponse> response = userAchievementController.get(userId, achievementId, validToken);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertNull(response.getBody());
+        verifyNoInteractions(userAchievementModelAssembler);
+    }
+
     @Test
     void get_validTokenButDifferentUserId_returnsUnauthorized() {
         // Arrange
@@ -329,4 +353,46 @@ class UserAchievementControllerTest {
         verify(userAchievementModelAssembler, never()).toModel(any());
     }
 
+    @Test
+    void update_adminToken_returnsUpdatedAchievement() {
+        // Arrange
+        when(authorizationService.notContainsAdminRole(validToken)).thenReturn(false);
+        when(userAchievementUpdater.updateValue(userId, achievementId, 75)).thenReturn(userAchievement);
+        when(userAchievementModelAssembler.toModel(userAchievement)).thenReturn(userAchievementResponse);
+
+        // Act
+        ResponseEntity<UserAchievementResponse> response = userAchievementController.update(userId, achievementId, 75, validToken);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(userAchievementResponse, response.getBody());
+    }
+
+    @Test
+    void update_unknownUserOrAchievement_returnsNotFound() {
+        // Arrange
+        when(authorizationService.notContainsAdminRole(validToken)).thenReturn(false);
+        when(userAchievementUpdater.updateValue(userId, achievementId, 75)).thenReturn(null);
+
+        // Act
+        ResponseEntity<UserAchievementResponse> response = userAchievementController.update(userId, achievementId, 75, validToken);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(userAchievementModelAssembler, never()).toModel(any());
+    }
+
+    @Test
+    void update_nonAdminToken_returnsForbidden() {
+        // Arrange
+        when(authorizationService.notContainsAdminRole(validToken)).thenReturn(true);
+
+        // Act
+        ResponseEntity<UserAchievementResponse> response = userAchievementController.update(userId, achievementId, 75, validToken);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(userAchievementUpdater);
+    }
+
 }
@@ -3,6 +3,7 @@ package pl.derleta.nebula.controller;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -11,20 +12,36 @@ import org.springframework.http.ResponseEntity;
 import pl.derleta.nebula.controller.assembler.UserModelAssembler;
 import pl.derleta.nebula.controller.mapper.UserSettingsApiMapper;
 import pl.derleta.nebula.controller.request.ProfileUpdateRequest;
+import pl.derleta.nebula.controller.request.UserBatchRequest;
+import pl.derleta.nebula.controller.request.UserSearchRequest;
+import pl.derleta.nebula.controller.request.UserSettingsPatchRequest;
 import pl.derleta.nebula.controller.request.UserSettingsRequest;
+import pl.derleta.nebula.controller.request.UserSettingsSoundPatchRequest;
+import pl.derleta.nebula.controller.response.GameResponse;
 import pl.derleta.nebula.controller.response.NebulaUserResponse;
 import pl.derleta.nebula.controller.response.Response;
+import pl.derleta.nebula.controller.response.UserBatchResponse;
+import pl.derleta.nebula.controller.response.UserSearchResponse;
 import pl.derleta.nebula.controller.response.UserSettingsResponse;
+import pl.derleta.nebula.controller.response.VersionConflictResponse;
 import pl.derleta.nebula.domain.mapper.UserSettingsMapper;
 import pl.derleta.nebula.domain.model.*;
+import pl.derleta.nebula.exceptions.InvalidFieldSelectionException;
+import pl.derleta.nebula.exceptions.ProfileVersionConflictException;
+import pl.derleta.nebula.exceptions.SettingsVersionConflictException;
 import pl.derleta.nebula.exceptions.TokenExpiredException;
+import pl.derleta.nebula.service.AuthorizationService;
 import pl.derleta.nebula.service.TokenProvider;
+import pl.derleta.nebula.service.UserBatchProvider;
 import pl.derleta.nebula.service.UserProvider;
+import pl.derleta.nebula.service.UserSearchProvider;
 import pl.derleta.nebula.service.UserUpdater;
 
 import java.sql.Date;
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -46,6 +63,15 @@ class UserControllerTest {
     @Mock
     private UserModelAssembler userModelAssembler;
 
+    @Mock
+    private UserBatchProvider batchProvider;
+
+    @Mock
+    private AuthorizationService authorizationService;
+
+    @Mock
+    private UserSearchProvider searchProvider;
+
     @InjectMocks
     private UserController userController;
 
@@ -139,20 +165,21 @@ class UserControllerTest {
         // Arrange
         when(tokenProvider.isValid(validToken)).thenReturn(true);
         when(tokenProvider.getUserId(validToken)).thenReturn(userId);
-        when(userProvider.get(userId)).thenReturn(nebulaUser);
-        when(userModelAssembler.toModel(nebulaUser)).thenReturn(nebulaUserResponse);
+        when(userProvider.get(userId, UserFieldSet.ALL)).thenReturn(nebulaUser);
+        when(userModelAssembler.toModel(nebulaUser, UserFieldSet.ALL)).thenReturn(nebulaUserResponse);
 
         // Act
-        ResponseEntity<NebulaUserResponse> response = userController.getUserData(validToken);
+        ResponseEntity<NebulaUserResponse> response = userController.getUserData(validToken, null, null);
 
         // Assert
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(nebulaUserResponse, response.getBody());
+        assertNull(response.getHeaders().getETag());
         verify(tokenProvider, times(1)).isValid(validToken);
         verify(tokenProvider, times(1)).getUserId(validToken);
-        verify(userProvider, times(1)).get(userId);
-        verify(userModelAssembler, times(1)).toModel(nebulaUser);
+        verify(userProvider, times(1)).get(userId, UserFieldSet.ALL);
+        verify(userModelAssembler, times(1)).toModel(nebulaUser, UserFieldSet.ALL);
     }
 
     @Test
@@ -162,7 +189,7 @@ class UserControllerTest {
         when(tokenProvider.isValid(invalidToken)).thenReturn(false);
 
         // Act
-        ResponseEntity<NebulaUserResponse> response = userController.getUserData(invalidToken);
+        ResponseEntity<NebulaUserResponse> response = userController.getUserData(invalidToken, null, null);
 
         // Assert
         assertNotNull(response);
@@ -170,8 +197,8 @@ class UserControllerTest {
         assertNull(response.getBody());
         verify(tokenProvider, times(1)).isValid(invalidToken);
         verify(tokenProvider, never()).getUserId(any());
-        verify(userProvider, never()).get(any());
-        verify(userModelAssembler, never()).toModel(any());
+        verify(userProvider, never()).get(any(), any());
+        verify(userModelAssembler, never()).toModel(any(), any());
     }
 
     @Test
@@ -183,22 +210,392 @@ class UserControllerTest {
 
         // Act & Assert
         assertThrows(TokenExpiredException.class,
-                () -> userController.getUserData(expiredToken));
+                () -> userController.getUserData(expiredToken, null, null));
 
         // Verify interactions
         verify(tokenProvider).isValid(expiredToken);
         verify(tokenProvider, never()).getUserId(any());
-        verify(userProvider, never()).get(any());
-        verify(userModelAssembler, never()).toModel(any());
+        verify(userProvider, never()).get(any(), any());
+        verify(userModelAssembler, never()).toModel(any(), any());
+    }
+
+
+    @Test
+    void getUserData_sparseFields_loadsOnlyRequestedFields() {
+        // Arrange
+        UserFieldSet fields = UserFieldSet.parse("login,settings.sound");
+        when(tokenProvider.isValid(validToken)).thenReturn(true);
+        when(tokenProvider.getUserId(validToken)).thenReturn(userId);
+        when(userProvider.get(userId, fields)).thenReturn(nebulaUser);
+        when(userModelAssembler.toModel(nebulaUser, fields)).thenReturn(nebulaUserResponse);
+
+        // Act
+        ResponseEntity<NebulaUserResponse> response = userController.getUserData(validToken, "login,settings.sound", null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(userProvider, times(1)).get(userId, fields);
+    }
+
+    @Test
+    void getUserData_etagAvailable_returnsETagHeader() {
+        // Arrange
+        when(tokenProvider.isValid(validToken)).thenReturn(true);
+        when(tokenProvider.getUserId(validToken)).thenReturn(userId);
+        when(userProvider.getETag(userId, UserFieldSet.ALL)).thenReturn(Optional.of("\"1000-1-a\""));
+        when(userProvider.get(userId, UserFieldSet.ALL)).thenReturn(nebulaUser);
+        when(userModelAssembler.toModel(nebulaUser, UserFieldSet.ALL)).thenReturn(nebulaUserResponse);
+
+        // Act
+        ResponseEntity<NebulaUserResponse> response = userController.getUserData(validToken, null, "\"1000-0-a\"");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"1000-1-a\"", response.getHeaders().getETag());
+        assertEquals("no-cache, private", response.getHeaders().getCacheControl());
+        assertEquals(nebulaUserResponse, response.getBody());
+    }
+
+    @Test
+    void getUserData_matchingIfNoneMatch_returnsNotModifiedWithoutLoading() {
+        // Arrange
+        when(tokenProvider.isValid(validToken)).thenReturn(true);
+        when(tokenProvider.getUserId(validToken)).thenReturn(userId);
+        when(userProvider.getETag(userId, UserFieldSet.ALL)).thenReturn(Optional.of("\"1000-1-a\""));
+
+        // Act
+        ResponseEntity<NebulaUserResponse> response = userController.getUserData(validToken, null, "\"1000-1-a\"");
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"1000-1-a\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        verify(userProvider, never()).get(any(), any());
+        verifyNoInteractions(userModelAssembler);
+    }
+
+    @Test
+    void getUserData_unsupportedField_throwsInvalidFieldSelectionException() {
+        // Arrange
+        when(tokenProvider.isValid(validToken)).thenReturn(true);
+        when(tokenProvider.getUserId(validToken)).thenReturn(userId);
+
+        // Act & Assert
+        assertThrows(InvalidFieldSelectionException.class,
+                () -> userController.getUserData(validToken, "login,password", null));
+        verifyNoInteractions(userProvider);
+    }
+
+    @Test
+    void getUserProfile_validToken_returnsProfileWithETag() {
+        // Arrange
+        when(tokenProvider.isValid(validToken)).thenReturn(true);
+        when(tokenProvider.getUserId(validToken)).thenReturn(userId);
+        when(userProvider.getVersionedProfile(userId)).thenReturn(Optional.of(new VersionedProfile(nebulaUser, 3L)));
+        when(userModelAssembler.toModel(nebulaUser, UserFieldSet.PROFILE)).thenReturn(nebulaUserResponse);
+
+        // Act
+        ResponseEntity<NebulaUserResponse> response = userController.getUserProfile(validToken, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(nebulaUserResponse, response.getBody());
+        assertEquals(3L, nebulaUserResponse.getVersion());
+        assertNotNull(response.getHeaders().getETag());
+        assertEquals("no-cache, private", response.getHeaders().getCacheControl());
+        verify(userProvider, never()).get(anyLong(), any(UserFieldSet.class));
     }
 
+    @Test
+    void getUserProfile_cacheLagsDatabase_returnsDatabaseProfileWithItsVersion() {
+        // Arrange
+        NebulaUser stale = new NebulaUser(userId, "login", "email", "Old", null, 0, null, null, null, null, null, null);
+        NebulaUser stored = new NebulaUser(userId, "login", "email", "New", null, 0, null, null, null, null, null, null);
+        when(tokenProvider.isValid(validToken)).thenReturn(true);
+        when(tokenProvider.getUserId(validToken)).thenReturn(userId);
+        lenient().when(userProvider.get(userId, UserFieldSet.PROFILE)).thenReturn(stale);
+        when(userProvider.getVersionedProfile(userId)).thenReturn(Optional.of(new VersionedProfile(stored, 5L)));
+        when(userModelAssembler.toModel(stored, UserFieldSet.PROFILE)).thenReturn(nebulaUserResponse);
+
+        // Act
+        ResponseEntity<NebulaUserResponse> response = userController.getUserProfile(validToken, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(5L, nebulaUserResponse.getVersion());
+        verify(userModelAssembler, never()).toModel(stale, UserFieldSet.PROFILE);
+    }
+
+    @Test
+    void getUserProfile_unknownUser_returnsNotFound() {
+        // Arrange
+        when(tokenProvider.isValid(validToken)).thenReturn(true);
+        when(tokenProvider.getUserId(validToken)).thenReturn(userId);
+        when(userProvider.get(userId, UserFieldSet.PROFILE)).thenReturn(null);
+
+        // Act
+        ResponseEntity<NebulaUserResponse> response = userController.getUserProfile(validToken, null);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void getUserSettings_matchingIfNoneMatch_returnsNotModified() {
+        // Arrange
+        when(tokenProvider.isValid(validToken)).thenReturn(true);
+        when(tokenProvider.getUserId(validToken)).thenReturn(userId);
+        when(userProvider.get(userId, UserFieldSet.SETTINGS)).thenReturn(nebulaUser);
+        String etag = userController.getUserSettings(validToken, null, null).getHeaders().getETag();
+
+        // Act
+        ResponseEntity<UserSettingsResponse> response = userController.getUserSettings(validToken, null, etag);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(etag, response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void getUserSettings_changedSettings_returnsNewETag() {
+        // Arrange
+        when(tokenProvider.isValid(validToken)).thenReturn(true);
+        when(tokenProvider.getUserId(validToken)).thenReturn(userId);
+        when(userProvider.get(userId, UserFieldSet.SETTINGS)).thenReturn(nebulaUser);
+        String etag = userController.getUserSettings(validToken, null, null).getHeaders().getETag();
+        UserSettings changed = new UserSettings(userId, userSettings.general(),
+                new UserSettingsSound(userId, true, true, 80, 70, 60, 50));
+        when(userProvider.get(userId, UserFieldSet.SETTINGS)).thenReturn(new NebulaUser(userId, null, null, null,
+                null, 0, null, null, null, changed, null, null));
+
+        // Act
+        ResponseEntity<UserSettingsResponse> response = userController.getUserSettings(validToken, null, etag);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotEquals(etag, response.getHeaders().getETag());
+        assertTrue(response.getBody().getSound().muted());
+    }
+
+    @Test
+    void getUserSettings_unchangedSinceVersion_returnsNotModifiedWithoutLoading() {
+        // Arrange
+        when(tokenProvider.isValid(validToken)).thenReturn(true);
+        when(tokenProvider.getUserId(validToken)).thenReturn(userId);
+        when(userProvider.getSettingsVersion(userId)).thenReturn(Optional.of(new SettingsVersion(7, 3, 7)));
+
+        // Act
+        ResponseEntity<UserSettingsResponse> response = userController.getUserSettings(validToken, 7L, null);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        verify(userProvider, never()).get(anyLong(), any(UserFieldSet.class));
+    }
+
+    @Test
+    void getUserSettings_changedSinceVersion_returnsOnlyChangedGroups() {
+        // Arrange
+        when(tokenProvider.isValid(validToken)).thenReturn(true);
+        when(tokenProvider.getUserId(validToken)).thenReturn(userId);
+        when(userProvider.getSettingsVersion(userId)).thenReturn(Optional.of(new SettingsVersion(7, 3, 7)));
+        when(userProvider.getVersionedSettings(userId))
+                .thenReturn(Optional.of(new VersionedSettings(userSettings, new SettingsVersion(7, 3, 7))));
+
+        // Act
+        ResponseEntity<UserSettingsResponse> response = userController.getUserSettings(validToken, 5L, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(7L, response.getBody().getVersion());
+        assertNull(response.getBody().getGeneral());
+        assertEquals(userSettings.sound(), response.getBody().getSound());
+        assertNull(response.getHeaders().getETag());
+    }
+
+    @Test
+    void getUserSettings_cacheLagsDatabase_returnsDatabaseSettingsWithTheirVersion() {
+        // Arrange
+        UserSettings stored = new UserSettings(userId, userSettings.general(),
+                new UserSettingsSound(userId, true, true, 80, 70, 60, 50));
+        when(tokenProvider.isValid(validToken)).thenReturn(true);
+        when(tokenProvider.getUserId(validToken)).thenReturn(userId);
+        lenient().when(userProvider.get(userId, UserFieldSet.SETTINGS)).thenReturn(nebulaUser);
+        when(userProvider.getVersionedSettings(userId))
+                .thenReturn(Optional.of(new VersionedSettings(stored, new SettingsVersion(8, 3, 8))));
+
+        // Act
+        ResponseEntity<UserSettingsResponse> response = userController.getUserSettings(validToken, null, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(8L, response.getBody().getVersion());
+        assertEquals(stored.sound(), response.getBody().getSound());
+        verify(userProvider, never()).get(anyLong(), any(UserFieldSet.class));
+    }
+
+    @Test
+    void getUserSettings_versionNotKnown_returnsSettingsWithoutVersion() {
+        // Arrange
+        when(tokenProvider.isValid(validToken)).thenReturn(true);
+        when(tokenProvider.getUserId(validToken)).thenReturn(userId);
+        when(userProvider.getVersionedSettings(userId)).thenReturn(Optional.empty());
+        when(userProvider.get(userId, UserFieldSet.SETTINGS)).thenReturn(nebulaUser);
+
+        // Act
+        ResponseEntity<UserSettingsResponse> response = userController.getUserSettings(validToken, null, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getBody().getVersion());
+        assertEquals(userSettings.sound(), response.getBody().getSound());
+    }
+
+    @Test
+    void patchUserSettings_validToken_returnsSettingsWithVersion() {
+        // Arrange
+        UserSettingsPatchRequest request = new UserSettingsPatchRequest(userId, 7L, null,
+                new UserSettingsSoundPatchRequest(null, null, 40, null, null, null));
+        when(tokenProvider.isValid(validToken, userId)).thenReturn(true);
+        when(userUpdater.patchSettings(any(UserSettingsPatch.class)))
+                .thenReturn(new VersionedSettings(userSettings, new SettingsVersion(8, 3, 8)));
+
+        // Act
+        ResponseEntity<Response> response = userController.patchUserSettings(validToken, request);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(8L, ((UserSettingsResponse) response.getBody()).getVersion());
+        ArgumentCaptor<UserSettingsPatch> captor = ArgumentCaptor.forClass(UserSettingsPatch.class);
+        verify(userUpdater).patchSettings(captor.capture());
+        assertEquals(7L, captor.getValue().expectedVersion());
+        assertEquals(40, captor.getValue().volumeMaster());
+        assertNull(captor.getValue().theme());
+        assertNull(captor.getValue().muted());
+    }
+
+    @Test
+    void patchUserSettings_invalidToken_returnsForbidden() {
+        // Arrange
+        UserSettingsPatchRequest request = new UserSettingsPatchRequest(userId, null, null, null);
+        when(tokenProvider.isValid(validToken, userId)).thenReturn(false);
+
+        // Act
+        ResponseEntity<Response> response = userController.patchUserSettings(validToken, request);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(userUpdater, never()).patchSettings(any());
+    }
+
+    @Test
+    void getUserGames_validToken_returnsGamesWithMaxAge() {
+        // Arrange
+        Game game = new Game(1, "Game", true, "icon", "page");
+        when(tokenProvider.isValid(validToken)).thenReturn(true);
+        when(tokenProvider.getUserId(validToken)).thenReturn(userId);
+        when(userProvider.get(userId, UserFieldSet.GAMES)).thenReturn(new NebulaUser(userId, null, null, null,
+                null, 0, null, null, null, null, List.of(game), null));
+
+        // Act
+        ResponseEntity<List<GameResponse>> response = userController.getUserGames(validToken, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        assertEquals("Game", response.getBody().get(0).getName());
+        assertEquals("max-age=300, private", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void getUserGames_invalidToken_returnsForbidden() {
+        // Arrange
+        when(tokenProvider.isValid(validToken)).thenReturn(false);
+
+        // Act
+        ResponseEntity<List<GameResponse>> response = userController.getUserGames(validToken, null);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(userProvider);
+    }
+
+    @Test
+    void getUsersBatch_adminToken_returnsProfilesAndMissingIds() {
+        // Arrange
+        when(authorizationService.notContainsAdminRole(validToken)).thenReturn(false);
+        when(batchProvider.getProfiles(List.of(userId, 5L))).thenReturn(new UserBatch(List.of(nebulaUser), List.of(5L)));
+
+        // Act
+        ResponseEntity<UserBatchResponse> response = userController.getUsersBatch(validToken,
+                new UserBatchRequest(List.of(userId, 5L)));
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().users().size());
+        assertEquals("testuser", response.getBody().users().get(0).getLogin());
+        assertNull(response.getBody().users().get(0).getSettings());
+        assertEquals(List.of(5L), response.getBody().missing());
+    }
+
+    @Test
+    void getUsersBatch_nonAdminToken_returnsForbidden() {
+        // Arrange
+        when(authorizationService.notContainsAdminRole(validToken)).thenReturn(true);
+
+        // Act
+        ResponseEntity<UserBatchResponse> response = userController.getUsersBatch(validToken,
+                new UserBatchRequest(List.of(userId)));
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(batchProvider);
+    }
+
+    @Test
+    void searchUsers_adminToken_returnsProfilesAndNextCursor() {
+        // Arrange
+        when(authorizationService.notContainsAdminRole(validToken)).thenReturn(false);
+        when(searchProvider.search(any(UserSearchRequest.class))).thenReturn(new UserSearchPage(List.of(nebulaUser), "next"));
+
+        // Act
+        ResponseEntity<UserSearchResponse> response = userController.searchUsers(validToken, 10, "login", "asc", null,
+                "test", null, 1, null, 18, 30, null, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().users().size());
+        assertEquals("testuser", response.getBody().users().get(0).getLogin());
+        assertEquals("next", response.getBody().nextCursor());
+        ArgumentCaptor<UserSearchRequest> captor = ArgumentCaptor.forClass(UserSearchRequest.class);
+        verify(searchProvider).search(captor.capture());
+        assertEquals("test", captor.getValue().getLogin());
+        assertEquals(1, captor.getValue().getNationalityId());
+        assertEquals(18, captor.getValue().getMinAge());
+        assertEquals(30, captor.getValue().getMaxAge());
+    }
+
+    @Test
+    void searchUsers_nonAdminToken_returnsForbidden() {
+        // Arrange
+        when(authorizationService.notContainsAdminRole(validToken)).thenReturn(true);
+
+        // Act
+        ResponseEntity<UserSearchResponse> response = userController.searchUsers(validToken, 10, "id", "asc", null,
+                null, null, null, null, null, null, null, null);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(searchProvider);
+    }
 
     @Test
     void updateUserProfile_validTokenAndMatchingUserId_returnsUpdatedProfile() {
         // Arrange
         when(tokenProvider.isValid(validToken, userId)).thenReturn(true);
-        when(userUpdater.updateProfile(profileUpdateRequest)).thenReturn(nebulaUser);
-        when(userModelAssembler.toModel(nebulaUser)).thenReturn(nebulaUserResponse);
+        when(userUpdater.updateProfile(profileUpdateRequest)).thenReturn(new VersionedProfile(nebulaUser, 3L));
+        when(userModelAssembler.toModel(nebulaUser, UserFieldSet.PROFILE)).thenReturn(nebulaUserResponse);
 
         // Act
         ResponseEntity<Response> response = userController.updateUserProfile(validToken, profileUpdateRequest);
@@ -209,7 +606,46 @@ class UserControllerTest {
         assertEquals(nebulaUserResponse, response.getBody());
         verify(tokenProvider, times(1)).isValid(validToken, userId);
         verify(userUpdater, times(1)).updateProfile(profileUpdateRequest);
-        verify(userModelAssembler, times(1)).toModel(nebulaUser);
+        verify(userModelAssembler, times(1)).toModel(nebulaUser, UserFieldSet.PROFILE);
+    }
+
+    @Test
+    void updateUserProfile_written_returnsUpdatedProfileWithItsVersion() {
+        // Arrange
+        NebulaUser stored = new NebulaUser(userId, "login", "email", "New", null, 0, null, null, null, null, null, null);
+        when(tokenProvider.isValid(validToken, userId)).thenReturn(true);
+        when(userUpdater.updateProfile(profileUpdateRequest)).thenReturn(new VersionedProfile(stored, 6L));
+        when(userModelAssembler.toModel(stored, UserFieldSet.PROFILE)).thenReturn(nebulaUserResponse);
+
+        // Act
+        ResponseEntity<Response> response = userController.updateUserProfile(validToken, profileUpdateRequest);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(nebulaUserResponse, response.getBody());
+        assertEquals(6L, nebulaUserResponse.getVersion());
+        verify(userProvider, never()).getVersionedProfile(anyLong());
+    }
+
+    @Test
+    void updateUserProfile_staleExpectedVersion_returnsConflictWithCurrentProfile() {
+        // Arrange
+        when(tokenProvider.isValid(validToken, userId)).thenReturn(true);
+        when(userUpdater.updateProfile(profileUpdateRequest))
+                .thenThrow(new ProfileVersionConflictException("The profile has version 4, expected 3"));
+        when(userProvider.getVersionedProfile(userId)).thenReturn(Optional.of(new VersionedProfile(nebulaUser, 4L)));
+        when(userModelAssembler.toModel(nebulaUser, UserFieldSet.PROFILE)).thenReturn(nebulaUserResponse);
+
+        // Act
+        ResponseEntity<Response> response = userController.updateUserProfile(validToken, profileUpdateRequest);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        VersionConflictResponse body = (VersionConflictResponse) response.getBody();
+        assertEquals("VERSION_CONFLICT", body.error());
+        assertSame(nebulaUserResponse, body.current());
+        assertEquals(4L, nebulaUserResponse.getVersion());
+        verify(userProvider, never()).get(anyLong(), any(UserFieldSet.class));
     }
 
     @Test
@@ -274,6 +710,31 @@ class UserControllerTest {
         }
     }
 
+    @Test
+    void updateUserSettings_staleExpectedVersion_returnsConflictWithCurrentSettings() {
+        // Arrange
+        UserSettingsRequest request = new UserSettingsRequest(userId, null, null, 5L);
+        try (var mockedStaticUserSettingsMapper = mockStatic(UserSettingsMapper.class)) {
+            when(tokenProvider.isValid(validToken, userId)).thenReturn(true);
+            when(UserSettingsMapper.requestToSettings(request)).thenReturn(userSettings);
+            when(userUpdater.updateSettings(userSettings, 5L))
+                    .thenThrow(new SettingsVersionConflictException("The settings have version 6, expected 5"));
+            when(userProvider.getVersionedSettings(userId))
+                    .thenReturn(Optional.of(new VersionedSettings(userSettings, new SettingsVersion(6, 6, 4))));
+
+            // Act
+            ResponseEntity<Response> response = userController.updateUserSettings(validToken, request);
+
+            // Assert
+            assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+            VersionConflictResponse body = (VersionConflictResponse) response.getBody();
+            UserSettingsResponse current = (UserSettingsResponse) body.current();
+            assertEquals(6L, current.getVersion());
+            assertEquals(userSettings.sound(), current.getSound());
+            verify(userUpdater, never()).updateSettings(any());
+        }
+    }
+
     @Test
     void updateUserSettings_expiredToken_throwsTokenExpiredException() {
         // Arrange
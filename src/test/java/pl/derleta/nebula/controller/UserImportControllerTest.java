@@ -0,0 +1,86 @@
+package pl.derleta.nebula.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.derleta.nebula.domain.types.ImportFormat;
+import pl.derleta.nebula.service.AuthorizationService;
+import pl.derleta.nebula.service.UserImportUpdater;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportControllerTest {
+
+    @Mock
+    private UserImportUpdater updater;
+
+    @Mock
+    private AuthorizationService authorizationService;
+
+    @InjectMocks
+    private UserImportController controller;
+
+    private final String accessToken = "admin-token";
+
+    @Test
+    void importUsers_csvContentType_shouldStreamCsvImport() throws IOException {
+        // Arrange
+        HttpServletRequest request = new MockHttpServletRequest();
+        when(authorizationService.notContainsAdminRole(accessToken)).thenReturn(false);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = controller.importUsers(accessToken, "text/csv; charset=UTF-8", request);
+        assertNotNull(response.getBody());
+        response.getBody().writeTo(new ByteArrayOutputStream());
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        verify(updater).importUsers(any(), eq(ImportFormat.CSV), any());
+    }
+
+    @Test
+    void importUsers_ndjsonContentType_shouldStreamNdjsonImport() throws IOException {
+        // Arrange
+        when(authorizationService.notContainsAdminRole(accessToken)).thenReturn(false);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = controller.importUsers(accessToken,
+                MediaType.APPLICATION_NDJSON_VALUE, new MockHttpServletRequest());
+        assertNotNull(response.getBody());
+        response.getBody().writeTo(new ByteArrayOutputStream());
+
+        // Assert
+        verify(updater).importUsers(any(), eq(ImportFormat.NDJSON), any());
+    }
+
+    @Test
+    void importUsers_nonAdminToken_shouldReturnForbidden() {
+        // Arrange
+        when(authorizationService.notContainsAdminRole(accessToken)).thenReturn(true);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = controller.importUsers(accessToken,
+                MediaType.APPLICATION_NDJSON_VALUE, new MockHttpServletRequest());
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(updater);
+    }
+
+}
@@ -75,7 +75,7 @@ class UserModelAssemblerTest {
         UserModelAssembler assembler = new UserModelAssembler();
 
         try (MockedStatic<NebulaUserApiMapper> mockedStatic = Mockito.mockStatic(NebulaUserApiMapper.class)) {
-            mockedStatic.when(() -> NebulaUserApiMapper.toResponse(user)).thenReturn(response);
+            mockedStatic.when(() -> NebulaUserApiMapper.toResponse(user, UserFieldSet.ALL)).thenReturn(response);
 
             Link expectedLink = linkTo(UserController.class)
                     .slash(UserController.DEFAULT_PATH)
@@ -90,10 +90,11 @@ class UserModelAssemblerTest {
             assertThat(result.getLogin()).isEqualTo(user.login());
             assertThat(result.getEmail()).isEqualTo(user.email());
 
-            assertThat(result.getLinks()).containsExactly(expectedLink);
+            assertThat(result.getLinks()).containsExactly(expectedLink,
+                    subresourceLink("profile"), subresourceLink("settings"), subresourceLink("games"));
 
             // Verify static method
-            mockedStatic.verify(() -> NebulaUserApiMapper.toResponse(user), times(1));
+            mockedStatic.verify(() -> NebulaUserApiMapper.toResponse(user, UserFieldSet.ALL), times(1));
         }
     }
 
@@ -103,7 +104,7 @@ class UserModelAssemblerTest {
         UserModelAssembler assembler = new UserModelAssembler();
 
         try (MockedStatic<NebulaUserApiMapper> mockedStatic = Mockito.mockStatic(NebulaUserApiMapper.class)) {
-            mockedStatic.when(() -> NebulaUserApiMapper.toResponse(user)).thenReturn(response);
+            mockedStatic.when(() -> NebulaUserApiMapper.toResponse(user, UserFieldSet.ALL)).thenReturn(response);
 
             // Act
             NebulaUserResponse result = assembler.toModel(user);
@@ -123,8 +124,12 @@ class UserModelAssemblerTest {
             assertThat(result.getAchievements().size()).isEqualTo(user.achievements().size());
 
             // Verify static method
-            mockedStatic.verify(() -> NebulaUserApiMapper.toResponse(user), times(1));
+            mockedStatic.verify(() -> NebulaUserApiMapper.toResponse(user, UserFieldSet.ALL), times(1));
         }
     }
 
+    private Link subresourceLink(String name) {
+        return linkTo(UserController.class).slash(UserController.DEFAULT_PATH).slash(name).withRel(name);
+    }
+
 }
@@ -6,6 +6,7 @@ import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.derleta.nebula.controller.response.NebulaUserResponse;
+import pl.derleta.nebula.controller.response.SparseNebulaUserResponse;
 import pl.derleta.nebula.domain.mapper.NebulaUserAchievementMapper;
 import pl.derleta.nebula.domain.model.*;
 
@@ -84,4 +85,27 @@ class NebulaUserApiMapperTest {
         );
     }
 
+    @Test
+    void toResponse_sparseFields_returnsOnlyRequestedFields() throws Exception {
+        // Arrange
+        UserSettingsSound sound = new UserSettingsSound(1000L, false, true, 80, 70, 60, 50);
+        UserSettings settings = new UserSettings(1000L, new UserSettingsGeneral(1000L, new Theme(1, "Dark")), sound);
+        NebulaUser nebulaUser = new NebulaUser(1000L, "user", null, null, null, 0, null, null, null,
+                settings, null, null);
+
+        // Act
+        NebulaUserResponse result = NebulaUserApiMapper.toResponse(nebulaUser, UserFieldSet.parse("login,settings.sound"));
+        String json = new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(result);
+
+        // Assert
+        assertInstanceOf(SparseNebulaUserResponse.class, result);
+        assertEquals("user", result.getLogin());
+        assertNull(result.getAge());
+        assertNull(result.getSettings().general());
+        assertEquals(sound, result.getSettings().sound());
+        assertFalse(json.contains("\"age\""));
+        assertFalse(json.contains("\"games\""));
+        assertTrue(json.contains("\"login\":\"user\""));
+    }
+
 }
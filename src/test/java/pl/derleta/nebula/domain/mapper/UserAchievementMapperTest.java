@@ -211,4 +211,34 @@ class UserAchievementMapperTest {
         }
     }
 
+    @Test
+    void toUserAchievements_storedRowInCatalogue_reusesCatalogueAchievement() {
+        // Arrange
+        UserAchievementId id = new UserAchievementId();
+        id.setUserId(1000L);
+        id.setAchievementId(2);
+
+        UserAchievementEntity entity = new UserAchievementEntity();
+        entity.setId(id);
+        entity.setProgress(5000);
+        entity.setLevel(1);
+        entity.setValue(50);
+
+        Achievement first = new Achievement(1, "Achievement 1", 0, 100, "Description 1", "http://example.com/icon1.png", List.of());
+        Achievement second = new Achievement(2, "Achievement 2", 0, 100, "Description 2", "http://example.com/icon2.png", List.of());
+
+        try (MockedStatic<AchievementMapper> mockedStatic = Mockito.mockStatic(AchievementMapper.class)) {
+            // Act
+            List<UserAchievement> result = UserAchievementMapper.toUserAchievements(1000L, List.of(entity), List.of(second, first));
+
+            // Assert
+            assertEquals(2, result.size());
+            assertEquals(1, result.get(0).achievementId());
+            assertEquals(0, result.get(0).value());
+            assertEquals(50, result.get(1).value());
+            assertSame(second, result.get(1).achievement());
+            mockedStatic.verifyNoInteractions();
+        }
+    }
+
 }
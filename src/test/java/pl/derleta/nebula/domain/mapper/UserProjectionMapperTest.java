@@ -0,0 +1,85 @@
+package pl.derleta.nebula.domain.mapper;
+
+import org.junit.jupiter.api.Test;
+import pl.derleta.nebula.domain.model.Achievement;
+import pl.derleta.nebula.domain.model.Game;
+import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.domain.model.Theme;
+import pl.derleta.nebula.domain.model.UserAchievement;
+import pl.derleta.nebula.domain.projection.GameView;
+import pl.derleta.nebula.domain.projection.UserAchievementValueView;
+import pl.derleta.nebula.domain.projection.UserProfileView;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserProjectionMapperTest {
+
+    @Test
+    void toUser_viewWithoutRelations_returnsUserWithNullRelations() {
+        // Arrange
+        UserProfileView view = new UserProfileView(1000L, "user", "user@example.com", null, null,
+                null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null, null, null);
+
+        // Act
+        NebulaUser result = UserProjectionMapper.toUser(view, Collections.emptyList(), Collections.emptyList());
+
+        // Assert
+        assertEquals(1000L, result.id());
+        assertEquals(0, result.age());
+        assertNull(result.gender());
+        assertNull(result.nationality());
+        assertNull(result.settings());
+        assertTrue(result.games().isEmpty());
+    }
+
+    @Test
+    void toUser_viewWithSettingsDocument_returnsSettingsOfDocument() {
+        // Arrange
+        UserProfileView view = new UserProfileView(1000L, "user", "user@example.com", null, null,
+                null, null, null, null, null, null, null, null, null,
+                1000L, 1000L, 1, "Light", 1000L, false, true, 100, 100, 100, 100,
+                "{\"themeId\": 2, \"themeName\": \"Dark\", \"muted\": true, \"volumeMaster\": 40}");
+
+        // Act
+        NebulaUser result = UserProjectionMapper.toUser(view, null, null);
+
+        // Assert
+        assertEquals(new Theme(2, "Dark"), result.settings().general().theme());
+        assertTrue(result.settings().sound().muted());
+        assertEquals(40, result.settings().sound().volumeMaster());
+    }
+
+    @Test
+    void toGame_nullEnable_returnsDisabledGame() {
+        // Act
+        Game result = UserProjectionMapper.toGame(new GameView(1, "Game", null, "icon", "page"));
+
+        // Assert
+        assertEquals(new Game(1, "Game", false, "icon", "page"), result);
+    }
+
+    @Test
+    void toUserAchievements_mergesValuesWithCatalogueAndSkipsUnknownAchievements() {
+        // Arrange
+        Achievement first = new Achievement(1, "First", 0, 100, "First", "icon1", List.of());
+        Achievement second = new Achievement(2, "Second", 0, 100, "Second", "icon2", List.of());
+        List<UserAchievementValueView> values = List.of(
+                new UserAchievementValueView(2, 50, 1, 5000),
+                new UserAchievementValueView(3, 10, 0, 1000));
+
+        // Act
+        List<UserAchievement> result = UserProjectionMapper.toUserAchievements(1000L, values, List.of(second, first));
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(0, result.get(0).value());
+        assertEquals(50, result.get(1).value());
+        assertEquals("50,00%", result.get(1).progress());
+        assertSame(second, result.get(1).achievement());
+    }
+
+}
@@ -0,0 +1,66 @@
+package pl.derleta.nebula.domain.mapper;
+
+import org.junit.jupiter.api.Test;
+import pl.derleta.nebula.domain.model.Theme;
+import pl.derleta.nebula.domain.model.UserSettings;
+import pl.derleta.nebula.domain.model.UserSettingsGeneral;
+import pl.derleta.nebula.domain.model.UserSettingsSound;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSettingsDocumentMapperTest {
+
+    @Test
+    void toDocument_validSettings_returnsDocumentReadBackAsSameSettings() {
+        // Arrange
+        UserSettings settings = new UserSettings(1000L, new UserSettingsGeneral(1000L, new Theme(2, "Dark")),
+                new UserSettingsSound(1000L, true, false, 80, 70, 60, 50));
+
+        // Act
+        String document = UserSettingsDocumentMapper.toDocument(settings);
+        UserSettings result = UserSettingsDocumentMapper.toSettings(1000L, document, true, true);
+
+        // Assert
+        assertEquals(settings, result);
+    }
+
+    @Test
+    void toSettings_documentOfMigrationScript_acceptsFlagsAsNumbers() {
+        // Arrange
+        String document = """
+                {"themeId": 17, "themeName": "Default", "muted": 1, "battleCry": 0,
+                 "volumeMaster": 90, "volumeMusic": 80, "volumeEffects": 70, "volumeVoices": 60}""";
+
+        // Act
+        UserSettings result = UserSettingsDocumentMapper.toSettings(1000L, document, true, true);
+
+        // Assert
+        assertEquals(new Theme(17, "Default"), result.general().theme());
+        assertTrue(result.sound().muted());
+        assertFalse(result.sound().battleCry());
+        assertEquals(60, result.sound().volumeVoices());
+    }
+
+    @Test
+    void toSettings_onlySoundRequested_returnsNullGeneralSettings() {
+        // Arrange
+        String document = "{\"themeId\": 17, \"themeName\": \"Default\", \"volumeMaster\": 90}";
+
+        // Act
+        UserSettings result = UserSettingsDocumentMapper.toSettings(1000L, document, false, true);
+
+        // Assert
+        assertNull(result.general());
+        assertEquals(90, result.sound().volumeMaster());
+        assertEquals(100, result.sound().volumeMusic());
+        assertTrue(result.sound().battleCry());
+    }
+
+    @Test
+    void toSettings_invalidDocument_throwsIllegalStateException() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> UserSettingsDocumentMapper.toSettings(1000L, "not a document", true, true));
+    }
+
+}
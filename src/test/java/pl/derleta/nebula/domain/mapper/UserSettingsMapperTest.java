@@ -210,4 +210,28 @@ class UserSettingsMapperTest {
         }
     }
 
+    @Test
+    void hasSameValues_sameThemeIdWithoutName_returnsTrue() {
+        // Arrange
+        UserSettingsSound sound = new UserSettingsSound(1000L, false, true, 80, 70, 60, 50);
+        UserSettings stored = new UserSettings(1000L, new UserSettingsGeneral(1000L, new Theme(2, "Dark")), sound);
+        UserSettings requested = new UserSettings(1000L, new UserSettingsGeneral(1000L, new Theme(2, null)), sound);
+
+        // Act & Assert
+        assertTrue(UserSettingsMapper.hasSameValues(stored, requested));
+    }
+
+    @Test
+    void hasSameValues_changedVolume_returnsFalse() {
+        // Arrange
+        UserSettingsGeneral general = new UserSettingsGeneral(1000L, new Theme(2, "Dark"));
+        UserSettings stored = new UserSettings(1000L, general,
+                new UserSettingsSound(1000L, false, true, 80, 70, 60, 50));
+        UserSettings requested = new UserSettings(1000L, general,
+                new UserSettingsSound(1000L, false, true, 81, 70, 60, 50));
+
+        // Act & Assert
+        assertFalse(UserSettingsMapper.hasSameValues(stored, requested));
+    }
+
 }
@@ -0,0 +1,49 @@
+package pl.derleta.nebula.domain.model;
+
+import org.junit.jupiter.api.Test;
+import pl.derleta.nebula.exceptions.InvalidFieldSelectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserFieldSetTest {
+
+    @Test
+    void parse_nullOrBlank_returnsAllFields() {
+        // Act & Assert
+        assertSame(UserFieldSet.ALL, UserFieldSet.parse(null));
+        assertSame(UserFieldSet.ALL, UserFieldSet.parse(" "));
+        assertTrue(UserFieldSet.ALL.isAll());
+    }
+
+    @Test
+    void parse_sparseFields_includesIdAndRequestedFieldsOnly() {
+        // Act
+        UserFieldSet result = UserFieldSet.parse("login, settings.sound");
+
+        // Assert
+        assertTrue(result.includes("id"));
+        assertTrue(result.includes("login"));
+        assertTrue(result.includes("settings"));
+        assertTrue(result.includes("settings.sound"));
+        assertFalse(result.includes("settings.general"));
+        assertFalse(result.includes("achievements"));
+        assertFalse(result.isAll());
+    }
+
+    @Test
+    void parse_settings_selectsGeneralAndSound() {
+        // Act
+        UserFieldSet result = UserFieldSet.parse("settings");
+
+        // Assert
+        assertTrue(result.includes("settings.general"));
+        assertTrue(result.includes("settings.sound"));
+    }
+
+    @Test
+    void parse_unsupportedField_throwsInvalidFieldSelectionException() {
+        // Act & Assert
+        assertThrows(InvalidFieldSelectionException.class, () -> UserFieldSet.parse("login,password"));
+    }
+
+}
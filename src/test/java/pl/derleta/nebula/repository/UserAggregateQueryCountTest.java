@@ -0,0 +1,68 @@
+package pl.derleta.nebula.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.service.AchievementCatalogue;
+import pl.derleta.nebula.service.UserProvider;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Regression test of the number of SQL statements needed to load the complete user aggregate.
+ * The count must not grow with the number of games and achievements of the user.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserAggregateQueryCountTest {
+
+    private static final long MAX_AGGREGATE_QUERIES = 3;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserProvider userProvider;
+
+    @Autowired
+    private AchievementCatalogue catalogue;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        catalogue.getAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void get_existingUser_shouldLoadAggregateInFixedNumberOfQueries() {
+        // Act
+        NebulaUser user = userProvider.get(1000L);
+
+        // Assert
+        assertNotNull(user);
+        assertNotNull(user.settings());
+        assertFalse(user.achievements().isEmpty());
+        assertTrue(statistics.getPrepareStatementCount() <= MAX_AGGREGATE_QUERIES,
+                "Statements executed: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void get_missingUser_shouldExecuteSingleQuery() {
+        // Act
+        NebulaUser user = userProvider.get(-1L);
+
+        // Assert
+        assertNull(user);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+}
@@ -0,0 +1,111 @@
+package pl.derleta.nebula.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import pl.derleta.nebula.domain.model.UserFieldSet;
+import pl.derleta.nebula.domain.projection.UserProfileView;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserRepositoryCustomImplTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TypedQuery<Tuple> query;
+
+    @InjectMocks
+    private UserRepositoryCustomImpl repository;
+
+    @Test
+    void findProfileViewById_loginAndSound_selectsOnlyRequestedColumnsAndJoins() {
+        // Arrange
+        Tuple tuple = mock(Tuple.class, withSettings().strictness(Strictness.LENIENT));
+        when(tuple.get("id", Long.class)).thenReturn(1000L);
+        when(tuple.get("login", String.class)).thenReturn("user");
+        when(tuple.get("volumeMaster", Integer.class)).thenReturn(80);
+        when(entityManager.createQuery(anyString(), eq(Tuple.class))).thenReturn(query);
+        when(query.setParameter("userId", 1000L)).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(tuple));
+
+        // Act
+        Optional<UserProfileView> result = repository.findProfileViewById(1000L, UserFieldSet.parse("login,settings.sound"));
+
+        // Assert
+        ArgumentCaptor<String> jpql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager).createQuery(jpql.capture(), eq(Tuple.class));
+        assertTrue(jpql.getValue().contains("u.login AS login"));
+        assertTrue(jpql.getValue().contains("LEFT JOIN s.sound so"));
+        assertFalse(jpql.getValue().contains("u.email"));
+        assertFalse(jpql.getValue().contains("u.gender"));
+        assertFalse(jpql.getValue().contains("u.nationality"));
+        assertFalse(jpql.getValue().contains("s.general"));
+        assertTrue(result.isPresent());
+        assertEquals("user", result.get().login());
+        assertEquals(80, result.get().volumeMaster());
+        assertNull(result.get().email());
+        verify(tuple, never()).get(eq("email"), any());
+    }
+
+    @Test
+    void findProfileViewById_idOnly_queriesWithoutJoins() {
+        // Arrange
+        when(entityManager.createQuery(anyString(), eq(Tuple.class))).thenReturn(query);
+        when(query.setParameter("userId", 1000L)).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of());
+
+        // Act
+        Optional<UserProfileView> result = repository.findProfileViewById(1000L, UserFieldSet.parse("id"));
+
+        // Assert
+        verify(entityManager).createQuery("SELECT u.id AS id FROM UserEntity u WHERE u.id = :userId", Tuple.class);
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void updateProfileFields_lastNameOnly_updatesOnlyThatColumnIfChanged() {
+        // Arrange
+        Query update = mock(Query.class);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(update);
+        when(update.setParameter(anyString(), any())).thenReturn(update);
+        when(update.executeUpdate()).thenReturn(1);
+
+        // Act
+        int result = repository.updateProfileFields(1000L, null, "Smith", null, null, null, null);
+
+        // Assert
+        assertEquals(1, result);
+        verify(entityManager).createNativeQuery(
+                "UPDATE users SET last_name = :last_name, updated_at = CURRENT_TIMESTAMP(6), version = version + 1"
+                        + " WHERE id = :userId AND (NOT last_name <=> :last_name)");
+        verify(update).setParameter("last_name", "Smith");
+        verify(update).setParameter("userId", 1000L);
+    }
+
+    @Test
+    void updateProfileFields_noValues_doesNotQuery() {
+        // Act
+        int result = repository.updateProfileFields(1000L, null, null, null, null, null, null);
+
+        // Assert
+        assertEquals(0, result);
+        verifyNoInteractions(entityManager);
+    }
+
+}
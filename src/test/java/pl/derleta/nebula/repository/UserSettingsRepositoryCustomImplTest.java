@@ -0,0 +1,95 @@
+package pl.derleta.nebula.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.derleta.nebula.domain.entity.ThemeEntity;
+import pl.derleta.nebula.domain.model.Theme;
+import pl.derleta.nebula.domain.model.UserSettings;
+import pl.derleta.nebula.domain.model.UserSettingsGeneral;
+import pl.derleta.nebula.domain.model.UserSettingsSound;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSettingsRepositoryCustomImplTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Query query;
+
+    @InjectMocks
+    private UserSettingsRepositoryCustomImpl repository;
+
+    private final long userId = 1000L;
+
+    @BeforeEach
+    void setUp() {
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+    }
+
+    @Test
+    void writeSettings_tablesModeStaleVersion_shouldNotMergeRows() {
+        // Arrange
+        when(query.executeUpdate()).thenReturn(0);
+
+        // Act
+        UserSettings result = repository.writeSettings(settings(), true, true, 4L);
+
+        // Assert
+        assertNull(result);
+        verify(entityManager).createNativeQuery(contains("AND version = :expectedVersion"));
+        verify(entityManager, never()).merge(any());
+    }
+
+    @Test
+    void writeSettings_documentModeStaleVersion_shouldNotLookUpTheme() {
+        // Arrange
+        ReflectionTestUtils.setField(repository, "documentStorage", true);
+        when(query.executeUpdate()).thenReturn(0);
+
+        // Act
+        UserSettings result = repository.writeSettings(settings(), true, false, 4L);
+
+        // Assert
+        assertNull(result);
+        verify(entityManager, never()).find(eq(ThemeEntity.class), any());
+        verify(entityManager, times(1)).createNativeQuery(anyString());
+    }
+
+    @Test
+    void writeSettings_documentModeExpectedVersion_shouldWriteDocumentAfterVersionCheck() {
+        // Arrange
+        ReflectionTestUtils.setField(repository, "documentStorage", true);
+        when(query.executeUpdate()).thenReturn(1);
+        when(entityManager.find(ThemeEntity.class, 1)).thenReturn(new ThemeEntity(1, "Dark"));
+
+        // Act
+        UserSettings result = repository.writeSettings(settings(), true, false, 4L);
+
+        // Assert
+        assertEquals("Dark", result.general().theme().name());
+        InOrder inOrder = inOrder(entityManager);
+        inOrder.verify(entityManager).createNativeQuery(contains("AND version = :expectedVersion"));
+        inOrder.verify(entityManager).find(ThemeEntity.class, 1);
+        inOrder.verify(entityManager).createNativeQuery("UPDATE user_settings SET document = :document WHERE user_id = :userId");
+    }
+
+    private UserSettings settings() {
+        return new UserSettings(userId, new UserSettingsGeneral(userId, new Theme(1, "Old")),
+                new UserSettingsSound(userId, false, true, 80, 70, 60, 50));
+    }
+
+}
@@ -0,0 +1,83 @@
+package pl.derleta.nebula.repository.filter;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+import pl.derleta.nebula.domain.entity.UserEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UsersSpecificationsTest {
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void hasLoginPrefix_ValueWithWildcards_ReturnsEscapedPrefixPredicate() {
+        // Arrange
+        Specification<UserEntity> specification = UsersSpecifications.hasLoginPrefix("jo_n%");
+
+        Root<UserEntity> root = mock(Root.class);
+        CriteriaQuery<?> query = mock(CriteriaQuery.class);
+        CriteriaBuilder cb = mock(CriteriaBuilder.class);
+        Path<Object> login = mock(Path.class);
+        Predicate predicate = mock(Predicate.class);
+
+        when(root.get("login")).thenReturn(login);
+        when(cb.like(any(Path.class), eq("jo\\_n\\%%"), eq('\\'))).thenReturn(predicate);
+
+        // Act
+        Predicate result = specification.toPredicate(root, query, cb);
+
+        // Assert
+        assertEquals(predicate, result);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void hasAllFilters_NoValues_ReturnsNoPredicate() {
+        // Arrange
+        Specification<UserEntity> specification = UsersSpecifications.hasAllFilters(null, "", null, null,
+                null, null, null, null);
+
+        Root<UserEntity> root = mock(Root.class);
+        CriteriaQuery<?> query = mock(CriteriaQuery.class);
+        CriteriaBuilder cb = mock(CriteriaBuilder.class);
+
+        // Act
+        Predicate result = specification.toPredicate(root, query, cb);
+
+        // Assert
+        assertNull(result);
+        verifyNoInteractions(cb);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void isAfter_SortById_ReturnsIdPredicateOnly() {
+        // Arrange
+        Specification<UserEntity> specification = UsersSpecifications.isAfter("id", false, null, 10L);
+
+        Root<UserEntity> root = mock(Root.class);
+        CriteriaQuery<?> query = mock(CriteriaQuery.class);
+        CriteriaBuilder cb = mock(CriteriaBuilder.class);
+        Path<Object> id = mock(Path.class);
+        Predicate predicate = mock(Predicate.class);
+
+        when(root.get("id")).thenReturn(id);
+        when(cb.lessThan(any(Path.class), eq(10L))).thenReturn(predicate);
+
+        // Act
+        Predicate result = specification.toPredicate(root, query, cb);
+
+        // Assert
+        assertEquals(predicate, result);
+        verify(cb, never()).or(any(), any());
+    }
+
+}
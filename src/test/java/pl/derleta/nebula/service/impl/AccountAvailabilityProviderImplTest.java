@@ -0,0 +1,174 @@
+package pl.derleta.nebula.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import pl.derleta.nebula.repository.UserProvisioningRepository;
+import pl.derleta.nebula.repository.UserRepository;
+
+import java.sql.ResultSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountAvailabilityProviderImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserProvisioningRepository provisioningRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private AccountAvailabilityProviderImpl availabilityProvider;
+
+    @BeforeEach
+    void setUp() {
+        availabilityProvider = new AccountAvailabilityProviderImpl(userRepository, provisioningRepository, jdbcTemplate,
+                100, 0.01);
+    }
+
+    @AfterEach
+    void tearDown() {
+        availabilityProvider.shutdown();
+    }
+
+    @Test
+    void isLoginAvailable_beforeRebuild_shouldQueryDatabase() {
+        // Arrange
+        when(userRepository.existsByLogin("user1")).thenReturn(true);
+
+        // Act
+        boolean result = availabilityProvider.isLoginAvailable("user1");
+
+        // Assert
+        assertFalse(result);
+        verify(userRepository).existsByLogin("user1");
+    }
+
+    @Test
+    void isLoginAvailable_valueMissingFromFilter_shouldNotQueryDatabase() throws Exception {
+        // Arrange
+        rebuildWith("user1", "user1@example.com");
+
+        // Act
+        boolean result = availabilityProvider.isLoginAvailable("free_login");
+
+        // Assert
+        assertTrue(result);
+        verify(userRepository, never()).existsByLogin(anyString());
+        verify(provisioningRepository, never()).existsByLogin(anyString());
+    }
+
+    @Test
+    void isLoginAvailable_possibleMatch_shouldConfirmWithDatabase() throws Exception {
+        // Arrange
+        rebuildWith("user1", "user1@example.com");
+        when(userRepository.existsByLogin("User1")).thenReturn(true);
+
+        // Act
+        boolean result = availabilityProvider.isLoginAvailable("User1");
+
+        // Assert
+        assertFalse(result);
+        verify(userRepository).existsByLogin("User1");
+    }
+
+    @Test
+    void isEmailAvailable_possibleMatchQueuedInOutbox_shouldReturnFalse() throws Exception {
+        // Arrange
+        rebuildWith("user1", "user1@example.com");
+        when(userRepository.existsByEmail("user1@example.com")).thenReturn(false);
+        when(provisioningRepository.existsByEmail("user1@example.com")).thenReturn(true);
+
+        // Act
+        boolean result = availabilityProvider.isEmailAvailable("user1@example.com");
+
+        // Assert
+        assertFalse(result);
+    }
+
+    @Test
+    void register_afterRebuild_shouldMakeValueAPossibleMatch() throws Exception {
+        // Arrange
+        rebuildWith("user1", "user1@example.com");
+        availabilityProvider.register("user2", "user2@example.com");
+        when(userRepository.existsByEmail("user2@example.com")).thenReturn(false);
+        when(provisioningRepository.existsByEmail("user2@example.com")).thenReturn(true);
+
+        // Act
+        boolean result = availabilityProvider.isEmailAvailable("user2@example.com");
+
+        // Assert
+        assertFalse(result);
+        verify(provisioningRepository).existsByEmail("user2@example.com");
+    }
+
+    @Test
+    void onApplicationReady_shouldBuildFiltersOnBackgroundThread() throws Exception {
+        // Arrange
+        Thread caller = Thread.currentThread();
+        AtomicReference<Thread> scanThread = new AtomicReference<>();
+        CountDownLatch scanned = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            scanThread.set(Thread.currentThread());
+            scanned.countDown();
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        // Act
+        availabilityProvider.onApplicationReady();
+
+        // Assert
+        assertTrue(scanned.await(5, TimeUnit.SECONDS));
+        assertNotSame(caller, scanThread.get());
+    }
+
+    @Test
+    void scheduleRebuild_rebuildInProgress_shouldNotSubmitAnotherOne() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        availabilityProvider.scheduleRebuild();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        availabilityProvider.scheduleRebuild();
+        release.countDown();
+
+        // Assert
+        verify(jdbcTemplate, after(200).times(1)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private void rebuildWith(String login, String email) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getString("login")).thenReturn(login);
+        when(resultSet.getString("email")).thenReturn(email);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        availabilityProvider.rebuild();
+    }
+
+}
@@ -1,32 +1,28 @@
 package pl.derleta.nebula.service.impl;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
 import pl.derleta.nebula.controller.request.*;
 import pl.derleta.nebula.controller.response.AccountResponse;
 import pl.derleta.nebula.controller.response.JwtTokenResponse;
-import pl.derleta.nebula.domain.entity.GenderEntity;
-import pl.derleta.nebula.domain.entity.NationalityEntity;
-import pl.derleta.nebula.domain.entity.UserEntity;
-import pl.derleta.nebula.domain.rest.Role;
-import pl.derleta.nebula.domain.rest.UserAccount;
-import pl.derleta.nebula.domain.rest.UserRoles;
 import pl.derleta.nebula.domain.types.AccountResponseType;
-import pl.derleta.nebula.repository.*;
+import pl.derleta.nebula.service.AccountAvailabilityProvider;
+import pl.derleta.nebula.service.RegistrationValidator;
+import pl.derleta.nebula.service.UserProvisioningUpdater;
 import pl.derleta.nebula.util.HttpAuthClient;
 
 import java.sql.Date;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @SpringBootTest
 class AccountUpdaterImplTest {
@@ -35,25 +31,13 @@ class AccountUpdaterImplTest {
     private HttpAuthClient httpAuthServClient;
 
     @Mock
-    private UserSettingsRepository settingsRepository;
+    private UserProvisioningUpdater provisioningUpdater;
 
     @Mock
-    private UsersGamesRepository gamesRepository;
+    private RegistrationValidator registrationValidator;
 
     @Mock
-    private UserRepository userRepository;
-
-    @Mock
-    private NationalityRepository nationalityRepository;
-
-    @Mock
-    private GenderRepository genderRepository;
-
-    @Mock
-    private GameRepository gameRepository;
-
-    @Mock
-    private AchievementRepository achievementRepository;
+    private AccountAvailabilityProvider availabilityProvider;
 
     @InjectMocks
     private AccountUpdaterImpl accountUpdater;
@@ -61,11 +45,6 @@ class AccountUpdaterImplTest {
     @Test
     void register_shouldReturnSuccessResponse_whenRegistrationIsSuccessful() {
         // Arrange
-        NationalityEntity mockNationality = new NationalityEntity(1, "United States", "USA", null);
-        when(nationalityRepository.findById(anyInt())).thenReturn(Optional.of(mockNationality));
-        GenderEntity mockGender = new GenderEntity(1, "Male");
-        when(genderRepository.findById(anyInt())).thenReturn(Optional.of(mockGender));
-
         AccountRegistrationRequest registrationRequest = AccountRegistrationRequest.builder()
                 .login("username")
                 .email("email@example.com")
@@ -78,27 +57,43 @@ class AccountUpdaterImplTest {
         AccountResponse authServResponse = new AccountResponse(true, AccountResponseType.VERIFICATION_MAIL_FROM_REGISTRATION);
         when(accountUpdater.httpAuthServClient.registerUser(any(AuthServRegistrationRequest.class)))
                 .thenReturn(authServResponse);
+        UserProvisioningUpdater.Reservation reservation = getReservation();
+        when(provisioningUpdater.reserve(registrationRequest)).thenReturn(Optional.of(reservation));
 
-        UserAccount mockUserAccount = new UserAccount(1L, "testUSer", "test@mail.com");
-        UserRoles mockUserRoles = new UserRoles(mockUserAccount, Set.of(new Role(1, "USER_ROLE")));
-
-        when(accountUpdater.httpAuthServClient.getAccount(registrationRequest)).thenReturn(mockUserRoles);
+        // Act
+        AccountResponse response = accountUpdater.register(registrationRequest);
 
-        UserEntity mockUserEntity = new UserEntity();
-        mockUserEntity.setId(1L);
-        mockUserEntity.setLogin("username");
-        mockUserEntity.setEmail("email@example.com");
-        mockUserEntity.setBirthDate(Date.valueOf("1990-01-01"));
-        mockUserEntity.setAge(33);
-        mockUserEntity.setUpdatedAt(Instant.now());
+        // Assert
+        assertEquals(authServResponse, response);
+        InOrder inOrder = inOrder(provisioningUpdater, httpAuthServClient);
+        inOrder.verify(provisioningUpdater).reserve(registrationRequest);
+        inOrder.verify(httpAuthServClient).registerUser(any(AuthServRegistrationRequest.class));
+        inOrder.verify(provisioningUpdater).activate(reservation);
+        verify(provisioningUpdater, never()).cancel(any());
+        verify(availabilityProvider, times(1)).register("username", "email@example.com");
+        verify(httpAuthServClient, never()).getAccount(any());
+    }
 
-        when(userRepository.save(any())).thenReturn(mockUserEntity);
+    @Test
+    void register_shouldRejectWithoutRemoteCall_whenLocalValidationFails() {
+        // Arrange
+        AccountRegistrationRequest registrationRequest = AccountRegistrationRequest.builder()
+                .login("username")
+                .email("email@example.com")
+                .password("password")
+                .birthdate(Date.valueOf("1990-01-01"))
+                .nationality(999)
+                .gender(1)
+                .build();
+        when(registrationValidator.validate(registrationRequest))
+                .thenReturn(Optional.of(AccountResponseType.NEBULA_INVALID_NATIONALITY));
 
         // Act
         AccountResponse response = accountUpdater.register(registrationRequest);
 
         // Assert
-        assertEquals(authServResponse, response);
+        assertEquals(new AccountResponse(false, AccountResponseType.NEBULA_INVALID_NATIONALITY), response);
+        verifyNoInteractions(httpAuthServClient, provisioningUpdater);
     }
 
     @Test
@@ -115,6 +110,27 @@ class AccountUpdaterImplTest {
         assertEquals(expectedResponse, response);
     }
 
+    @Test
+    void register_shouldRejectWithoutRemoteCall_whenLoginAlreadyInOutbox() {
+        // Arrange
+        AccountRegistrationRequest registrationRequest = AccountRegistrationRequest.builder()
+                .login("username")
+                .email("email@example.com")
+                .password("password")
+                .birthdate(Date.valueOf("1990-01-01"))
+                .nationality(1)
+                .gender(1)
+                .build();
+        when(provisioningUpdater.reserve(registrationRequest)).thenReturn(Optional.empty());
+
+        // Act
+        AccountResponse response = accountUpdater.register(registrationRequest);
+
+        // Assert
+        assertEquals(new AccountResponse(false, AccountResponseType.LOGIN_IS_NOT_UNIQUE), response);
+        verifyNoInteractions(httpAuthServClient, availabilityProvider);
+    }
+
     @Test
     void register_shouldReturnFailureResponse_whenNebulaRegistrationFails() {
         // Arrange
@@ -127,18 +143,17 @@ class AccountUpdaterImplTest {
                 .gender(1)
                 .build();
 
-        AccountResponse expectedResponse = new AccountResponse(false, AccountResponseType.NEBULA_BAD_REGISTRATION_RESPONSE_INSTANCE);
+        AccountResponse expectedResponse = new AccountResponse(false, AccountResponseType.USER_NOT_CREATED_IN_NEBULA_DB);
 
-        when(accountUpdater.httpAuthServClient.registerUser(any(AuthServRegistrationRequest.class)))
-                .thenReturn(new AccountResponse(false, AccountResponseType.NEBULA_BAD_REGISTRATION_RESPONSE_INSTANCE));
-        when(accountUpdater.httpAuthServClient.getAccount(registrationRequest)).thenReturn(new UserRoles());
-        when(userRepository.save(any())).thenReturn(null);
+        when(provisioningUpdater.reserve(registrationRequest))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
 
         // Act
         AccountResponse response = accountUpdater.register(registrationRequest);
 
         // Assert
         assertEquals(expectedResponse, response);
+        verifyNoInteractions(httpAuthServClient);
     }
 
     @Test
@@ -164,12 +179,16 @@ class AccountUpdaterImplTest {
         when(httpAuthServClient.registerUser(authServRequest)).thenReturn(authServResponse);
         when(httpAuthServClient.registerUser(any(AuthServRegistrationRequest.class)))
                 .thenReturn(new AccountResponse(false, AccountResponseType.NEBULA_BAD_REGISTRATION_RESPONSE_INSTANCE));
+        UserProvisioningUpdater.Reservation reservation = getReservation();
+        when(provisioningUpdater.reserve(registrationRequest)).thenReturn(Optional.of(reservation));
 
         // Act
         AccountResponse response = accountUpdater.register(registrationRequest);
 
         // Assert
         assertEquals(authServResponse, response);
+        verify(provisioningUpdater).cancel(reservation);
+        verify(provisioningUpdater, never()).activate(any());
     }
 
     @Test
@@ -376,4 +395,9 @@ class AccountUpdaterImplTest {
         assertEquals(expectedResponse, response);
     }
 
+    private UserProvisioningUpdater.Reservation getReservation() {
+        Instant reservedAt = Instant.parse("2025-01-01T10:00:00Z");
+        return new UserProvisioningUpdater.Reservation("username", reservedAt, reservedAt.plusSeconds(60));
+    }
+
 }
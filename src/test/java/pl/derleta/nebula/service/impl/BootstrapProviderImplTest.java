@@ -0,0 +1,77 @@
+package pl.derleta.nebula.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.derleta.nebula.domain.model.Bootstrap;
+import pl.derleta.nebula.domain.model.Game;
+import pl.derleta.nebula.domain.model.Gender;
+import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.domain.model.Theme;
+import pl.derleta.nebula.service.BootstrapProvider;
+import pl.derleta.nebula.service.ReferenceDataCatalogue;
+import pl.derleta.nebula.service.UserProvider;
+import pl.derleta.nebula.util.ETagUtil;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BootstrapProviderImplTest {
+
+    @Mock
+    private UserProvider userProvider;
+
+    @Mock
+    private ReferenceDataCatalogue referenceData;
+
+    @InjectMocks
+    private BootstrapProviderImpl bootstrapProvider;
+
+    @Test
+    void get_existingUser_shouldCombineUserWithReferenceData() {
+        // Arrange
+        NebulaUser user = new NebulaUser(1L, "login", "email@example.com", "John", "Doe", 30, null, null, null,
+                null, Collections.emptyList(), Collections.emptyList());
+        List<Game> games = List.of(new Game(1, "Game", true, null, null));
+        List<Theme> themes = List.of(new Theme(1, "Dark"));
+        List<Gender> genders = List.of(new Gender(1, "Male"));
+        when(userProvider.get(1L)).thenReturn(user);
+        when(referenceData.getVersions()).thenReturn(Map.of(ReferenceDataCatalogue.THEMES, "a1"));
+        when(referenceData.getEnabledGames()).thenReturn(games);
+        when(referenceData.getThemes()).thenReturn(themes);
+        when(referenceData.getGenders()).thenReturn(genders);
+        when(referenceData.getNationalities()).thenReturn(List.of());
+
+        // Act
+        Bootstrap result = bootstrapProvider.get(1L);
+
+        // Assert
+        assertSame(user, result.user());
+        assertEquals(games, result.enabledGames());
+        assertEquals(themes, result.themes());
+        assertEquals(genders, result.genders());
+        assertEquals("a1", result.versions().get(ReferenceDataCatalogue.THEMES));
+        assertEquals(ETagUtil.contentVersion(user), result.versions().get(BootstrapProvider.USER));
+    }
+
+    @Test
+    void get_missingUser_shouldReturnNullWithoutReadingReferenceData() {
+        // Arrange
+        when(userProvider.get(1L)).thenReturn(null);
+
+        // Act
+        Bootstrap result = bootstrapProvider.get(1L);
+
+        // Assert
+        assertNull(result);
+        verifyNoInteractions(referenceData);
+    }
+
+}
@@ -0,0 +1,155 @@
+package pl.derleta.nebula.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import pl.derleta.nebula.service.DegradedReadGuard;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DegradedReadGuardImplTest {
+
+    private DegradedReadGuardImpl guard;
+
+    @AfterEach
+    void tearDown() {
+        if (guard != null) guard.shutdown();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void read_disabled_shouldCallLoaderOnCallingThread() {
+        // Arrange
+        guard = new DegradedReadGuardImpl(false, 300, 5000);
+        Thread caller = Thread.currentThread();
+
+        // Act
+        Thread result = guard.read("key", Thread::currentThread, () -> Optional.of(caller));
+
+        // Assert
+        assertSame(caller, result);
+        assertFalse(guard.isDegraded());
+    }
+
+    @Test
+    void read_databaseHealthy_shouldReturnLoadedValue() {
+        // Arrange
+        guard = new DegradedReadGuardImpl(true, 300, 5000);
+
+        // Act
+        String result = guard.read("key", () -> "fresh", () -> Optional.of("stale"));
+
+        // Assert
+        assertEquals("fresh", result);
+        assertFalse(guard.isDegraded());
+    }
+
+    @Test
+    void read_connectionFailure_shouldServeStaleAndMarkRequest() {
+        // Arrange
+        guard = new DegradedReadGuardImpl(true, 300, 5000);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // Act
+        String result = guard.read("key", () -> {
+            throw new CannotCreateTransactionException("pool exhausted");
+        }, () -> Optional.of("stale"));
+
+        // Assert
+        assertEquals("stale", result);
+        assertTrue(guard.isDegraded());
+        assertEquals(Boolean.TRUE, request.getAttribute(DegradedReadGuard.STALE_ATTRIBUTE));
+    }
+
+    @Test
+    void read_overLatencyBudget_shouldServeStale() throws InterruptedException {
+        // Arrange
+        guard = new DegradedReadGuardImpl(true, 20, 5000);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Act
+        String result = guard.read("key", () -> {
+            await(release);
+            return "fresh";
+        }, () -> Optional.of("stale"));
+        boolean degraded = guard.isDegraded();
+        release.countDown();
+
+        // Assert
+        assertEquals("stale", result);
+        assertTrue(degraded);
+    }
+
+    @Test
+    void read_degraded_shouldServeStaleAndRevalidateOnceInBackground() throws InterruptedException {
+        // Arrange
+        guard = new DegradedReadGuardImpl(true, 300, 5000);
+        guard.read("key", () -> {
+            throw new DataAccessResourceFailureException("down");
+        }, () -> Optional.of("stale"));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        String first = guard.read("key", () -> revalidate(loads, release), () -> Optional.of("stale"));
+        String second = guard.read("key", () -> revalidate(loads, release), () -> Optional.of("stale"));
+        release.countDown();
+
+        // Assert
+        assertEquals("stale", first);
+        assertEquals("stale", second);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (guard.isDegraded() && System.nanoTime() < deadline) Thread.sleep(10);
+        assertFalse(guard.isDegraded());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void read_degradedWithoutStaleValue_shouldFail() {
+        // Arrange
+        guard = new DegradedReadGuardImpl(true, 300, 5000);
+
+        // Act & Assert
+        assertThrows(CannotCreateTransactionException.class, () -> guard.read("key", () -> {
+            throw new CannotCreateTransactionException("pool exhausted");
+        }, Optional::empty));
+        assertTrue(guard.isDegraded());
+    }
+
+    @Test
+    void read_otherFailure_shouldNotServeStale() {
+        // Arrange
+        guard = new DegradedReadGuardImpl(true, 300, 5000);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> guard.read("key", () -> {
+            throw new IllegalStateException("bug");
+        }, () -> Optional.of("stale")));
+        assertFalse(guard.isDegraded());
+    }
+
+    private static String revalidate(AtomicInteger loads, CountDownLatch release) {
+        loads.incrementAndGet();
+        await(release);
+        return "fresh";
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -13,6 +13,10 @@ import pl.derleta.nebula.domain.model.Game;
 import pl.derleta.nebula.exceptions.GameAlreadyExistsException;
 import pl.derleta.nebula.exceptions.GameNotFoundException;
 import pl.derleta.nebula.repository.GameRepository;
+import pl.derleta.nebula.repository.UserRepository;
+import pl.derleta.nebula.service.ReferenceDataCatalogue;
+import pl.derleta.nebula.service.UserBackfillUpdater;
+import pl.derleta.nebula.service.UserCache;
 
 import java.util.Optional;
 
@@ -29,6 +33,18 @@ class GameUpdaterImplTest {
     @Mock
     private GameRepository repository;
 
+    @Mock
+    private UserBackfillUpdater backfillUpdater;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private ReferenceDataCatalogue referenceData;
+
     @InjectMocks
     private GameUpdaterImpl gameUpdater;
 
@@ -67,6 +83,7 @@ class GameUpdaterImplTest {
         verify(repository, times(1)).existsById(1);
         verify(repository, times(1)).findByName("Test Game");
         verify(repository, times(1)).save(any(GameEntity.class));
+        verify(backfillUpdater, times(1)).scheduleGameBackfill(1);
     }
 
     @Test
@@ -140,6 +157,31 @@ class GameUpdaterImplTest {
         verify(repository, times(1)).findById(1);
         verify(repository, times(1)).findByNameOtherThanSelfId(1, "Updated Game");
         verify(repository, times(1)).save(any(GameEntity.class));
+        verify(userRepository, times(1)).updateUpdatedAtByGameId(1);
+        verify(userCache, times(1)).invalidateAll();
+        verify(referenceData, times(1)).refreshAfterCommit();
+    }
+
+    @Test
+    void update_shouldReturnStoredGameWithoutWrite_whenNothingChanged() {
+        // Arrange
+        Game game = new Game(1, "Test Game", true, "https://icon.com", "https://page.com");
+        GameEntity existingEntity = new GameEntity();
+        existingEntity.setId(1);
+        existingEntity.setName("Test Game");
+        existingEntity.setEnable(true);
+        existingEntity.setIconUrl("https://icon.com");
+        existingEntity.setPageUrl("https://page.com");
+        when(repository.findById(1)).thenReturn(Optional.of(existingEntity));
+
+        // Act
+        Game result = gameUpdater.update(game);
+
+        // Assert
+        assertEquals(game, result);
+        verify(repository, never()).findByNameOtherThanSelfId(anyInt(), anyString());
+        verify(repository, never()).save(any(GameEntity.class));
+        verifyNoInteractions(userRepository, userCache, referenceData);
     }
 
     @Test
@@ -207,6 +249,7 @@ class GameUpdaterImplTest {
         assertEquals("Game with id 1 deleted.", response.getBody());
         verify(repository, times(1)).findById(gameId);
         verify(repository, times(1)).delete(existingEntity);
+        verify(userRepository, times(1)).updateUpdatedAtByGameId(gameId);
     }
 
     @Test
@@ -223,6 +266,7 @@ class GameUpdaterImplTest {
         assertNull(response.getBody());
         verify(repository, times(1)).findById(gameId);
         verify(repository, never()).delete(any(GameEntity.class));
+        verify(userRepository, never()).updateUpdatedAtByGameId(anyInt());
     }
 
 }
@@ -4,12 +4,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import pl.derleta.nebula.domain.entity.GenderEntity;
 import pl.derleta.nebula.domain.model.Gender;
 import pl.derleta.nebula.exceptions.GenderNotFoundException;
 import pl.derleta.nebula.repository.GenderRepository;
+import pl.derleta.nebula.service.DegradedReadGuard;
+import pl.derleta.nebula.service.ReferenceDataCatalogue;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -26,6 +29,12 @@ class GenderProviderImplTest {
     @Mock
     private GenderRepository repository;
 
+    @Mock
+    private ReferenceDataCatalogue referenceData;
+
+    @Spy
+    private DegradedReadGuard guard = new DegradedReadGuardImpl(false, 300, 5000);
+
     @InjectMocks
     private GenderProviderImpl genderProvider;
 
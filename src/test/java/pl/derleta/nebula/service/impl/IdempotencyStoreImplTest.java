@@ -0,0 +1,169 @@
+package pl.derleta.nebula.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import pl.derleta.nebula.exceptions.IdempotencyKeyReusedException;
+import pl.derleta.nebula.exceptions.IdempotentRequestInProgressException;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreImplTest {
+
+    @Test
+    void execute_withoutKey_shouldAlwaysExecuteAction() {
+        // Arrange
+        IdempotencyStoreImpl store = new IdempotencyStoreImpl(60000, 10, 1000);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        store.execute(null, "scope", "fp", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        store.execute(" ", "scope", "fp", () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+        // Assert
+        assertEquals(2, calls.get());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void execute_sameKeyAndFingerprint_shouldReturnStoredResponse() {
+        // Arrange
+        IdempotencyStoreImpl store = new IdempotencyStoreImpl(60000, 10, 1000);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        ResponseEntity<Integer> first = store.execute("key", "scope", "fp", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        ResponseEntity<Integer> second = store.execute("key", "scope", "fp", () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+        // Assert
+        assertEquals(1, calls.get());
+        assertSame(first, second);
+    }
+
+    @Test
+    void execute_sameKeyInDifferentScope_shouldExecuteAgain() {
+        // Arrange
+        IdempotencyStoreImpl store = new IdempotencyStoreImpl(60000, 10, 1000);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        store.execute("key", "register", "fp", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        store.execute("key", "token", "fp", () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+        // Assert
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_sameKeyDifferentFingerprint_shouldThrowIdempotencyKeyReusedException() {
+        // Arrange
+        IdempotencyStoreImpl store = new IdempotencyStoreImpl(60000, 10, 1000);
+        store.execute("key", "scope", "fp-1", () -> ResponseEntity.ok(1));
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> store.execute("key", "scope", "fp-2", () -> ResponseEntity.ok(2)));
+    }
+
+    @Test
+    void execute_serverErrorResponse_shouldNotBeStored() {
+        // Arrange
+        IdempotencyStoreImpl store = new IdempotencyStoreImpl(60000, 10, 1000);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        store.execute("key", "scope", "fp", () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        });
+        ResponseEntity<Object> retry = store.execute("key", "scope", "fp", () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.ok().build();
+        });
+
+        // Assert
+        assertEquals(2, calls.get());
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+    }
+
+    @Test
+    void execute_concurrentDuplicate_shouldWaitForFirstRequest() throws Exception {
+        // Arrange
+        IdempotencyStoreImpl store = new IdempotencyStoreImpl(60000, 10, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<Integer>> first = executor.submit(() -> store.execute("key", "scope", "fp", () -> {
+                started.countDown();
+                await(release);
+                return ResponseEntity.ok(calls.incrementAndGet());
+            }));
+            started.await();
+            Future<ResponseEntity<Integer>> duplicate = executor.submit(
+                    () -> store.execute("key", "scope", "fp", () -> ResponseEntity.ok(calls.incrementAndGet())));
+
+            // Act
+            release.countDown();
+
+            // Assert
+            assertEquals(1, first.get(5, TimeUnit.SECONDS).getBody());
+            assertEquals(1, duplicate.get(5, TimeUnit.SECONDS).getBody());
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_duplicateWaitingTooLong_shouldThrowIdempotentRequestInProgressException() throws Exception {
+        // Arrange
+        IdempotencyStoreImpl store = new IdempotencyStoreImpl(60000, 10, 50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> store.execute("key", "scope", "fp", () -> {
+                started.countDown();
+                await(release);
+                return ResponseEntity.ok(1);
+            }));
+            started.await();
+
+            // Act & Assert
+            assertThrows(IdempotentRequestInProgressException.class,
+                    () -> store.execute("key", "scope", "fp", () -> ResponseEntity.ok(2)));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_storeFull_shouldEvictOldestCompletedEntries() {
+        // Arrange
+        IdempotencyStoreImpl store = new IdempotencyStoreImpl(60000, 2, 1000);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            int value = i;
+            store.execute("key-" + i, "scope", "fp", () -> ResponseEntity.ok(value));
+        }
+
+        // Assert
+        assertTrue(store.size() <= 3);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import pl.derleta.nebula.domain.entity.NationalityEntity;
@@ -12,6 +13,8 @@ import pl.derleta.nebula.domain.model.Nationality;
 import pl.derleta.nebula.domain.model.Region;
 import pl.derleta.nebula.exceptions.NationalityNotFoundException;
 import pl.derleta.nebula.repository.NationalityRepository;
+import pl.derleta.nebula.service.DegradedReadGuard;
+import pl.derleta.nebula.service.ReferenceDataCatalogue;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -28,6 +31,12 @@ class NationalityProviderImplTest {
     @Mock
     private NationalityRepository repository;
 
+    @Mock
+    private ReferenceDataCatalogue referenceData;
+
+    @Spy
+    private DegradedReadGuard guard = new DegradedReadGuardImpl(false, 300, 5000);
+
     @InjectMocks
     private NationalityProviderImpl nationalityProvider;
 
@@ -0,0 +1,128 @@
+package pl.derleta.nebula.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.derleta.nebula.controller.request.AccountRegistrationRequest;
+import pl.derleta.nebula.domain.types.AccountResponseType;
+import pl.derleta.nebula.service.ReferenceDataCatalogue;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RegistrationValidatorImplTest {
+
+    @Mock
+    private ReferenceDataCatalogue catalogue;
+
+    @InjectMocks
+    private RegistrationValidatorImpl validator;
+
+    @Test
+    void validate_validRequest_shouldReturnEmpty() {
+        // Arrange
+        when(catalogue.containsNationality(1)).thenReturn(true);
+        when(catalogue.containsGender(2)).thenReturn(true);
+
+        // Act
+        Optional<AccountResponseType> result = validator.validate(request("user_1", "user@example.com", "secret1",
+                Date.valueOf("1990-01-01"), 1, 2));
+
+        // Assert
+        assertEquals(Optional.empty(), result);
+    }
+
+    @Test
+    void validate_invalidLogin_shouldReturnInvalidLogin() {
+        // Act
+        Optional<AccountResponseType> result = validator.validate(request("a b", "user@example.com", "secret1",
+                Date.valueOf("1990-01-01"), 1, 2));
+
+        // Assert
+        assertEquals(Optional.of(AccountResponseType.NEBULA_INVALID_LOGIN), result);
+        verifyNoInteractions(catalogue);
+    }
+
+    @Test
+    void validate_invalidEmail_shouldReturnInvalidEmail() {
+        // Act
+        Optional<AccountResponseType> result = validator.validate(request("user", "user.example.com", "secret1",
+                Date.valueOf("1990-01-01"), 1, 2));
+
+        // Assert
+        assertEquals(Optional.of(AccountResponseType.NEBULA_INVALID_EMAIL), result);
+    }
+
+    @Test
+    void validate_anyPassword_shouldBeLeftToAuthorizationServer() {
+        // Arrange
+        when(catalogue.containsNationality(1)).thenReturn(true);
+        when(catalogue.containsGender(2)).thenReturn(true);
+
+        // Act
+        Optional<AccountResponseType> result = validator.validate(request("user", "user@example.com", "abc",
+                Date.valueOf("1900-01-01"), 1, 2));
+
+        // Assert
+        assertEquals(Optional.empty(), result);
+    }
+
+    @Test
+    void validate_missingOrFutureBirthdate_shouldReturnInvalidBirthdate() {
+        // Act
+        Optional<AccountResponseType> missing = validator.validate(request("user", "user@example.com", "secret1",
+                null, 1, 2));
+        Optional<AccountResponseType> future = validator.validate(request("user", "user@example.com", "secret1",
+                Date.valueOf(LocalDate.now().plusDays(1)), 1, 2));
+
+        // Assert
+        assertEquals(Optional.of(AccountResponseType.NEBULA_INVALID_BIRTHDATE), missing);
+        assertEquals(Optional.of(AccountResponseType.NEBULA_INVALID_BIRTHDATE), future);
+    }
+
+    @Test
+    void validate_unknownNationality_shouldReturnInvalidNationality() {
+        // Arrange
+        when(catalogue.containsNationality(999)).thenReturn(false);
+
+        // Act
+        Optional<AccountResponseType> result = validator.validate(request("user", "user@example.com", "secret1",
+                Date.valueOf("1990-01-01"), 999, 2));
+
+        // Assert
+        assertEquals(Optional.of(AccountResponseType.NEBULA_INVALID_NATIONALITY), result);
+    }
+
+    @Test
+    void validate_missingGender_shouldReturnInvalidGender() {
+        // Arrange
+        when(catalogue.containsNationality(1)).thenReturn(true);
+
+        // Act
+        Optional<AccountResponseType> result = validator.validate(request("user", "user@example.com", "secret1",
+                Date.valueOf("1990-01-01"), 1, null));
+
+        // Assert
+        assertEquals(Optional.of(AccountResponseType.NEBULA_INVALID_GENDER), result);
+    }
+
+    private AccountRegistrationRequest request(String login, String email, String password, Date birthdate,
+                                               Integer nationality, Integer gender) {
+        return AccountRegistrationRequest.builder()
+                .login(login)
+                .email(email)
+                .password(password)
+                .birthdate(birthdate)
+                .nationality(nationality)
+                .gender(gender)
+                .build();
+    }
+
+}
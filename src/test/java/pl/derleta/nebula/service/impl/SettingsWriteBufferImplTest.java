@@ -0,0 +1,409 @@
+package pl.derleta.nebula.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.derleta.nebula.domain.model.SettingsVersion;
+import pl.derleta.nebula.domain.model.Theme;
+import pl.derleta.nebula.domain.model.UserSettings;
+import pl.derleta.nebula.domain.model.UserSettingsGeneral;
+import pl.derleta.nebula.domain.model.UserSettingsPatch;
+import pl.derleta.nebula.domain.model.UserSettingsSound;
+import pl.derleta.nebula.exceptions.SettingsVersionConflictException;
+import pl.derleta.nebula.repository.ThemeRepository;
+import pl.derleta.nebula.repository.UserRepository;
+import pl.derleta.nebula.repository.UserSettingsRepository;
+import pl.derleta.nebula.service.SettingsWriteBuffer;
+import pl.derleta.nebula.service.UserCache;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SettingsWriteBufferImplTest {
+
+    @Mock
+    private UserSettingsRepository settingsRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserCache cache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SettingsWriteBufferImpl writeBuffer;
+
+    private final long userId = 1000L;
+
+    @BeforeEach
+    void setUp() {
+        writeBuffer = new SettingsWriteBufferImpl(settingsRepository, userRepository, cache, transactionManager,
+                true, 60_000, 120_000, 5, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBuffer.shutdown();
+    }
+
+    @Test
+    void submit_rapidUpdates_shouldWriteOnlyLatestSettingsOnce() {
+        // Arrange
+        when(settingsRepository.writeSettings(any(UserSettings.class), eq(true), eq(true), isNull()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        writeBuffer.submit(settings(10));
+        writeBuffer.submit(settings(20));
+        writeBuffer.submit(settings(30));
+
+        // Act
+        int flushed = writeBuffer.flushAll();
+
+        // Assert
+        assertEquals(1, flushed);
+        ArgumentCaptor<UserSettings> captor = ArgumentCaptor.forClass(UserSettings.class);
+        verify(settingsRepository, times(1)).writeSettings(captor.capture(), eq(true), eq(true), isNull());
+        assertEquals(30, captor.getValue().sound().volumeMaster());
+        verify(userRepository, times(1)).updateUserUpdatedAt(userId);
+        assertEquals(new SettingsWriteBuffer.Stats(3, 2, 1, 0, 0, 0), writeBuffer.stats());
+    }
+
+    @Test
+    void getPending_beforeWrite_shouldReturnLatestSettings() {
+        // Arrange
+        writeBuffer.submit(settings(10));
+        writeBuffer.submit(settings(20));
+
+        // Act & Assert
+        assertEquals(20, writeBuffer.getPending(userId).orElseThrow().sound().volumeMaster());
+        verify(cache, times(2)).update(eq(userId), any());
+        verifyNoInteractions(settingsRepository);
+    }
+
+    @Test
+    void flush_written_shouldClearPendingSettings() {
+        // Arrange
+        when(settingsRepository.writeSettings(any(UserSettings.class), eq(true), eq(true), isNull()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        writeBuffer.submit(settings(10));
+
+        // Act
+        boolean result = writeBuffer.flush(userId);
+
+        // Assert
+        assertTrue(result);
+        assertTrue(writeBuffer.getPending(userId).isEmpty());
+        assertFalse(writeBuffer.flush(userId));
+    }
+
+    @Test
+    void flush_settingsMovedBackToStored_shouldNotWrite() {
+        // Arrange
+        when(settingsRepository.findSettingsById(userId)).thenReturn(Optional.of(settings(10)));
+        writeBuffer.submit(settings(40));
+        writeBuffer.submit(settings(10));
+
+        // Act
+        boolean result = writeBuffer.flush(userId);
+
+        // Assert
+        assertTrue(result);
+        assertTrue(writeBuffer.getPending(userId).isEmpty());
+        verify(settingsRepository, never()).writeSettings(any(), anyBoolean(), anyBoolean(), any());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void flush_transientFailure_shouldKeepPendingSettingsForRetry() {
+        // Arrange
+        when(settingsRepository.writeSettings(any(UserSettings.class), eq(true), eq(true), isNull()))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+        writeBuffer.submit(settings(10));
+
+        // Act
+        assertThrows(DataAccessResourceFailureException.class, () -> writeBuffer.flush(userId));
+
+        // Assert
+        assertEquals(Optional.of(settings(10)), writeBuffer.getPending(userId));
+        verify(cache, never()).invalidate(userId);
+        assertEquals(1, writeBuffer.stats().failed());
+        assertEquals(0, writeBuffer.stats().dropped());
+    }
+
+    @Test
+    void flush_nonTransientFailure_shouldDropPendingSettingsAndInvalidateCachedUser() {
+        // Arrange
+        when(settingsRepository.writeSettings(any(UserSettings.class), eq(true), eq(true), isNull()))
+                .thenThrow(new DataIntegrityViolationException("theme does not exist"));
+        writeBuffer.submit(settings(10));
+
+        // Act
+        assertThrows(DataIntegrityViolationException.class, () -> writeBuffer.flush(userId));
+
+        // Assert
+        assertTrue(writeBuffer.getPending(userId).isEmpty());
+        verify(cache).invalidate(userId);
+        assertEquals(1, writeBuffer.stats().dropped());
+    }
+
+    @Test
+    void flush_attemptsExhausted_shouldDropPendingSettings() {
+        // Arrange
+        writeBuffer.shutdown();
+        writeBuffer = new SettingsWriteBufferImpl(settingsRepository, userRepository, cache, transactionManager,
+                true, 60_000, 120_000, 2, 1000);
+        when(settingsRepository.writeSettings(any(UserSettings.class), eq(true), eq(true), isNull()))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+        writeBuffer.submit(settings(10));
+        assertThrows(DataAccessResourceFailureException.class, () -> writeBuffer.flush(userId));
+
+        // Act
+        assertThrows(DataAccessResourceFailureException.class, () -> writeBuffer.flush(userId));
+
+        // Assert
+        assertTrue(writeBuffer.getPending(userId).isEmpty());
+        verify(cache).invalidate(userId);
+        assertEquals(new SettingsWriteBuffer.Stats(1, 0, 0, 2, 1, 0), writeBuffer.stats());
+    }
+
+    @Test
+    void sweeper_transientFailure_shouldRetryAfterBackoff() {
+        // Arrange
+        writeBuffer.shutdown();
+        writeBuffer = new SettingsWriteBufferImpl(settingsRepository, userRepository, cache, transactionManager,
+                true, 20, 1000, 5, 20);
+        when(settingsRepository.writeSettings(any(UserSettings.class), eq(true), eq(true), isNull()))
+                .thenThrow(new CannotAcquireLockException("lock wait timeout"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        writeBuffer.submit(settings(10));
+
+        // Assert
+        verify(userRepository, timeout(2000)).updateUserUpdatedAt(userId);
+        verify(settingsRepository, times(2)).writeSettings(any(UserSettings.class), eq(true), eq(true), isNull());
+        assertEquals(0, writeBuffer.stats().dropped());
+    }
+
+    @Test
+    void flush_slowWriteOfAnotherUser_shouldNotWait() throws Exception {
+        // Arrange
+        long otherUserId = 2000L;
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(settingsRepository.writeSettings(any(UserSettings.class), eq(true), eq(true), isNull()))
+                .thenAnswer(invocation -> {
+                    UserSettings written = invocation.getArgument(0);
+                    if (written.userId() == otherUserId) {
+                        writing.countDown();
+                        release.await(5, TimeUnit.SECONDS);
+                    }
+                    return written;
+                });
+        writeBuffer.submit(new UserSettings(otherUserId, new UserSettingsGeneral(otherUserId, new Theme(1, "Dark")),
+                new UserSettingsSound(otherUserId, false, true, 10, 70, 60, 50)));
+        writeBuffer.submit(settings(10));
+        CompletableFuture<Boolean> slow = CompletableFuture.supplyAsync(() -> writeBuffer.flush(otherUserId));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        // Act
+        CompletableFuture<Boolean> result = CompletableFuture.supplyAsync(() -> writeBuffer.flush(userId));
+
+        // Assert
+        boolean written = result.get(2, TimeUnit.SECONDS);
+        release.countDown();
+        assertTrue(written);
+        assertTrue(slow.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void sweeper_quietPeriodPassed_shouldWriteInBackground() {
+        // Arrange
+        writeBuffer.shutdown();
+        writeBuffer = new SettingsWriteBufferImpl(settingsRepository, userRepository, cache, transactionManager,
+                true, 20, 1000, 5, 1000);
+        when(settingsRepository.writeSettings(any(UserSettings.class), eq(true), eq(true), isNull()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        writeBuffer.submit(settings(10));
+
+        // Assert
+        verify(userRepository, timeout(2000)).updateUserUpdatedAt(userId);
+    }
+
+    @Test
+    void shutdown_pendingSettings_shouldBeWritten() {
+        // Arrange
+        when(settingsRepository.writeSettings(any(UserSettings.class), eq(true), eq(true), isNull()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        writeBuffer.submit(settings(10));
+
+        // Act
+        writeBuffer.shutdown();
+
+        // Assert
+        verify(settingsRepository, times(1)).writeSettings(any(UserSettings.class), eq(true), eq(true), isNull());
+        assertEquals(0, writeBuffer.stats().pending());
+    }
+
+    @Test
+    void flush_insideCallerTransactionRolledBack_shouldKeepWrittenSettings() {
+        // Arrange
+        RecordingTransactionManager recordingManager = new RecordingTransactionManager();
+        writeBuffer.shutdown();
+        writeBuffer = new SettingsWriteBufferImpl(settingsRepository, userRepository, cache, recordingManager,
+                true, 60_000, 120_000, 5, 1000);
+        when(settingsRepository.writeSettings(any(UserSettings.class), eq(true), eq(true), isNull()))
+                .thenAnswer(invocation -> recordingManager.record(invocation.getArgument(0)));
+        writeBuffer.submit(settings(30));
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> new TransactionTemplate(recordingManager).executeWithoutResult(status -> {
+            writeBuffer.flush(userId);
+            throw new IllegalStateException("caller failed");
+        }));
+
+        // Assert
+        assertEquals(1, recordingManager.committed.size());
+        assertEquals(30, recordingManager.committed.get(0).sound().volumeMaster());
+        assertTrue(writeBuffer.getPending(userId).isEmpty());
+    }
+
+    @Test
+    void patchSettings_bufferedUpdateThenStaleVersion_shouldKeepBufferedSettings() {
+        // Arrange
+        RecordingTransactionManager recordingManager = new RecordingTransactionManager();
+        writeBuffer.shutdown();
+        writeBuffer = new SettingsWriteBufferImpl(settingsRepository, userRepository, cache, recordingManager,
+                true, 60_000, 120_000, 5, 1000);
+        UserUpdaterImpl updater = new UserUpdaterImpl(userRepository, settingsRepository, cache, writeBuffer,
+                mock(ThemeRepository.class));
+        when(settingsRepository.findSettingsById(userId)).thenReturn(Optional.of(settings(10)));
+        when(settingsRepository.writeSettings(any(UserSettings.class), eq(true), eq(true), isNull()))
+                .thenAnswer(invocation -> recordingManager.record(invocation.getArgument(0)));
+        when(settingsRepository.findVersionById(userId)).thenReturn(Optional.of(new SettingsVersion(5, 5, 5)));
+        updater.updateSettings(settings(30));
+        UserSettingsPatch patch = new UserSettingsPatch(userId, 4L, null, true, null, null, null, null, null);
+
+        // Act
+        assertThrows(SettingsVersionConflictException.class, () -> new TransactionTemplate(recordingManager)
+                .executeWithoutResult(status -> updater.patchSettings(patch)));
+
+        // Assert
+        assertEquals(1, recordingManager.committed.size());
+        assertEquals(30, recordingManager.committed.get(0).sound().volumeMaster());
+        assertTrue(writeBuffer.getPending(userId).isEmpty());
+    }
+
+    @Test
+    void updateSettings_bufferedUpdateThenStaleVersion_shouldKeepBufferedSettings() {
+        // Arrange
+        RecordingTransactionManager recordingManager = new RecordingTransactionManager();
+        writeBuffer.shutdown();
+        writeBuffer = new SettingsWriteBufferImpl(settingsRepository, userRepository, cache, recordingManager,
+                true, 60_000, 120_000, 5, 1000);
+        UserUpdaterImpl updater = new UserUpdaterImpl(userRepository, settingsRepository, cache, writeBuffer,
+                mock(ThemeRepository.class));
+        when(settingsRepository.findSettingsById(userId)).thenReturn(Optional.of(settings(10)));
+        when(settingsRepository.writeSettings(any(UserSettings.class), eq(true), eq(true), isNull()))
+                .thenAnswer(invocation -> recordingManager.record(invocation.getArgument(0)));
+        when(settingsRepository.findVersionById(userId)).thenReturn(Optional.of(new SettingsVersion(5, 5, 5)));
+        updater.updateSettings(settings(30));
+
+        // Act
+        assertThrows(SettingsVersionConflictException.class, () -> new TransactionTemplate(recordingManager)
+                .executeWithoutResult(status -> updater.updateSettings(settings(40), 4L)));
+
+        // Assert
+        assertEquals(1, recordingManager.committed.size());
+        assertEquals(30, recordingManager.committed.get(0).sound().volumeMaster());
+        assertTrue(writeBuffer.getPending(userId).isEmpty());
+    }
+
+    private UserSettings settings(int volumeMaster) {
+        return new UserSettings(userId, new UserSettingsGeneral(userId, new Theme(1, "Dark")),
+                new UserSettingsSound(userId, false, true, volumeMaster, 70, 60, 50));
+    }
+
+    /**
+     * Transaction manager keeping the settings written in a transaction until it is committed or rolled back,
+     * with support of the suspension of the transaction of the caller.
+     */
+    private static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+
+        private final Deque<List<UserSettings>> active = new ArrayDeque<>();
+        private final List<UserSettings> committed = new ArrayList<>();
+
+        UserSettings record(UserSettings settings) {
+            active.getFirst().add(settings);
+            return settings;
+        }
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return !active.isEmpty();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            active.push(new ArrayList<>());
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            return transaction;
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            committed.addAll(active.pop());
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            active.pop();
+        }
+
+        @Override
+        protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        }
+
+    }
+
+}
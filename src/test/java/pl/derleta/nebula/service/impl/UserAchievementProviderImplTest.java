@@ -16,10 +16,13 @@ import pl.derleta.nebula.domain.entity.id.UserAchievementId;
 import pl.derleta.nebula.domain.model.Achievement;
 import pl.derleta.nebula.domain.model.UserAchievement;
 import pl.derleta.nebula.repository.UserAchievementRepository;
+import pl.derleta.nebula.repository.UserRepository;
+import pl.derleta.nebula.service.AchievementCatalogue;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -32,6 +35,12 @@ class UserAchievementProviderImplTest {
     @Mock
     private UserAchievementRepository repository;
 
+    @Mock
+    private AchievementCatalogue catalogue;
+
+    @Mock
+    private UserRepository userRepository;
+
     @InjectMocks
     private UserAchievementProviderImpl userAchievementProvider;
 
@@ -119,6 +128,7 @@ class UserAchievementProviderImplTest {
     void get_shouldReturnNull_whenUserAchievementNotFound() {
         // Arrange
         when(repository.get(userId, achievementId)).thenReturn(null);
+        when(catalogue.get(achievementId)).thenReturn(Optional.empty());
 
         // Act
         UserAchievement result = userAchievementProvider.get(userId, achievementId);
@@ -128,6 +138,71 @@ class UserAchievementProviderImplTest {
         verify(repository, times(1)).get(userId, achievementId);
     }
 
+    @Test
+    void get_shouldReturnImplicitZeroEntry_whenNoRowStoredForKnownAchievement() {
+        // Arrange
+        when(repository.get(userId, achievementId)).thenReturn(null);
+        when(catalogue.get(achievementId)).thenReturn(Optional.of(testUserAchievement.achievement()));
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        // Act
+        UserAchievement result = userAchievementProvider.get(userId, achievementId);
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(testUserAchievement.userId(), result.userId());
+        assertEquals(testUserAchievement.achievementId(), result.achievementId());
+        assertEquals(0, result.value());
+        assertEquals(0, result.level());
+        assertEquals("0,00%", result.progress());
+    }
+
+    @Test
+    void get_shouldReturnNull_whenUserDoesNotExist() {
+        // Arrange
+        when(repository.get(userId, achievementId)).thenReturn(null);
+        when(catalogue.get(achievementId)).thenReturn(Optional.of(testUserAchievement.achievement()));
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        // Act
+        UserAchievement result = userAchievementProvider.get(userId, achievementId);
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    void getList_shouldReturnEmptyList_whenUserDoesNotExist() {
+        // Arrange
+        when(repository.getList(userId)).thenReturn(Collections.emptyList());
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        // Act
+        List<UserAchievement> result = userAchievementProvider.getList(userId);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(catalogue, never()).getAll();
+    }
+
+    @Test
+    void getList_shouldMergeStoredRowsWithCatalogue_whenSomeAchievementsHaveNoRow() {
+        // Arrange
+        Achievement other = new Achievement(1, "Other", 0, 10, "Other achievement", null, Collections.emptyList());
+        when(repository.getList(userId)).thenReturn(Collections.singletonList(testUserAchievementEntity));
+        when(catalogue.getAll()).thenReturn(List.of(other, testUserAchievement.achievement()));
+
+        // Act
+        List<UserAchievement> result = userAchievementProvider.getList(userId);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).achievementId());
+        assertEquals(0, result.get(0).value());
+        assertEquals(testUserAchievement.achievementId(), result.get(1).achievementId());
+        assertEquals(testUserAchievement.value(), result.get(1).value());
+    }
+
     @Test
     void getList_shouldReturnListOfUserAchievements_whenValidUserIdProvided() {
         // Arrange
@@ -0,0 +1,153 @@
+package pl.derleta.nebula.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.derleta.nebula.domain.entity.AchievementEntity;
+import pl.derleta.nebula.domain.entity.UserAchievementEntity;
+import pl.derleta.nebula.domain.entity.UserEntity;
+import pl.derleta.nebula.domain.model.Achievement;
+import pl.derleta.nebula.domain.model.AchievementLevel;
+import pl.derleta.nebula.domain.model.UserAchievement;
+import pl.derleta.nebula.repository.AchievementRepository;
+import pl.derleta.nebula.repository.UserAchievementRepository;
+import pl.derleta.nebula.repository.UserRepository;
+import pl.derleta.nebula.service.AchievementCatalogue;
+import pl.derleta.nebula.service.UserCache;
+import pl.derleta.nebula.util.IdUtil;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserAchievementUpdaterImplTest {
+
+    @Mock
+    private UserAchievementRepository repository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AchievementRepository achievementRepository;
+
+    @Mock
+    private AchievementCatalogue catalogue;
+
+    @Mock
+    private UserCache cache;
+
+    @InjectMocks
+    private UserAchievementUpdaterImpl updater;
+
+    private final long userId = 1000L;
+    private final int achievementId = 3;
+    private Achievement achievement;
+
+    @BeforeEach
+    void setUp() {
+        achievement = new Achievement(achievementId, "Explorer", 0, 200, "Visit planets", null,
+                List.of(new AchievementLevel(1, 50), new AchievementLevel(2, 100), new AchievementLevel(3, 200)));
+    }
+
+    @Test
+    void updateValue_noStoredRow_shouldInsertRowWithDerivedLevelAndProgress() {
+        // Arrange
+        when(catalogue.get(achievementId)).thenReturn(Optional.of(achievement));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(repository.get(userId, achievementId)).thenReturn(null);
+        when(userRepository.getReferenceById(userId)).thenReturn(new UserEntity());
+        when(achievementRepository.getReferenceById(achievementId)).thenReturn(new AchievementEntity());
+
+        // Act
+        UserAchievement result = updater.updateValue(userId, achievementId, 150);
+
+        // Assert
+        ArgumentCaptor<UserAchievementEntity> captor = ArgumentCaptor.forClass(UserAchievementEntity.class);
+        verify(repository).save(captor.capture());
+        UserAchievementEntity saved = captor.getValue();
+        assertEquals(IdUtil.getUserAchievementId(userId, achievementId), saved.getId());
+        assertEquals(150, saved.getValue());
+        assertEquals(2, saved.getLevel());
+        assertEquals(7500, saved.getProgress());
+        assertEquals(150, result.value());
+        assertEquals("75,00%", result.progress());
+        assertSame(achievement, result.achievement());
+        verify(userRepository).updateUserUpdatedAt(userId);
+        verify(cache).invalidate(userId);
+    }
+
+    @Test
+    void updateValue_storedRow_shouldUpdateExistingRow() {
+        // Arrange
+        UserAchievementEntity entity = new UserAchievementEntity(IdUtil.getUserAchievementId(userId, achievementId),
+                null, null, 2500, 1, 50);
+        when(catalogue.get(achievementId)).thenReturn(Optional.of(achievement));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(repository.get(userId, achievementId)).thenReturn(entity);
+
+        // Act
+        updater.updateValue(userId, achievementId, 500);
+
+        // Assert
+        verify(repository).save(entity);
+        assertEquals(500, entity.getValue());
+        assertEquals(3, entity.getLevel());
+        assertEquals(10000, entity.getProgress());
+        verify(userRepository, never()).getReferenceById(any());
+    }
+
+    @Test
+    void updateValue_zeroValueWithoutStoredRow_shouldNotInsertRow() {
+        // Arrange
+        when(catalogue.get(achievementId)).thenReturn(Optional.of(achievement));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(repository.get(userId, achievementId)).thenReturn(null);
+
+        // Act
+        UserAchievement result = updater.updateValue(userId, achievementId, 0);
+
+        // Assert
+        assertEquals(0, result.level());
+        verify(repository, never()).save(any());
+        verify(userRepository, never()).updateUserUpdatedAt(anyLong());
+        verifyNoInteractions(cache);
+    }
+
+    @Test
+    void updateValue_unknownAchievement_shouldReturnNull() {
+        // Arrange
+        when(catalogue.get(achievementId)).thenReturn(Optional.empty());
+
+        // Act
+        UserAchievement result = updater.updateValue(userId, achievementId, 10);
+
+        // Assert
+        assertNull(result);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void updateValue_unknownUser_shouldReturnNullWithoutWrite() {
+        // Arrange
+        when(catalogue.get(achievementId)).thenReturn(Optional.of(achievement));
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        // Act
+        UserAchievement result = updater.updateValue(userId, achievementId, 0);
+
+        // Assert
+        assertNull(result);
+        verifyNoInteractions(repository, cache);
+    }
+
+}
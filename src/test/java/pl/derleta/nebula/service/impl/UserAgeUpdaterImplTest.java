@@ -0,0 +1,158 @@
+package pl.derleta.nebula.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.derleta.nebula.domain.entity.JobCheckpointEntity;
+import pl.derleta.nebula.domain.types.JobStatus;
+import pl.derleta.nebula.domain.types.JobType;
+import pl.derleta.nebula.repository.JobCheckpointRepository;
+import pl.derleta.nebula.service.UserAgeUpdater;
+import pl.derleta.nebula.service.UserCache;
+
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserAgeUpdaterImplTest {
+
+    @Mock
+    private JobCheckpointRepository checkpointRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserAgeUpdaterImpl ageUpdater;
+
+    @BeforeEach
+    void setUp() {
+        ageUpdater = new UserAgeUpdaterImpl(checkpointRepository, jdbcTemplate, userCache, transactionManager,
+                2, 0, 0, 0, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ageUpdater.shutdown();
+    }
+
+    @Test
+    void recompute_firstRun_shouldUpdateOutdatedAgesInKeysetChunks() {
+        // Arrange
+        JobCheckpointEntity checkpoint = checkpoint(null, 0L, JobStatus.PENDING);
+        when(checkpointRepository.findById("age-recompute")).thenReturn(Optional.of(checkpoint));
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM users WHERE id > ? ORDER BY id"), eq(Long.class), anyLong(), eq(2)))
+                .thenReturn(List.of(1L, 5L), List.of(9L), List.of());
+        when(jdbcTemplate.queryForList(contains("TIMESTAMPDIFF"), eq(Long.class), eq(0L), eq(5L), any(Date.class)))
+                .thenReturn(List.of(5L));
+        when(jdbcTemplate.queryForList(contains("TIMESTAMPDIFF"), eq(Long.class), eq(5L), eq(9L), any(Date.class)))
+                .thenReturn(List.of());
+
+        // Act
+        int updated = ageUpdater.recompute();
+
+        // Assert
+        assertEquals(1, updated);
+        verify(jdbcTemplate).update(startsWith("UPDATE users SET age"), any(Date.class), eq(0L), eq(5L), any(Date.class));
+        verify(jdbcTemplate, never()).update(anyString(), any(Date.class), eq(5L), eq(9L), any(Date.class));
+        verify(userCache).invalidate(5L);
+        verify(userCache, never()).invalidate(1L);
+        assertEquals(JobStatus.DONE, checkpoint.getStatus());
+        assertEquals(9L, checkpoint.getLastId());
+        assertEquals(LocalDate.now().toEpochDay(), checkpoint.getTargetId());
+        UserAgeUpdater.Stats stats = ageUpdater.stats();
+        assertEquals(3, stats.checkedUsers());
+        assertEquals(1, stats.updatedUsers());
+        assertFalse(stats.running());
+    }
+
+    @Test
+    void recompute_alreadyDoneToday_shouldNotRunAgain() {
+        // Arrange
+        when(checkpointRepository.findById("age-recompute"))
+                .thenReturn(Optional.of(checkpoint(LocalDate.now().toEpochDay(), 9L, JobStatus.DONE)));
+
+        // Act
+        int updated = ageUpdater.recompute();
+
+        // Assert
+        assertEquals(0, updated);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void recompute_unfinishedRunOfToday_shouldContinueAfterCheckpoint() {
+        // Arrange
+        JobCheckpointEntity checkpoint = checkpoint(LocalDate.now().toEpochDay(), 40L, JobStatus.FAILED);
+        when(checkpointRepository.findById("age-recompute")).thenReturn(Optional.of(checkpoint));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(40L), eq(2))).thenReturn(List.of(41L));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(41L), eq(2))).thenReturn(List.of());
+        when(jdbcTemplate.queryForList(contains("TIMESTAMPDIFF"), eq(Long.class), eq(40L), eq(41L), any(Date.class)))
+                .thenReturn(List.of(41L));
+
+        // Act
+        int updated = ageUpdater.recompute();
+
+        // Assert
+        assertEquals(1, updated);
+        verify(jdbcTemplate).update(anyString(), any(Date.class), eq(40L), eq(41L), any(Date.class));
+        assertEquals(JobStatus.DONE, checkpoint.getStatus());
+    }
+
+    @Test
+    void recompute_unfinishedRunOfAnotherDay_shouldStartFromFirstUser() {
+        // Arrange
+        JobCheckpointEntity checkpoint = checkpoint(LocalDate.now().minusDays(1).toEpochDay(), 40L, JobStatus.RUNNING);
+        when(checkpointRepository.findById("age-recompute")).thenReturn(Optional.of(checkpoint));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(0L), eq(2))).thenReturn(List.of());
+
+        // Act
+        ageUpdater.recompute();
+
+        // Assert
+        verify(jdbcTemplate).queryForList(anyString(), eq(Long.class), eq(0L), eq(2));
+        assertEquals(LocalDate.now().toEpochDay(), checkpoint.getTargetId());
+        assertEquals(JobStatus.DONE, checkpoint.getStatus());
+    }
+
+    @Test
+    void recompute_failingChunk_shouldMarkJobFailedAndKeepCheckpoint() {
+        // Arrange
+        JobCheckpointEntity checkpoint = checkpoint(LocalDate.now().toEpochDay(), 5L, JobStatus.RUNNING);
+        when(checkpointRepository.findById("age-recompute")).thenReturn(Optional.of(checkpoint));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(5L), eq(2))).thenReturn(List.of(6L));
+        when(jdbcTemplate.queryForList(contains("TIMESTAMPDIFF"), eq(Long.class), any(), any(), any()))
+                .thenReturn(List.of(6L));
+        when(jdbcTemplate.update(anyString(), any(), any(), any(), any())).thenThrow(new RuntimeException("lock wait timeout"));
+
+        // Act
+        int updated = ageUpdater.recompute();
+
+        // Assert
+        assertEquals(0, updated);
+        assertEquals(JobStatus.FAILED, checkpoint.getStatus());
+        assertEquals(5L, checkpoint.getLastId());
+    }
+
+    private JobCheckpointEntity checkpoint(Long day, long lastId, JobStatus status) {
+        return new JobCheckpointEntity("age-recompute", JobType.AGE_RECOMPUTE, day, lastId, 0L, status, Instant.now());
+    }
+
+}
@@ -0,0 +1,176 @@
+package pl.derleta.nebula.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.derleta.nebula.domain.entity.JobCheckpointEntity;
+import pl.derleta.nebula.domain.types.JobStatus;
+import pl.derleta.nebula.domain.types.JobType;
+import pl.derleta.nebula.repository.JobCheckpointRepository;
+import pl.derleta.nebula.service.UserCache;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserBackfillUpdaterImplTest {
+
+    @Mock
+    private JobCheckpointRepository checkpointRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserBackfillUpdaterImpl backfillUpdater;
+
+    @BeforeEach
+    void setUp() {
+        backfillUpdater = new UserBackfillUpdaterImpl(checkpointRepository, jdbcTemplate, userCache, transactionManager, 2, 0, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        backfillUpdater.shutdown();
+    }
+
+    @Test
+    void run_gameBackfill_shouldInsertKeysetChunksAndFinishJob() {
+        // Arrange
+        JobCheckpointEntity checkpoint = checkpoint("backfill-game-7", JobType.GAME_BACKFILL, 7L, 0L, JobStatus.PENDING);
+        when(checkpointRepository.findById("backfill-game-7")).thenReturn(Optional.of(checkpoint));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), anyLong(), eq(2)))
+                .thenReturn(List.of(1L, 5L), List.of(9L), List.of());
+
+        // Act
+        backfillUpdater.run("backfill-game-7");
+
+        // Assert
+        verify(jdbcTemplate).update(contains("users_games"), eq(7L), eq(0L), eq(5L));
+        verify(jdbcTemplate).update(contains("users_games"), eq(7L), eq(5L), eq(9L));
+        verify(userCache).invalidate(1L);
+        verify(userCache).invalidate(5L);
+        verify(userCache).invalidate(9L);
+        assertEquals(JobStatus.DONE, checkpoint.getStatus());
+        assertEquals(9L, checkpoint.getLastId());
+        assertEquals(3L, checkpoint.getProcessed());
+    }
+
+    @Test
+    void run_resumedJob_shouldContinueAfterCheckpoint() {
+        // Arrange
+        JobCheckpointEntity checkpoint = checkpoint("backfill-achievement-3", JobType.ACHIEVEMENT_BACKFILL, 3L, 40L, JobStatus.RUNNING);
+        when(checkpointRepository.findById("backfill-achievement-3")).thenReturn(Optional.of(checkpoint));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(40L), eq(2))).thenReturn(List.of(41L));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(41L), eq(2))).thenReturn(List.of());
+
+        // Act
+        backfillUpdater.run("backfill-achievement-3");
+
+        // Assert
+        verify(jdbcTemplate).update(contains("user_achievements"), eq(3L), eq(40L), eq(41L));
+        assertEquals(JobStatus.DONE, checkpoint.getStatus());
+    }
+
+    @Test
+    void run_failingChunk_shouldMarkJobFailedAndKeepCheckpoint() {
+        // Arrange
+        JobCheckpointEntity checkpoint = checkpoint("backfill-game-7", JobType.GAME_BACKFILL, 7L, 5L, JobStatus.RUNNING);
+        when(checkpointRepository.findById("backfill-game-7")).thenReturn(Optional.of(checkpoint));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), anyLong(), eq(2))).thenReturn(List.of(6L));
+        when(jdbcTemplate.update(anyString(), any(), any(), any())).thenThrow(new RuntimeException("lock wait timeout"));
+
+        // Act
+        backfillUpdater.run("backfill-game-7");
+
+        // Assert
+        assertEquals(JobStatus.FAILED, checkpoint.getStatus());
+        assertEquals(5L, checkpoint.getLastId());
+    }
+
+    @Test
+    void scheduleGameBackfill_alreadyDone_shouldNotSchedule() {
+        // Arrange
+        when(checkpointRepository.findById("backfill-game-7"))
+                .thenReturn(Optional.of(checkpoint("backfill-game-7", JobType.GAME_BACKFILL, 7L, 9L, JobStatus.DONE)));
+
+        // Act
+        boolean scheduled = backfillUpdater.scheduleGameBackfill(7);
+
+        // Assert
+        assertFalse(scheduled);
+        verify(checkpointRepository, never()).save(any());
+    }
+
+    @Test
+    void scheduleAchievementBackfill_sparseAchievements_shouldNotSchedule() {
+        // Arrange
+        backfillUpdater.shutdown();
+        backfillUpdater = new UserBackfillUpdaterImpl(checkpointRepository, jdbcTemplate, userCache, transactionManager, 2, 0, true);
+
+        // Act
+        boolean scheduled = backfillUpdater.scheduleAchievementBackfill(3);
+
+        // Assert
+        assertFalse(scheduled);
+        verifyNoInteractions(checkpointRepository);
+    }
+
+    @Test
+    void detectNewGamesAndAchievements_firstRun_shouldInitializeWatermarksWithoutBackfill() {
+        // Arrange
+        when(checkpointRepository.findById(startsWith("watermark-"))).thenReturn(Optional.empty());
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(12L);
+
+        // Act
+        int scheduled = backfillUpdater.detectNewGamesAndAchievements();
+
+        // Assert
+        assertEquals(0, scheduled);
+        ArgumentCaptor<JobCheckpointEntity> captor = ArgumentCaptor.forClass(JobCheckpointEntity.class);
+        verify(checkpointRepository, times(2)).save(captor.capture());
+        assertTrue(captor.getAllValues().stream().allMatch(watermark -> watermark.getLastId() == 12L));
+    }
+
+    @Test
+    void detectNewGamesAndAchievements_newGame_shouldScheduleBackfillAndMoveWatermark() {
+        // Arrange
+        JobCheckpointEntity gameWatermark = checkpoint("watermark-games", JobType.GAME_WATERMARK, null, 4L, JobStatus.DONE);
+        JobCheckpointEntity achievementWatermark = checkpoint("watermark-achievements", JobType.ACHIEVEMENT_WATERMARK, null, 2L, JobStatus.DONE);
+        when(checkpointRepository.findById("watermark-games")).thenReturn(Optional.of(gameWatermark));
+        when(checkpointRepository.findById("watermark-achievements")).thenReturn(Optional.of(achievementWatermark));
+        when(checkpointRepository.findById("backfill-game-5")).thenReturn(Optional.empty());
+        when(jdbcTemplate.queryForList(contains("FROM games"), eq(Long.class), eq(4L))).thenReturn(List.of(5L));
+        when(jdbcTemplate.queryForList(contains("FROM achievements"), eq(Long.class), eq(2L))).thenReturn(List.of());
+
+        // Act
+        int scheduled = backfillUpdater.detectNewGamesAndAchievements();
+
+        // Assert
+        assertTrue(scheduled >= 1);
+        assertEquals(5L, gameWatermark.getLastId());
+        verify(checkpointRepository).save(argThat(checkpoint -> "backfill-game-5".equals(checkpoint.getJobName())
+                && checkpoint.getStatus() == JobStatus.PENDING));
+    }
+
+    private JobCheckpointEntity checkpoint(String name, JobType type, Long targetId, long lastId, JobStatus status) {
+        return new JobCheckpointEntity(name, type, targetId, lastId, 0L, status, Instant.now());
+    }
+
+}
@@ -0,0 +1,103 @@
+package pl.derleta.nebula.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.domain.model.UserBatch;
+import pl.derleta.nebula.domain.projection.UserProfileView;
+import pl.derleta.nebula.exceptions.BatchTooLargeException;
+import pl.derleta.nebula.repository.UserRepository;
+import pl.derleta.nebula.service.UserCache;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserBatchProviderImplTest {
+
+    @Mock
+    private UserRepository repository;
+
+    @Mock
+    private UserCache cache;
+
+    private UserBatchProviderImpl batchProvider;
+
+    @BeforeEach
+    void setUp() {
+        batchProvider = new UserBatchProviderImpl(repository, cache, 5, 2);
+    }
+
+    @Test
+    void getProfiles_shouldLoadInChunksAndKeepRequestOrder() {
+        // Arrange
+        when(cache.getIfPresent(anyLong())).thenReturn(Optional.empty());
+        when(repository.findProfileViewsByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id != 4L).map(this::view).toList();
+        });
+
+        // Act
+        UserBatch result = batchProvider.getProfiles(List.of(3L, 1L, 4L, 2L, 3L));
+
+        // Assert
+        assertEquals(List.of(3L, 1L, 2L), result.users().stream().map(NebulaUser::id).toList());
+        assertEquals(List.of(4L), result.missing());
+        verify(repository).findProfileViewsByIdIn(List.of(3L, 1L));
+        verify(repository).findProfileViewsByIdIn(List.of(4L, 2L));
+    }
+
+    @Test
+    void getProfiles_cachedUser_shouldNotBeQueried() {
+        // Arrange
+        NebulaUser cached = new NebulaUser(1L, "cached", null, null, null, 0, null, null, null, null, null, null);
+        when(cache.getIfPresent(1L)).thenReturn(Optional.of(cached));
+        when(cache.getIfPresent(2L)).thenReturn(Optional.empty());
+        when(repository.findProfileViewsByIdIn(List.of(2L))).thenReturn(List.of(view(2L)));
+
+        // Act
+        UserBatch result = batchProvider.getProfiles(List.of(1L, 2L));
+
+        // Assert
+        assertSame(cached, result.users().get(0));
+        assertEquals(2L, result.users().get(1).id());
+        assertTrue(result.missing().isEmpty());
+    }
+
+    @Test
+    void getProfiles_nullAndEmpty_shouldReturnEmptyBatch() {
+        // Act
+        UserBatch empty = batchProvider.getProfiles(List.of());
+        UserBatch nulls = batchProvider.getProfiles(Arrays.asList(null, null));
+
+        // Assert
+        assertTrue(empty.users().isEmpty());
+        assertTrue(nulls.users().isEmpty());
+        assertTrue(nulls.missing().isEmpty());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void getProfiles_tooManyIds_shouldThrowBatchTooLargeException() {
+        // Act & Assert
+        assertThrows(BatchTooLargeException.class,
+                () -> batchProvider.getProfiles(List.of(1L, 2L, 3L, 4L, 5L, 6L)));
+        verifyNoInteractions(repository);
+    }
+
+    private UserProfileView view(long id) {
+        return new UserProfileView(id, "user" + id, null, null, null, 30, null,
+                1, "Male", 1, "Poland", "POL", 1, "Europe",
+                null, null, null, null, null, null, null, null, null, null, null);
+    }
+
+}
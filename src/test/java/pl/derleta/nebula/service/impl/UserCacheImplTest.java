@@ -0,0 +1,249 @@
+package pl.derleta.nebula.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.derleta.nebula.domain.model.Game;
+import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.service.UserCache;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheImplTest {
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void get_cachedUser_shouldNotLoadAgain() {
+        // Arrange
+        UserCacheImpl cache = new UserCacheImpl(10, 1_000_000, 60000);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        NebulaUser first = cache.get(1L, id -> user(id, loads.incrementAndGet()));
+        NebulaUser second = cache.get(1L, id -> user(id, loads.incrementAndGet()));
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(new UserCache.Stats(1, 1, 0, 1, 1024 + 256), cache.stats());
+    }
+
+    @Test
+    void get_missingUser_shouldNotCacheNull() {
+        // Arrange
+        UserCacheImpl cache = new UserCacheImpl(10, 1_000_000, 60000);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void get_overMaxEntries_shouldEvictLeastRecentlyUsed() {
+        // Arrange
+        UserCacheImpl cache = new UserCacheImpl(2, 1_000_000, 60000);
+        cache.get(1L, id -> user(id, 0));
+        cache.get(2L, id -> user(id, 0));
+        cache.getIfPresent(1L);
+
+        // Act
+        cache.get(3L, id -> user(id, 0));
+
+        // Assert
+        assertTrue(cache.getIfPresent(1L).isPresent());
+        assertTrue(cache.getIfPresent(2L).isEmpty());
+        assertTrue(cache.getIfPresent(3L).isPresent());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void get_overMaxBytes_shouldEvictByWeight() {
+        // Arrange
+        UserCacheImpl cache = new UserCacheImpl(100, 2500, 60000);
+        cache.get(1L, id -> user(id, 0));
+        cache.get(2L, id -> user(id, 0));
+
+        // Act
+        cache.get(3L, id -> user(id, 4));
+
+        // Assert
+        assertTrue(cache.getIfPresent(1L).isEmpty());
+        assertTrue(cache.getIfPresent(2L).isEmpty());
+        assertEquals(1024 + 4 * 256, cache.stats().weight());
+    }
+
+    @Test
+    void get_expiredEntry_shouldLoadAgain() {
+        // Arrange
+        UserCacheImpl cache = new UserCacheImpl(10, 1_000_000, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        cache.get(1L, id -> user(id, loads.incrementAndGet()));
+        cache.get(1L, id -> user(id, loads.incrementAndGet()));
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getStale_expiredEntry_shouldReturnLastLoadedUser() {
+        // Arrange
+        UserCacheImpl cache = new UserCacheImpl(10, 1_000_000, 0);
+        NebulaUser loaded = cache.get(1L, id -> user(id, 1));
+
+        // Act
+        Optional<NebulaUser> result = cache.getStale(1L);
+
+        // Assert
+        assertTrue(cache.getIfPresent(1L).isEmpty());
+        assertSame(loaded, result.orElseThrow());
+    }
+
+    @Test
+    void getStale_invalidatedEntry_shouldReturnEmpty() {
+        // Arrange
+        UserCacheImpl cache = new UserCacheImpl(10, 1_000_000, 0);
+        cache.get(1L, id -> user(id, 1));
+
+        // Act
+        cache.invalidate(1L);
+
+        // Assert
+        assertTrue(cache.getStale(1L).isEmpty());
+    }
+
+    @Test
+    void refresh_userNoLongerExists_shouldRemoveEntry() {
+        // Arrange
+        UserCacheImpl cache = new UserCacheImpl(10, 1_000_000, 60000);
+        cache.get(1L, id -> user(id, 1));
+
+        // Act
+        NebulaUser result = cache.refresh(1L, id -> null);
+
+        // Assert
+        assertNull(result);
+        assertTrue(cache.getStale(1L).isEmpty());
+        assertEquals(0, cache.stats().weight());
+    }
+
+    @Test
+    void get_invalidatedDuringLoad_shouldNotCacheLoadedValue() {
+        // Arrange
+        UserCacheImpl cache = new UserCacheImpl(10, 1_000_000, 60000);
+
+        // Act
+        NebulaUser loaded = cache.get(1L, id -> {
+            cache.invalidate(id);
+            return user(id, 0);
+        });
+
+        // Assert
+        assertNotNull(loaded);
+        assertTrue(cache.getIfPresent(1L).isEmpty());
+    }
+
+    @Test
+    void invalidate_inTransaction_shouldRemoveAgainAfterCompletion() {
+        // Arrange
+        UserCacheImpl cache = new UserCacheImpl(10, 1_000_000, 60000);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        cache.invalidate(1L);
+        cache.get(1L, id -> user(id, 0));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Assert
+        assertTrue(cache.getIfPresent(1L).isEmpty());
+    }
+
+    @Test
+    void update_inTransaction_shouldApplyChangeAfterCommit() {
+        // Arrange
+        UserCacheImpl cache = new UserCacheImpl(10, 1_000_000, 60000);
+        cache.get(1L, id -> user(id, 0));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        cache.update(1L, user -> user(user.id(), 1));
+        int gamesBeforeCommit = cache.getIfPresent(1L).orElseThrow().games().size();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Assert
+        assertEquals(0, gamesBeforeCommit);
+        assertEquals(1, cache.getIfPresent(1L).orElseThrow().games().size());
+    }
+
+    @Test
+    void update_userNotCached_shouldNotCacheUser() {
+        // Arrange
+        UserCacheImpl cache = new UserCacheImpl(10, 1_000_000, 60000);
+
+        // Act
+        cache.update(1L, user -> user(user.id(), 1));
+
+        // Assert
+        assertTrue(cache.getIfPresent(1L).isEmpty());
+    }
+
+    @Test
+    void invalidateAll_shouldRemoveAllUsers() {
+        // Arrange
+        UserCacheImpl cache = new UserCacheImpl(10, 1_000_000, 60000);
+        cache.get(1L, id -> user(id, 0));
+        cache.get(2L, id -> user(id, 0));
+
+        // Act
+        cache.invalidateAll();
+
+        // Assert
+        assertEquals(0, cache.stats().size());
+        assertEquals(0, cache.stats().weight());
+    }
+
+    @Test
+    void get_disabledCache_shouldAlwaysLoad() {
+        // Arrange
+        UserCacheImpl cache = new UserCacheImpl(0, 1_000_000, 60000);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        cache.get(1L, id -> user(id, loads.incrementAndGet()));
+        cache.get(1L, id -> user(id, loads.incrementAndGet()));
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    private NebulaUser user(long id, int games) {
+        List<Game> gameList = Collections.nCopies(games, new Game(1, "Game", true, null, null));
+        return new NebulaUser(id, "login", "email@example.com", "John", "Doe", 30, null, null, null,
+                null, gameList, Collections.emptyList());
+    }
+
+}
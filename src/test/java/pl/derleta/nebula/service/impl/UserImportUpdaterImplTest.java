@@ -0,0 +1,221 @@
+package pl.derleta.nebula.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import pl.derleta.nebula.controller.request.AuthServRegistrationRequest;
+import pl.derleta.nebula.controller.request.AccountRegistrationRequest;
+import pl.derleta.nebula.controller.response.AccountResponse;
+import pl.derleta.nebula.controller.response.UserImportSummaryResponse;
+import pl.derleta.nebula.domain.types.AccountResponseType;
+import pl.derleta.nebula.domain.types.ImportFormat;
+import pl.derleta.nebula.service.AccountAvailabilityProvider;
+import pl.derleta.nebula.service.RegistrationValidator;
+import pl.derleta.nebula.util.HttpAuthClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportUpdaterImplTest {
+
+    @Mock
+    private HttpAuthClient httpAuthServClient;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private RegistrationValidator registrationValidator;
+
+    @Mock
+    private AccountAvailabilityProvider availabilityProvider;
+
+    private UserImportUpdaterImpl importUpdater;
+
+    @BeforeEach
+    void setUp() {
+        importUpdater = new UserImportUpdaterImpl(httpAuthServClient, jdbcTemplate, registrationValidator, availabilityProvider, 2, 2, 200, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importUpdater.shutdown();
+    }
+
+    @Test
+    void importUsers_ndjson_shouldRegisterRecordsAndBatchInsertPerChunk() throws IOException {
+        // Arrange
+        String input = record("user1") + "\n\n" + record("user2") + "\n" + record("user3") + "\n";
+        when(httpAuthServClient.registerUser(any(AuthServRegistrationRequest.class)))
+                .thenReturn(new AccountResponse(true, AccountResponseType.VERIFICATION_MAIL_FROM_REGISTRATION));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        UserImportSummaryResponse summary = importUpdater.importUsers(toStream(input), ImportFormat.NDJSON, output);
+
+        // Assert
+        assertEquals(3, summary.processed());
+        assertEquals(3, summary.succeeded());
+        assertTrue(summary.completed());
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("UPDATE"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("DELETE"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(0).contains("\"line\":1") && lines.get(0).contains("\"login\":\"user1\""));
+        assertTrue(lines.get(1).contains("\"line\":3"));
+        assertTrue(lines.get(3).contains("\"completed\":true"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void importUsers_rejectedAndInvalidRecords_shouldReportErrorsAndKeepOnlyAcceptedReservations() throws IOException {
+        // Arrange
+        String input = "login,email,password\nuser1,user1@example.com,secret\nuser2,user2@example.com,secret\n,missing@example.com,secret\n";
+        when(httpAuthServClient.registerUser(any(AuthServRegistrationRequest.class))).thenAnswer(invocation -> {
+            AuthServRegistrationRequest request = invocation.getArgument(0);
+            return "user1".equals(request.getUsername())
+                    ? new AccountResponse(true, AccountResponseType.VERIFICATION_MAIL_FROM_REGISTRATION)
+                    : new AccountResponse(false, AccountResponseType.LOGIN_IS_NOT_UNIQUE);
+        });
+        when(registrationValidator.validate(any(AccountRegistrationRequest.class))).thenAnswer(invocation -> {
+            AccountRegistrationRequest request = invocation.getArgument(0);
+            return request.getLogin() == null ? Optional.of(AccountResponseType.NEBULA_INVALID_LOGIN) : Optional.empty();
+        });
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        UserImportSummaryResponse summary = importUpdater.importUsers(toStream(input), ImportFormat.CSV, output);
+
+        // Assert
+        assertEquals(3, summary.processed());
+        assertEquals(1, summary.succeeded());
+        assertEquals(2, summary.failed());
+        ArgumentCaptor<Collection<Object>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT"), captor.capture(), eq(2), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(2, captor.getValue().size());
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE"), anyCollection(), eq(1), any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate).batchUpdate(startsWith("DELETE"), anyCollection(), eq(1), any(ParameterizedPreparedStatementSetter.class));
+        String result = output.toString(StandardCharsets.UTF_8);
+        assertTrue(result.contains("LOGIN_IS_NOT_UNIQUE"));
+        assertTrue(result.contains("NEBULA_INVALID_LOGIN"));
+        verify(httpAuthServClient, times(2)).registerUser(any(AuthServRegistrationRequest.class));
+        verify(availabilityProvider).register("user1", "user1@example.com");
+        verifyNoMoreInteractions(availabilityProvider);
+    }
+
+    @Test
+    void importUsers_outboxWriteFailure_shouldFailRecordsWithoutRegistration() throws IOException {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        UserImportSummaryResponse summary = importUpdater.importUsers(toStream(record("user1")), ImportFormat.NDJSON, output);
+
+        // Assert
+        assertEquals(0, summary.succeeded());
+        assertEquals(1, summary.failed());
+        assertTrue(output.toString(StandardCharsets.UTF_8).contains("USER_NOT_CREATED_IN_NEBULA_DB"));
+        verifyNoInteractions(httpAuthServClient, availabilityProvider);
+    }
+
+    @Test
+    void importUsers_loginAlreadyInOutbox_shouldFailRecordWithoutRegistration() throws IOException {
+        // Arrange
+        String input = record("user1") + "\n" + record("user2") + "\n";
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1, 0}});
+        when(httpAuthServClient.registerUser(any(AuthServRegistrationRequest.class)))
+                .thenReturn(new AccountResponse(true, AccountResponseType.VERIFICATION_MAIL_FROM_REGISTRATION));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        UserImportSummaryResponse summary = importUpdater.importUsers(toStream(input), ImportFormat.NDJSON, output);
+
+        // Assert
+        assertEquals(1, summary.succeeded());
+        assertEquals(1, summary.failed());
+        verify(httpAuthServClient, times(1)).registerUser(any(AuthServRegistrationRequest.class));
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertTrue(lines.get(1).contains("\"login\":\"user2\"") && lines.get(1).contains("LOGIN_IS_NOT_UNIQUE"));
+    }
+
+    @Test
+    void importUsers_registrationWithUnknownOutcome_shouldKeepReservation() throws IOException {
+        // Arrange
+        when(httpAuthServClient.registerUser(any(AuthServRegistrationRequest.class)))
+                .thenThrow(new IllegalStateException("timeout"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        UserImportSummaryResponse summary = importUpdater.importUsers(toStream(record("user1")), ImportFormat.NDJSON, output);
+
+        // Assert
+        assertEquals(1, summary.failed());
+        assertTrue(output.toString(StandardCharsets.UTF_8).contains("timeout"));
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void importUsers_lineOverMaximumLength_shouldRejectRecordAndContinue() throws IOException {
+        // Arrange
+        String input = "{\"login\":\"" + "x".repeat(500) + "\"}\r\n" + record("user2") + "\n";
+        when(httpAuthServClient.registerUser(any(AuthServRegistrationRequest.class)))
+                .thenReturn(new AccountResponse(true, AccountResponseType.VERIFICATION_MAIL_FROM_REGISTRATION));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        UserImportSummaryResponse summary = importUpdater.importUsers(toStream(input), ImportFormat.NDJSON, output);
+
+        // Assert
+        assertEquals(2, summary.processed());
+        assertEquals(1, summary.succeeded());
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertTrue(lines.get(0).contains("\"line\":1") && lines.get(0).contains("maximum line length"));
+        assertTrue(lines.get(1).contains("\"line\":2") && lines.get(1).contains("\"success\":true"));
+        verify(httpAuthServClient, times(1)).registerUser(any(AuthServRegistrationRequest.class));
+    }
+
+    @Test
+    void importUsers_invalidCsvHeader_shouldStopWithIncompleteSummary() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        UserImportSummaryResponse summary = importUpdater.importUsers(toStream("name,age\nuser1,20\n"), ImportFormat.CSV, output);
+
+        // Assert
+        assertFalse(summary.completed());
+        verifyNoInteractions(httpAuthServClient, jdbcTemplate);
+    }
+
+    private String record(String login) {
+        return "{\"login\":\"" + login + "\",\"email\":\"" + login + "@example.com\",\"password\":\"secret\","
+                + "\"birthdate\":\"1990-01-01\",\"nationality\":1,\"gender\":1}";
+    }
+
+    private ByteArrayInputStream toStream(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,112 @@
+package pl.derleta.nebula.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import pl.derleta.nebula.domain.projection.UserAchievementValueView;
+import pl.derleta.nebula.domain.projection.UserProfileView;
+import pl.derleta.nebula.domain.projection.GameView;
+import pl.derleta.nebula.repository.UserAchievementRepository;
+import pl.derleta.nebula.repository.UserRepository;
+import pl.derleta.nebula.repository.UserSettingsRepository;
+import pl.derleta.nebula.service.AchievementCatalogue;
+import pl.derleta.nebula.service.SettingsWriteBuffer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Compares the latency of the sequential and the parallel load of a full user. Every query takes a fixed time
+ * and every transaction holds one connection of a pool of limited size, so the benchmark shows that the parallel
+ * load only pays off once the pool has a connection for every part of the user.
+ */
+class UserProviderImplBenchmarkTest {
+
+    private static final Duration QUERY_LATENCY = Duration.ofMillis(40);
+    private static final int ROUNDS = 5;
+
+    @Test
+    void parallelLoad_poolSizedForAllParts_shouldBeFasterThanSequentialLoad() {
+        // Act
+        long sequential = measure(false, 3);
+        long parallelSinglePool = measure(true, 1);
+        long parallel = measure(true, 3);
+        System.out.printf("User load: sequential %d ms, parallel with 1 connection %d ms, parallel with 3 connections %d ms%n",
+                sequential, parallelSinglePool, parallel);
+
+        // Assert
+        assertTrue(parallel < sequential * 0.7, "parallel " + parallel + " ms, sequential " + sequential + " ms");
+        assertTrue(parallel < parallelSinglePool, "parallel " + parallel + " ms, 1 connection " + parallelSinglePool + " ms");
+    }
+
+    /**
+     * Loads the user repeatedly bypassing the cache and returns the average latency of a load in milliseconds.
+     */
+    private long measure(boolean parallelLoad, int poolSize) {
+        UserRepository repository = mock(UserRepository.class);
+        UserAchievementRepository achievementRepository = mock(UserAchievementRepository.class);
+        AchievementCatalogue catalogue = mock(AchievementCatalogue.class);
+        UserProfileView profile = new UserProfileView(1L, "user", null, null, null, 30, null,
+                1, "Male", 1, "Poland", "POL", 1, "Europe",
+                null, null, null, null, null, null, null, null, null, null, null);
+        when(repository.findProfileViewById(anyLong())).thenAnswer(invocation -> slow(Optional.of(profile)));
+        when(repository.findGameViewsByUserId(anyLong()))
+                .thenAnswer(invocation -> slow(List.<GameView>of()));
+        when(achievementRepository.findValueViewsByUserId(anyLong()))
+                .thenAnswer(invocation -> slow(List.<UserAchievementValueView>of()));
+        when(catalogue.get(anyInt())).thenReturn(Optional.empty());
+        when(catalogue.getAll()).thenReturn(List.of());
+        UserProviderImpl provider = new UserProviderImpl(repository, achievementRepository, mock(UserSettingsRepository.class), catalogue,
+                new UserCacheImpl(0, 0, 0), new DegradedReadGuardImpl(false, 300, 5000),
+                mock(SettingsWriteBuffer.class), new PooledTransactionManager(poolSize), parallelLoad, 10_000);
+
+        provider.get(1L);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) provider.get(1L);
+        return Duration.ofNanos(System.nanoTime() - start).toMillis() / ROUNDS;
+    }
+
+    private static <T> T slow(T result) throws InterruptedException {
+        Thread.sleep(QUERY_LATENCY.toMillis());
+        return result;
+    }
+
+    /**
+     * A transaction manager holding one connection of a pool of limited size for every transaction.
+     */
+    private static final class PooledTransactionManager implements PlatformTransactionManager {
+
+        private final Semaphore connections;
+
+        PooledTransactionManager(int poolSize) {
+            this.connections = new Semaphore(poolSize);
+        }
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            connections.acquireUninterruptibly();
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            connections.release();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            connections.release();
+        }
+
+    }
+
+}
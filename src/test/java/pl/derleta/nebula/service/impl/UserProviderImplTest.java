@@ -2,28 +2,45 @@ package pl.derleta.nebula.service.impl;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
-import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
-import pl.derleta.nebula.domain.entity.GenderEntity;
-import pl.derleta.nebula.domain.entity.NationalityEntity;
-import pl.derleta.nebula.domain.entity.UserEntity;
-import pl.derleta.nebula.domain.mapper.NebulaUserMapper;
-import pl.derleta.nebula.domain.model.Gender;
-import pl.derleta.nebula.domain.model.Nationality;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.derleta.nebula.domain.mapper.UserProjectionMapper;
+import pl.derleta.nebula.domain.model.Achievement;
 import pl.derleta.nebula.domain.model.NebulaUser;
-import pl.derleta.nebula.domain.model.Region;
+import pl.derleta.nebula.domain.model.SettingsVersion;
+import pl.derleta.nebula.domain.model.Theme;
+import pl.derleta.nebula.domain.model.UserFieldSet;
+import pl.derleta.nebula.domain.model.UserSettings;
+import pl.derleta.nebula.domain.model.UserSettingsGeneral;
+import pl.derleta.nebula.domain.model.UserSettingsSound;
+import pl.derleta.nebula.domain.model.VersionedProfile;
+import pl.derleta.nebula.domain.model.VersionedSettings;
+import pl.derleta.nebula.domain.projection.GameView;
+import pl.derleta.nebula.domain.projection.UserAchievementValueView;
+import pl.derleta.nebula.domain.projection.UserProfileView;
+import pl.derleta.nebula.domain.projection.UserVersionView;
+import pl.derleta.nebula.repository.UserAchievementRepository;
 import pl.derleta.nebula.repository.UserRepository;
+import pl.derleta.nebula.repository.UserSettingsRepository;
+import pl.derleta.nebula.service.AchievementCatalogue;
+import pl.derleta.nebula.service.SettingsWriteBuffer;
+import pl.derleta.nebula.service.UserCache;
+import pl.derleta.nebula.util.ETagUtil;
 
 import java.sql.Date;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ActiveProfiles("test")
@@ -33,100 +50,354 @@ class UserProviderImplTest {
     @Mock
     private UserRepository repository;
 
-    @InjectMocks
+    @Mock
+    private UserAchievementRepository achievementRepository;
+
+    @Mock
+    private UserSettingsRepository settingsRepository;
+
+    @Mock
+    private AchievementCatalogue catalogue;
+
+    @Spy
+    private UserCache cache = new UserCacheImpl(100, 1_000_000, 60_000);
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SettingsWriteBuffer writeBuffer;
+
+    private final DegradedReadGuardImpl guard = new DegradedReadGuardImpl(false, 300, 5000);
+
     private UserProviderImpl userProvider;
 
-    private UserEntity testUserEntity;
-    private NebulaUser testNebulaUser;
+    private UserProfileView testProfileView;
+    private Achievement testAchievement;
     private final Long userId = 123L;
 
     @BeforeEach
     void setUp() {
-        // Create a test gender entity
-        GenderEntity genderEntity = new GenderEntity();
-        genderEntity.setId(1);
-        genderEntity.setName("Male");
-
-        // Create a test region entity
-        Region region = new Region(1, "Europe");
-
-        // Create a test nationality entity
-        NationalityEntity nationalityEntity = new NationalityEntity();
-        nationalityEntity.setId(1);
-        nationalityEntity.setName("United States");
-        nationalityEntity.setCode("USA");
-
-        // Create a test user entity
-        testUserEntity = new UserEntity();
-        testUserEntity.setId(userId);
-        testUserEntity.setLogin("testUser");
-        testUserEntity.setEmail("test@example.com");
-        testUserEntity.setFirstName("John");
-        testUserEntity.setLastName("Doe");
-        testUserEntity.setAge(30);
-        testUserEntity.setBirthDate(Date.valueOf(LocalDate.of(1993, 1, 1)));
-        testUserEntity.setGender(genderEntity);
-        testUserEntity.setNationality(nationalityEntity);
-        testUserEntity.setGames(Collections.emptyList());
-        testUserEntity.setAchievements(Collections.emptyList());
-
-        // Create test NebulaUser
-        Gender gender = new Gender(1, "Male");
-        Nationality nationality = new Nationality(1, "United States", "USA", region);
-
-        testNebulaUser = new NebulaUser(
-                userId,
-                "testUser",
-                "test@example.com",
-                "John",
-                "Doe",
-                30,
-                Date.valueOf(LocalDate.of(1993, 1, 1)),
-                gender,
-                nationality,
-                null,
-                Collections.emptyList(),
-                Collections.emptyList()
-        );
+        userProvider = new UserProviderImpl(repository, achievementRepository, settingsRepository, catalogue, cache, guard,
+                writeBuffer, transactionManager, false, 2000);
+        testProfileView = new UserProfileView(userId, "testUser", "test@example.com", "John", "Doe",
+                30, Date.valueOf(LocalDate.of(1993, 1, 1)),
+                1, "Male",
+                1, "United States", "USA", 1, "Europe",
+                userId, userId, 2, "Dark",
+                userId, false, true, 80, 70, 60, null);
+        testAchievement = new Achievement(1, "Achievement 1", 0, 100, "Description 1",
+                "http://example.com/icon1.png", Collections.emptyList());
     }
 
     @Test
     void get_shouldReturnNebulaUser_whenUserExists() {
         // Arrange
-        when(repository.findById(userId)).thenReturn(Optional.of(testUserEntity));
+        when(repository.findProfileViewById(userId)).thenReturn(Optional.of(testProfileView));
+        when(repository.findGameViewsByUserId(userId))
+                .thenReturn(List.of(new GameView(1, "Game 1", true, "icon", "page")));
+        when(achievementRepository.findValueViewsByUserId(userId))
+                .thenReturn(List.of(new UserAchievementValueView(1, 30, 1, 3000)));
+        when(catalogue.get(1)).thenReturn(Optional.of(testAchievement));
+        when(catalogue.getAll()).thenReturn(List.of(testAchievement));
 
-        try (MockedStatic<NebulaUserMapper> mockedMapper = Mockito.mockStatic(NebulaUserMapper.class)) {
-            mockedMapper.when(() -> NebulaUserMapper.toUser(testUserEntity)).thenReturn(testNebulaUser);
+        // Act
+        NebulaUser result = userProvider.get(userId);
 
-            // Act
-            NebulaUser result = userProvider.get(userId);
+        // Assert
+        assertNotNull(result);
+        assertEquals(userId, result.id());
+        assertEquals("testUser", result.login());
+        assertEquals(30, result.age());
+        assertEquals("Male", result.gender().name());
+        assertEquals("Europe", result.nationality().region().name());
+        assertEquals("Dark", result.settings().general().theme().name());
+        assertEquals(80, result.settings().sound().volumeMaster());
+        assertEquals(100, result.settings().sound().volumeVoices());
+        assertEquals(1, result.games().size());
+        assertEquals(30, result.achievements().get(0).value());
+        assertEquals("30,00%", result.achievements().get(0).progress());
+        assertSame(testAchievement, result.achievements().get(0).achievement());
+        verify(catalogue, never()).refresh();
+    }
 
-            // Assert
-            assertNotNull(result);
-            assertEquals(testNebulaUser.id(), result.id());
-            assertEquals(testNebulaUser.login(), result.login());
-            assertEquals(testNebulaUser.email(), result.email());
-            assertEquals(testNebulaUser.firstName(), result.firstName());
-            assertEquals(testNebulaUser.lastName(), result.lastName());
-            assertEquals(testNebulaUser.age(), result.age());
-            assertEquals(testNebulaUser.birthDate(), result.birthDate());
+    @Test
+    void get_repeatedRead_shouldBeServedFromCache() {
+        // Arrange
+        when(repository.findProfileViewById(userId)).thenReturn(Optional.of(testProfileView));
+        when(repository.findGameViewsByUserId(userId)).thenReturn(Collections.emptyList());
+        when(achievementRepository.findValueViewsByUserId(userId)).thenReturn(Collections.emptyList());
+        when(catalogue.getAll()).thenReturn(List.of(testAchievement));
+
+        // Act
+        NebulaUser first = userProvider.get(userId);
+        NebulaUser second = userProvider.get(userId);
+        NebulaUser sparse = userProvider.get(userId, UserFieldSet.parse("login"));
+
+        // Assert
+        assertSame(first, second);
+        assertSame(first, sparse);
+        verify(repository, times(1)).findProfileViewById(userId);
+        verify(repository, never()).findProfileViewById(anyLong(), any(UserFieldSet.class));
+        assertEquals(2, cache.stats().hits());
+    }
+
+    @Test
+    void get_parallelLoad_shouldAssembleAllParts() {
+        // Arrange
+        userProvider = new UserProviderImpl(repository, achievementRepository, settingsRepository, catalogue, cache, guard,
+                writeBuffer, transactionManager, true, 2000);
+        when(repository.findProfileViewById(userId)).thenReturn(Optional.of(testProfileView));
+        when(repository.findGameViewsByUserId(userId))
+                .thenReturn(List.of(new GameView(1, "Game 1", true, "icon", "page")));
+        when(achievementRepository.findValueViewsByUserId(userId))
+                .thenReturn(List.of(new UserAchievementValueView(1, 30, 1, 3000)));
+        when(catalogue.get(1)).thenReturn(Optional.of(testAchievement));
+        when(catalogue.getAll()).thenReturn(List.of(testAchievement));
+
+        // Act
+        NebulaUser result = userProvider.get(userId);
+
+        // Assert
+        assertEquals("testUser", result.login());
+        assertEquals(1, result.games().size());
+        assertEquals(30, result.achievements().get(0).value());
+        verify(transactionManager, times(3)).getTransaction(any());
+    }
+
+    @Test
+    void get_parallelLoadPartFails_shouldFailWholeLoad() {
+        // Arrange
+        userProvider = new UserProviderImpl(repository, achievementRepository, settingsRepository, catalogue, cache, guard,
+                writeBuffer, transactionManager, true, 2000);
+        when(repository.findProfileViewById(userId)).thenReturn(Optional.of(testProfileView));
+        when(repository.findGameViewsByUserId(userId)).thenThrow(new IllegalStateException("games failed"));
+        when(achievementRepository.findValueViewsByUserId(userId)).thenReturn(Collections.emptyList());
+        when(catalogue.getAll()).thenReturn(List.of(testAchievement));
 
-            verify(repository, times(1)).findById(userId);
-            mockedMapper.verify(() -> NebulaUserMapper.toUser(testUserEntity), times(1));
-        }
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> userProvider.get(userId));
+        assertEquals("games failed", exception.getMessage());
+        assertTrue(cache.getIfPresent(userId).isEmpty());
+    }
+
+    @Test
+    void get_storedAchievementMissingFromCatalogue_shouldRefreshCatalogue() {
+        // Arrange
+        when(repository.findProfileViewById(userId)).thenReturn(Optional.of(testProfileView));
+        when(repository.findGameViewsByUserId(userId)).thenReturn(Collections.emptyList());
+        when(achievementRepository.findValueViewsByUserId(userId))
+                .thenReturn(List.of(new UserAchievementValueView(1, 30, 1, 3000)));
+        when(catalogue.get(1)).thenReturn(Optional.empty());
+        when(catalogue.getAll()).thenReturn(List.of(testAchievement));
+
+        // Act
+        NebulaUser result = userProvider.get(userId);
+
+        // Assert
+        verify(catalogue, times(1)).refresh();
+        assertEquals(30, result.achievements().get(0).value());
     }
 
     @Test
     void get_shouldReturnNull_whenUserDoesNotExist() {
         // Arrange
-        when(repository.findById(userId)).thenReturn(Optional.empty());
+        when(repository.findProfileViewById(userId)).thenReturn(Optional.empty());
 
         // Act
         NebulaUser result = userProvider.get(userId);
 
         // Assert
         assertNull(result);
-        verify(repository, times(1)).findById(userId);
+        verify(repository, never()).findGameViewsByUserId(anyLong());
+        verifyNoInteractions(achievementRepository);
+    }
+
+    @Test
+    void get_sparseFields_shouldNotLoadUnrequestedRelations() {
+        // Arrange
+        UserFieldSet fields = UserFieldSet.parse("login,settings.sound");
+        when(repository.findProfileViewById(userId, fields)).thenReturn(Optional.of(testProfileView));
+
+        // Act
+        NebulaUser result = userProvider.get(userId, fields);
+
+        // Assert
+        assertNotNull(result);
+        assertNull(result.games());
+        assertNull(result.achievements());
+        verify(repository, never()).findProfileViewById(anyLong());
+        verify(repository, never()).findGameViewsByUserId(anyLong());
+        verifyNoInteractions(achievementRepository, catalogue);
+    }
+
+    @Test
+    void getETag_shouldBuildETagFromVersionWithoutLoadingUser() {
+        // Arrange
+        Instant updatedAt = Instant.parse("2024-01-01T10:00:00.000123Z");
+        when(repository.findVersionViewById(userId)).thenReturn(Optional.of(new UserVersionView(userId, updatedAt)));
+        when(catalogue.version()).thenReturn(42);
+
+        // Act
+        Optional<String> result = userProvider.getETag(userId, UserFieldSet.ALL);
+
+        // Assert
+        assertEquals(Optional.of(ETagUtil.userETag(userId, updatedAt, 42, UserFieldSet.ALL)), result);
+        verify(repository, never()).findProfileViewById(anyLong());
+        verifyNoInteractions(achievementRepository);
+    }
+
+    @Test
+    void getETag_shouldReturnEmpty_whenUserDoesNotExist() {
+        // Arrange
+        when(repository.findVersionViewById(userId)).thenReturn(Optional.empty());
+
+        // Act
+        Optional<String> result = userProvider.getETag(userId, UserFieldSet.ALL);
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void getVersionedSettings_shouldReadSettingsAndVersionFromDatabase() {
+        // Arrange
+        VersionedSettings stored = new VersionedSettings(new UserSettings(userId, null, null), new SettingsVersion(8, 3, 8));
+        when(settingsRepository.findVersionedSettingsById(userId)).thenReturn(Optional.of(stored));
+
+        // Act
+        Optional<VersionedSettings> result = userProvider.getVersionedSettings(userId);
+
+        // Assert
+        assertEquals(Optional.of(stored), result);
+    }
+
+    @Test
+    void getVersionedSettings_pendingSettings_shouldReturnEmptyWithoutLookup() {
+        // Arrange
+        when(writeBuffer.getPending(userId)).thenReturn(Optional.of(new UserSettings(userId, null, null)));
+
+        // Act
+        Optional<VersionedSettings> result = userProvider.getVersionedSettings(userId);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(settingsRepository, never()).findVersionedSettingsById(anyLong());
+    }
+
+    @Test
+    void getVersionedProfile_shouldReadProfileAndVersionFromDatabase() {
+        // Arrange
+        when(repository.findProfileVersionById(userId)).thenReturn(Optional.of(5L));
+        when(repository.findProfileViewById(userId, UserFieldSet.PROFILE)).thenReturn(Optional.of(testProfileView));
+
+        // Act
+        Optional<VersionedProfile> result = userProvider.getVersionedProfile(userId);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(5L, result.get().version());
+        assertEquals("testUser", result.get().user().login());
+    }
+
+    @Test
+    void getVersionedProfile_cachedUser_shouldServeItsVersionWithoutDatabase() {
+        // Arrange
+        UserProfileView versioned = new UserProfileView(userId, "testUser", "test@example.com", "John", "Doe",
+                30, Date.valueOf(LocalDate.of(1993, 1, 1)),
+                1, "Male",
+                1, "United States", "USA", 1, "Europe",
+                userId, userId, 2, "Dark",
+                userId, false, true, 80, 70, 60, null, null, 7L);
+        NebulaUser cached = cache.refresh(userId, id -> UserProjectionMapper.toUser(versioned, null, null));
+
+        // Act
+        Optional<VersionedProfile> result = userProvider.getVersionedProfile(userId);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertSame(cached, result.get().user());
+        assertEquals(7L, result.get().version());
+        verify(repository, never()).findProfileVersionById(anyLong());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void getVersionedProfile_cachedUserWithoutVersion_shouldReadDatabase() {
+        // Arrange
+        cache.refresh(userId, id -> UserProjectionMapper.toUser(testProfileView, null, null));
+        when(repository.findProfileVersionById(userId)).thenReturn(Optional.of(5L));
+        when(repository.findProfileViewById(userId, UserFieldSet.PROFILE)).thenReturn(Optional.of(testProfileView));
+
+        // Act
+        Optional<VersionedProfile> result = userProvider.getVersionedProfile(userId);
+
+        // Assert
+        assertEquals(5L, result.orElseThrow().version());
+        verify(repository, times(1)).findProfileVersionById(userId);
+    }
+
+    @Test
+    void get_pendingSettings_shouldReplaceLoadedSettings() {
+        // Arrange
+        UserSettings pending = new UserSettings(userId, new UserSettingsGeneral(userId, new Theme(3, "Light")),
+                new UserSettingsSound(userId, true, false, 10, 20, 30, 40));
+        when(repository.findProfileViewById(userId, UserFieldSet.SETTINGS)).thenReturn(Optional.of(testProfileView));
+        when(writeBuffer.getPending(userId)).thenReturn(Optional.of(pending));
+
+        // Act
+        NebulaUser result = userProvider.get(userId, UserFieldSet.SETTINGS);
+
+        // Assert
+        assertSame(pending, result.settings());
+        assertEquals("testUser", result.login());
+    }
+
+    @Test
+    void getETag_pendingSettings_shouldChangeTagWithPendingContentWithoutLoadingUser() {
+        // Arrange
+        Instant updatedAt = Instant.parse("2024-01-01T10:00:00.000123Z");
+        UserSettings pending = new UserSettings(userId, new UserSettingsGeneral(userId, new Theme(3, "Light")),
+                new UserSettingsSound(userId, true, false, 10, 20, 30, 40));
+        when(repository.findVersionViewById(userId)).thenReturn(Optional.of(new UserVersionView(userId, updatedAt)));
+        when(catalogue.version()).thenReturn(42);
+        when(writeBuffer.getPending(userId)).thenReturn(Optional.of(pending));
+
+        // Act
+        Optional<String> result = userProvider.getETag(userId, UserFieldSet.ALL);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertNotEquals(ETagUtil.userETag(userId, updatedAt, 42, UserFieldSet.ALL), result.get());
+        assertEquals(ETagUtil.userETag(userId, updatedAt, 42, UserFieldSet.ALL, ETagUtil.contentVersion(pending)), result.get());
+        verify(repository, never()).findProfileViewById(anyLong());
+    }
+
+    @Test
+    void get_degradedDatabase_shouldServeExpiredCachedUser() {
+        // Arrange
+        UserCacheImpl expiringCache = new UserCacheImpl(100, 1_000_000, 0);
+        userProvider = new UserProviderImpl(repository, achievementRepository, settingsRepository, catalogue, expiringCache,
+                new DegradedReadGuardImpl(true, 300, 5000), writeBuffer, transactionManager, false, 2000);
+        NebulaUser cached = expiringCache.refresh(userId, id -> UserProjectionMapper.toUser(testProfileView, null, null));
+        when(transactionManager.getTransaction(any())).thenThrow(new CannotCreateTransactionException("pool exhausted"));
+
+        // Act
+        NebulaUser result = userProvider.get(userId);
+
+        // Assert
+        assertSame(cached, result);
+    }
+
+    @Test
+    void get_degradedDatabaseWithoutCachedUser_shouldFail() {
+        // Arrange
+        userProvider = new UserProviderImpl(repository, achievementRepository, settingsRepository, catalogue, cache,
+                new DegradedReadGuardImpl(true, 300, 5000), writeBuffer, transactionManager, false, 2000);
+        when(transactionManager.getTransaction(any())).thenThrow(new CannotCreateTransactionException("pool exhausted"));
+
+        // Act & Assert
+        assertThrows(CannotCreateTransactionException.class, () -> userProvider.get(userId));
     }
 
 }
@@ -0,0 +1,374 @@
+package pl.derleta.nebula.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.derleta.nebula.controller.request.AccountRegistrationRequest;
+import pl.derleta.nebula.domain.entity.GenderEntity;
+import pl.derleta.nebula.domain.entity.NationalityEntity;
+import pl.derleta.nebula.domain.entity.UserEntity;
+import pl.derleta.nebula.domain.entity.UserProvisioningEntity;
+import pl.derleta.nebula.domain.entity.UserSettingsEntity;
+import pl.derleta.nebula.domain.mapper.UserSettingsDocumentMapper;
+import pl.derleta.nebula.domain.model.UserSettings;
+import pl.derleta.nebula.domain.rest.Role;
+import pl.derleta.nebula.domain.rest.UserAccount;
+import pl.derleta.nebula.domain.rest.UserRoles;
+import pl.derleta.nebula.domain.types.ProvisioningStatus;
+import pl.derleta.nebula.repository.*;
+import pl.derleta.nebula.service.UserProvisioningUpdater;
+import pl.derleta.nebula.util.HttpAuthClient;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserProvisioningUpdaterImplTest {
+
+    @Mock
+    private HttpAuthClient httpAuthServClient;
+
+    @Mock
+    private UserProvisioningRepository provisioningRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private NationalityRepository nationalityRepository;
+
+    @Mock
+    private GenderRepository genderRepository;
+
+    @Mock
+    private GameRepository gameRepository;
+
+    @Mock
+    private AchievementRepository achievementRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserProvisioningUpdaterImpl provisioningUpdater;
+
+    @BeforeEach
+    void setUp() {
+        provisioningUpdater = new UserProvisioningUpdaterImpl(httpAuthServClient, provisioningRepository, userRepository,
+                nationalityRepository, genderRepository, gameRepository, achievementRepository, transactionManager,
+                1, 10, 3, 1000, 60_000, false, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        provisioningUpdater.shutdown();
+    }
+
+    @Test
+    void reserve_newLogin_shouldInsertRecordDueAtEndOfReservation() {
+        // Arrange
+        AccountRegistrationRequest request = getRegistrationRequest();
+        when(provisioningRepository.reservePendingIfAbsent(eq("username"), eq("email@example.com"),
+                eq(Date.valueOf("1990-01-01")), eq(1), eq(1), any(Instant.class), any(Instant.class))).thenReturn(1);
+
+        // Act
+        Optional<UserProvisioningUpdater.Reservation> result = provisioningUpdater.reserve(request);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("username", result.get().login());
+        assertEquals(Duration.ofMillis(60_000), Duration.between(result.get().reservedAt(), result.get().reservedUntil()));
+        verify(provisioningRepository).reservePendingIfAbsent(eq("username"), eq("email@example.com"),
+                eq(Date.valueOf("1990-01-01")), eq(1), eq(1), eq(result.get().reservedAt()), eq(result.get().reservedUntil()));
+        verify(provisioningRepository, never()).save(any());
+    }
+
+    @Test
+    void reserve_alreadyQueuedLogin_shouldReturnEmpty() {
+        // Arrange
+        when(provisioningRepository.reservePendingIfAbsent(eq("username"), eq("email@example.com"),
+                any(), any(), any(), any(Instant.class), any(Instant.class))).thenReturn(0);
+
+        // Act
+        Optional<UserProvisioningUpdater.Reservation> result = provisioningUpdater.reserve(getRegistrationRequest());
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void activate_reservation_shouldMakeRecordDue() {
+        // Arrange
+        Instant reservedAt = Instant.parse("2025-01-01T10:00:00Z");
+        Instant reservedUntil = reservedAt.plusSeconds(60);
+
+        // Act
+        provisioningUpdater.activate(new UserProvisioningUpdater.Reservation("username", reservedAt, reservedUntil));
+
+        // Assert
+        verify(provisioningRepository).activateReservation(eq("username"), eq(reservedAt), eq(reservedUntil),
+                any(Instant.class));
+    }
+
+    @Test
+    void cancel_failedRemoval_shouldBeIgnored() {
+        // Arrange
+        Instant reservedAt = Instant.parse("2025-01-01T10:00:00Z");
+        Instant reservedUntil = reservedAt.plusSeconds(60);
+        when(provisioningRepository.deleteReservation("username", reservedAt, reservedUntil))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> provisioningUpdater.cancel(
+                new UserProvisioningUpdater.Reservation("username", reservedAt, reservedUntil)));
+    }
+
+    @Test
+    void processPending_newUser_shouldCreateUserAndMarkDone() {
+        // Arrange
+        UserProvisioningEntity record = getPendingRecord();
+        when(provisioningRepository.findDue(eq(ProvisioningStatus.PENDING), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(record));
+        when(provisioningRepository.claim(eq(1L), eq(ProvisioningStatus.PENDING), any(Instant.class), any(Instant.class)))
+                .thenReturn(1);
+        when(httpAuthServClient.getAccount(any(AccountRegistrationRequest.class))).thenReturn(getUserRoles());
+        when(userRepository.existsById(1000L)).thenReturn(false);
+        when(nationalityRepository.findById(1)).thenReturn(Optional.of(new NationalityEntity(1, "Poland", "POL", null)));
+        when(genderRepository.findById(1)).thenReturn(Optional.of(new GenderEntity(1, "Male")));
+        when(gameRepository.findAll()).thenReturn(Collections.emptyList());
+        when(achievementRepository.findAll()).thenReturn(Collections.emptyList());
+        claimHeld();
+
+        // Act
+        int processed = provisioningUpdater.processPending();
+
+        // Assert
+        assertEquals(1, processed);
+        verify(userRepository, times(1)).save(any(UserEntity.class));
+        assertEquals(ProvisioningStatus.DONE, record.getStatus());
+        assertEquals(1000L, record.getUserId());
+        verify(provisioningRepository).updateClaimed(eq(1L), any(Instant.class), eq(ProvisioningStatus.DONE),
+                eq(1000L), eq(0), any(Instant.class), isNull());
+    }
+
+    @Test
+    void processPending_sparseAchievements_shouldNotCreateZeroAchievementRows() {
+        // Arrange
+        provisioningUpdater.shutdown();
+        provisioningUpdater = new UserProvisioningUpdaterImpl(httpAuthServClient, provisioningRepository, userRepository,
+                nationalityRepository, genderRepository, gameRepository, achievementRepository, transactionManager,
+                1, 10, 3, 1000, 60_000, true, false);
+        when(provisioningRepository.findDue(eq(ProvisioningStatus.PENDING), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(getPendingRecord()));
+        when(provisioningRepository.claim(eq(1L), eq(ProvisioningStatus.PENDING), any(Instant.class), any(Instant.class)))
+                .thenReturn(1);
+        when(httpAuthServClient.getAccount(any(AccountRegistrationRequest.class))).thenReturn(getUserRoles());
+        when(userRepository.existsById(1000L)).thenReturn(false);
+        when(nationalityRepository.findById(1)).thenReturn(Optional.of(new NationalityEntity(1, "Poland", "POL", null)));
+        when(genderRepository.findById(1)).thenReturn(Optional.of(new GenderEntity(1, "Male")));
+        when(gameRepository.findAll()).thenReturn(Collections.emptyList());
+        claimHeld();
+
+        // Act
+        provisioningUpdater.processPending();
+
+        // Assert
+        ArgumentCaptor<UserEntity> captor = ArgumentCaptor.forClass(UserEntity.class);
+        verify(userRepository).save(captor.capture());
+        assertTrue(captor.getValue().getAchievements().isEmpty());
+        verifyNoInteractions(achievementRepository);
+    }
+
+    @Test
+    void processPending_documentSettings_shouldStoreDefaultSettingsDocument() {
+        // Arrange
+        provisioningUpdater.shutdown();
+        provisioningUpdater = new UserProvisioningUpdaterImpl(httpAuthServClient, provisioningRepository, userRepository,
+                nationalityRepository, genderRepository, gameRepository, achievementRepository, transactionManager,
+                1, 10, 3, 1000, 60_000, true, true);
+        when(provisioningRepository.findDue(eq(ProvisioningStatus.PENDING), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(getPendingRecord()));
+        when(provisioningRepository.claim(eq(1L), eq(ProvisioningStatus.PENDING), any(Instant.class), any(Instant.class)))
+                .thenReturn(1);
+        when(httpAuthServClient.getAccount(any(AccountRegistrationRequest.class))).thenReturn(getUserRoles());
+        when(userRepository.existsById(1000L)).thenReturn(false);
+        when(nationalityRepository.findById(1)).thenReturn(Optional.of(new NationalityEntity(1, "Poland", "POL", null)));
+        when(genderRepository.findById(1)).thenReturn(Optional.of(new GenderEntity(1, "Male")));
+        when(gameRepository.findAll()).thenReturn(Collections.emptyList());
+        claimHeld();
+
+        // Act
+        provisioningUpdater.processPending();
+
+        // Assert
+        ArgumentCaptor<UserEntity> captor = ArgumentCaptor.forClass(UserEntity.class);
+        verify(userRepository).save(captor.capture());
+        UserSettingsEntity settings = captor.getValue().getSettings();
+        assertNotNull(settings.getGeneral());
+        UserSettings stored = UserSettingsDocumentMapper.toSettings(1000L, settings.getDocument(), true, true);
+        assertEquals(17, stored.general().theme().id());
+        assertEquals(100, stored.sound().volumeMaster());
+    }
+
+    @Test
+    void processPending_existingUser_shouldSkipInsertAndMarkDone() {
+        // Arrange
+        UserProvisioningEntity record = getPendingRecord();
+        when(provisioningRepository.findDue(eq(ProvisioningStatus.PENDING), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(record));
+        when(provisioningRepository.claim(eq(1L), eq(ProvisioningStatus.PENDING), any(Instant.class), any(Instant.class)))
+                .thenReturn(1);
+        when(httpAuthServClient.getAccount(any(AccountRegistrationRequest.class))).thenReturn(getUserRoles());
+        when(userRepository.existsById(1000L)).thenReturn(true);
+        claimHeld();
+
+        // Act
+        provisioningUpdater.processPending();
+
+        // Assert
+        verify(userRepository, never()).save(any(UserEntity.class));
+        assertEquals(ProvisioningStatus.DONE, record.getStatus());
+    }
+
+    @Test
+    void processPending_remoteFailure_shouldRescheduleRecord() {
+        // Arrange
+        UserProvisioningEntity record = getPendingRecord();
+        Instant before = record.getNextAttemptAt();
+        when(provisioningRepository.findDue(eq(ProvisioningStatus.PENDING), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(record));
+        when(provisioningRepository.claim(eq(1L), eq(ProvisioningStatus.PENDING), any(Instant.class), any(Instant.class)))
+                .thenReturn(1);
+        when(httpAuthServClient.getAccount(any(AccountRegistrationRequest.class))).thenThrow(new RuntimeException("timeout"));
+
+        // Act
+        provisioningUpdater.processPending();
+
+        // Assert
+        assertEquals(ProvisioningStatus.PENDING, record.getStatus());
+        assertEquals(1, record.getAttempts());
+        assertEquals("timeout", record.getLastError());
+        assertTrue(record.getNextAttemptAt().isAfter(before));
+        verify(userRepository, never()).save(any(UserEntity.class));
+    }
+
+    @Test
+    void processPending_lastAttemptFailure_shouldMarkFailed() {
+        // Arrange
+        UserProvisioningEntity record = getPendingRecord();
+        record.setAttempts(2);
+        when(provisioningRepository.findDue(eq(ProvisioningStatus.PENDING), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(record));
+        when(provisioningRepository.claim(eq(1L), eq(ProvisioningStatus.PENDING), any(Instant.class), any(Instant.class)))
+                .thenReturn(1);
+        when(httpAuthServClient.getAccount(any(AccountRegistrationRequest.class))).thenReturn(null);
+
+        // Act
+        provisioningUpdater.processPending();
+
+        // Assert
+        assertEquals(ProvisioningStatus.FAILED, record.getStatus());
+        assertEquals(3, record.getAttempts());
+    }
+
+    @Test
+    void processPending_claimLostDuringWork_shouldRollBackAndKeepOtherWorkersClaim() {
+        // Arrange
+        UserProvisioningEntity record = getPendingRecord();
+        when(provisioningRepository.findDue(eq(ProvisioningStatus.PENDING), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(record));
+        when(provisioningRepository.claim(eq(1L), eq(ProvisioningStatus.PENDING), any(Instant.class), any(Instant.class)))
+                .thenReturn(1);
+        when(httpAuthServClient.getAccount(any(AccountRegistrationRequest.class))).thenReturn(getUserRoles());
+        when(userRepository.existsById(1000L)).thenReturn(true);
+        when(provisioningRepository.updateClaimed(anyLong(), any(), any(), any(), anyInt(), any(), any())).thenReturn(0);
+
+        // Act
+        provisioningUpdater.processPending();
+
+        // Assert
+        ArgumentCaptor<Instant> leaseUntil = ArgumentCaptor.forClass(Instant.class);
+        verify(provisioningRepository).claim(eq(1L), eq(ProvisioningStatus.PENDING), any(Instant.class), leaseUntil.capture());
+        verify(provisioningRepository).updateClaimed(eq(1L), eq(leaseUntil.getValue()), eq(ProvisioningStatus.DONE),
+                eq(1000L), eq(0), any(), isNull());
+        verify(provisioningRepository).updateClaimed(eq(1L), eq(leaseUntil.getValue()), eq(ProvisioningStatus.PENDING),
+                eq(1000L), eq(1), any(), any());
+        verify(transactionManager).rollback(any());
+        verify(provisioningRepository, never()).save(any());
+    }
+
+    @Test
+    void processPending_recordClaimedByAnotherInstance_shouldSkipRecord() {
+        // Arrange
+        UserProvisioningEntity record = getPendingRecord();
+        when(provisioningRepository.findDue(eq(ProvisioningStatus.PENDING), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(record));
+        when(provisioningRepository.claim(eq(1L), eq(ProvisioningStatus.PENDING), any(Instant.class), any(Instant.class)))
+                .thenReturn(0);
+
+        // Act
+        int processed = provisioningUpdater.processPending();
+
+        // Assert
+        assertEquals(0, processed);
+        verifyNoInteractions(httpAuthServClient);
+        verify(provisioningRepository, never()).save(any());
+    }
+
+    @Test
+    void processPending_noDueRecords_shouldReturnZero() {
+        // Arrange
+        when(provisioningRepository.findDue(eq(ProvisioningStatus.PENDING), any(Instant.class), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        int processed = provisioningUpdater.processPending();
+
+        // Assert
+        assertEquals(0, processed);
+        verifyNoInteractions(httpAuthServClient);
+    }
+
+    private void claimHeld() {
+        when(provisioningRepository.updateClaimed(anyLong(), any(), any(), any(), anyInt(), any(), any())).thenReturn(1);
+    }
+
+    private AccountRegistrationRequest getRegistrationRequest() {
+        return AccountRegistrationRequest.builder()
+                .login("username")
+                .email("email@example.com")
+                .password("password")
+                .birthdate(Date.valueOf("1990-01-01"))
+                .nationality(1)
+                .gender(1)
+                .build();
+    }
+
+    private UserProvisioningEntity getPendingRecord() {
+        Instant now = Instant.now();
+        return new UserProvisioningEntity(1L, null, "username", "email@example.com", Date.valueOf("1990-01-01"),
+                1, 1, ProvisioningStatus.PENDING, 0, now, null, now);
+    }
+
+    private UserRoles getUserRoles() {
+        return new UserRoles(new UserAccount(1000L, "username", "email@example.com"), Set.of(new Role(1, "ROLE_USER")));
+    }
+
+}
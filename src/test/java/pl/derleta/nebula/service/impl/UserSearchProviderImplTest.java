@@ -0,0 +1,136 @@
+package pl.derleta.nebula.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.derleta.nebula.controller.request.UserSearchRequest;
+import pl.derleta.nebula.domain.model.NebulaUser;
+import pl.derleta.nebula.domain.model.UserSearchPage;
+import pl.derleta.nebula.domain.projection.UserSearchView;
+import pl.derleta.nebula.exceptions.InvalidUserSearchException;
+import pl.derleta.nebula.repository.UserRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSearchProviderImplTest {
+
+    @Mock
+    private UserRepository repository;
+
+    private UserSearchProviderImpl searchProvider;
+
+    @BeforeEach
+    void setUp() {
+        searchProvider = new UserSearchProviderImpl(repository, 10);
+    }
+
+    @Test
+    void search_moreRowsThanPageSize_shouldReturnPageAndNextCursor() {
+        // Arrange
+        when(repository.searchViews(any(), eq("login"), eq(true), eq(3))).thenReturn(views(1, 2, 3));
+
+        // Act
+        UserSearchPage result = searchProvider.search(request(2, "login", "asc", null));
+
+        // Assert
+        assertEquals(List.of(1L, 2L), result.users().stream().map(NebulaUser::id).toList());
+        assertEquals("user2", result.users().get(1).login());
+        assertNotNull(result.nextCursor());
+    }
+
+    @Test
+    void search_lastPage_shouldNotReturnNextCursor() {
+        // Arrange
+        when(repository.searchViews(any(), eq("id"), eq(true), eq(3))).thenReturn(views(1, 2));
+
+        // Act
+        UserSearchPage result = searchProvider.search(request(2, null, null, null));
+
+        // Assert
+        assertEquals(2, result.users().size());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void search_cursorOfPreviousPage_shouldReadNextPage() {
+        // Arrange
+        when(repository.searchViews(any(), eq("updatedAt"), eq(false), eq(3)))
+                .thenReturn(views(5, 4, 3))
+                .thenReturn(views(3));
+        String cursor = searchProvider.search(request(2, "updatedAt", "desc", null)).nextCursor();
+
+        // Act
+        UserSearchPage result = searchProvider.search(request(2, "updatedAt", "desc", cursor));
+
+        // Assert
+        assertEquals(List.of(3L), result.users().stream().map(NebulaUser::id).toList());
+        assertNull(result.nextCursor());
+        verify(repository, times(2)).searchViews(any(), eq("updatedAt"), eq(false), eq(3));
+    }
+
+    @Test
+    void search_cursorOfOtherOrder_shouldThrowException() {
+        // Arrange
+        when(repository.searchViews(any(), eq("email"), eq(true), eq(2))).thenReturn(views(1, 2));
+        String cursor = searchProvider.search(request(1, "email", "asc", null)).nextCursor();
+
+        // Act & Assert
+        assertThrows(InvalidUserSearchException.class,
+                () -> searchProvider.search(request(1, "email", "desc", cursor)));
+    }
+
+    @Test
+    void search_malformedCursor_shouldThrowException() {
+        // Act & Assert
+        assertThrows(InvalidUserSearchException.class,
+                () -> searchProvider.search(request(1, "id", "asc", "not a cursor")));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void search_unsupportedSortField_shouldThrowException() {
+        // Act & Assert
+        assertThrows(InvalidUserSearchException.class,
+                () -> searchProvider.search(request(1, "firstName", "asc", null)));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void search_pageSizeAboveMaximum_shouldBeLimited() {
+        // Arrange
+        when(repository.searchViews(any(), anyString(), anyBoolean(), anyInt())).thenReturn(List.of());
+
+        // Act
+        searchProvider.search(request(1000, "id", "asc", null));
+
+        // Assert
+        verify(repository).searchViews(any(), eq("id"), eq(true), eq(11));
+    }
+
+    private UserSearchRequest request(int size, String sortBy, String sortOrder, String cursor) {
+        return UserSearchRequest.builder()
+                .size(size).sortBy(sortBy).sortOrder(sortOrder).cursor(cursor)
+                .build();
+    }
+
+    private List<UserSearchView> views(long... ids) {
+        return LongStream.of(ids)
+                .mapToObj(id -> new UserSearchView(id, "user" + id, "user" + id + "@example.com", null, null,
+                        30, null, null, null, null, null, null, null, null, Instant.parse("2025-01-01T00:00:00Z").plusSeconds(id)))
+                .toList();
+    }
+
+}
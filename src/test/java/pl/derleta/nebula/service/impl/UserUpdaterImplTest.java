@@ -4,35 +4,39 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
-import org.mockito.Mockito;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import pl.derleta.nebula.controller.request.ProfileUpdateRequest;
 import pl.derleta.nebula.controller.request.Request;
 import pl.derleta.nebula.domain.entity.GenderEntity;
 import pl.derleta.nebula.domain.entity.NationalityEntity;
-import pl.derleta.nebula.domain.entity.ThemeEntity;
 import pl.derleta.nebula.domain.entity.UserEntity;
-import pl.derleta.nebula.domain.entity.UserSettingsEntity;
-import pl.derleta.nebula.domain.entity.UserSettingsGeneralEntity;
-import pl.derleta.nebula.domain.entity.UserSettingsSoundEntity;
-import pl.derleta.nebula.domain.mapper.NebulaUserMapper;
-import pl.derleta.nebula.domain.mapper.UserSettingsMapper;
 import pl.derleta.nebula.domain.model.Gender;
 import pl.derleta.nebula.domain.model.Nationality;
 import pl.derleta.nebula.domain.model.NebulaUser;
 import pl.derleta.nebula.domain.model.Region;
+import pl.derleta.nebula.domain.model.SettingsVersion;
 import pl.derleta.nebula.domain.model.Theme;
+import pl.derleta.nebula.domain.model.UserFieldSet;
 import pl.derleta.nebula.domain.model.UserSettings;
 import pl.derleta.nebula.domain.model.UserSettingsGeneral;
+import pl.derleta.nebula.domain.model.UserSettingsPatch;
 import pl.derleta.nebula.domain.model.UserSettingsSound;
+import pl.derleta.nebula.domain.model.VersionedProfile;
+import pl.derleta.nebula.domain.model.VersionedSettings;
+import pl.derleta.nebula.domain.projection.UserProfileView;
+import pl.derleta.nebula.exceptions.ProfileVersionConflictException;
+import pl.derleta.nebula.exceptions.SettingsVersionConflictException;
+import pl.derleta.nebula.repository.ThemeRepository;
 import pl.derleta.nebula.repository.UserRepository;
 import pl.derleta.nebula.repository.UserSettingsRepository;
+import pl.derleta.nebula.service.SettingsWriteBuffer;
+import pl.derleta.nebula.service.UserCache;
 
 import java.sql.Date;
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -48,6 +52,15 @@ class UserUpdaterImplTest {
     @Mock
     private UserSettingsRepository userSettingsRepository;
 
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private SettingsWriteBuffer writeBuffer;
+
+    @Mock
+    private ThemeRepository themeRepository;
+
     @InjectMocks
     private UserUpdaterImpl userUpdater;
 
@@ -55,8 +68,8 @@ class UserUpdaterImplTest {
     private UserEntity testUserEntity;
     private NebulaUser testNebulaUser;
     private ProfileUpdateRequest testProfileUpdateRequest;
+    private UserProfileView testProfileView;
     private UserSettings testUserSettings;
-    private UserSettingsEntity testUserSettingsEntity;
 
     @BeforeEach
     void setUp() {
@@ -107,6 +120,12 @@ class UserUpdaterImplTest {
                 Collections.emptyList()
         );
 
+        testProfileView = new UserProfileView(userId, "testUser", "test@example.com", "John", "Doe",
+                30, Date.valueOf(LocalDate.of(1993, 1, 1)),
+                1, "Male",
+                1, "United States", "USA", 1, "Europe",
+                null, null, null, null, null, null, null, null, null, null, null);
+
         // Create a test ProfileUpdateRequest
         testProfileUpdateRequest = ProfileUpdateRequest.builder()
                 .userId(userId)
@@ -119,66 +138,77 @@ class UserUpdaterImplTest {
 
         // Create a test Theme
         Theme theme = new Theme(1, "Dark");
-        ThemeEntity themeEntity = new ThemeEntity();
-        themeEntity.setId(1);
-        themeEntity.setName("Dark");
 
         // Create test UserSettingsGeneral
         UserSettingsGeneral userSettingsGeneral = new UserSettingsGeneral(userId, theme);
-        UserSettingsGeneralEntity userSettingsGeneralEntity = new UserSettingsGeneralEntity();
-        userSettingsGeneralEntity.setId(userId);
-        userSettingsGeneralEntity.setTheme(themeEntity);
 
         // Create test UserSettingsSound
         UserSettingsSound userSettingsSound = new UserSettingsSound(
                 userId, false, true, 80, 70, 60, 50);
-        UserSettingsSoundEntity userSettingsSoundEntity = new UserSettingsSoundEntity();
-        userSettingsSoundEntity.setId(userId);
-        userSettingsSoundEntity.setMuted(false);
-        userSettingsSoundEntity.setBattleCry(true);
-        userSettingsSoundEntity.setVolumeMaster(80);
-        userSettingsSoundEntity.setVolumeMusic(70);
-        userSettingsSoundEntity.setVolumeEffects(60);
-        userSettingsSoundEntity.setVolumeVoices(50);
 
         // Create test UserSettings
         testUserSettings = new UserSettings(userId, userSettingsGeneral, userSettingsSound);
-
-        // Create a test UserSettingsEntity
-        testUserSettingsEntity = new UserSettingsEntity();
-        testUserSettingsEntity.setId(userId);
-        testUserSettingsEntity.setGeneral(userSettingsGeneralEntity);
-        testUserSettingsEntity.setSound(userSettingsSoundEntity);
     }
 
     @Test
     void updateProfile_shouldReturnUpdatedUser_whenValidProfileUpdateRequestProvided() {
         // Arrange
-        when(userRepository.getReferenceById(userId)).thenReturn(testUserEntity);
-        doNothing().when(userRepository).updateUserDetails(
-                eq(userId), eq("John"), eq("Doe"), 
-                eq(Date.valueOf(LocalDate.of(1993, 1, 1))), eq(1), eq(1));
-
-        try (MockedStatic<NebulaUserMapper> mockedMapper = Mockito.mockStatic(NebulaUserMapper.class)) {
-            mockedMapper.when(() -> NebulaUserMapper.toUser(testUserEntity)).thenReturn(testNebulaUser);
-            
-            // Act
-            NebulaUser result = userUpdater.updateProfile(testProfileUpdateRequest);
-            
-            // Assert
-            assertNotNull(result);
-            assertEquals(testNebulaUser.id(), result.id());
-            assertEquals(testNebulaUser.login(), result.login());
-            assertEquals(testNebulaUser.email(), result.email());
-            assertEquals(testNebulaUser.firstName(), result.firstName());
-            assertEquals(testNebulaUser.lastName(), result.lastName());
-            
-            verify(userRepository, times(1)).updateUserDetails(
-                    eq(userId), eq("John"), eq("Doe"), 
-                    eq(Date.valueOf(LocalDate.of(1993, 1, 1))), eq(1), eq(1));
-            verify(userRepository, times(1)).getReferenceById(userId);
-            mockedMapper.verify(() -> NebulaUserMapper.toUser(testUserEntity), times(1));
-        }
+        when(userRepository.updateProfileFields(userId, "John", "Doe",
+                Date.valueOf(LocalDate.of(1993, 1, 1)), 1, 1, null)).thenReturn(1);
+        when(userRepository.findProfileVersionById(userId)).thenReturn(Optional.of(2L));
+        when(userRepository.findProfileViewById(userId, UserFieldSet.PROFILE)).thenReturn(Optional.of(testProfileView));
+
+        // Act
+        VersionedProfile result = userUpdater.updateProfile(testProfileUpdateRequest);
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(2L, result.version());
+        assertEquals(testNebulaUser.id(), result.user().id());
+        assertEquals(testNebulaUser.login(), result.user().login());
+        assertEquals(testNebulaUser.email(), result.user().email());
+        assertEquals(testNebulaUser.firstName(), result.user().firstName());
+        assertEquals(testNebulaUser.lastName(), result.user().lastName());
+        assertNull(result.user().games());
+        assertNull(result.user().achievements());
+        verify(userRepository, never()).getReferenceById(anyLong());
+        verify(userCache, times(1)).invalidate(userId);
+    }
+
+    @Test
+    void updateProfile_partialRequest_shouldPassOnlyGivenFields() {
+        // Arrange
+        ProfileUpdateRequest request = ProfileUpdateRequest.builder()
+                .userId(userId)
+                .lastName("Smith")
+                .build();
+        when(userRepository.updateProfileFields(userId, null, "Smith", null, null, null, null)).thenReturn(1);
+        when(userRepository.findProfileVersionById(userId)).thenReturn(Optional.of(2L));
+        when(userRepository.findProfileViewById(userId, UserFieldSet.PROFILE)).thenReturn(Optional.of(testProfileView));
+
+        // Act
+        VersionedProfile result = userUpdater.updateProfile(request);
+
+        // Assert
+        assertNotNull(result);
+        verify(userRepository, times(1)).updateProfileFields(userId, null, "Smith", null, null, null, null);
+        verify(userCache, times(1)).invalidate(userId);
+    }
+
+    @Test
+    void updateProfile_missingUser_shouldReturnNull() {
+        // Arrange
+        when(userRepository.updateProfileFields(userId, "John", "Doe",
+                Date.valueOf(LocalDate.of(1993, 1, 1)), 1, 1, null)).thenReturn(0);
+        when(userRepository.findProfileVersionById(userId)).thenReturn(Optional.empty());
+
+        // Act
+        VersionedProfile result = userUpdater.updateProfile(testProfileUpdateRequest);
+
+        // Assert
+        assertNull(result);
+        verify(userRepository, never()).findProfileViewById(anyLong(), any());
+        verify(userCache, never()).invalidate(anyLong());
     }
 
     @Test
@@ -187,39 +217,199 @@ class UserUpdaterImplTest {
         Request invalidRequest = new Request() {};
         
         // Act
-        NebulaUser result = userUpdater.updateProfile(invalidRequest);
+        VersionedProfile result = userUpdater.updateProfile(invalidRequest);
         
         // Assert
         assertNull(result);
-        verify(userRepository, never()).updateUserDetails(
-                anyLong(), anyString(), anyString(), any(Date.class), anyInt(), anyInt());
+        verify(userRepository, never()).updateProfileFields(
+                anyLong(), any(), any(), any(), any(), any(), any());
         verify(userRepository, never()).getReferenceById(anyLong());
     }
 
     @Test
     void updateSettings_shouldReturnUpdatedSettings_whenValidSettingsProvided() {
         // Arrange
-        when(userSettingsRepository.save(any(UserSettingsEntity.class))).thenReturn(testUserSettingsEntity);
+        when(userSettingsRepository.writeSettings(testUserSettings, true, true, null)).thenReturn(testUserSettings);
         doNothing().when(userRepository).updateUserUpdatedAt(userId);
-        
-        try (MockedStatic<UserSettingsMapper> mockedMapper = Mockito.mockStatic(UserSettingsMapper.class)) {
-            mockedMapper.when(() -> UserSettingsMapper.toEntity(testUserSettings)).thenReturn(testUserSettingsEntity);
-            mockedMapper.when(() -> UserSettingsMapper.toSetting(testUserSettingsEntity)).thenReturn(testUserSettings);
-            
-            // Act
-            UserSettings result = userUpdater.updateSettings(testUserSettings);
-            
-            // Assert
-            assertNotNull(result);
-            assertEquals(testUserSettings.userId(), result.userId());
-            assertEquals(testUserSettings.general().userId(), result.general().userId());
-            assertEquals(testUserSettings.sound().userId(), result.sound().userId());
-            
-            verify(userSettingsRepository, times(1)).save(testUserSettingsEntity);
-            verify(userRepository, times(1)).updateUserUpdatedAt(userId);
-            mockedMapper.verify(() -> UserSettingsMapper.toEntity(testUserSettings), times(1));
-            mockedMapper.verify(() -> UserSettingsMapper.toSetting(testUserSettingsEntity), times(1));
-        }
+
+        // Act
+        UserSettings result = userUpdater.updateSettings(testUserSettings);
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(testUserSettings.userId(), result.userId());
+        assertEquals(testUserSettings.general().userId(), result.general().userId());
+        assertEquals(testUserSettings.sound().userId(), result.sound().userId());
+
+        verify(userSettingsRepository, times(1)).writeSettings(testUserSettings, true, true, null);
+        verify(userRepository, times(1)).updateUserUpdatedAt(userId);
+        verify(userCache, times(1)).update(eq(userId.longValue()), any());
+    }
+
+    @Test
+    void updateSettings_unchangedValues_shouldReturnStoredSettingsWithoutWriting() {
+        // Arrange
+        UserSettings requested = new UserSettings(userId, new UserSettingsGeneral(userId, new Theme(1, null)),
+                testUserSettings.sound());
+        when(userSettingsRepository.findSettingsById(userId)).thenReturn(Optional.of(testUserSettings));
+
+        // Act
+        UserSettings result = userUpdater.updateSettings(requested);
+
+        // Assert
+        assertSame(testUserSettings, result);
+        verify(userSettingsRepository, never()).writeSettings(any(), anyBoolean(), anyBoolean(), any());
+        verify(userRepository, never()).updateUserUpdatedAt(anyLong());
+        verify(userCache, never()).update(anyLong(), any());
+    }
+
+    @Test
+    void updateSettings_enabledWriteBuffer_shouldSubmitWithoutWriting() {
+        // Arrange
+        when(writeBuffer.isEnabled()).thenReturn(true);
+        when(writeBuffer.submit(testUserSettings)).thenReturn(testUserSettings);
+
+        // Act
+        UserSettings result = userUpdater.updateSettings(testUserSettings);
+
+        // Assert
+        assertSame(testUserSettings, result);
+        verify(writeBuffer, times(1)).submit(testUserSettings);
+        verify(userSettingsRepository, never()).writeSettings(any(), anyBoolean(), anyBoolean(), any());
+        verify(userRepository, never()).updateUserUpdatedAt(anyLong());
+    }
+
+    @Test
+    void patchSettings_changedSound_shouldIncrementOnlySoundVersion() {
+        // Arrange
+        when(userSettingsRepository.findVersionById(userId)).thenReturn(Optional.of(new SettingsVersion(5, 2, 5)));
+        when(userSettingsRepository.findSettingsById(userId)).thenReturn(Optional.of(testUserSettings));
+        when(userSettingsRepository.writeSettings(any(UserSettings.class), eq(false), eq(true), eq(5L)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        VersionedSettings result = userUpdater.patchSettings(soundPatch(5L, 40));
+
+        // Assert
+        assertEquals(new SettingsVersion(6, 2, 6), result.version());
+        assertEquals(40, result.settings().sound().volumeMaster());
+        assertEquals(70, result.settings().sound().volumeMusic());
+        verify(userRepository, times(1)).updateUserUpdatedAt(userId);
+        verify(userCache, times(1)).update(eq(userId.longValue()), any());
+        verifyNoInteractions(themeRepository);
+    }
+
+    @Test
+    void patchSettings_unchangedValues_shouldNotWrite() {
+        // Arrange
+        when(userSettingsRepository.findVersionById(userId)).thenReturn(Optional.of(new SettingsVersion(5, 2, 5)));
+        when(userSettingsRepository.findSettingsById(userId)).thenReturn(Optional.of(testUserSettings));
+
+        // Act
+        VersionedSettings result = userUpdater.patchSettings(soundPatch(null, 80));
+
+        // Assert
+        assertEquals(new SettingsVersion(5, 2, 5), result.version());
+        verify(userSettingsRepository, never()).writeSettings(any(), anyBoolean(), anyBoolean(), any());
+        verify(userRepository, never()).updateUserUpdatedAt(anyLong());
+    }
+
+    @Test
+    void patchSettings_staleExpectedVersion_shouldThrowConflict() {
+        // Arrange
+        when(userSettingsRepository.findVersionById(userId)).thenReturn(Optional.of(new SettingsVersion(5, 2, 5)));
+        when(userSettingsRepository.findSettingsById(userId)).thenReturn(Optional.of(testUserSettings));
+
+        // Act & Assert
+        assertThrows(SettingsVersionConflictException.class, () -> userUpdater.patchSettings(soundPatch(4L, 40)));
+        verify(userSettingsRepository, never()).writeSettings(any(), anyBoolean(), anyBoolean(), any());
+    }
+
+    @Test
+    void updateSettings_expectedVersion_shouldWriteConditionallyAndReturnNextVersion() {
+        // Arrange
+        when(userSettingsRepository.findVersionById(userId)).thenReturn(Optional.of(new SettingsVersion(5, 2, 5)));
+        when(userSettingsRepository.writeSettings(testUserSettings, true, true, 5L)).thenReturn(testUserSettings);
+
+        // Act
+        VersionedSettings result = userUpdater.updateSettings(testUserSettings, 5L);
+
+        // Assert
+        assertEquals(new SettingsVersion(6, 6, 6), result.version());
+        assertSame(testUserSettings, result.settings());
+        verify(userRepository, times(1)).updateUserUpdatedAt(userId);
+        verify(userCache, times(1)).update(eq(userId.longValue()), any());
+    }
+
+    @Test
+    void updateSettings_concurrentWrite_shouldThrowConflict() {
+        // Arrange
+        when(userSettingsRepository.findVersionById(userId)).thenReturn(Optional.of(new SettingsVersion(5, 2, 5)));
+        when(userSettingsRepository.writeSettings(testUserSettings, true, true, 5L)).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(SettingsVersionConflictException.class, () -> userUpdater.updateSettings(testUserSettings, 5L));
+        verify(userRepository, never()).updateUserUpdatedAt(anyLong());
+        verify(userCache, never()).update(anyLong(), any());
+    }
+
+    @Test
+    void updateProfile_unchangedValuesWithExpectedVersion_shouldReturnProfileWithoutConflict() {
+        // Arrange
+        ProfileUpdateRequest request = ProfileUpdateRequest.builder()
+                .userId(userId)
+                .lastName("Doe")
+                .expectedVersion(3L)
+                .build();
+        when(userRepository.findProfileVersionById(userId)).thenReturn(Optional.of(3L));
+        when(userRepository.updateProfileFields(userId, null, "Doe", null, null, null, 3L)).thenReturn(0);
+        when(userRepository.findProfileViewById(userId, UserFieldSet.PROFILE)).thenReturn(Optional.of(testProfileView));
+
+        // Act
+        VersionedProfile result = userUpdater.updateProfile(request);
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(3L, result.version());
+        verify(userCache, never()).invalidate(anyLong());
+    }
+
+    @Test
+    void updateProfile_writtenWithExpectedVersion_shouldReturnNextVersionWithoutReadingItBack() {
+        // Arrange
+        ProfileUpdateRequest request = ProfileUpdateRequest.builder()
+                .userId(userId)
+                .lastName("Smith")
+                .expectedVersion(3L)
+                .build();
+        when(userRepository.findProfileVersionById(userId)).thenReturn(Optional.of(3L));
+        when(userRepository.updateProfileFields(userId, null, "Smith", null, null, null, 3L)).thenReturn(1);
+        when(userRepository.findProfileViewById(userId, UserFieldSet.PROFILE)).thenReturn(Optional.of(testProfileView));
+
+        // Act
+        VersionedProfile result = userUpdater.updateProfile(request);
+
+        // Assert
+        assertEquals(4L, result.version());
+        verify(userRepository, times(1)).findProfileVersionById(userId);
+        verify(userCache, times(1)).invalidate(userId);
+    }
+
+    @Test
+    void updateProfile_staleExpectedVersion_shouldThrowConflictAndInvalidateCachedUser() {
+        // Arrange
+        ProfileUpdateRequest request = ProfileUpdateRequest.builder()
+                .userId(userId)
+                .lastName("Smith")
+                .expectedVersion(3L)
+                .build();
+        when(userRepository.findProfileVersionById(userId)).thenReturn(Optional.of(4L));
+
+        // Act & Assert
+        assertThrows(ProfileVersionConflictException.class, () -> userUpdater.updateProfile(request));
+        verify(userRepository, never()).updateProfileFields(
+                anyLong(), any(), any(), any(), any(), any(), any());
+        verify(userCache, times(1)).invalidate(userId);
     }
 
     @Test
@@ -233,7 +423,7 @@ class UserUpdaterImplTest {
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> userUpdater.updateSettings(settingsWithMismatchedIds));
         
         assertEquals("User IDs in settings do not match!", exception.getMessage());
-        verify(userSettingsRepository, never()).save(any(UserSettingsEntity.class));
+        verify(userSettingsRepository, never()).writeSettings(any(), anyBoolean(), anyBoolean(), any());
         verify(userRepository, never()).updateUserUpdatedAt(anyLong());
     }
 
@@ -248,8 +438,12 @@ class UserUpdaterImplTest {
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> userUpdater.updateSettings(settingsWithMismatchedIds));
         
         assertEquals("User IDs in settings do not match!", exception.getMessage());
-        verify(userSettingsRepository, never()).save(any(UserSettingsEntity.class));
+        verify(userSettingsRepository, never()).writeSettings(any(), anyBoolean(), anyBoolean(), any());
         verify(userRepository, never()).updateUserUpdatedAt(anyLong());
     }
 
+    private UserSettingsPatch soundPatch(Long expectedVersion, int volumeMaster) {
+        return new UserSettingsPatch(userId, expectedVersion, null, null, null, volumeMaster, null, null, null);
+    }
+
 }
@@ -0,0 +1,49 @@
+package pl.derleta.nebula.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_addedValues_shouldAlwaysReturnTrue() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        IntStream.range(0, 1000).forEach(i -> filter.put("user" + i));
+
+        // Act & Assert
+        IntStream.range(0, 1000).forEach(i -> assertTrue(filter.mightContain("user" + i)));
+    }
+
+    @Test
+    void mightContain_notAddedValues_shouldStayNearFalsePositiveRate() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        IntStream.range(0, 1000).forEach(i -> filter.put("user" + i));
+
+        // Act
+        long falsePositives = IntStream.range(0, 10000).filter(i -> filter.mightContain("other" + i)).count();
+
+        // Assert
+        assertTrue(falsePositives < 300, "False positives: " + falsePositives);
+    }
+
+    @Test
+    void mightContain_emptyFilter_shouldReturnFalse() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10, 0.01);
+
+        // Act & Assert
+        assertFalse(filter.mightContain("user"));
+    }
+
+    @Test
+    void constructor_invalidFalsePositiveRate_shouldThrowIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1.0));
+    }
+
+}
@@ -0,0 +1,89 @@
+package pl.derleta.nebula.util;
+
+import org.junit.jupiter.api.Test;
+import pl.derleta.nebula.domain.model.UserFieldSet;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagUtilTest {
+
+    private final Instant updatedAt = Instant.parse("2024-01-01T10:00:00.000123Z");
+
+    @Test
+    void userETag_sameVersion_shouldBeEqual() {
+        // Act & Assert
+        assertEquals(ETagUtil.userETag(1L, updatedAt, 7, UserFieldSet.ALL),
+                ETagUtil.userETag(1L, updatedAt, 7, UserFieldSet.ALL));
+    }
+
+    @Test
+    void userETag_shouldBeQuotedStrongTag() {
+        // Act
+        String etag = ETagUtil.userETag(1L, updatedAt, 7, UserFieldSet.ALL);
+
+        // Assert
+        assertTrue(etag.startsWith("\"1-"));
+        assertTrue(etag.endsWith("\""));
+    }
+
+    @Test
+    void userETag_microsecondUpdate_shouldChangeTag() {
+        // Act & Assert
+        assertNotEquals(ETagUtil.userETag(1L, updatedAt, 7, UserFieldSet.ALL),
+                ETagUtil.userETag(1L, updatedAt.plusNanos(1_000), 7, UserFieldSet.ALL));
+    }
+
+    @Test
+    void userETag_catalogueChange_shouldChangeTag() {
+        // Act & Assert
+        assertNotEquals(ETagUtil.userETag(1L, updatedAt, 7, UserFieldSet.ALL),
+                ETagUtil.userETag(1L, updatedAt, 8, UserFieldSet.ALL));
+    }
+
+    @Test
+    void userETag_sparseFields_shouldDifferFromFullRepresentation() {
+        // Act & Assert
+        assertNotEquals(ETagUtil.userETag(1L, updatedAt, 7, UserFieldSet.ALL),
+                ETagUtil.userETag(1L, updatedAt, 7, UserFieldSet.parse("login")));
+    }
+
+    @Test
+    void userETag_pendingSettings_shouldChangeTag() {
+        // Act & Assert
+        assertNotEquals(ETagUtil.userETag(1L, updatedAt, 7, UserFieldSet.ALL),
+                ETagUtil.userETag(1L, updatedAt, 7, UserFieldSet.ALL, "a1"));
+        assertNotEquals(ETagUtil.userETag(1L, updatedAt, 7, UserFieldSet.ALL, "a1"),
+                ETagUtil.userETag(1L, updatedAt, 7, UserFieldSet.ALL, "a2"));
+    }
+
+    @Test
+    void userETag_nullUpdatedAt_shouldBuildTag() {
+        // Act & Assert
+        assertNotNull(ETagUtil.userETag(1L, null, 7, UserFieldSet.ALL));
+    }
+
+    @Test
+    void contentETag_shouldDependOnContentAndResource() {
+        // Act & Assert
+        assertEquals(ETagUtil.contentETag(1L, "games", List.of("a")), ETagUtil.contentETag(1L, "games", List.of("a")));
+        assertNotEquals(ETagUtil.contentETag(1L, "games", List.of("a")), ETagUtil.contentETag(1L, "games", List.of("b")));
+        assertNotEquals(ETagUtil.contentETag(1L, "games", List.of()), ETagUtil.contentETag(1L, "settings", List.of()));
+        assertTrue(ETagUtil.contentETag(1L, "games", null).startsWith("\"1-games-"));
+    }
+
+    @Test
+    void matches_shouldHandleListsWildcardsAndWeakTags() {
+        // Act & Assert
+        assertTrue(ETagUtil.matches("\"a\"", "\"a\""));
+        assertTrue(ETagUtil.matches("\"b\", \"a\"", "\"a\""));
+        assertTrue(ETagUtil.matches("W/\"a\"", "\"a\""));
+        assertTrue(ETagUtil.matches("*", "\"a\""));
+        assertFalse(ETagUtil.matches("\"b\"", "\"a\""));
+        assertFalse(ETagUtil.matches(null, "\"a\""));
+        assertFalse(ETagUtil.matches(" ", "\"a\""));
+    }
+
+}
@@ -0,0 +1,78 @@
+package pl.derleta.nebula.util;
+
+import org.junit.jupiter.api.Test;
+import pl.derleta.nebula.exceptions.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelUtilTest {
+
+    @Test
+    void awaitAll_allTasksComplete_shouldReturn() {
+        // Arrange
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> 1, executor);
+        CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() -> 2, executor);
+
+        // Act
+        ParallelUtil.awaitAll(executor, Duration.ofSeconds(5), first, second);
+
+        // Assert
+        assertEquals(3, first.join() + second.join());
+        executor.shutdown();
+    }
+
+    @Test
+    void awaitAll_failingTask_shouldFailFastAndInterruptOthers() throws InterruptedException {
+        // Arrange
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        }, executor);
+        CompletableFuture<Void> failing = CompletableFuture.runAsync(() -> {
+            throw new IllegalArgumentException("failed");
+        }, executor);
+
+        // Act
+        long start = System.nanoTime();
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> ParallelUtil.awaitAll(executor, Duration.ofSeconds(5), slow, failing));
+
+        // Assert
+        assertEquals("failed", exception.getMessage());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5000);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(slow.isCancelled());
+    }
+
+    @Test
+    void awaitAll_deadlinePassed_shouldThrowDeadlineExceededException() {
+        // Arrange
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, executor);
+
+        // Act & Assert
+        assertThrows(DeadlineExceededException.class,
+                () -> ParallelUtil.awaitAll(executor, Duration.ofMillis(50), slow));
+        assertTrue(executor.isShutdown());
+    }
+
+}
@@ -0,0 +1,83 @@
+package pl.derleta.nebula.util;
+
+import org.junit.jupiter.api.Test;
+import pl.derleta.nebula.controller.request.AccountRegistrationRequest;
+
+import java.sql.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegistrationRecordParserTest {
+
+    @Test
+    void fromJson_validRecord_shouldParseAllFields() {
+        // Arrange
+        String line = "{\"login\":\"user1\",\"email\":\"user1@example.com\",\"password\":\"secret\","
+                + "\"birthdate\":\"1990-05-01\",\"nationality\":3,\"gender\":2}";
+
+        // Act
+        AccountRegistrationRequest request = RegistrationRecordParser.fromJson(line);
+
+        // Assert
+        assertEquals("user1", request.getLogin());
+        assertEquals("user1@example.com", request.getEmail());
+        assertEquals("secret", request.getPassword());
+        assertEquals(Date.valueOf("1990-05-01"), request.getBirthdate());
+        assertEquals(3, request.getNationality());
+        assertEquals(2, request.getGender());
+    }
+
+    @Test
+    void fromJson_invalidJson_shouldThrowIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> RegistrationRecordParser.fromJson("{login:"));
+    }
+
+    @Test
+    void fromCsv_headerWithDifferentOrder_shouldResolveColumns() {
+        // Arrange
+        int[] positions = RegistrationRecordParser.csvHeader("email, login,password,gender,nationality,birthdate");
+
+        // Act
+        AccountRegistrationRequest request = RegistrationRecordParser.fromCsv(
+                "user2@example.com,user2,secret,1,7,2001-12-24", positions);
+
+        // Assert
+        assertEquals("user2", request.getLogin());
+        assertEquals("user2@example.com", request.getEmail());
+        assertEquals(Date.valueOf("2001-12-24"), request.getBirthdate());
+        assertEquals(7, request.getNationality());
+        assertEquals(1, request.getGender());
+    }
+
+    @Test
+    void fromCsv_missingOptionalColumns_shouldLeaveFieldsNull() {
+        // Arrange
+        int[] positions = RegistrationRecordParser.csvHeader("login,email");
+
+        // Act
+        AccountRegistrationRequest request = RegistrationRecordParser.fromCsv("user3,user3@example.com", positions);
+
+        // Assert
+        assertNull(request.getPassword());
+        assertNull(request.getBirthdate());
+        assertNull(request.getNationality());
+    }
+
+    @Test
+    void fromCsv_invalidNumber_shouldThrowIllegalArgumentException() {
+        // Arrange
+        int[] positions = RegistrationRecordParser.csvHeader("login,email,password,birthdate,nationality,gender");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> RegistrationRecordParser.fromCsv("user4,user4@example.com,secret,1990-01-01,x,1", positions));
+    }
+
+    @Test
+    void csvHeader_withoutLogin_shouldThrowIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> RegistrationRecordParser.csvHeader("email,password"));
+    }
+
+}
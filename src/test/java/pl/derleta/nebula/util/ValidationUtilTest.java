@@ -212,4 +212,20 @@ public class ValidationUtilTest {
         assertTrue(result, "The email should be valid when it contains numbers.");
     }
 
+    @Test
+    public void isValidLogin_withValidLogin_shouldReturnTrue() {
+        // Act
+        boolean result = ValidationUtil.isValidLogin("star.pilot_01");
+
+        // Assert
+        assertTrue(result, "The login should be valid.");
+    }
+
+    @Test
+    public void isValidLogin_withWhitespaceOrTooShort_shouldReturnFalse() {
+        // Act & Assert
+        assertFalse(ValidationUtil.isValidLogin("star pilot"), "The login is invalid because it contains a space.");
+        assertFalse(ValidationUtil.isValidLogin("ab"), "The login is invalid because it is too short.");
+    }
+
 }